@@ -0,0 +1,55 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
+import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineBandwidthLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.filter.BandwidthLimiterFilter;
+import jakarta.servlet.Filter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * The bandwidth limiter is a token bucket of its own, not a bean, so it does not replace the token bucket rate limiter
+ * of the requests. It is only loaded by the servlet applications.
+ */
+@Configuration
+@ConditionalOnClass({Filter.class, CaffeineTokenBucketRateLimiter.class})
+@ConditionalOnProperty(prefix = "ratelimit4j.caffeine.bandwidth", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties({CaffeineBandwidthLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class CaffeineBandwidthLimiterAutoconfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "bandwidthLimiterFilter")
+    public FilterRegistrationBean<BandwidthLimiterFilter> bandwidthLimiterFilter(CaffeineBandwidthLimiterProperties caffeineBandwidthLimiterProperties,
+                                                                                SpringBootRateLimiterProperties springBootRateLimiterProperties) {
+        long bucketSize = CaffeineBandwidthLimiterProperties.DEFAULT_BUCKET_SIZE;
+        long refillPeriodInMilliSeconds = CaffeineBandwidthLimiterProperties.DEFAULT_REFILL_PERIOD_IN_MILLISECS;
+        int chunkSize = CaffeineBandwidthLimiterProperties.DEFAULT_CHUNK_SIZE;
+
+        if (caffeineBandwidthLimiterProperties.getBucketSize() != null) {
+            bucketSize = caffeineBandwidthLimiterProperties.getBucketSize();
+        }
+
+        if (caffeineBandwidthLimiterProperties.getRefillPeriodInMilliSeconds() != null) {
+            refillPeriodInMilliSeconds = caffeineBandwidthLimiterProperties.getRefillPeriodInMilliSeconds();
+        }
+
+        if (caffeineBandwidthLimiterProperties.getChunkSize() != null) {
+            chunkSize = caffeineBandwidthLimiterProperties.getChunkSize();
+        }
+
+        CaffeineTokenBucketRateLimiter bandwidthLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(
+                bucketSize, bucketSize, Duration.ofMillis(refillPeriodInMilliSeconds), TokenBucketRefillStrategy.CONTINUOUS));
+        return new FilterRegistrationBean<>(new BandwidthLimiterFilter(springBootRateLimiterProperties, bandwidthLimiter, chunkSize));
+    }
+
+}
@@ -0,0 +1,71 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineCompositeRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
+import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineCompositeRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnClass(CaffeineCompositeRateLimiter.class)
+@EnableConfigurationProperties({CaffeineCompositeRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class CaffeineCompositeRateLimiterAutoconfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CompositeRateLimiterConfig compositeRateLimiterConfig(CaffeineCompositeRateLimiterProperties caffeineCompositeRateLimiterProperties) {
+        List<CompositeRateLimiterConfig.Limit> limits = new ArrayList<>();
+
+        if (caffeineCompositeRateLimiterProperties != null && caffeineCompositeRateLimiterProperties.getLimits() != null) {
+            for (CaffeineCompositeRateLimiterProperties.LimitProperties limitProperties : caffeineCompositeRateLimiterProperties.getLimits()) {
+                long numberOfRequests = limitProperties.getNumberOfRequests() != null
+                        ? limitProperties.getNumberOfRequests()
+                        : CaffeineCompositeRateLimiterProperties.DEFAULT_NUMBER_OF_REQUESTS;
+                long windowSize = limitProperties.getWindowSize() != null
+                        ? limitProperties.getWindowSize()
+                        : CaffeineCompositeRateLimiterProperties.DEFAULT_WINDOW_SIZE_IN_MILLISECS;
+                limits.add(CompositeRateLimiterConfig.Limit.of(numberOfRequests, windowSize));
+            }
+        }
+
+        if (limits.isEmpty()) {
+            limits.add(CompositeRateLimiterConfig.Limit.of(CaffeineCompositeRateLimiterProperties.DEFAULT_NUMBER_OF_REQUESTS,
+                    CaffeineCompositeRateLimiterProperties.DEFAULT_WINDOW_SIZE_IN_MILLISECS));
+        }
+
+        return new CompositeRateLimiterConfig(limits);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CaffeineCompositeRateLimiter caffeineCompositeRateLimiter(CompositeRateLimiterConfig compositeRateLimiterConfig) {
+        return new CaffeineCompositeRateLimiter(compositeRateLimiterConfig);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringBootRateLimiterProperties springBootRateLimiterProperties = beanFactory.getBean(SpringBootRateLimiterProperties.class);
+        CaffeineCompositeRateLimiter caffeineCompositeRateLimiter = beanFactory.getBean(CaffeineCompositeRateLimiter.class);
+        if (springBootRateLimiterProperties.getLimiterTypes() != null &&
+                springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.COMPOSITE)) {
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(caffeineCompositeRateLimiter));
+        }
+    }
+
+}
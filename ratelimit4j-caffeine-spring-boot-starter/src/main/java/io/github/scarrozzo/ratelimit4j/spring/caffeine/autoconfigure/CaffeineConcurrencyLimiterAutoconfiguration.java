@@ -0,0 +1,37 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineConcurrencyLimiterProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnClass(CaffeineConcurrencyLimiter.class)
+@ConditionalOnProperty(prefix = "ratelimit4j.caffeine.concurrency", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(CaffeineConcurrencyLimiterProperties.class)
+public class CaffeineConcurrencyLimiterAutoconfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(ConcurrencyLimiter.class)
+    public CaffeineConcurrencyLimiter caffeineConcurrencyLimiter(CaffeineConcurrencyLimiterProperties caffeineConcurrencyLimiterProperties) {
+        long maxInFlight = CaffeineConcurrencyLimiterProperties.DEFAULT_MAX_IN_FLIGHT;
+        long leaseTimeoutInMilliSeconds = CaffeineConcurrencyLimiterProperties.DEFAULT_LEASE_TIMEOUT_IN_MILLISECS;
+
+        if (caffeineConcurrencyLimiterProperties.getMaxInFlight() != null) {
+            maxInFlight = caffeineConcurrencyLimiterProperties.getMaxInFlight();
+        }
+
+        if (caffeineConcurrencyLimiterProperties.getLeaseTimeoutInMilliSeconds() != null) {
+            leaseTimeoutInMilliSeconds = caffeineConcurrencyLimiterProperties.getLeaseTimeoutInMilliSeconds();
+        }
+
+        return new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(maxInFlight, leaseTimeoutInMilliSeconds));
+    }
+
+}
@@ -5,7 +5,7 @@ import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiter
 import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
 import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineFixedWindowCounterRateLimiterProperties;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
-import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptor;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -53,7 +53,7 @@ public class CaffeineFixedWindowCounterRateLimiterAutoconfiguration implements W
         CaffeineFixedWindowCounterRateLimiter caffeineFixedWindowCounterRateLimiter = beanFactory.getBean(CaffeineFixedWindowCounterRateLimiter.class);
         if (springBootRateLimiterProperties.getLimiterTypes() != null &&
                 springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.FIXED_WINDOW_COUNTER)) {
-            registry.addInterceptor(new RateLimiterRequestInterceptor<>(springBootRateLimiterProperties, caffeineFixedWindowCounterRateLimiter));
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(caffeineFixedWindowCounterRateLimiter));
         }
     }
 
@@ -0,0 +1,60 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineGcraRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.GcraRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
+import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineGcraRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnClass(CaffeineGcraRateLimiter.class)
+@EnableConfigurationProperties({CaffeineGcraRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class CaffeineGcraRateLimiterAutoconfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GcraRateLimiterConfig gcraRateLimiterConfig(CaffeineGcraRateLimiterProperties caffeineGcraRateLimiterProperties) {
+        long bucketSize = CaffeineGcraRateLimiterProperties.DEFAULT_BUCKET_SIZE;
+        long refillPeriodInMilliSeconds = CaffeineGcraRateLimiterProperties.DEFAULT_REFILL_PERIOD_IN_MILLISECS;
+
+        if (caffeineGcraRateLimiterProperties != null && caffeineGcraRateLimiterProperties.getBucketSize() != null) {
+            bucketSize = caffeineGcraRateLimiterProperties.getBucketSize();
+        }
+
+        if (caffeineGcraRateLimiterProperties != null && caffeineGcraRateLimiterProperties.getRefillPeriodInMilliSeconds() != null) {
+            refillPeriodInMilliSeconds = caffeineGcraRateLimiterProperties.getRefillPeriodInMilliSeconds();
+        }
+
+        return new GcraRateLimiterConfig(bucketSize, refillPeriodInMilliSeconds);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CaffeineGcraRateLimiter caffeineGcraRateLimiter(GcraRateLimiterConfig gcraRateLimiterConfig) {
+        return new CaffeineGcraRateLimiter(gcraRateLimiterConfig);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringBootRateLimiterProperties springBootRateLimiterProperties = beanFactory.getBean(SpringBootRateLimiterProperties.class);
+        CaffeineGcraRateLimiter caffeineGcraRateLimiter = beanFactory.getBean(CaffeineGcraRateLimiter.class);
+        if (springBootRateLimiterProperties.getLimiterTypes() != null &&
+                springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.GCRA)) {
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(caffeineGcraRateLimiter));
+        }
+    }
+
+}
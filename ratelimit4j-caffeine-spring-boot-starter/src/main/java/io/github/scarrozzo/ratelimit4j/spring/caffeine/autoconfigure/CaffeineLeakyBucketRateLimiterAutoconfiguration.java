@@ -5,7 +5,7 @@ import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
 import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
 import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineLeakyBucketRateLimiterProperties;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
-import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptor;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -63,7 +63,7 @@ public class CaffeineLeakyBucketRateLimiterAutoconfiguration implements WebMvcCo
         CaffeineLeakyBucketRateLimiter caffeineLeakyBucketRateLimiter = beanFactory.getBean(CaffeineLeakyBucketRateLimiter.class);
         if (springBootRateLimiterProperties.getLimiterTypes() != null &&
                 springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.LEAKY_BUCKET)) {
-            registry.addInterceptor(new RateLimiterRequestInterceptor<>(springBootRateLimiterProperties, caffeineLeakyBucketRateLimiter));
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(caffeineLeakyBucketRateLimiter));
         }
     }
 
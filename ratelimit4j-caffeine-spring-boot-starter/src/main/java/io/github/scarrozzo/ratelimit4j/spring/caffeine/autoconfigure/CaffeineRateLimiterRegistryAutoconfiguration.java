@@ -0,0 +1,20 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.registry.CaffeineRateLimiterFactory;
+import io.github.scarrozzo.ratelimit4j.core.registry.RateLimiterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnClass(CaffeineRateLimiterFactory.class)
+public class CaffeineRateLimiterRegistryAutoconfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiterRegistry rateLimiterRegistry() {
+        return new RateLimiterRegistry(new CaffeineRateLimiterFactory());
+    }
+
+}
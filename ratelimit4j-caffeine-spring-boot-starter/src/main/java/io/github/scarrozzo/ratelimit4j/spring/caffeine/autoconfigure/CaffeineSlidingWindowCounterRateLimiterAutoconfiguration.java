@@ -0,0 +1,60 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineSlidingWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineSlidingWindowCounterRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnClass(CaffeineSlidingWindowCounterRateLimiter.class)
+@EnableConfigurationProperties({CaffeineSlidingWindowCounterRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class CaffeineSlidingWindowCounterRateLimiterAutoconfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig(CaffeineSlidingWindowCounterRateLimiterProperties caffeineSlidingWindowCounterRateLimiterProperties) {
+        long numberOfRequests = CaffeineSlidingWindowCounterRateLimiterProperties.DEFAULT_NUMBER_OF_REQUESTS;
+        long windowSize = CaffeineSlidingWindowCounterRateLimiterProperties.DEFAULT_WINDOW_SIZE_IN_MILLISECS;
+
+        if (caffeineSlidingWindowCounterRateLimiterProperties != null && caffeineSlidingWindowCounterRateLimiterProperties.getNumberOfRequests() != null) {
+            numberOfRequests = caffeineSlidingWindowCounterRateLimiterProperties.getNumberOfRequests();
+        }
+
+        if (caffeineSlidingWindowCounterRateLimiterProperties != null && caffeineSlidingWindowCounterRateLimiterProperties.getWindowSize() != null) {
+            windowSize = caffeineSlidingWindowCounterRateLimiterProperties.getWindowSize();
+        }
+
+        return new SlidingWindowCounterRateLimiterConfig(windowSize, numberOfRequests);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CaffeineSlidingWindowCounterRateLimiter caffeineSlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig) {
+        return new CaffeineSlidingWindowCounterRateLimiter(slidingWindowCounterRateLimiterConfig);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringBootRateLimiterProperties springBootRateLimiterProperties = beanFactory.getBean(SpringBootRateLimiterProperties.class);
+        CaffeineSlidingWindowCounterRateLimiter caffeineSlidingWindowCounterRateLimiter = beanFactory.getBean(CaffeineSlidingWindowCounterRateLimiter.class);
+        if (springBootRateLimiterProperties.getLimiterTypes() != null &&
+                springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.SLIDING_WINDOW_COUNTER)) {
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(caffeineSlidingWindowCounterRateLimiter));
+        }
+    }
+
+}
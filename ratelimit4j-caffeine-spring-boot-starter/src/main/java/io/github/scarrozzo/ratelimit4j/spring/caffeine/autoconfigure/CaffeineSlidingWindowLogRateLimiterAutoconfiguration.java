@@ -0,0 +1,60 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineSlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineSlidingWindowLogRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnClass(CaffeineSlidingWindowLogRateLimiter.class)
+@EnableConfigurationProperties({CaffeineSlidingWindowLogRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class CaffeineSlidingWindowLogRateLimiterAutoconfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig(CaffeineSlidingWindowLogRateLimiterProperties caffeineSlidingWindowLogRateLimiterProperties) {
+        long numberOfRequests = CaffeineSlidingWindowLogRateLimiterProperties.DEFAULT_NUMBER_OF_REQUESTS;
+        long windowSize = CaffeineSlidingWindowLogRateLimiterProperties.DEFAULT_WINDOW_SIZE_IN_MILLISECS;
+
+        if (caffeineSlidingWindowLogRateLimiterProperties != null && caffeineSlidingWindowLogRateLimiterProperties.getNumberOfRequests() != null) {
+            numberOfRequests = caffeineSlidingWindowLogRateLimiterProperties.getNumberOfRequests();
+        }
+
+        if (caffeineSlidingWindowLogRateLimiterProperties != null && caffeineSlidingWindowLogRateLimiterProperties.getWindowSize() != null) {
+            windowSize = caffeineSlidingWindowLogRateLimiterProperties.getWindowSize();
+        }
+
+        return new SlidingWindowLogRateLimiterConfig(windowSize, numberOfRequests);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CaffeineSlidingWindowLogRateLimiter caffeineSlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig) {
+        return new CaffeineSlidingWindowLogRateLimiter(slidingWindowLogRateLimiterConfig);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringBootRateLimiterProperties springBootRateLimiterProperties = beanFactory.getBean(SpringBootRateLimiterProperties.class);
+        CaffeineSlidingWindowLogRateLimiter caffeineSlidingWindowLogRateLimiter = beanFactory.getBean(CaffeineSlidingWindowLogRateLimiter.class);
+        if (springBootRateLimiterProperties.getLimiterTypes() != null &&
+                springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.SLIDING_WINDOW_LOG)) {
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(caffeineSlidingWindowLogRateLimiter));
+        }
+    }
+
+}
@@ -3,9 +3,10 @@ package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
 import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
 import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
 import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
 import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineTokenBucketRateLimiterProperties;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
-import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptor;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -16,6 +17,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 @ConditionalOnClass(CaffeineTokenBucketRateLimiter.class)
 @EnableConfigurationProperties({CaffeineTokenBucketRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
@@ -29,6 +32,7 @@ public class CaffeineTokenBucketRateLimiterAutoconfiguration implements WebMvcCo
     public TokenBucketRateLimiterConfig bucketRateLimiterConfig(CaffeineTokenBucketRateLimiterProperties caffeineTokenBucketRateLimiterProperties) {
         long bucketSize = CaffeineTokenBucketRateLimiterProperties.DEFAULT_BUCKET_SIZE;
         long refillPeriodInMilliSeconds = CaffeineTokenBucketRateLimiterProperties.DEFAULT_REFILL_PERIOD_IN_MILLISECS;
+        TokenBucketRefillStrategy refillStrategy = CaffeineTokenBucketRateLimiterProperties.DEFAULT_REFILL_STRATEGY;
 
         if (caffeineTokenBucketRateLimiterProperties != null && caffeineTokenBucketRateLimiterProperties.getBucketSize() != null) {
             bucketSize = caffeineTokenBucketRateLimiterProperties.getBucketSize();
@@ -38,7 +42,16 @@ public class CaffeineTokenBucketRateLimiterAutoconfiguration implements WebMvcCo
             refillPeriodInMilliSeconds = caffeineTokenBucketRateLimiterProperties.getRefillPeriodInMilliSeconds();
         }
 
-        return new TokenBucketRateLimiterConfig(bucketSize, refillPeriodInMilliSeconds);
+        long refillTokens = bucketSize;
+        if (caffeineTokenBucketRateLimiterProperties != null && caffeineTokenBucketRateLimiterProperties.getRefillTokens() != null) {
+            refillTokens = caffeineTokenBucketRateLimiterProperties.getRefillTokens();
+        }
+
+        if (caffeineTokenBucketRateLimiterProperties != null && caffeineTokenBucketRateLimiterProperties.getRefillStrategy() != null) {
+            refillStrategy = caffeineTokenBucketRateLimiterProperties.getRefillStrategy();
+        }
+
+        return new TokenBucketRateLimiterConfig(bucketSize, refillTokens, Duration.ofMillis(refillPeriodInMilliSeconds), refillStrategy);
     }
 
     @Bean
@@ -53,7 +66,7 @@ public class CaffeineTokenBucketRateLimiterAutoconfiguration implements WebMvcCo
         CaffeineTokenBucketRateLimiter caffeineTokenBucketRateLimiter = beanFactory.getBean(CaffeineTokenBucketRateLimiter.class);
         if (springBootRateLimiterProperties.getLimiterTypes() != null &&
                 springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.TOKEN_BUCKET)) {
-            registry.addInterceptor(new RateLimiterRequestInterceptor<>(springBootRateLimiterProperties, caffeineTokenBucketRateLimiter));
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(caffeineTokenBucketRateLimiter));
         }
     }
 
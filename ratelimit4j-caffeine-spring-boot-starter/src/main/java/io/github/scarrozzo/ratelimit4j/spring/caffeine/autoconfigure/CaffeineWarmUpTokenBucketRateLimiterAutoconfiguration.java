@@ -0,0 +1,73 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineWarmUpTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
+import io.github.scarrozzo.ratelimit4j.core.config.WarmUpTokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.spring.caffeine.config.CaffeineWarmUpTokenBucketRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnClass(CaffeineWarmUpTokenBucketRateLimiter.class)
+@EnableConfigurationProperties({CaffeineWarmUpTokenBucketRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class CaffeineWarmUpTokenBucketRateLimiterAutoconfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public WarmUpTokenBucketRateLimiterConfig warmUpTokenBucketRateLimiterConfig(CaffeineWarmUpTokenBucketRateLimiterProperties caffeineWarmUpTokenBucketRateLimiterProperties) {
+        long bucketSize = CaffeineWarmUpTokenBucketRateLimiterProperties.DEFAULT_BUCKET_SIZE;
+        long refillPeriodInMilliSeconds = CaffeineWarmUpTokenBucketRateLimiterProperties.DEFAULT_REFILL_PERIOD_IN_MILLISECS;
+        long warmUpPeriodInMilliSeconds = CaffeineWarmUpTokenBucketRateLimiterProperties.DEFAULT_WARM_UP_PERIOD_IN_MILLISECS;
+        double coldFactor = WarmUpTokenBucketRateLimiterConfig.DEFAULT_COLD_FACTOR;
+
+        if (caffeineWarmUpTokenBucketRateLimiterProperties != null && caffeineWarmUpTokenBucketRateLimiterProperties.getBucketSize() != null) {
+            bucketSize = caffeineWarmUpTokenBucketRateLimiterProperties.getBucketSize();
+        }
+
+        if (caffeineWarmUpTokenBucketRateLimiterProperties != null && caffeineWarmUpTokenBucketRateLimiterProperties.getRefillPeriodInMilliSeconds() != null) {
+            refillPeriodInMilliSeconds = caffeineWarmUpTokenBucketRateLimiterProperties.getRefillPeriodInMilliSeconds();
+        }
+
+        if (caffeineWarmUpTokenBucketRateLimiterProperties != null && caffeineWarmUpTokenBucketRateLimiterProperties.getWarmUpPeriodInMilliSeconds() != null) {
+            warmUpPeriodInMilliSeconds = caffeineWarmUpTokenBucketRateLimiterProperties.getWarmUpPeriodInMilliSeconds();
+        }
+
+        if (caffeineWarmUpTokenBucketRateLimiterProperties != null && caffeineWarmUpTokenBucketRateLimiterProperties.getColdFactor() != null) {
+            coldFactor = caffeineWarmUpTokenBucketRateLimiterProperties.getColdFactor();
+        }
+
+        return new WarmUpTokenBucketRateLimiterConfig(bucketSize, Duration.ofMillis(refillPeriodInMilliSeconds),
+                Duration.ofMillis(warmUpPeriodInMilliSeconds), coldFactor);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CaffeineWarmUpTokenBucketRateLimiter caffeineWarmUpTokenBucketRateLimiter(WarmUpTokenBucketRateLimiterConfig warmUpTokenBucketRateLimiterConfig) {
+        return new CaffeineWarmUpTokenBucketRateLimiter(warmUpTokenBucketRateLimiterConfig);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringBootRateLimiterProperties springBootRateLimiterProperties = beanFactory.getBean(SpringBootRateLimiterProperties.class);
+        CaffeineWarmUpTokenBucketRateLimiter caffeineWarmUpTokenBucketRateLimiter = beanFactory.getBean(CaffeineWarmUpTokenBucketRateLimiter.class);
+        if (springBootRateLimiterProperties.getLimiterTypes() != null &&
+                springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.WARM_UP_TOKEN_BUCKET)) {
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(caffeineWarmUpTokenBucketRateLimiter));
+        }
+    }
+
+}
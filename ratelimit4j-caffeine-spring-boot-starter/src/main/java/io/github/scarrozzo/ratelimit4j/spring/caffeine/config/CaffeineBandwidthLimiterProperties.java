@@ -0,0 +1,21 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.config;
+
+import io.github.scarrozzo.ratelimit4j.core.bandwidth.BandwidthThrottle;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit4j.caffeine.bandwidth")
+public class CaffeineBandwidthLimiterProperties {
+
+    // bytes per refill period, refilled continuously
+    public static final long DEFAULT_BUCKET_SIZE = 1_048_576L;
+    public static final long DEFAULT_REFILL_PERIOD_IN_MILLISECS = 1_000L;
+    public static final int DEFAULT_CHUNK_SIZE = BandwidthThrottle.DEFAULT_CHUNK_SIZE;
+
+    private boolean enabled;
+    private Long bucketSize;
+    private Long refillPeriodInMilliSeconds;
+    private Integer chunkSize;
+
+}
@@ -0,0 +1,21 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit4j.caffeine.composite")
+public class CaffeineCompositeRateLimiterProperties {
+    public static final long DEFAULT_NUMBER_OF_REQUESTS = 10L;
+    public static final long DEFAULT_WINDOW_SIZE_IN_MILLISECS = 1_000L;
+
+    private List<LimitProperties> limits;
+
+    @Data
+    public static class LimitProperties {
+        private Long numberOfRequests;
+        private Long windowSize;
+    }
+}
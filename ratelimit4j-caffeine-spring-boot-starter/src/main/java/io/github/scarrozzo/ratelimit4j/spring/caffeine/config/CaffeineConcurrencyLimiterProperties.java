@@ -0,0 +1,17 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit4j.caffeine.concurrency")
+public class CaffeineConcurrencyLimiterProperties {
+
+    public static final long DEFAULT_MAX_IN_FLIGHT = 10L;
+    public static final long DEFAULT_LEASE_TIMEOUT_IN_MILLISECS = 60_000L;
+
+    private boolean enabled;
+    private Long maxInFlight;
+    private Long leaseTimeoutInMilliSeconds;
+
+}
@@ -1,5 +1,6 @@
 package io.github.scarrozzo.ratelimit4j.spring.caffeine.config;
 
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -9,8 +10,12 @@ public class CaffeineTokenBucketRateLimiterProperties {
 
     public static final long DEFAULT_BUCKET_SIZE = 10L;
     public static final long DEFAULT_REFILL_PERIOD_IN_MILLISECS = 1_000L;
+    public static final TokenBucketRefillStrategy DEFAULT_REFILL_STRATEGY = TokenBucketRefillStrategy.INTERVAL;
 
     private Long bucketSize;
     private Long refillPeriodInMilliSeconds;
+    // defaults to the bucket size
+    private Long refillTokens;
+    private TokenBucketRefillStrategy refillStrategy;
 
 }
@@ -0,0 +1,19 @@
+package io.github.scarrozzo.ratelimit4j.spring.caffeine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit4j.caffeine.warmuptokenbucket")
+public class CaffeineWarmUpTokenBucketRateLimiterProperties {
+
+    public static final long DEFAULT_BUCKET_SIZE = 10L;
+    public static final long DEFAULT_REFILL_PERIOD_IN_MILLISECS = 1_000L;
+    public static final long DEFAULT_WARM_UP_PERIOD_IN_MILLISECS = 60_000L;
+
+    private Long bucketSize;
+    private Long refillPeriodInMilliSeconds;
+    private Long warmUpPeriodInMilliSeconds;
+    private Double coldFactor;
+
+}
@@ -0,0 +1,97 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Cache key comparing the content of a binary key, with its hash computed once. The keys created by {@link #of(byte[])}
+ * copy the array, so the caller can reuse it. The lookups of a thread reuse a key referencing the array of the caller
+ * instead, which the key store copies only to create an entry.
+ */
+abstract class ByteArrayKey {
+
+    private static final ThreadLocal<Lookup> LOOKUP_KEYS = ThreadLocal.withInitial(Lookup::new);
+
+    abstract byte[] key();
+
+    abstract int hash();
+
+    static ByteArrayKey of(byte[] key) {
+        checkKey(key);
+        return new Entry(key.clone());
+    }
+
+    /**
+     * @return the lookup key of the thread, to be cleared after the request. The array must not be modified meanwhile
+     */
+    static Lookup lookup(byte[] key) {
+        checkKey(key);
+        return LOOKUP_KEYS.get().reference(key);
+    }
+
+    private static void checkKey(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Invalid key. Key cannot be null");
+        }
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        return this == o || o instanceof ByteArrayKey other && hash() == other.hash() && Arrays.equals(key(), other.key());
+    }
+
+    @Override
+    public final int hashCode() {
+        return hash();
+    }
+
+    private static final class Entry extends ByteArrayKey {
+        private final byte[] key;
+        private final int hash;
+
+        private Entry(byte[] key) {
+            this.key = key;
+            this.hash = Arrays.hashCode(key);
+        }
+
+        @Override
+        byte[] key() {
+            return key;
+        }
+
+        @Override
+        int hash() {
+            return hash;
+        }
+    }
+
+    static final class Lookup extends ByteArrayKey implements KeyStore.ReusableKey {
+        private byte[] key;
+        private int hash;
+
+        private Lookup reference(byte[] key) {
+            this.key = key;
+            this.hash = Arrays.hashCode(key);
+            return this;
+        }
+
+        // the array of the caller is not retained by the thread
+        void clear() {
+            this.key = null;
+        }
+
+        @Override
+        byte[] key() {
+            return key;
+        }
+
+        @Override
+        int hash() {
+            return hash;
+        }
+
+        @Override
+        public Object copy() {
+            return new Entry(key.clone());
+        }
+    }
+}
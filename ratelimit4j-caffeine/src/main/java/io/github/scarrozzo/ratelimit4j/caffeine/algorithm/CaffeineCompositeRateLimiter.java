@@ -0,0 +1,138 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.CompositeRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.util.List;
+
+/**
+ * Each key keeps one theoretical arrival time (TAT) for each limit in a single array, so all the limits are checked
+ * and consumed by one compute: either every TAT moves forward or none of them does.
+ */
+public class CaffeineCompositeRateLimiter extends CompositeRateLimiter {
+
+    private final KeyStore<long[]> cache;
+    // the permits of a request accepted by the smallest limit when its bucket is full
+    private final long maximumPermits;
+
+    public CaffeineCompositeRateLimiter(CompositeRateLimiterConfig rateLimiterConfig) {
+        this(rateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineCompositeRateLimiter(CompositeRateLimiterConfig rateLimiterConfig, TimeSource timeSource) {
+        this(rateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineCompositeRateLimiter(CompositeRateLimiterConfig rateLimiterConfig, CaffeineKeyStore keyStore) {
+        this(rateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineCompositeRateLimiter(CompositeRateLimiterConfig rateLimiterConfig, TimeSource timeSource,
+                                         CaffeineKeyStore keyStore) {
+        super(rateLimiterConfig, timeSource);
+
+        this.maximumPermits = rateLimiterConfig.getLimits().stream()
+                .mapToLong(CompositeRateLimiterConfig.Limit::getNumberOfRequests)
+                .min()
+                .orElse(Long.MAX_VALUE);
+        this.cache = KeyStore.of(timeSource, keyStore, new Expiry<Object, long[]>() {
+            @Override
+            public long expireAfterCreate(Object key, long[] arrivalTimes, long currentTime) {
+                return retention(arrivalTimes, currentTime);
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, long[] arrivalTimes, long currentTime, long currentDuration) {
+                return retention(arrivalTimes, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, long[] arrivalTimes, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        });
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquireKey(ByteArrayKey.of(key), permits);
+    }
+
+    private RateLimiterDecision tryAcquireKey(Object key, long permits) {
+        checkPermits(permits);
+        final RateLimiterDecision[] decision = new RateLimiterDecision[1];
+
+        cache.compute(key, (k, arrivalTimes) -> {
+            long now = timeSource.nanoTime();
+            List<CompositeRateLimiterConfig.Limit> limits = rateLimiterConfig.getLimits();
+            // the TATs of the limits of a limiter with more limits sharing the key are kept
+            long[] newArrivalTimes = arrivalTimes == null || arrivalTimes.length <= limits.size()
+                    ? new long[limits.size()] : arrivalTimes.clone();
+            long remainingPermits = Long.MAX_VALUE;
+            long nanosToNextPermit = 0L;
+            // the request costs more than the smallest limit: it can never be accepted, and its emission time could overflow
+            boolean exceedsLimits = permits > maximumPermits;
+
+            for (int i = 0; i < limits.size(); i++) {
+                CompositeRateLimiterConfig.Limit limit = limits.get(i);
+                // the limits missing from the TATs written by a limiter with fewer limits are full
+                long baseArrivalTime = arrivalTimes == null || i >= arrivalTimes.length ? now : Math.max(arrivalTimes[i], now);
+                remainingPermits = Math.min(remainingPermits,
+                        Math.max(limit.getBurstToleranceInNanoseconds() - (baseArrivalTime - now), 0L) / limit.getEmissionIntervalInNanoseconds());
+                if (!exceedsLimits) {
+                    newArrivalTimes[i] = baseArrivalTime + limit.getEmissionIntervalInNanoseconds() * permits;
+                    // the permits are accepted only when every limit accepts them
+                    nanosToNextPermit = Math.max(nanosToNextPermit, newArrivalTimes[i] - limit.getBurstToleranceInNanoseconds() - now);
+                }
+            }
+
+            if (exceedsLimits || nanosToNextPermit > 0L) {
+                decision[0] = RateLimiterDecision.rejected(remainingPermits, nanosToNextPermit);
+                return arrivalTimes;
+            }
+
+            remainingPermits = Long.MAX_VALUE;
+            for (int i = 0; i < limits.size(); i++) {
+                CompositeRateLimiterConfig.Limit limit = limits.get(i);
+                long limitRemainingPermits = (limit.getBurstToleranceInNanoseconds() - (newArrivalTimes[i] - now)) / limit.getEmissionIntervalInNanoseconds();
+                if (limitRemainingPermits == 0L) {
+                    nanosToNextPermit = Math.max(nanosToNextPermit,
+                            newArrivalTimes[i] + limit.getEmissionIntervalInNanoseconds() - limit.getBurstToleranceInNanoseconds() - now);
+                }
+                remainingPermits = Math.min(remainingPermits, limitRemainingPermits);
+            }
+
+            decision[0] = RateLimiterDecision.allowed(remainingPermits, nanosToNextPermit);
+            return newArrivalTimes;
+        });
+
+        return decision[0];
+    }
+
+    // an entry can be dropped once all its TATs are in the past: a missing key has all the buckets full
+    private static long retention(long[] arrivalTimes, long currentTime) {
+        long latestArrivalTime = currentTime;
+        for (long arrivalTime : arrivalTimes) {
+            latestArrivalTime = Math.max(latestArrivalTime, arrivalTime);
+        }
+
+        return latestArrivalTime - currentTime;
+    }
+
+}
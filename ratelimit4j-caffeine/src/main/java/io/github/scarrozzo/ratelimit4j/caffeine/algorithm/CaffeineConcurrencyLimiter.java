@@ -0,0 +1,167 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.Lease;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Each key splits its slots among striped counters, one per processor at most, so concurrent requests of a hot key
+ * update different cache lines. A request takes a slot from the stripe of its thread and looks at the other stripes
+ * only when that one is full: the requests in flight never exceed the limit, but a request may be rejected while a
+ * slot is being released in a stripe it already looked at.
+ * Leases are kept in memory, so they do not expire: the state of a key is dropped once it had no request in flight for
+ * the lease timeout. Its expiry is updated under the lock of the entry when a stripe takes its first request in flight
+ * or releases its last one, so the requests outliving the timeout keep their slots.
+ */
+public class CaffeineConcurrencyLimiter extends ConcurrencyLimiter {
+
+    // one counter every 64 bytes, so two stripes never share a cache line
+    private static final int PADDING = 8;
+
+    private final KeyStore<Stripes> cache;
+    private final int numberOfStripes;
+
+    public CaffeineConcurrencyLimiter(ConcurrencyLimiterConfig concurrencyLimiterConfig) {
+        this(concurrencyLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineConcurrencyLimiter(ConcurrencyLimiterConfig concurrencyLimiterConfig, TimeSource timeSource) {
+        this(concurrencyLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineConcurrencyLimiter(ConcurrencyLimiterConfig concurrencyLimiterConfig, CaffeineKeyStore keyStore) {
+        this(concurrencyLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineConcurrencyLimiter(ConcurrencyLimiterConfig concurrencyLimiterConfig, TimeSource timeSource,
+                                       CaffeineKeyStore keyStore) {
+        super(concurrencyLimiterConfig);
+
+        this.numberOfStripes = (int) Math.min(concurrencyLimiterConfig.getMaxInFlight(),
+                Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.cache = KeyStore.of(timeSource, keyStore, expireWhenIdle(concurrencyLimiterConfig.getLeaseTimeoutInNanoseconds()));
+    }
+
+    // a key with requests in flight never expires, the reads do not change the expiry set by the last update
+    private static Expiry<Object, Stripes> expireWhenIdle(long leaseTimeoutNanos) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Stripes value, long currentTime) {
+                return value.isIdle() ? leaseTimeoutNanos : Long.MAX_VALUE;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Stripes value, long currentTime, long currentDuration) {
+                return value.isIdle() ? leaseTimeoutNanos : Long.MAX_VALUE;
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Stripes value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Lease> tryAcquire(String key) {
+        checkKey(key);
+        int start = (int) (mix(Thread.currentThread().getId()) % numberOfStripes);
+
+        retry:
+        while (true) {
+            Stripes stripes = cache.get(key, k -> new Stripes());
+            for (int i = 0; i < numberOfStripes; i++) {
+                int stripe = (start + i) % numberOfStripes;
+                long previous = stripes.tryIncrement(stripe);
+                if (previous < 0L) {
+                    continue;
+                }
+
+                // the first request in flight of a stripe pins the key, restoring it if it expired in the meantime
+                if (previous == 0L && cache.compute(key, (k, current) -> current == null ? stripes : current) != stripes) {
+                    // the key expired and was recreated by another request
+                    stripes.decrement(stripe);
+                    continue retry;
+                }
+
+                return Optional.of(new StripeLease(key, stripes, stripe));
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    // spreads the consecutive thread ids over the stripes
+    private static long mix(long threadId) {
+        long hash = threadId * 0x9E3779B97F4A7C15L;
+        return (hash ^ (hash >>> 32)) & Long.MAX_VALUE;
+    }
+
+    private class Stripes {
+        private final AtomicLongArray inFlight = new AtomicLongArray(numberOfStripes * PADDING);
+
+        // the slots are split evenly, the first stripes take the remainder
+        private long capacity(int stripe) {
+            long maxInFlight = concurrencyLimiterConfig.getMaxInFlight();
+            return maxInFlight / numberOfStripes + (stripe < maxInFlight % numberOfStripes ? 1L : 0L);
+        }
+
+        // returns the requests in flight of the stripe before the increment, or -1 if the stripe is full
+        private long tryIncrement(int stripe) {
+            int index = stripe * PADDING;
+            long capacity = capacity(stripe);
+            for (long current = inFlight.get(index); current < capacity; current = inFlight.get(index)) {
+                if (inFlight.compareAndSet(index, current, current + 1L)) {
+                    return current;
+                }
+            }
+
+            return -1L;
+        }
+
+        private long decrement(int stripe) {
+            return inFlight.decrementAndGet(stripe * PADDING);
+        }
+
+        private boolean isIdle() {
+            for (int stripe = 0; stripe < numberOfStripes; stripe++) {
+                if (inFlight.get(stripe * PADDING) != 0L) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private class StripeLease implements Lease {
+        private final String key;
+        private final Stripes stripes;
+        private final int stripe;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private StripeLease(String key, Stripes stripes, int stripe) {
+            this.key = key;
+            this.stripes = stripes;
+            this.stripe = stripe;
+        }
+
+        @Override
+        public void release() {
+            // the last request in flight of a stripe lets the key expire again, once all its stripes are empty
+            if (released.compareAndSet(false, true) && stripes.decrement(stripe) == 0L) {
+                cache.compute(key, (k, current) -> current);
+            }
+        }
+    }
+
+}
@@ -1,69 +1,445 @@
 package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.scarrozzo.ratelimit4j.core.algorithm.FixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
-import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
-import lombok.Getter;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * The counter of the current window of a key is updated with a compare and set after a plain lookup of the key: the
+ * requests of an existing window take no lock and allocate nothing. The cache is only locked to start a new window.
+ * <p>
+ * When the compare and set of a window keeps failing, the key is hot: the permits left in the window are split among
+ * striped cells, one per processor, and each thread takes the permits from its own cell, moving to the other cells
+ * when its cell is exhausted. A request is only accepted with the permits of the cells, so the limit is never
+ * exceeded. Only a request whose permits are spread over many cells locks the window to gather them, and an
+ * exhausted window rejects the requests without a lock. Each new window starts again with a single counter.
+ * <p>
+ * The counter only holds the consumed permits, so the limiters sharing the keys through a named scope evaluate it with
+ * their own limit. The cells hold the permits left by the limit of the limiter that striped the window, they are
+ * adjusted when a limiter with another limit finds them.
+ */
 public class CaffeineFixedWindowCounterRateLimiter extends FixedWindowCounterRateLimiter {
 
-    private final Cache<String, WindowStatus> cache;
+    // failed updates of the counter of a window after which its permits are striped
+    private static final int CONTENTION_THRESHOLD = 16;
+    // the next power of two of the processors
+    private static final int STRIPES = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 2 - 1, 1));
+    // a cell every 128 bytes, so two cells never share a cache line
+    private static final int CELL_PADDING = 16;
+    private final KeyStore<WindowStatus> cache;
 
     public CaffeineFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig) {
-        super(fixedWindowCounterRateLimiterConfig);
+        this(fixedWindowCounterRateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig,
+                                                 TimeSource timeSource) {
+        this(fixedWindowCounterRateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig,
+                                                 CaffeineKeyStore keyStore) {
+        this(fixedWindowCounterRateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig, TimeSource timeSource,
+                                                  CaffeineKeyStore keyStore) {
+        super(fixedWindowCounterRateLimiterConfig, timeSource);
+
+        this.cache = KeyStore.of(timeSource, keyStore,
+                KeyStore.expireAfterWrite(Duration.ofNanos(fixedWindowCounterRateLimiterConfig.getWindowSizeInNanoseconds())));
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public boolean tryAcquirePermits(String key, long permits) {
+        checkPermits(permits);
+        return consume(key, permits, null, false).isAllowed();
+    }
 
-        this.cache = Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMillis(fixedWindowCounterRateLimiterConfig.getWindowSizeInMilliseconds()))
-                .build();
+    @Override
+    public boolean tryAcquire(String key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(key, permits, decision, false).isAllowed();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(LongKey.lookup(key), permits);
     }
 
     @Override
-    public void evaluateRequest(String key) throws RateLimiterException {
-        cache.asMap().compute(key, (k, windowStatus) -> {
-            // a window for this key still does not exist
-            if (windowStatus == null) {
-                return WindowStatus.of(System.currentTimeMillis(), 1L);
-            }
-
-            // we are inside an existing window
-            if ((System.currentTimeMillis() - windowStatus.getTimestamp()) <= rateLimiterConfig.getWindowSizeInMilliseconds()) {
-                // the number of requests for this window has been reached
-                if ((windowStatus.getCounter() + 1L) > rateLimiterConfig.getNumberOfRequests()) {
-                    throw new RateLimiterException();
+    public boolean tryAcquire(long key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(LongKey.lookup(key), permits, decision, false).isAllowed();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        ByteArrayKey.Lookup lookupKey = ByteArrayKey.lookup(key);
+        try {
+            return tryAcquireKey(lookupKey, permits);
+        } finally {
+            lookupKey.clear();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(byte[] key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        ByteArrayKey.Lookup lookupKey = ByteArrayKey.lookup(key);
+        try {
+            return consume(lookupKey, permits, decision, false).isAllowed();
+        } finally {
+            lookupKey.clear();
+        }
+    }
+
+    private RateLimiterDecision tryAcquireKey(Object key, long permits) {
+        checkPermits(permits);
+        return consume(key, permits, null, true);
+    }
+
+    // the decision is written into the given one if not null, otherwise it is returned with its details if detailed
+    private RateLimiterDecision consume(Object key, long permits, MutableRateLimiterDecision decision, boolean detailed) {
+        WindowStatus windowStatus = cache.getIfPresent(key);
+        if (windowStatus != null) {
+            long now = timeSource.nanoTime();
+            if (isCurrent(windowStatus, now)) {
+                return tryIncrement(windowStatus, permits, now, decision, detailed);
+            }
+        }
+
+        final RateLimiterDecision[] outcome = new RateLimiterDecision[1];
+        cache.compute(key, (k, currentWindowStatus) -> {
+            long now = timeSource.nanoTime();
+
+            // another request has started the window in the meantime
+            if (currentWindowStatus != null && isCurrent(currentWindowStatus, now)) {
+                outcome[0] = tryIncrement(currentWindowStatus, permits, now, decision, detailed);
+                return currentWindowStatus;
+            }
+
+            // a window for this key still does not exist or the old window is expired. We can define a new window
+            // the request costs more than a whole window
+            if (permits > rateLimiterConfig.getNumberOfRequests()) {
+                outcome[0] = Decisions.decide(false, rateLimiterConfig.getNumberOfRequests(), 0L, decision, detailed);
+                return currentWindowStatus;
+            }
+
+            outcome[0] = allowed(now, permits, now, decision, detailed);
+            return new WindowStatus(now, permits);
+        });
+
+        return outcome[0];
+    }
+
+    private RateLimiterDecision tryIncrement(WindowStatus windowStatus, long permits, long now,
+                                             MutableRateLimiterDecision decision, boolean detailed) {
+        while (true) {
+            long counter = windowStatus.getCounter();
+            if (counter == WindowStatus.STRIPED) {
+                return tryIncrementStriped(windowStatus, permits, now, decision, detailed);
+            }
+
+            // we are inside an existing window and the number of requests for this window has been reached
+            if ((counter + permits) > rateLimiterConfig.getNumberOfRequests()) {
+                return !Decisions.isDetailed(decision, detailed) ? Decisions.REJECTED
+                        : Decisions.decide(false, Math.max(rateLimiterConfig.getNumberOfRequests() - counter, 0L),
+                        nanosToNextWindow(windowStatus.getTimestamp(), now), decision, detailed);
+            }
+
+            // the request is successful
+            if (windowStatus.compareAndSet(counter, counter + permits)) {
+                return allowed(windowStatus.getTimestamp(), counter + permits, now, decision, detailed);
+            }
+
+            if (STRIPES > 1 && windowStatus.contended() >= CONTENTION_THRESHOLD) {
+                stripe(windowStatus);
+            }
+        }
+    }
+
+    // moves the permits left in the window to the cells, the counter then only tells that the window is striped. The
+    // cells are filled before they are published, a request finding the window striped without its cells waits for them
+    private void stripe(WindowStatus windowStatus) {
+        synchronized (windowStatus) {
+            if (windowStatus.getCells() != null) {
+                return;
+            }
+
+            AtomicLongArray cells = new AtomicLongArray(STRIPES * CELL_PADDING);
+            windowStatus.setStripedLimit(rateLimiterConfig.getNumberOfRequests());
+            long remainingPermits = rateLimiterConfig.getNumberOfRequests() - windowStatus.freeze();
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                cells.set(stripe * CELL_PADDING, remainingPermits <= 0L
+                        ? (stripe == 0 ? remainingPermits : 0L)
+                        : remainingPermits / STRIPES + (stripe < remainingPermits % STRIPES ? 1L : 0L));
+            }
+            windowStatus.setCells(cells);
+        }
+    }
+
+    // the cells hold the permits left by the limit of the limiter that striped the window, the difference with the
+    // limit of this limiter is added to the cells. The cells are published after their limit
+    private void adjustStripedLimit(WindowStatus windowStatus) {
+        synchronized (windowStatus) {
+            AtomicLongArray cells = windowStatus.getCells();
+            if (cells != null && windowStatus.getStripedLimit() != rateLimiterConfig.getNumberOfRequests()) {
+                cells.addAndGet(homeStripe() * CELL_PADDING, rateLimiterConfig.getNumberOfRequests() - windowStatus.getStripedLimit());
+                windowStatus.setStripedLimit(rateLimiterConfig.getNumberOfRequests());
+            }
+        }
+    }
+
+    private RateLimiterDecision tryIncrementStriped(WindowStatus windowStatus, long permits, long now,
+                                                    MutableRateLimiterDecision decision, boolean detailed) {
+        if (windowStatus.getStripedLimit() != rateLimiterConfig.getNumberOfRequests()) {
+            adjustStripedLimit(windowStatus);
+        }
+
+        AtomicLongArray cells = windowStatus.getCells();
+        int home = homeStripe();
+
+        if (cells != null) {
+            for (int i = 0; i < STRIPES; i++) {
+                int cell = ((home + i) & (STRIPES - 1)) * CELL_PADDING;
+                long cellPermits;
+                while ((cellPermits = cells.get(cell)) >= permits) {
+                    if (cells.compareAndSet(cell, cellPermits, cellPermits - permits)) {
+                        return stripedDecision(cells, true, windowStatus.getTimestamp(), now, decision, detailed);
+                    }
                 }
-                // the request is successful
-                else {
-                    return windowStatus.incCounter();
+            }
+
+            // the permits cannot be enough if the cells miss them while no request is holding gathered permits
+            int gathers = windowStatus.getGathers();
+            if ((gathers & 1) == 0 && stripedPermits(cells) < permits && windowStatus.getGathers() == gathers) {
+                return stripedDecision(cells, false, windowStatus.getTimestamp(), now, decision, detailed);
+            }
+        }
+
+        // no cell holds all the permits, but together they could: they are gathered in the home cell
+        boolean allowed;
+        synchronized (windowStatus) {
+            cells = windowStatus.getCells();
+            windowStatus.startGather();
+
+            long gatheredPermits = 0L;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                gatheredPermits += cells.getAndSet(stripe * CELL_PADDING, 0L);
+            }
+            allowed = gatheredPermits >= permits;
+            cells.addAndGet(home * CELL_PADDING, allowed ? gatheredPermits - permits : gatheredPermits);
+
+            windowStatus.endGather();
+        }
+
+        return stripedDecision(cells, allowed, windowStatus.getTimestamp(), now, decision, detailed);
+    }
+
+    private RateLimiterDecision stripedDecision(AtomicLongArray cells, boolean allowed, long windowTimestamp, long now,
+                                                MutableRateLimiterDecision decision, boolean detailed) {
+        if (!Decisions.isDetailed(decision, detailed)) {
+            return allowed ? Decisions.ALLOWED : Decisions.REJECTED;
+        }
+
+        long remainingPermits = Math.max(stripedPermits(cells), 0L);
+        return Decisions.decide(allowed, remainingPermits, remainingPermits > 0L ? 0L : nanosToNextWindow(windowTimestamp, now),
+                decision, detailed);
+    }
+
+    // charges are taken from the cells starting from the home one, a debt is left in the home cell. Refunds cannot
+    // give back more than the permits consumed in the window, so the cells are not gathered in the meantime
+    private void settleStriped(WindowStatus windowStatus, long permits) {
+        int home = homeStripe();
+
+        synchronized (windowStatus) {
+            adjustStripedLimit(windowStatus);
+            AtomicLongArray cells = windowStatus.getCells();
+            if (permits <= 0L) {
+                long refund = Math.min(-permits, rateLimiterConfig.getNumberOfRequests() - stripedPermits(cells));
+                if (refund > 0L) {
+                    cells.addAndGet(home * CELL_PADDING, refund);
                 }
+                return;
             }
-            // old window is expired. We can define a new window
-            else {
-                return WindowStatus.of(System.currentTimeMillis(), 1L);
+
+            long charge = permits;
+            for (int i = 0; i < STRIPES && charge > 0L; i++) {
+                int cell = ((home + i) & (STRIPES - 1)) * CELL_PADDING;
+                long cellPermits;
+                while ((cellPermits = cells.get(cell)) > 0L) {
+                    long taken = Math.min(cellPermits, charge);
+                    if (cells.compareAndSet(cell, cellPermits, cellPermits - taken)) {
+                        charge -= taken;
+                        break;
+                    }
+                }
             }
-        });
+
+            if (charge > 0L) {
+                cells.addAndGet(home * CELL_PADDING, -charge);
+            }
+        }
+    }
+
+    private static long stripedPermits(AtomicLongArray cells) {
+        long permits = 0L;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            permits += cells.get(stripe * CELL_PADDING);
+        }
+        return permits;
+    }
+
+    // a thread always starts from the same cell
+    private static int homeStripe() {
+        return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+
+    @Override
+    public boolean supportsSettlement() {
+        return true;
+    }
+
+    /**
+     * Settles the permits in the current window only, the cost of a request of an expired window is dropped.
+     */
+    @Override
+    public void settle(String key, long permits) {
+        WindowStatus windowStatus = cache.getIfPresent(key);
+        if (windowStatus == null || !isCurrent(windowStatus, timeSource.nanoTime())) {
+            return;
+        }
+
+        while (true) {
+            long counter = windowStatus.getCounter();
+            if (counter == WindowStatus.STRIPED) {
+                settleStriped(windowStatus, permits);
+                return;
+            }
+
+            if (windowStatus.compareAndSet(counter, counter + Math.max(permits, -counter))) {
+                return;
+            }
+        }
+    }
+
+    private boolean isCurrent(WindowStatus windowStatus, long now) {
+        return (now - windowStatus.getTimestamp()) < rateLimiterConfig.getWindowSizeInNanoseconds();
+    }
+
+    private RateLimiterDecision allowed(long windowTimestamp, long counter, long now, MutableRateLimiterDecision decision,
+                                        boolean detailed) {
+        if (!Decisions.isDetailed(decision, detailed)) {
+            return Decisions.ALLOWED;
+        }
+
+        long remainingPermits = rateLimiterConfig.getNumberOfRequests() - counter;
+        return Decisions.decide(true, remainingPermits, remainingPermits > 0L ? 0L : nanosToNextWindow(windowTimestamp, now),
+                decision, detailed);
+    }
+
+    private long nanosToNextWindow(long windowTimestamp, long now) {
+        return windowTimestamp + rateLimiterConfig.getWindowSizeInNanoseconds() - now;
     }
 
-    @Getter
     private static class WindowStatus {
+        // the counter of a window whose permits are in the cells
+        private static final long STRIPED = Long.MIN_VALUE;
+        private static final VarHandle COUNTER;
+        private static final VarHandle CONTENTION;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                COUNTER = lookup.findVarHandle(WindowStatus.class, "counter", long.class);
+                CONTENTION = lookup.findVarHandle(WindowStatus.class, "contention", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
         private final long timestamp;
-        private long counter;
+        private volatile long counter;
+        private volatile int contention;
+        private volatile AtomicLongArray cells;
+        // the limit of the permits put in the cells
+        private volatile long stripedLimit;
+        // odd while a request holds the permits gathered from the cells, only changed holding the lock of the window
+        private volatile int gathers;
 
         private WindowStatus(long timestamp, long counter) {
             this.timestamp = timestamp;
             this.counter = counter;
         }
 
-        public static WindowStatus of(long timestamp, long counter) {
-            return new WindowStatus(timestamp, counter);
+        private long getTimestamp() {
+            return timestamp;
+        }
+
+        private long getCounter() {
+            return counter;
+        }
+
+        private boolean compareAndSet(long expectedCounter, long newCounter) {
+            return COUNTER.compareAndSet(this, expectedCounter, newCounter);
+        }
+
+        /**
+         * @return the counter before the window was striped
+         */
+        private long freeze() {
+            return (long) COUNTER.getAndSet(this, STRIPED);
+        }
+
+        /**
+         * @return the failed updates of the counter, this one included
+         */
+        private int contended() {
+            return (int) CONTENTION.getAndAdd(this, 1) + 1;
+        }
+
+        private AtomicLongArray getCells() {
+            return cells;
+        }
+
+        private void setCells(AtomicLongArray newCells) {
+            this.cells = newCells;
+        }
+
+        private long getStripedLimit() {
+            return stripedLimit;
+        }
+
+        private void setStripedLimit(long stripedLimit) {
+            this.stripedLimit = stripedLimit;
+        }
+
+        private int getGathers() {
+            return gathers;
+        }
+
+        private void startGather() {
+            gathers++;
         }
 
-        public WindowStatus incCounter() {
-            this.counter++;
-            return this;
+        private void endGather() {
+            gathers++;
         }
     }
 }
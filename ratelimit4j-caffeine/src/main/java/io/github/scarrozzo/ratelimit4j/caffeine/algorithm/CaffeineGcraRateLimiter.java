@@ -0,0 +1,144 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.GcraRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.GcraRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Each key only keeps its theoretical arrival time (TAT), the instant at which the bucket would be full again.
+ * The TAT is updated with a compare and set loop, so the map is only read on the hot path.
+ */
+public class CaffeineGcraRateLimiter extends GcraRateLimiter {
+
+    private final KeyStore<AtomicLong> cache;
+    private final Function<Object, AtomicLong> arrivalTimeFactory;
+
+    public CaffeineGcraRateLimiter(GcraRateLimiterConfig rateLimiterConfig) {
+        this(rateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineGcraRateLimiter(GcraRateLimiterConfig rateLimiterConfig, TimeSource timeSource) {
+        this(rateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineGcraRateLimiter(GcraRateLimiterConfig rateLimiterConfig, CaffeineKeyStore keyStore) {
+        this(rateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineGcraRateLimiter(GcraRateLimiterConfig rateLimiterConfig, TimeSource timeSource,
+                                    CaffeineKeyStore keyStore) {
+        super(rateLimiterConfig, timeSource);
+
+        this.arrivalTimeFactory = k -> new AtomicLong(timeSource.nanoTime());
+        this.cache = KeyStore.of(timeSource, keyStore, new Expiry<Object, AtomicLong>() {
+            @Override
+            public long expireAfterCreate(Object key, AtomicLong arrivalTime, long currentTime) {
+                return retention(arrivalTime, currentTime);
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, AtomicLong arrivalTime, long currentTime, long currentDuration) {
+                return retention(arrivalTime, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, AtomicLong arrivalTime, long currentTime, long currentDuration) {
+                return retention(arrivalTime, currentTime);
+            }
+        });
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquireKey(ByteArrayKey.of(key), permits);
+    }
+
+    private RateLimiterDecision tryAcquireKey(Object key, long permits) {
+        checkPermits(permits);
+        long emissionInterval = rateLimiterConfig.getEmissionIntervalInNanoseconds();
+        long tolerance = rateLimiterConfig.getBurstToleranceInNanoseconds();
+        AtomicLong arrivalTime = cache.get(key, arrivalTimeFactory);
+
+        while (true) {
+            long now = timeSource.nanoTime();
+            long currentArrivalTime = arrivalTime.get();
+            long baseArrivalTime = Math.max(currentArrivalTime, now);
+
+            // the request costs more than a whole bucket: it can never be accepted, and its emission time could overflow
+            if (permits > rateLimiterConfig.getBucketSize()) {
+                return RateLimiterDecision.rejected(Math.max(tolerance - (baseArrivalTime - now), 0L) / emissionInterval, 0L);
+            }
+
+            long newArrivalTime = baseArrivalTime + emissionInterval * permits;
+            long allowAt = newArrivalTime - tolerance;
+
+            if (allowAt > now) {
+                return RateLimiterDecision.rejected(Math.max(tolerance - (baseArrivalTime - now), 0L) / emissionInterval, allowAt - now);
+            }
+
+            if (arrivalTime.compareAndSet(currentArrivalTime, newArrivalTime)) {
+                long remainingPermits = (tolerance - (newArrivalTime - now)) / emissionInterval;
+                return RateLimiterDecision.allowed(remainingPermits,
+                        remainingPermits > 0L ? 0L : newArrivalTime + emissionInterval - tolerance - now);
+            }
+        }
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        checkPermits(permits);
+        if (permits > rateLimiterConfig.getBucketSize()) {
+            return -1L;
+        }
+
+        long emissionInterval = rateLimiterConfig.getEmissionIntervalInNanoseconds();
+        long tolerance = rateLimiterConfig.getBurstToleranceInNanoseconds();
+        AtomicLong arrivalTime = cache.get(key, arrivalTimeFactory);
+
+        while (true) {
+            long now = timeSource.nanoTime();
+            long currentArrivalTime = arrivalTime.get();
+            long newArrivalTime = Math.max(currentArrivalTime, now) + emissionInterval * permits;
+            long nanosToWait = Math.max(newArrivalTime - tolerance - now, 0L);
+
+            if (nanosToWait > timeoutNanos) {
+                return -1L;
+            }
+
+            if (arrivalTime.compareAndSet(currentArrivalTime, newArrivalTime)) {
+                return nanosToWait;
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    // an entry can be dropped once its TAT is in the past: a missing key is a full bucket.
+    // Every update moves the TAT at most one tolerance ahead of the previous TAT (or of now), so an entry read before
+    // the update is kept long enough
+    private long retention(AtomicLong arrivalTime, long currentTime) {
+        return Math.max(arrivalTime.get() - currentTime, 0L) + rateLimiterConfig.getBurstToleranceInNanoseconds();
+    }
+
+}
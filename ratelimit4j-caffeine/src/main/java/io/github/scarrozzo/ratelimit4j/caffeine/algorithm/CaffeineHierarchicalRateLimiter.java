@@ -0,0 +1,143 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.HierarchicalRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.HierarchicalRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Each level keeps the theoretical arrival time (TAT) of its keys in its own cache. The levels of a path are advanced
+ * one at a time with a compare and set, from the outermost to the innermost, without holding any lock: when a level
+ * rejects the request the levels already advanced are moved back, so the permits are consumed all or nothing.
+ * While a request is rolled back, concurrent requests can see its permits as consumed and be rejected, but a level
+ * never accepts more than its limit.
+ */
+public class CaffeineHierarchicalRateLimiter extends HierarchicalRateLimiter {
+
+    // a key never seen before has a full bucket
+    private static final long NO_ARRIVAL_TIME = Long.MIN_VALUE;
+
+    private final List<KeyStore<AtomicLong>> caches;
+    // the permits of a request accepted by the smallest level when its bucket is full
+    private final long maximumPermits;
+
+    public CaffeineHierarchicalRateLimiter(HierarchicalRateLimiterConfig rateLimiterConfig) {
+        this(rateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineHierarchicalRateLimiter(HierarchicalRateLimiterConfig rateLimiterConfig, TimeSource timeSource) {
+        this(rateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineHierarchicalRateLimiter(HierarchicalRateLimiterConfig rateLimiterConfig, CaffeineKeyStore keyStore) {
+        this(rateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineHierarchicalRateLimiter(HierarchicalRateLimiterConfig rateLimiterConfig, TimeSource timeSource,
+                                            CaffeineKeyStore keyStore) {
+        super(rateLimiterConfig, timeSource);
+
+        List<KeyStore<AtomicLong>> levelCaches = new ArrayList<>();
+        for (CompositeRateLimiterConfig.Limit level : rateLimiterConfig.getLevels()) {
+            // the TAT is never more than the burst tolerance ahead of the last access, after that the bucket is full
+            levelCaches.add(KeyStore.of(timeSource, keyStore,
+                    KeyStore.expireAfterAccess(Duration.ofNanos(level.getBurstToleranceInNanoseconds()))));
+        }
+        this.caches = List.copyOf(levelCaches);
+        this.maximumPermits = rateLimiterConfig.getLevels().stream()
+                .mapToLong(CompositeRateLimiterConfig.Limit::getNumberOfRequests)
+                .min()
+                .orElse(Long.MAX_VALUE);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(List<String> keyPath, long permits) {
+        checkPermits(permits);
+        checkKeyPath(keyPath);
+
+        // read before accessing the caches, so the access time of an entry is never older than its TAT allows
+        long now = timeSource.nanoTime();
+        List<CompositeRateLimiterConfig.Limit> levels = rateLimiterConfig.getLevels();
+
+        // the request costs more than the smallest level: it can never be accepted, and its emission time could overflow
+        if (permits > maximumPermits) {
+            return RateLimiterDecision.rejected(remainingPermits(keyPath, now), 0L);
+        }
+
+        AtomicLong[] arrivalTimes = new AtomicLong[levels.size()];
+        long remainingPermitsBefore = Long.MAX_VALUE;
+        long remainingPermits = Long.MAX_VALUE;
+        long nanosToNextPermit = 0L;
+        StringBuilder levelKey = new StringBuilder();
+
+        for (int i = 0; i < levels.size(); i++) {
+            CompositeRateLimiterConfig.Limit level = levels.get(i);
+            levelKey.append(i == 0 ? "" : KEY_PATH_SEPARATOR).append(keyPath.get(i));
+            AtomicLong arrivalTime = caches.get(i).get(levelKey.toString(), k -> new AtomicLong(NO_ARRIVAL_TIME));
+            long increment = level.getEmissionIntervalInNanoseconds() * permits;
+            long currentArrivalTime;
+            long baseArrivalTime;
+            long newArrivalTime;
+
+            do {
+                currentArrivalTime = arrivalTime.get();
+                baseArrivalTime = Math.max(currentArrivalTime, now);
+                newArrivalTime = baseArrivalTime + increment;
+                if (newArrivalTime - level.getBurstToleranceInNanoseconds() > now) {
+                    rollback(arrivalTimes, i, permits);
+                    long levelRemainingPermits = Math.max(level.getBurstToleranceInNanoseconds() - (baseArrivalTime - now), 0L)
+                            / level.getEmissionIntervalInNanoseconds();
+                    return RateLimiterDecision.rejected(Math.min(remainingPermitsBefore, levelRemainingPermits),
+                            newArrivalTime - level.getBurstToleranceInNanoseconds() - now);
+                }
+            } while (!arrivalTime.compareAndSet(currentArrivalTime, newArrivalTime));
+
+            arrivalTimes[i] = arrivalTime;
+            remainingPermitsBefore = Math.min(remainingPermitsBefore,
+                    (level.getBurstToleranceInNanoseconds() - (baseArrivalTime - now)) / level.getEmissionIntervalInNanoseconds());
+            long levelRemainingPermits = (level.getBurstToleranceInNanoseconds() - (newArrivalTime - now)) / level.getEmissionIntervalInNanoseconds();
+            if (levelRemainingPermits == 0L) {
+                nanosToNextPermit = Math.max(nanosToNextPermit,
+                        newArrivalTime + level.getEmissionIntervalInNanoseconds() - level.getBurstToleranceInNanoseconds() - now);
+            }
+            remainingPermits = Math.min(remainingPermits, levelRemainingPermits);
+        }
+
+        return RateLimiterDecision.allowed(remainingPermits, nanosToNextPermit);
+    }
+
+    // the permits left on every level of the path, read without consuming them
+    private long remainingPermits(List<String> keyPath, long now) {
+        List<CompositeRateLimiterConfig.Limit> levels = rateLimiterConfig.getLevels();
+        long remainingPermits = Long.MAX_VALUE;
+        StringBuilder levelKey = new StringBuilder();
+
+        for (int i = 0; i < levels.size(); i++) {
+            CompositeRateLimiterConfig.Limit level = levels.get(i);
+            levelKey.append(i == 0 ? "" : KEY_PATH_SEPARATOR).append(keyPath.get(i));
+            AtomicLong arrivalTime = caches.get(i).getIfPresent(levelKey.toString());
+            long baseArrivalTime = arrivalTime == null ? now : Math.max(arrivalTime.get(), now);
+            remainingPermits = Math.min(remainingPermits,
+                    Math.max(level.getBurstToleranceInNanoseconds() - (baseArrivalTime - now), 0L) / level.getEmissionIntervalInNanoseconds());
+        }
+
+        return remainingPermits;
+    }
+
+    // gives back the permits taken from the outer levels of a rejected request
+    private void rollback(AtomicLong[] arrivalTimes, int rejectedLevel, long permits) {
+        for (int i = rejectedLevel - 1; i >= 0; i--) {
+            arrivalTimes[i].addAndGet(-rateLimiterConfig.getLevels().get(i).getEmissionIntervalInNanoseconds() * permits);
+        }
+    }
+
+}
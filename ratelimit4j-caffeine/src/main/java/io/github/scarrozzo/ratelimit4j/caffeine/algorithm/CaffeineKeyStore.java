@@ -0,0 +1,259 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+import lombok.Getter;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * One cache shared by many rate limiters, e.g. all the limiters of a registry. Each limiter owns a scope of the cache:
+ * its keys are kept apart from the keys of the other limiters and expire according to its own policy, while the
+ * entries, the expiration and the maintenance work are handled by a single cache.
+ * <p>
+ * The limiters created through {@link #named(String)} with the same name share their scope instead, like the Redis
+ * limiters sharing the prefix of their keys: a key has one state evaluated with the limits of the limiter at hand, e.g.
+ * the limits of the plan of the key, and it is kept until it expires for all the limiters of the name.
+ */
+public final class CaffeineKeyStore {
+
+    private static final ThreadLocal<LookupKey> LOOKUP_KEYS = ThreadLocal.withInitial(LookupKey::new);
+
+    @Getter
+    private final TimeSource timeSource;
+    private final Cache<ScopedKey, Object> cache;
+    private final ConcurrentHashMap<String, Scope> namedScopes;
+    // the name of the scope joined by the limiters of this view, null for a private scope
+    private final String name;
+
+    public CaffeineKeyStore() {
+        this(TimeSource.system());
+    }
+
+    public CaffeineKeyStore(TimeSource timeSource) {
+        this.timeSource = timeSource;
+        this.namedScopes = new ConcurrentHashMap<>();
+        this.name = null;
+        this.cache = Caffeine.newBuilder()
+                .ticker(timeSource::nanoTime)
+                .expireAfter(new Expiry<ScopedKey, Object>() {
+                    @Override
+                    public long expireAfterCreate(ScopedKey key, Object value, long currentTime) {
+                        return key.scope().expiry.expireAfterCreate(key.key(), value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ScopedKey key, Object value, long currentTime, long currentDuration) {
+                        return key.scope().expiry.expireAfterUpdate(key.key(), value, currentTime, currentDuration);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ScopedKey key, Object value, long currentTime, long currentDuration) {
+                        return key.scope().expiry.expireAfterRead(key.key(), value, currentTime, currentDuration);
+                    }
+                })
+                .build();
+    }
+
+    private CaffeineKeyStore(CaffeineKeyStore keyStore, String name) {
+        this.timeSource = keyStore.timeSource;
+        this.cache = keyStore.cache;
+        this.namedScopes = keyStore.namedScopes;
+        this.name = name;
+    }
+
+    /**
+     * @return a view of this store whose limiters share the scope of the given name. The limiters of a name must use
+     * the same algorithm, which the registries ensure
+     */
+    public CaffeineKeyStore named(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Invalid scope name. Name cannot be null");
+        }
+
+        return new CaffeineKeyStore(this, name);
+    }
+
+    @SuppressWarnings("unchecked")
+    <V> KeyStore<V> scope(Expiry<Object, V> expiry) {
+        Scope scope = name == null ? new Scope() : namedScopes.computeIfAbsent(name, n -> new Scope());
+        return (KeyStore<V>) scope.join((Expiry<Object, Object>) expiry);
+    }
+
+    /**
+     * The keys of one limiter, or of all the limiters of a name. The scope only holds its limiters weakly, so a limiter
+     * that is not used anymore, e.g. the limiter of an old plan, stops keeping the keys of the scope.
+     */
+    private final class Scope {
+        private final List<WeakReference<Member>> members = new ArrayList<>();
+        private volatile Expiry<Object, Object> expiry = longest(List.of());
+
+        // a key of a shared scope expires when no limiter of the scope needs it anymore
+        private synchronized Member join(Expiry<Object, Object> limiterExpiry) {
+            Member member = new Member(this, limiterExpiry);
+            members.removeIf(reference -> reference.get() == null);
+            members.add(new WeakReference<>(member));
+            expiry = longest(List.copyOf(members));
+            return member;
+        }
+    }
+
+    // the view of a scope held by a limiter
+    private final class Member implements KeyStore<Object> {
+        private final Scope scope;
+        private final Expiry<Object, Object> expiry;
+
+        private Member(Scope scope, Expiry<Object, Object> expiry) {
+            this.scope = scope;
+            this.expiry = expiry;
+        }
+
+        @Override
+        public Object compute(Object key, BiFunction<Object, ? super Object, ?> remappingFunction) {
+            return cache.asMap().compute(new EntryKey(scope, KeyStore.entryKey(key)), (k, value) -> remappingFunction.apply(k.key(), value));
+        }
+
+        @Override
+        public Object get(Object key, Function<Object, ?> mappingFunction) {
+            return cache.get(new EntryKey(scope, KeyStore.entryKey(key)), k -> mappingFunction.apply(k.key()));
+        }
+
+        @Override
+        public Object getIfPresent(Object key) {
+            LookupKey lookupKey = LOOKUP_KEYS.get().of(scope, key);
+            try {
+                return cache.getIfPresent(lookupKey);
+            } finally {
+                lookupKey.clear();
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            LookupKey lookupKey = LOOKUP_KEYS.get().of(scope, key);
+            try {
+                return cache.asMap().containsKey(lookupKey);
+            } finally {
+                lookupKey.clear();
+            }
+        }
+    }
+
+    // the longest expiry among the limiters still in use, the keys of a scope without limiters expire at once
+    private static Expiry<Object, Object> longest(List<WeakReference<Member>> members) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                long duration = 0L;
+                for (WeakReference<Member> reference : members) {
+                    Member member = reference.get();
+                    if (member != null) {
+                        duration = Math.max(duration, member.expiry.expireAfterCreate(key, value, currentTime));
+                    }
+                }
+                return duration;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                long duration = 0L;
+                for (WeakReference<Member> reference : members) {
+                    Member member = reference.get();
+                    if (member != null) {
+                        duration = Math.max(duration, member.expiry.expireAfterUpdate(key, value, currentTime, currentDuration));
+                    }
+                }
+                return duration;
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                long duration = 0L;
+                for (WeakReference<Member> reference : members) {
+                    Member member = reference.get();
+                    if (member != null) {
+                        duration = Math.max(duration, member.expiry.expireAfterRead(key, value, currentTime, currentDuration));
+                    }
+                }
+                return duration;
+            }
+        };
+    }
+
+    /**
+     * A key of a scope. The scope is compared by identity, so two limiters share a key only through a named scope. The
+     * keys of the entries are equal to the lookup keys of the same scope and key.
+     */
+    private abstract static class ScopedKey {
+
+        abstract Scope scope();
+
+        abstract Object key();
+
+        @Override
+        public final int hashCode() {
+            return 31 * System.identityHashCode(scope()) + key().hashCode();
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            return this == o || (o instanceof ScopedKey other && scope() == other.scope() && key().equals(other.key()));
+        }
+    }
+
+    private static final class EntryKey extends ScopedKey {
+        private final Scope scope;
+        private final Object key;
+
+        private EntryKey(Scope scope, Object key) {
+            this.scope = scope;
+            this.key = key;
+        }
+
+        @Override
+        Scope scope() {
+            return scope;
+        }
+
+        @Override
+        Object key() {
+            return key;
+        }
+    }
+
+    // reused by the lookups of a thread, so the plain lookups of the hot path allocate nothing. It is never stored in
+    // the cache, which only passes it to the expiry during the lookup
+    private static final class LookupKey extends ScopedKey {
+        private Scope scope;
+        private Object key;
+
+        private LookupKey of(Scope scope, Object key) {
+            this.scope = scope;
+            this.key = key;
+            return this;
+        }
+
+        private void clear() {
+            this.scope = null;
+            this.key = null;
+        }
+
+        @Override
+        Scope scope() {
+            return scope;
+        }
+
+        @Override
+        Object key() {
+            return key;
+        }
+    }
+
+}
@@ -1,89 +1,285 @@
 package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.algorithm.LeakyBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
-import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
 
-import java.time.Duration;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ConcurrentHashMap;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
+/**
+ * Each key keeps the places taken in its bucket since the bucket was created, the requests leaked out are computed
+ * from the outflow periods elapsed since then when the key is accessed: no timer is involved and the threads used by
+ * the rate limiter do not grow with the number of keys. The taken places are a single long updated with a compare and
+ * set after a plain lookup of the key, so the requests of an existing key take no lock and allocate nothing.
+ * <p>
+ * A bucket found by a limiter with other limits, sharing the key through a named scope, is retired and replaced by a
+ * bucket of that limiter holding the same queued requests.
+ */
 public class CaffeineLeakyBucketRateLimiter extends LeakyBucketRateLimiter {
 
-    private final Cache<String, Long> cache;
-    private final ConcurrentHashMap<String, TimerTask> timerTasks;
+    private final KeyStore<BucketState> cache;
+    private final long bucketOutflowNanos;
 
     public CaffeineLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig rateLimiterConfig) {
-        super(rateLimiterConfig);
+        this(rateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig rateLimiterConfig, TimeSource timeSource) {
+        this(rateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig rateLimiterConfig, CaffeineKeyStore keyStore) {
+        this(rateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig rateLimiterConfig, TimeSource timeSource,
+                                           CaffeineKeyStore keyStore) {
+        super(rateLimiterConfig, timeSource);
+
+        long bucketOutflowPeriods = (rateLimiterConfig.getBucketSize() + rateLimiterConfig.getOutflowRateNumReq() - 1L)
+                / rateLimiterConfig.getOutflowRateNumReq();
+        this.bucketOutflowNanos = Math.multiplyHigh(bucketOutflowPeriods, rateLimiterConfig.getOutflowRatePeriodInNanoseconds()) == 0L
+                ? bucketOutflowPeriods * rateLimiterConfig.getOutflowRatePeriodInNanoseconds()
+                : Long.MAX_VALUE;
+        this.cache = KeyStore.of(timeSource, keyStore, new Expiry<Object, BucketState>() {
+            @Override
+            public long expireAfterCreate(Object key, BucketState bucketState, long currentTime) {
+                return retention(bucketState, currentTime);
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, BucketState bucketState, long currentTime, long currentDuration) {
+                return retention(bucketState, currentTime);
+            }
 
-        timerTasks = new ConcurrentHashMap<>();
+            @Override
+            public long expireAfterRead(Object key, BucketState bucketState, long currentTime, long currentDuration) {
+                return retention(bucketState, currentTime);
+            }
+        });
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
 
-        this.cache = Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMillis(rateLimiterConfig.getClearQueueAfterInactivityInMilliseconds()))
-                .build();
+    @Override
+    public boolean tryAcquirePermits(String key, long permits) {
+        checkPermits(permits);
+        return consume(key, permits, null, false).isAllowed();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(key, permits, decision, false).isAllowed();
     }
 
     @Override
-    public void evaluateRequest(String key) throws RuntimeException {
-        cache.asMap().compute(key, (k, bucketAvailableSize) -> {
-            long result;
-
-            if (bucketAvailableSize == null) {
-                result = rateLimiterConfig.getBucketSize() - 1L;
-            } else if (bucketAvailableSize == 0) {
-                throw new RateLimiterException();
-            } else {
-                result = --bucketAvailableSize;
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(LongKey.lookup(key), permits);
+    }
+
+    @Override
+    public boolean tryAcquire(long key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(LongKey.lookup(key), permits, decision, false).isAllowed();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        ByteArrayKey.Lookup lookupKey = ByteArrayKey.lookup(key);
+        try {
+            return tryAcquireKey(lookupKey, permits);
+        } finally {
+            lookupKey.clear();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(byte[] key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        ByteArrayKey.Lookup lookupKey = ByteArrayKey.lookup(key);
+        try {
+            return consume(lookupKey, permits, decision, false).isAllowed();
+        } finally {
+            lookupKey.clear();
+        }
+    }
+
+    private RateLimiterDecision tryAcquireKey(Object key, long permits) {
+        checkPermits(permits);
+        return consume(key, permits, null, true);
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        checkPermits(permits);
+        MutableRateLimiterDecision reservation = new MutableRateLimiterDecision();
+
+        // the reservations lock the key, so its retention covers the reserved places. A reservation without timeout is
+        // allowed only if it does not wait
+        return consumeLocked(key, permits, timeoutNanos, reservation, false).isAllowed()
+                ? Math.min(reservation.getNanosToNextPermit(), timeoutNanos)
+                : -1L;
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    // the decision is written into the given one if not null, otherwise it is returned with its details if detailed
+    private RateLimiterDecision consume(Object key, long permits, MutableRateLimiterDecision decision, boolean detailed) {
+        BucketState state = cache.getIfPresent(key);
+        if (state != null && state.isOwnedBy(this)) {
+            RateLimiterDecision outcome = tryConsume(state, timeSource.nanoTime(), permits, 0L, decision, detailed);
+            if (outcome != null) {
+                return outcome;
             }
+        }
+
+        return consumeLocked(key, permits, 0L, decision, detailed);
+    }
 
-            timerTasks.computeIfAbsent(k, mapKey -> {
-                TimerTask timerTask = new ScheduleOutflowTask(k);
-                new Timer().scheduleAtFixedRate(timerTask,
-                        rateLimiterConfig.getOutflowRatePeriodInMilliseconds(),
-                        rateLimiterConfig.getOutflowRatePeriodInMilliseconds());
-                return timerTask;
-            });
+    private RateLimiterDecision consumeLocked(Object key, long permits, long maxWaitNanos, MutableRateLimiterDecision decision,
+                                              boolean detailed) {
+        final RateLimiterDecision[] outcome = new RateLimiterDecision[1];
 
-            return result;
+        cache.compute(key, (k, bucketState) -> {
+            long now = timeSource.nanoTime();
+            // a missing bucket is empty: all its places are free
+            BucketState state = bucketState == null ? new BucketState(now) : currentBucket(bucketState, now);
+            outcome[0] = tryConsume(state, now, permits, maxWaitNanos, decision, detailed);
+            // an empty bucket is not kept
+            return bucketState == null && !outcome[0].isAllowed() ? null : state;
         });
+
+        return outcome[0];
+    }
+
+    // the bucket of the key for this rate limiter. Only called holding the lock of the key
+    private BucketState currentBucket(BucketState bucketState, long now) {
+        if (bucketState.isOwnedBy(this)) {
+            return bucketState;
+        }
+
+        // the new bucket holds the same queued requests, at most a full bucket
+        BucketState state = new BucketState(now);
+        state.takenPlaces = Math.min(bucketState.retire(now), rateLimiterConfig.getBucketSize());
+        return state;
+    }
+
+    // a reservation, accepting a wait, is told the wait for its places instead of the wait for the next free place.
+    // Returns null if the bucket has been replaced in the cache, the request has to be evaluated again holding the lock
+    // of the key
+    private RateLimiterDecision tryConsume(BucketState state, long now, long permits, long maxWaitNanos,
+                                           MutableRateLimiterDecision decision, boolean detailed) {
+        while (true) {
+            long takenPlaces = state.get();
+            if (takenPlaces == BucketState.RETIRED) {
+                return null;
+            }
+
+            long availableSize = rateLimiterConfig.getBucketSize() - state.queuedRequests(takenPlaces, now);
+            long wait = state.nanosUntilFree(takenPlaces, permits, now);
+
+            if (permits > rateLimiterConfig.getBucketSize() || wait > maxWaitNanos) {
+                return Decisions.decide(false, Math.max(availableSize, 0L), wait, decision, detailed);
+            }
+
+            // the available size can go below zero: the reserved places are released by the next outflows
+            long newTakenPlaces = Math.max(takenPlaces, state.leakedRequests(now)) + permits;
+            if (state.compareAndSet(takenPlaces, newTakenPlaces)) {
+                return !Decisions.isDetailed(decision, detailed) ? Decisions.ALLOWED
+                        : Decisions.decide(true, Math.max(availableSize - permits, 0L), maxWaitNanos > 0L ? wait
+                        : availableSize - permits > 0L ? 0L : state.nanosUntilFree(newTakenPlaces, 1L, now), decision, detailed);
+            }
+        }
+    }
+
+    // a key is kept for the inactivity period and until its bucket is empty again, a missing key has an empty bucket.
+    // The buckets updated without writing the cache are retained from their last lookup, before their last update.
+    private long retention(BucketState bucketState, long currentTime) {
+        long nanosUntilEmpty = bucketState.nanosUntilFree(bucketState.get(), rateLimiterConfig.getBucketSize(), currentTime);
+        long sum = nanosUntilEmpty + bucketOutflowNanos;
+        return Math.max(rateLimiterConfig.getClearQueueAfterInactivityInNanoseconds(), sum < 0L ? Long.MAX_VALUE : sum);
     }
 
-    private class ScheduleOutflowTask extends TimerTask {
-        private final String key;
-        private long lastUpdate;
+    private class BucketState {
+        // no update can succeed on a retired bucket, which is not in the cache anymore
+        private static final long RETIRED = Long.MIN_VALUE;
+        private static final VarHandle TAKEN_PLACES;
+
+        static {
+            try {
+                TAKEN_PLACES = MethodHandles.lookup().findVarHandle(BucketState.class, "takenPlaces", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final long creationTime;
+        // the places taken since the creation of the bucket, released by the outflows
+        private volatile long takenPlaces;
+
+        private BucketState(long creationTime) {
+            this.creationTime = creationTime;
+        }
+
+        private long get() {
+            return takenPlaces;
+        }
+
+        private boolean compareAndSet(long expectedTakenPlaces, long newTakenPlaces) {
+            return TAKEN_PLACES.compareAndSet(this, expectedTakenPlaces, newTakenPlaces);
+        }
+
+        private boolean isOwnedBy(CaffeineLeakyBucketRateLimiter rateLimiter) {
+            CaffeineLeakyBucketRateLimiter owner = CaffeineLeakyBucketRateLimiter.this;
+            return owner == rateLimiter || owner.rateLimiterConfig.equals(rateLimiter.rateLimiterConfig);
+        }
+
+        /**
+         * Prevents any further update of a bucket replaced by a bucket with other limits.
+         *
+         * @return the requests queued in the bucket
+         */
+        private long retire(long now) {
+            long current = (long) TAKEN_PLACES.getAndSet(this, RETIRED);
+            return queuedRequests(current, now);
+        }
+
+        // the requests leaked out in the outflow periods elapsed since the creation of the bucket
+        private long leakedRequests(long now) {
+            long outflowPeriods = (now - creationTime) / rateLimiterConfig.getOutflowRatePeriodInNanoseconds();
+            return Math.multiplyHigh(outflowPeriods, rateLimiterConfig.getOutflowRateNumReq()) == 0L
+                    ? outflowPeriods * rateLimiterConfig.getOutflowRateNumReq()
+                    : Long.MAX_VALUE;
+        }
 
-        public ScheduleOutflowTask(String key) {
-            this.key = key;
-            this.lastUpdate = System.currentTimeMillis();
+        // the outflows of an empty bucket are lost
+        private long queuedRequests(long takenPlaces, long now) {
+            return Math.max(takenPlaces - leakedRequests(now), 0L);
         }
 
-        @Override
-        public void run() {
-            if (!cache.asMap().containsKey(key)) {
-                // cache key is not present. Turn off the timer task
-                cancel();
-                timerTasks.remove(key);
-                return;
+        private long nanosUntilFree(long takenPlaces, long places, long now) {
+            long targetLeakedRequests = takenPlaces - rateLimiterConfig.getBucketSize() + places;
+            if (targetLeakedRequests <= leakedRequests(now)) {
+                return 0L;
             }
 
-            cache.asMap().compute(key, (k, bucketAvailableSize) -> {
-                // queue is not empty, remove requests from queue
-                if (bucketAvailableSize != null && bucketAvailableSize < rateLimiterConfig.getBucketSize()) {
-                    lastUpdate = System.currentTimeMillis();
-                    return Math.min(bucketAvailableSize + rateLimiterConfig.getOutflowRateNumReq(), rateLimiterConfig.getBucketSize());
-                }
-
-                // queue is empty and not used for more than ClearQueueAfterInactivityInMilliseconds, we can turn off the timer task to free resources
-                if (System.currentTimeMillis() - lastUpdate >= rateLimiterConfig.getClearQueueAfterInactivityInMilliseconds()) {
-                    cancel();
-                    timerTasks.remove(key);
-                }
-
-                return bucketAvailableSize;
-            });
+            // each outflow period releases outflowRateNumReq places of the bucket
+            long outflowPeriods = (targetLeakedRequests + rateLimiterConfig.getOutflowRateNumReq() - 1L) / rateLimiterConfig.getOutflowRateNumReq();
+            return creationTime + outflowPeriods * rateLimiterConfig.getOutflowRatePeriodInNanoseconds() - now;
         }
     }
 
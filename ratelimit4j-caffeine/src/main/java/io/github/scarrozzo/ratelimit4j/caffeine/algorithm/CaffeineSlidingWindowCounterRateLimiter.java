@@ -0,0 +1,148 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.SlidingWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+import lombok.Getter;
+
+import java.time.Duration;
+
+public class CaffeineSlidingWindowCounterRateLimiter extends SlidingWindowCounterRateLimiter {
+
+    private final KeyStore<WindowStatus> cache;
+
+    public CaffeineSlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig) {
+        this(slidingWindowCounterRateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineSlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig,
+                                                   TimeSource timeSource) {
+        this(slidingWindowCounterRateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineSlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig,
+                                                   CaffeineKeyStore keyStore) {
+        this(slidingWindowCounterRateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineSlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig, TimeSource timeSource,
+                                                    CaffeineKeyStore keyStore) {
+        super(slidingWindowCounterRateLimiterConfig, timeSource);
+
+        // the counter of a window is used until the end of the following one
+        this.cache = KeyStore.of(timeSource, keyStore,
+                KeyStore.expireAfterWrite(Duration.ofNanos(slidingWindowCounterRateLimiterConfig.getWindowSizeInNanoseconds()).multipliedBy(2L)));
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquireKey(ByteArrayKey.of(key), permits);
+    }
+
+    private RateLimiterDecision tryAcquireKey(Object key, long permits) {
+        checkPermits(permits);
+        final RateLimiterDecision[] decision = new RateLimiterDecision[1];
+
+        cache.compute(key, (k, windowStatus) -> {
+            long now = timeSource.nanoTime();
+            long windowSize = rateLimiterConfig.getWindowSizeInNanoseconds();
+            // windows are aligned, so all the keys move to a new window at the same time
+            long windowStart = now - Math.floorMod(now, windowSize);
+            long elapsed = now - windowStart;
+
+            WindowStatus status = windowStatus == null ? WindowStatus.of(windowStart) : windowStatus.slide(windowStart, windowSize);
+            double estimate = status.estimate(elapsed, windowSize);
+
+            if (estimate + permits > rateLimiterConfig.getNumberOfRequests()) {
+                decision[0] = RateLimiterDecision.rejected(remainingPermits(estimate), nanosUntilAllowed(status, elapsed, permits));
+                return windowStatus == null ? null : status;
+            }
+
+            status.incCounter(permits);
+            long remainingPermits = remainingPermits(estimate + permits);
+            decision[0] = RateLimiterDecision.allowed(remainingPermits,
+                    remainingPermits > 0L ? 0L : nanosUntilAllowed(status, elapsed, 1L));
+            return status;
+        });
+
+        return decision[0];
+    }
+
+    private long remainingPermits(double estimate) {
+        return Math.max((long) Math.floor(rateLimiterConfig.getNumberOfRequests() - estimate), 0L);
+    }
+
+    private long nanosUntilAllowed(WindowStatus status, long elapsed, long permits) {
+        long windowSize = rateLimiterConfig.getWindowSizeInNanoseconds();
+        long numberOfRequests = rateLimiterConfig.getNumberOfRequests();
+
+        if (permits > numberOfRequests) {
+            return windowSize - elapsed;
+        }
+
+        // within the current window only the weight of the previous one decreases
+        if (status.getCurrentCounter() + permits <= numberOfRequests) {
+            if (status.getPreviousCounter() == 0L) {
+                return 0L;
+            }
+
+            double allowedAt = windowSize * (1.0 - (double) (numberOfRequests - permits - status.getCurrentCounter()) / status.getPreviousCounter());
+            return Math.max((long) Math.ceil(allowedAt) - elapsed, 0L);
+        }
+
+        // the current window becomes the previous one
+        double allowedAt = windowSize * (1.0 - (double) (numberOfRequests - permits) / status.getCurrentCounter());
+        return windowSize - elapsed + (long) Math.ceil(allowedAt);
+    }
+
+    @Getter
+    private static class WindowStatus {
+        private long windowStart;
+        private long previousCounter;
+        private long currentCounter;
+
+        private WindowStatus(long windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        public static WindowStatus of(long windowStart) {
+            return new WindowStatus(windowStart);
+        }
+
+        // a limiter sharing the key with a longer window can align the current window before the stored one, the
+        // counters then stay in the stored window
+        public WindowStatus slide(long newWindowStart, long windowSize) {
+            if (newWindowStart > windowStart) {
+                // the previous window is only counted if it is adjacent to the new one
+                previousCounter = newWindowStart - windowStart == windowSize ? currentCounter : 0L;
+                currentCounter = 0L;
+                windowStart = newWindowStart;
+            }
+
+            return this;
+        }
+
+        public double estimate(long elapsed, long windowSize) {
+            return previousCounter * ((double) (windowSize - elapsed) / windowSize) + currentCounter;
+        }
+
+        public WindowStatus incCounter(long permits) {
+            this.currentCounter += permits;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.SlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.time.Duration;
+
+/**
+ * Each key keeps the timestamps of its accepted requests in a ring of int deltas, at most numberOfRequests of them.
+ * Consecutive timestamps of a window are at most one window apart, so the time unit is the smallest one that fits a
+ * window in an int: one nanosecond up to ~2 seconds, then it grows with the window (about 40 microseconds for one day).
+ * A log written by a limiter with another window, through a named scope, is converted to the time unit of the window.
+ */
+public class CaffeineSlidingWindowLogRateLimiter extends SlidingWindowLogRateLimiter {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final KeyStore<RequestLog> cache;
+    private final long timeUnit;
+    private final long windowSize;
+
+    public CaffeineSlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig) {
+        this(slidingWindowLogRateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineSlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig,
+                                               TimeSource timeSource) {
+        this(slidingWindowLogRateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineSlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig,
+                                               CaffeineKeyStore keyStore) {
+        this(slidingWindowLogRateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineSlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig, TimeSource timeSource,
+                                                CaffeineKeyStore keyStore) {
+        super(slidingWindowLogRateLimiterConfig, timeSource);
+
+        long windowSizeInNanoseconds = slidingWindowLogRateLimiterConfig.getWindowSizeInNanoseconds();
+        this.timeUnit = Math.max(ceilDiv(windowSizeInNanoseconds, Integer.MAX_VALUE), 1L);
+        this.windowSize = ceilDiv(windowSizeInNanoseconds, timeUnit);
+
+        // all the requests of a log are expired one window after the last one
+        this.cache = KeyStore.of(timeSource, keyStore,
+                KeyStore.expireAfterWrite(Duration.ofNanos(windowSizeInNanoseconds)));
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquireKey(ByteArrayKey.of(key), permits);
+    }
+
+    private RateLimiterDecision tryAcquireKey(Object key, long permits) {
+        checkPermits(permits);
+        final RateLimiterDecision[] decision = new RateLimiterDecision[1];
+
+        cache.compute(key, (k, requestLog) -> {
+            long now = Math.floorDiv(timeSource.nanoTime(), timeUnit);
+            long numberOfRequests = rateLimiterConfig.getNumberOfRequests();
+            RequestLog log = requestLog == null
+                    ? new RequestLog((int) Math.min(numberOfRequests, INITIAL_CAPACITY), timeUnit)
+                    : requestLog.timeUnit == timeUnit
+                    ? requestLog.removeUntil(now - windowSize)
+                    : requestLog.convert(timeUnit, now - windowSize);
+
+            if (log.getSize() + permits > numberOfRequests) {
+                // the oldest requests have to leave the window to make room for the new ones
+                long nextPermitTime = permits > numberOfRequests
+                        ? now + windowSize
+                        : log.timeAt((int) (log.getSize() + permits - numberOfRequests - 1L)) + windowSize;
+                decision[0] = RateLimiterDecision.rejected(Math.max(numberOfRequests - log.getSize(), 0L), (nextPermitTime - now) * timeUnit);
+                return requestLog == null ? null : log;
+            }
+
+            log.append(now, (int) permits, (int) numberOfRequests);
+            long remainingPermits = numberOfRequests - log.getSize();
+            decision[0] = RateLimiterDecision.allowed(remainingPermits,
+                    remainingPermits > 0L ? 0L : (log.timeAt(0) + windowSize - now) * timeUnit);
+            return log;
+        });
+
+        return decision[0];
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static class RequestLog {
+        private final long timeUnit;
+        // deltas[i] is the distance from the previous request, the delta of the oldest request is not used
+        private int[] deltas;
+        private int head;
+        private int size;
+        private long headTime;
+        private long tailTime;
+
+        private RequestLog(int initialCapacity, long timeUnit) {
+            this.deltas = new int[Math.max(initialCapacity, 1)];
+            this.timeUnit = timeUnit;
+        }
+
+        // the requests out of the new window are dropped, so the deltas of the others fit in an int
+        private RequestLog convert(long newTimeUnit, long newWindowStart) {
+            RequestLog log = new RequestLog(size, newTimeUnit);
+            long time = headTime;
+            for (int i = 0; i < size; i++) {
+                time += i == 0 ? 0L : deltas[(head + i) % deltas.length];
+                long newTime = Math.floorDiv(time * timeUnit, newTimeUnit);
+                if (newTime > newWindowStart) {
+                    log.append(newTime, 1, size);
+                }
+            }
+
+            return log;
+        }
+
+        private int getSize() {
+            return size;
+        }
+
+        private RequestLog removeUntil(long time) {
+            while (size > 0 && headTime <= time) {
+                head = (head + 1) % deltas.length;
+                size--;
+                if (size > 0) {
+                    headTime += deltas[head];
+                }
+            }
+
+            return this;
+        }
+
+        private long timeAt(int index) {
+            long time = headTime;
+            for (int i = 1; i <= index; i++) {
+                time += deltas[(head + i) % deltas.length];
+            }
+
+            return time;
+        }
+
+        private void append(long time, int count, int maxCapacity) {
+            ensureCapacity(size + count, maxCapacity);
+
+            for (int i = 0; i < count; i++) {
+                if (size == 0) {
+                    headTime = time;
+                }
+
+                deltas[(head + size) % deltas.length] = size == 0 ? 0 : (int) (time - tailTime);
+                tailTime = time;
+                size++;
+            }
+        }
+
+        // the log grows with the traffic of the key, up to the number of requests of a window
+        private void ensureCapacity(int capacity, int maxCapacity) {
+            if (capacity <= deltas.length) {
+                return;
+            }
+
+            int[] newDeltas = new int[(int) Math.min(Math.max(deltas.length * 2L, capacity), maxCapacity)];
+            for (int i = 0; i < size; i++) {
+                newDeltas[i] = deltas[(head + i) % deltas.length];
+            }
+
+            deltas = newDeltas;
+            head = 0;
+        }
+    }
+}
@@ -1,54 +1,515 @@
 package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
 import io.github.scarrozzo.ratelimit4j.core.algorithm.TokenBucketRateLimiter;
 import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
-import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+
+/**
+ * Each key keeps its bucket in a single long, updated with a compare and set after a plain lookup of the key: the
+ * requests of an existing key take no lock and allocate nothing. The cache is only locked to create a bucket, to
+ * start again a full bucket refilled at intervals and to apply reservations and settlements.
+ * A key is kept until its bucket is full again, plus the time to refill a whole bucket.
+ * <p>
+ * A bucket found by a limiter with other limits, sharing the key through a named scope, is retired and replaced by a
+ * bucket of that limiter missing the same tokens.
+ */
 public class CaffeineTokenBucketRateLimiter extends TokenBucketRateLimiter {
 
-    private final Cache<String, Long> cache;
+    private final KeyStore<BucketState> cache;
+    private final long bucketRefillNanos;
 
     public CaffeineTokenBucketRateLimiter(TokenBucketRateLimiterConfig rateLimiterConfig) {
-        super(rateLimiterConfig);
+        this(rateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineTokenBucketRateLimiter(TokenBucketRateLimiterConfig rateLimiterConfig, TimeSource timeSource) {
+        this(rateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineTokenBucketRateLimiter(TokenBucketRateLimiterConfig rateLimiterConfig, CaffeineKeyStore keyStore) {
+        this(rateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineTokenBucketRateLimiter(TokenBucketRateLimiterConfig rateLimiterConfig, TimeSource timeSource,
+                                           CaffeineKeyStore keyStore) {
+        super(rateLimiterConfig, timeSource);
+
+        this.bucketRefillNanos = rateLimiterConfig.getRefillStrategy() == TokenBucketRefillStrategy.CONTINUOUS
+                ? multiplyDivide(rateLimiterConfig.getBucketSize(), rateLimiterConfig.getRefillPeriodInNanoseconds(), rateLimiterConfig.getRefillTokens(), true)
+                : saturatedMultiply(ceilDiv(rateLimiterConfig.getBucketSize(), rateLimiterConfig.getRefillTokens()), rateLimiterConfig.getRefillPeriodInNanoseconds());
+        // the buckets updated without writing the cache are retained from the last lookup, before their last update
+        this.cache = KeyStore.of(timeSource, keyStore, new Expiry<Object, BucketState>() {
+            @Override
+            public long expireAfterCreate(Object key, BucketState bucketState, long currentTime) {
+                return retention(bucketState, currentTime);
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, BucketState bucketState, long currentTime, long currentDuration) {
+                return retention(bucketState, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, BucketState bucketState, long currentTime, long currentDuration) {
+                return retention(bucketState, currentTime);
+            }
+        });
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public boolean tryAcquirePermits(String key, long permits) {
+        checkPermits(permits);
+        return consume(key, permits, 0L, null, false).isAllowed();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(key, permits, 0L, decision, false).isAllowed();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(LongKey.lookup(key), permits);
+    }
+
+    @Override
+    public boolean tryAcquire(long key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(LongKey.lookup(key), permits, 0L, decision, false).isAllowed();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        ByteArrayKey.Lookup lookupKey = ByteArrayKey.lookup(key);
+        try {
+            return tryAcquireKey(lookupKey, permits);
+        } finally {
+            lookupKey.clear();
+        }
+    }
 
-        this.cache = Caffeine.newBuilder()
-                .expireAfter(new Expiry<String, Long>() {
-                    @Override
-                    public long expireAfterCreate(String key, Long tokenCount, long currentTime) {
-                        return rateLimiterConfig.getRefillPeriodInMilliSeconds() * 1_000_000;
-                    }
+    @Override
+    public boolean tryAcquire(byte[] key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        ByteArrayKey.Lookup lookupKey = ByteArrayKey.lookup(key);
+        try {
+            return consume(lookupKey, permits, 0L, decision, false).isAllowed();
+        } finally {
+            lookupKey.clear();
+        }
+    }
+
+    @Override
+    public boolean supportsPriorities() {
+        return true;
+    }
 
-                    @Override
-                    public long expireAfterUpdate(String key, Long bucketState, long currentTime, long currentDuration) {
-                        return currentDuration;
-                    }
+    /**
+     * The tokens reserved to the higher priorities are a fraction of the bucket size: a request is accepted only if
+     * they are still in the bucket after it.
+     */
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits, RequestPriority priority) {
+        checkPriority(priority);
+        return tryAcquireKey(key, permits, priority.reservedPermits(rateLimiterConfig.getBucketSize()));
+    }
+
+    private RateLimiterDecision tryAcquireKey(Object key, long permits) {
+        return tryAcquireKey(key, permits, 0L);
+    }
 
-                    @Override
-                    public long expireAfterRead(String key, Long bucketState, long currentTime, long currentDuration) {
-                        return currentDuration;
-                    }
-                })
-                .build();
+    private RateLimiterDecision tryAcquireKey(Object key, long permits, long reservedTokens) {
+        checkPermits(permits);
+        return consume(key, permits, reservedTokens, null, true);
     }
 
     @Override
-    public void evaluateRequest(String key) throws RateLimiterException {
-        cache.asMap().compute(key, (k, tokenCount) -> {
-            System.out.println(tokenCount);
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        checkPermits(permits);
+        MutableRateLimiterDecision reservation = new MutableRateLimiterDecision();
+
+        // a reservation without timeout is allowed only if it does not wait
+        return consumeLocked(key, permits, 0L, timeoutNanos, reservation, false).isAllowed()
+                ? Math.min(reservation.getNanosToNextPermit(), timeoutNanos)
+                : -1L;
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsSettlement() {
+        return true;
+    }
 
-            if (tokenCount == null) {
-                return rateLimiterConfig.getBucketSize() - 1L;
+    /**
+     * Charged tokens can take the bucket below zero, refunded ones cannot fill it beyond its size.
+     */
+    @Override
+    public void settle(String key, long permits) {
+        cache.compute(key, (k, bucketState) -> {
+            long now = timeSource.nanoTime();
+            BucketState state = currentBucket(bucketState, now);
+            // a missing bucket is full, there is nothing to refund
+            if (state == null && permits <= 0L) {
+                return null;
+            }
+
+            if (state == null) {
+                state = newBucket(now);
             }
 
-            if (tokenCount == 0) {
-                throw new RateLimiterException();
-            } else {
-                return --tokenCount;
+            state.settle(permits, now);
+            return state;
+        });
+    }
+
+    // the decision is written into the given one if not null, otherwise it is returned with its details if detailed
+    private RateLimiterDecision consume(Object key, long permits, long reservedTokens, MutableRateLimiterDecision decision,
+                                        boolean detailed) {
+        BucketState state = cache.getIfPresent(key);
+        if (state != null && isOwn(state)) {
+            RateLimiterDecision outcome = tryConsume(state, timeSource.nanoTime(), permits, reservedTokens, 0L, decision, detailed, false);
+            if (outcome != null) {
+                return outcome;
             }
+        }
+
+        return consumeLocked(key, permits, reservedTokens, 0L, decision, detailed);
+    }
+
+    private RateLimiterDecision consumeLocked(Object key, long permits, long reservedTokens, long maxWaitNanos,
+                                              MutableRateLimiterDecision decision, boolean detailed) {
+        final RateLimiterDecision[] outcome = new RateLimiterDecision[1];
+
+        cache.compute(key, (k, bucketState) -> {
+            long now = timeSource.nanoTime();
+            BucketState currentState = currentBucket(bucketState, now);
+            // the bucket still does not exist or it has been refilled
+            boolean replaced = currentState == null;
+            BucketState state = replaced ? newBucket(now) : currentState;
+
+            outcome[0] = tryConsume(state, now, permits, reservedTokens, maxWaitNanos, decision, detailed, true);
+            // a full bucket is not kept
+            return replaced && !outcome[0].isAllowed() ? null : state;
         });
+
+        return outcome[0];
+    }
+
+    // the reserved tokens must be left in the bucket and are not counted in the remaining ones. A reservation, accepting
+    // a wait, is told the wait for its permits instead of the wait for the next token. Returns null if the bucket must
+    // be replaced under the lock of the key
+    private RateLimiterDecision tryConsume(BucketState state, long now, long permits, long reservedTokens, long maxWaitNanos,
+                                           MutableRateLimiterDecision decision, boolean detailed, boolean locked) {
+        while (true) {
+            long bucket = state.get();
+            // the bucket has been replaced in the cache
+            if (bucket == BucketState.RETIRED) {
+                return null;
+            }
+
+            long missingTokens = state.missingTokens(bucket, now);
+            if (missingTokens <= 0L && !locked && state.isReplacedWhenFull()) {
+                return null;
+            }
+
+            long availableTokens = rateLimiterConfig.getBucketSize() - Math.max(missingTokens, 0L);
+            boolean exceedsBucket = permits > rateLimiterConfig.getBucketSize() - reservedTokens;
+            long nanosToWait = missingTokens <= 0L ? 0L
+                    : state.nanosUntilTokens(bucket, exceedsBucket ? permits : permits + reservedTokens, now);
+
+            // the permits are not available within the accepted wait, or they will never be because they exceed the bucket size
+            if (exceedsBucket || nanosToWait > maxWaitNanos) {
+                return Decisions.decide(false, Math.max(availableTokens - reservedTokens, 0L), nanosToWait, decision, detailed);
+            }
+
+            // the tokens can go below zero: the debt is paid by the next refills
+            long consumedBucket = state.consume(bucket, permits, now);
+            if (state.compareAndSet(bucket, consumedBucket)) {
+                return !Decisions.isDetailed(decision, detailed) ? Decisions.ALLOWED
+                        : Decisions.decide(true, Math.max(availableTokens - permits - reservedTokens, 0L),
+                        maxWaitNanos > 0L ? nanosToWait : state.nanosUntilTokens(consumedBucket, reservedTokens + 1L, now),
+                        decision, detailed);
+            }
+        }
+    }
+
+    // the bucket of the key, or null if it is missing or full. Only called holding the lock of the key
+    private BucketState currentBucket(BucketState bucketState, long now) {
+        if (bucketState == null || bucketState.retireIfFull(now)) {
+            return null;
+        }
+
+        if (isOwn(bucketState)) {
+            return bucketState;
+        }
+
+        long missingTokens = bucketState.retire(now);
+        if (missingTokens <= 0L) {
+            return null;
+        }
+
+        // the new bucket misses the same tokens, at most all of them
+        BucketState state = newBucket(now);
+        state.settle(Math.min(missingTokens, rateLimiterConfig.getBucketSize()), now);
+        return state;
+    }
+
+    private boolean isOwn(BucketState bucketState) {
+        return bucketState.config == rateLimiterConfig || bucketState.config.equals(rateLimiterConfig);
+    }
+
+    private BucketState newBucket(long now) {
+        return rateLimiterConfig.getRefillStrategy() == TokenBucketRefillStrategy.CONTINUOUS
+                ? new ContinuousBucketState(now, rateLimiterConfig)
+                : new IntervalBucketState(now, rateLimiterConfig);
+    }
+
+    private long retention(BucketState bucketState, long currentTime) {
+        long bucket = bucketState.get();
+        long nanosUntilFull = bucketState.missingTokens(bucket, currentTime) <= 0L ? 0L
+                : bucketState.nanosUntilTokens(bucket, bucketState.config.getBucketSize(), currentTime);
+        return saturatedAdd(nanosUntilFull, bucketRefillNanos);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0L ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return Math.multiplyHigh(a, b) == 0L && a * b >= 0L ? a * b : Long.MAX_VALUE;
+    }
+
+    // a * b / c for non negative values, the product of a and b can exceed a long
+    private static long multiplyDivide(long a, long b, long c, boolean roundUp) {
+        if (Math.multiplyHigh(a, b) == 0L && a * b >= 0L) {
+            return roundUp ? ceilDiv(a * b, c) : a * b / c;
+        }
+
+        BigInteger[] quotientAndRemainder = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                .divideAndRemainder(BigInteger.valueOf(c));
+        BigInteger quotient = roundUp && quotientAndRemainder[1].signum() > 0
+                ? quotientAndRemainder[0].add(BigInteger.ONE)
+                : quotientAndRemainder[0];
+        return quotient.bitLength() < Long.SIZE ? quotient.longValue() : Long.MAX_VALUE;
+    }
+
+    /**
+     * The state of a bucket packed in one long, read and replaced atomically.
+     */
+    private abstract static class BucketState {
+        // no update can succeed on a retired bucket, which is not in the cache anymore
+        static final long RETIRED = Long.MIN_VALUE;
+        private static final VarHandle BUCKET;
+
+        static {
+            try {
+                BUCKET = MethodHandles.lookup().findVarHandle(BucketState.class, "bucket", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        protected final TokenBucketRateLimiterConfig config;
+        private volatile long bucket;
+
+        private BucketState(long bucket, TokenBucketRateLimiterConfig config) {
+            this.bucket = bucket;
+            this.config = config;
+        }
+
+        long get() {
+            return bucket;
+        }
+
+        boolean compareAndSet(long expectedBucket, long newBucket) {
+            return BUCKET.compareAndSet(this, expectedBucket, newBucket);
+        }
+
+        /**
+         * @return the tokens missing to fill the bucket, zero or less if it is full
+         */
+        abstract long missingTokens(long bucket, long now);
+
+        abstract long nanosUntilTokens(long bucket, long target, long now);
+
+        /**
+         * @return the bucket without the permits, which can take it below zero
+         */
+        abstract long consume(long bucket, long permits, long now);
+
+        // refunds cannot fill the bucket beyond its size
+        abstract long refund(long bucket, long permits, long now);
+
+        /**
+         * A bucket starts again when it is full, so it is replaced instead of being updated.
+         */
+        abstract boolean isReplacedWhenFull();
+
+        /**
+         * Prevents any further update of a full bucket replaced by a new one.
+         *
+         * @return false if the bucket is not full
+         */
+        abstract boolean retireIfFull(long now);
+
+        /**
+         * Prevents any further update of a bucket replaced by a bucket with other limits.
+         *
+         * @return the tokens the bucket was missing
+         */
+        long retire(long now) {
+            while (true) {
+                long current = bucket;
+                if (compareAndSet(current, RETIRED)) {
+                    return missingTokens(current, now);
+                }
+            }
+        }
+
+        void settle(long permits, long now) {
+            long current;
+            do {
+                current = bucket;
+            } while (!compareAndSet(current, permits >= 0L ? consume(current, permits, now) : refund(current, -permits, now)));
+        }
+    }
+
+    /**
+     * Continuous refills make the bucket a generic cell rate: the state is the time the bucket is full again, which
+     * moves forward by the refill time of the consumed tokens.
+     */
+    private static final class ContinuousBucketState extends BucketState {
+
+        private ContinuousBucketState(long now, TokenBucketRateLimiterConfig config) {
+            super(now, config);
+        }
+
+        @Override
+        long missingTokens(long fullTime, long now) {
+            return fullTime <= now ? 0L
+                    : multiplyDivide(fullTime - now, config.getRefillTokens(), config.getRefillPeriodInNanoseconds(), true);
+        }
+
+        @Override
+        long nanosUntilTokens(long fullTime, long target, long now) {
+            long wait = target <= config.getBucketSize()
+                    ? fullTime - multiplyDivide(config.getBucketSize() - target, config.getRefillPeriodInNanoseconds(), config.getRefillTokens(), false) - now
+                    : fullTime + multiplyDivide(target - config.getBucketSize(), config.getRefillPeriodInNanoseconds(), config.getRefillTokens(), true) - now;
+            return Math.max(wait, 0L);
+        }
+
+        @Override
+        long consume(long fullTime, long permits, long now) {
+            return saturatedAdd(Math.max(fullTime, now),
+                    multiplyDivide(permits, config.getRefillPeriodInNanoseconds(), config.getRefillTokens(), true));
+        }
+
+        @Override
+        long refund(long fullTime, long permits, long now) {
+            return Math.max(fullTime - multiplyDivide(permits, config.getRefillPeriodInNanoseconds(), config.getRefillTokens(), false), now);
+        }
+
+        @Override
+        boolean isReplacedWhenFull() {
+            return false;
+        }
+
+        @Override
+        boolean retireIfFull(long now) {
+            return false;
+        }
+    }
+
+    /**
+     * Interval refills happen at the end of each period since the bucket was created: the state is the number of
+     * tokens consumed since then, the refills are computed from the elapsed periods.
+     */
+    private static final class IntervalBucketState extends BucketState {
+        private final long creationTime;
+
+        private IntervalBucketState(long now, TokenBucketRateLimiterConfig config) {
+            super(0L, config);
+            this.creationTime = now;
+        }
+
+        @Override
+        long missingTokens(long consumedTokens, long now) {
+            // no refill can make a retired bucket miss tokens
+            return consumedTokens == RETIRED ? 0L : consumedTokens - refilledTokens(now);
+        }
+
+        @Override
+        long nanosUntilTokens(long consumedTokens, long target, long now) {
+            long missingTokens = target - config.getBucketSize() + missingTokens(consumedTokens, now);
+            if (missingTokens <= 0L) {
+                return 0L;
+            }
+
+            long periods = (now - creationTime) / config.getRefillPeriodInNanoseconds();
+            long nextRefill = creationTime + (periods + 1L) * config.getRefillPeriodInNanoseconds();
+            long refills = ceilDiv(missingTokens, config.getRefillTokens());
+            return nextRefill - now + (refills - 1L) * config.getRefillPeriodInNanoseconds();
+        }
+
+        @Override
+        long consume(long consumedTokens, long permits, long now) {
+            return Math.max(consumedTokens, refilledTokens(now)) + permits;
+        }
+
+        @Override
+        long refund(long consumedTokens, long permits, long now) {
+            return Math.max(consumedTokens - permits, refilledTokens(now));
+        }
+
+        @Override
+        boolean isReplacedWhenFull() {
+            return true;
+        }
+
+        @Override
+        boolean retireIfFull(long now) {
+            while (true) {
+                long consumedTokens = get();
+                if (missingTokens(consumedTokens, now) > 0L) {
+                    return false;
+                }
+
+                if (compareAndSet(consumedTokens, RETIRED)) {
+                    return true;
+                }
+            }
+        }
+
+        private long refilledTokens(long now) {
+            return saturatedMultiply(Math.max(now - creationTime, 0L) / config.getRefillPeriodInNanoseconds(), config.getRefillTokens());
+        }
     }
 
 }
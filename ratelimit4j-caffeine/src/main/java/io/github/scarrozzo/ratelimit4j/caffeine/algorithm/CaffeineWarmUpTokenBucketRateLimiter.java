@@ -0,0 +1,202 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.WarmUpTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.WarmUpTokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+/**
+ * Each key keeps its tokens, the time of the last refill and the time its warm up started. The tokens earned between
+ * two requests are the integral of the refill rate, which grows linearly during the warm up.
+ * Use {@link #GLOBAL_KEY} to warm up the whole instance instead of each client.
+ * <p>
+ * A bucket found by a limiter with other limits, sharing the key through a named scope, is replaced by a bucket of that
+ * limiter missing the same tokens, with the same warm up start.
+ */
+public class CaffeineWarmUpTokenBucketRateLimiter extends WarmUpTokenBucketRateLimiter {
+
+    // absorbs the rounding of the earned tokens, which are not integers
+    private static final double TOKENS_TOLERANCE = 1e-9;
+
+    private final KeyStore<BucketState> cache;
+    private final double coldRatio;
+
+    public CaffeineWarmUpTokenBucketRateLimiter(WarmUpTokenBucketRateLimiterConfig rateLimiterConfig) {
+        this(rateLimiterConfig, TimeSource.system());
+    }
+
+    public CaffeineWarmUpTokenBucketRateLimiter(WarmUpTokenBucketRateLimiterConfig rateLimiterConfig, TimeSource timeSource) {
+        this(rateLimiterConfig, timeSource, null);
+    }
+
+    /**
+     * Keeps the state of the keys in a scope of the given store, shared with other rate limiters.
+     */
+    public CaffeineWarmUpTokenBucketRateLimiter(WarmUpTokenBucketRateLimiterConfig rateLimiterConfig,
+                                                CaffeineKeyStore keyStore) {
+        this(rateLimiterConfig, keyStore.getTimeSource(), keyStore);
+    }
+
+    private CaffeineWarmUpTokenBucketRateLimiter(WarmUpTokenBucketRateLimiterConfig rateLimiterConfig, TimeSource timeSource,
+                                                 CaffeineKeyStore keyStore) {
+        super(rateLimiterConfig, timeSource);
+
+        this.coldRatio = 1.0 / rateLimiterConfig.getColdFactor();
+        this.cache = KeyStore.of(timeSource, keyStore, new Expiry<Object, BucketState>() {
+            @Override
+            public long expireAfterCreate(Object key, BucketState bucketState, long currentTime) {
+                return bucketState.getExpireTime() - currentTime;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, BucketState bucketState, long currentTime, long currentDuration) {
+                return bucketState.getExpireTime() - currentTime;
+            }
+
+            @Override
+            public long expireAfterRead(Object key, BucketState bucketState, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        });
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquireKey(ByteArrayKey.of(key), permits);
+    }
+
+    private RateLimiterDecision tryAcquireKey(Object key, long permits) {
+        checkPermits(permits);
+        final RateLimiterDecision[] decision = new RateLimiterDecision[1];
+
+        cache.compute(key, (k, bucketState) -> {
+            long now = timeSource.nanoTime();
+            // a new key starts cold, with a fraction of the bucket
+            BucketState state = bucketState == null
+                    ? new BucketState(rateLimiterConfig.getBucketSize() * coldRatio, now, now)
+                    : currentBucket(bucketState, now);
+
+            if (state.getTokens() + TOKENS_TOLERANCE < permits) {
+                decision[0] = RateLimiterDecision.rejected(state.remainingTokens(), state.nanosUntilTokens(permits, now));
+            } else {
+                state.consume(permits);
+                long remainingTokens = state.remainingTokens();
+                decision[0] = RateLimiterDecision.allowed(remainingTokens, remainingTokens > 0L ? 0L : state.nanosUntilTokens(1L, now));
+            }
+
+            // a key idle for a whole warm up period is dropped, so it becomes cold again
+            state.setExpireTime(now + Math.max(state.nanosUntilTokens(rateLimiterConfig.getBucketSize(), now),
+                    rateLimiterConfig.getWarmUpPeriodInNanoseconds()));
+            return state;
+        });
+
+        return decision[0];
+    }
+
+    // the refilled bucket of the key for this rate limiter
+    private BucketState currentBucket(BucketState bucketState, long now) {
+        bucketState.refill(now);
+        if (bucketState.isOwnedBy(this)) {
+            return bucketState;
+        }
+
+        BucketState state = new BucketState(0.0, now, bucketState.warmUpStart);
+        state.tokens = Math.max(state.capacity(now) - (bucketState.capacity(now) - bucketState.getTokens()), 0.0);
+        return state;
+    }
+
+    private class BucketState {
+        private double tokens;
+        private long refillTime;
+        private final long warmUpStart;
+        private long expireTime;
+
+        private BucketState(double tokens, long now, long warmUpStart) {
+            this.tokens = tokens;
+            this.refillTime = now;
+            this.warmUpStart = warmUpStart;
+        }
+
+        private boolean isOwnedBy(CaffeineWarmUpTokenBucketRateLimiter rateLimiter) {
+            CaffeineWarmUpTokenBucketRateLimiter owner = CaffeineWarmUpTokenBucketRateLimiter.this;
+            return owner == rateLimiter || owner.rateLimiterConfig.equals(rateLimiter.rateLimiterConfig);
+        }
+
+        private double getTokens() {
+            return tokens;
+        }
+
+        private long getExpireTime() {
+            return expireTime;
+        }
+
+        private void setExpireTime(long expireTime) {
+            this.expireTime = expireTime;
+        }
+
+        private long remainingTokens() {
+            return (long) Math.floor(tokens + TOKENS_TOLERANCE);
+        }
+
+        private void consume(long permits) {
+            tokens = Math.max(tokens - permits, 0.0);
+        }
+
+        private BucketState refill(long now) {
+            if (now > refillTime) {
+                double earnedTokens = rateLimiterConfig.getBucketSize()
+                        * (coldRatio * (now - refillTime) + (1.0 - coldRatio) * (warmUpIntegral(now) - warmUpIntegral(refillTime)))
+                        / rateLimiterConfig.getRefillPeriodInNanoseconds();
+                tokens = Math.min(tokens + earnedTokens, capacity(now));
+                refillTime = now;
+            }
+
+            return this;
+        }
+
+        // the rate is not lower than the current one in the future, so the estimate is never shorter than the actual wait
+        private long nanosUntilTokens(long target, long now) {
+            if (tokens + TOKENS_TOLERANCE >= target) {
+                return 0L;
+            }
+
+            double rate = rateLimiterConfig.getBucketSize() * warmUpRatio(now) / rateLimiterConfig.getRefillPeriodInNanoseconds();
+            double untilEarned = (target - tokens) / rate;
+            // the bucket has to grow enough to contain the target tokens
+            double untilCapacity = (Math.min((double) target / rateLimiterConfig.getBucketSize(), 1.0) - coldRatio) / (1.0 - coldRatio)
+                    * rateLimiterConfig.getWarmUpPeriodInNanoseconds() - (now - warmUpStart);
+            return (long) Math.ceil(Math.max(untilEarned, coldRatio < 1.0 ? untilCapacity : 0.0));
+        }
+
+        private double capacity(long now) {
+            return rateLimiterConfig.getBucketSize() * warmUpRatio(now);
+        }
+
+        // from the cold ratio to one during the warm up
+        private double warmUpRatio(long now) {
+            double warmedUp = Math.min((double) (now - warmUpStart) / rateLimiterConfig.getWarmUpPeriodInNanoseconds(), 1.0);
+            return coldRatio + (1.0 - coldRatio) * warmedUp;
+        }
+
+        // integral of the warmed up fraction from the warm up start to the given time
+        private double warmUpIntegral(long time) {
+            double elapsed = time - warmUpStart;
+            double warmUpPeriod = rateLimiterConfig.getWarmUpPeriodInNanoseconds();
+            return elapsed <= warmUpPeriod
+                    ? elapsed * elapsed / (2.0 * warmUpPeriod)
+                    : warmUpPeriod / 2.0 + elapsed - warmUpPeriod;
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.time.Duration;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The state of the keys of one rate limiter, kept either in a private cache or in a scope of a shared
+ * {@link CaffeineKeyStore}. The entries are created with a copy of the {@link ReusableKey reusable keys}.
+ */
+interface KeyStore<V> {
+
+    V compute(Object key, BiFunction<Object, ? super V, ? extends V> remappingFunction);
+
+    V get(Object key, Function<Object, ? extends V> mappingFunction);
+
+    /**
+     * Plain lookup, without locking the entry: the rate limiters update the state they find with atomic operations.
+     */
+    V getIfPresent(Object key);
+
+    boolean containsKey(Object key);
+
+    static <V> KeyStore<V> of(TimeSource timeSource, Expiry<Object, V> expiry) {
+        Cache<Object, V> cache = Caffeine.newBuilder()
+                .ticker(timeSource::nanoTime)
+                .expireAfter(expiry)
+                .build();
+
+        return new KeyStore<>() {
+            @Override
+            public V compute(Object key, BiFunction<Object, ? super V, ? extends V> remappingFunction) {
+                return cache.asMap().compute(entryKey(key), remappingFunction);
+            }
+
+            @Override
+            public V get(Object key, Function<Object, ? extends V> mappingFunction) {
+                return cache.get(entryKey(key), mappingFunction);
+            }
+
+            @Override
+            public V getIfPresent(Object key) {
+                return cache.getIfPresent(key);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return cache.asMap().containsKey(key);
+            }
+        };
+    }
+
+    /**
+     * @return a scope of the shared store, or a private cache when no store is given
+     */
+    static <V> KeyStore<V> of(TimeSource timeSource, CaffeineKeyStore sharedStore, Expiry<Object, V> expiry) {
+        return sharedStore == null ? of(timeSource, expiry) : sharedStore.scope(expiry);
+    }
+
+    static Object entryKey(Object key) {
+        return key instanceof ReusableKey reusableKey ? reusableKey.copy() : key;
+    }
+
+    static <V> Expiry<Object, V> expireAfterWrite(Duration duration) {
+        long nanos = duration.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, V value, long currentTime) {
+                return nanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, V value, long currentTime, long currentDuration) {
+                return nanos;
+            }
+
+            @Override
+            public long expireAfterRead(Object key, V value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    static <V> Expiry<Object, V> expireAfterAccess(Duration duration) {
+        long nanos = duration.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, V value, long currentTime) {
+                return nanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, V value, long currentTime, long currentDuration) {
+                return nanos;
+            }
+
+            @Override
+            public long expireAfterRead(Object key, V value, long currentTime, long currentDuration) {
+                return nanos;
+            }
+        };
+    }
+
+    /**
+     * A key reused by the lookups of a thread, so the plain lookups of the hot path allocate nothing. It must not be
+     * stored in the cache.
+     */
+    interface ReusableKey {
+
+        Object copy();
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.algorithm;
+
+/**
+ * Cache key of a numeric key. The lookups of a thread reuse a mutable key instead of boxing the number, which the key
+ * store copies only to create an entry.
+ */
+abstract class LongKey {
+
+    private static final ThreadLocal<Lookup> LOOKUP_KEYS = ThreadLocal.withInitial(Lookup::new);
+
+    abstract long value();
+
+    /**
+     * @return the lookup key of the thread, valid until its next lookup
+     */
+    static LongKey lookup(long key) {
+        return LOOKUP_KEYS.get().of(key);
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        return this == o || o instanceof LongKey other && value() == other.value();
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(value());
+    }
+
+    private static final class Entry extends LongKey {
+        private final long value;
+
+        private Entry(long value) {
+            this.value = value;
+        }
+
+        @Override
+        long value() {
+            return value;
+        }
+    }
+
+    private static final class Lookup extends LongKey implements KeyStore.ReusableKey {
+        private long value;
+
+        private Lookup of(long value) {
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        long value() {
+            return value;
+        }
+
+        @Override
+        public Object copy() {
+            return new Entry(value);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.scarrozzo.ratelimit4j.caffeine.registry;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineCompositeRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineFixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineGcraRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineHierarchicalRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineKeyStore;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineLeakyBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineSlidingWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineSlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineWarmUpTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.GcraRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.HierarchicalRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.WarmUpTokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.registry.RateLimiterFactory;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+import lombok.Getter;
+
+/**
+ * Creates Caffeine rate limiters that keep their keys in scopes of the same {@link CaffeineKeyStore}. The limiters
+ * created with the same name, e.g. the limiters of the plans of a policy, share one scope: a key keeps its state when
+ * it is evaluated with different limits.
+ */
+public class CaffeineRateLimiterFactory implements RateLimiterFactory {
+
+    @Getter
+    private final CaffeineKeyStore keyStore;
+
+    public CaffeineRateLimiterFactory() {
+        this(new CaffeineKeyStore());
+    }
+
+    public CaffeineRateLimiterFactory(TimeSource timeSource) {
+        this(new CaffeineKeyStore(timeSource));
+    }
+
+    public CaffeineRateLimiterFactory(CaffeineKeyStore keyStore) {
+        this.keyStore = keyStore;
+    }
+
+    @Override
+    public RateLimiter<?> create(String name, RateLimiterConfig rateLimiterConfig) {
+        CaffeineKeyStore keyStore = this.keyStore.named(name);
+        return switch (rateLimiterConfig.getRateLimiterType()) {
+            case TOKEN_BUCKET -> new CaffeineTokenBucketRateLimiter((TokenBucketRateLimiterConfig) rateLimiterConfig, keyStore);
+            case LEAKY_BUCKET -> new CaffeineLeakyBucketRateLimiter((LeakyBucketRateLimiterConfig) rateLimiterConfig, keyStore);
+            case FIXED_WINDOW_COUNTER ->
+                    new CaffeineFixedWindowCounterRateLimiter((FixedWindowCounterRateLimiterConfig) rateLimiterConfig, keyStore);
+            case GCRA -> new CaffeineGcraRateLimiter((GcraRateLimiterConfig) rateLimiterConfig, keyStore);
+            case SLIDING_WINDOW_COUNTER ->
+                    new CaffeineSlidingWindowCounterRateLimiter((SlidingWindowCounterRateLimiterConfig) rateLimiterConfig, keyStore);
+            case SLIDING_WINDOW_LOG ->
+                    new CaffeineSlidingWindowLogRateLimiter((SlidingWindowLogRateLimiterConfig) rateLimiterConfig, keyStore);
+            case WARM_UP_TOKEN_BUCKET ->
+                    new CaffeineWarmUpTokenBucketRateLimiter((WarmUpTokenBucketRateLimiterConfig) rateLimiterConfig, keyStore);
+            case COMPOSITE -> new CaffeineCompositeRateLimiter((CompositeRateLimiterConfig) rateLimiterConfig, keyStore);
+            case HIERARCHICAL -> new CaffeineHierarchicalRateLimiter((HierarchicalRateLimiterConfig) rateLimiterConfig, keyStore);
+        };
+    }
+}
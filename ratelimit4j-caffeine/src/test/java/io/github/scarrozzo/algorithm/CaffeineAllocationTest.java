@@ -0,0 +1,176 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineFixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineKeyStore;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineLeakyBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Checks that the requests of an existing key allocate nothing on the calling thread, measured with the allocation
+ * counter of the thread after the code has been warmed up. The small limits are measured in a steady state where
+ * their buckets and windows never start again, since a new bucket or window is created under the lock of the key.
+ */
+class CaffeineAllocationTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+    // beyond the cache of the boxed numbers
+    private static final long TENANT_KEY = 1_000_000L;
+    private static final byte[] API_KEY_HASH = {0x12, 0x34, 0x56, 0x78, (byte) 0x9a, (byte) 0xbc, (byte) 0xde, (byte) 0xf0};
+    private static final int WARM_UP_REQUESTS = 1_000_000;
+    private static final int MEASURED_REQUESTS = 100_000;
+    // a task of the cache maintenance at most, whatever the number of requests
+    private static final long MAX_ALLOCATED_BYTES = 1_024L;
+    // large enough for all the requests of a test, within the long arithmetic of the rate limiters
+    private static final long BUCKET_SIZE = 10_000_000L;
+    // the largest limit whose decisions without a wait are shared instances
+    private static final long SHARED_DECISIONS_LIMIT = 127L;
+    // the permits consumed by the requests of each step
+    private static final long STEP_PERMITS = 4L;
+    private static final Duration STEP = Duration.ofMillis(1L);
+    // a period of the small limits is never exhausted by the requests of its steps
+    private static final Duration PERIOD = Duration.ofMillis(25L);
+
+    @Test
+    void intervalTokenBucketDoesNotAllocate() {
+        assertNoAllocation(new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(BUCKET_SIZE, Duration.ofHours(1L)), new ManualTimeSource()));
+    }
+
+    @Test
+    void continuousTokenBucketDoesNotAllocate() {
+        assertNoAllocation(new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(BUCKET_SIZE, BUCKET_SIZE, Duration.ofSeconds(1L), TokenBucketRefillStrategy.CONTINUOUS),
+                new ManualTimeSource()));
+    }
+
+    @Test
+    void fixedWindowCounterDoesNotAllocate() {
+        assertNoAllocation(new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(Duration.ofHours(1L), BUCKET_SIZE), new ManualTimeSource()));
+    }
+
+    @Test
+    void leakyBucketDoesNotAllocate() {
+        assertNoAllocation(new CaffeineLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(BUCKET_SIZE, 1L, Duration.ofSeconds(1L), Duration.ofHours(1L)),
+                new ManualTimeSource()));
+    }
+
+    @Test
+    void tokenBucketOfSharedStoreDoesNotAllocate() {
+        assertNoAllocation(new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(BUCKET_SIZE, Duration.ofHours(1L)),
+                new CaffeineKeyStore(new ManualTimeSource()).named("plan")));
+    }
+
+    @Test
+    void fixedWindowCounterOfSharedStoreDoesNotAllocate() {
+        assertNoAllocation(new CaffeineFixedWindowCounterRateLimiter(new FixedWindowCounterRateLimiterConfig(Duration.ofHours(1L), BUCKET_SIZE),
+                new CaffeineKeyStore(new ManualTimeSource())));
+    }
+
+    @Test
+    void intervalTokenBucketSharesItsDecisions() {
+        ManualTimeSource timeSource = new ManualTimeSource();
+        RateLimiter<?> rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(SHARED_DECISIONS_LIMIT,
+                STEP_PERMITS, STEP, TokenBucketRefillStrategy.INTERVAL), timeSource);
+        // each step refills the permits of its requests, so the half empty bucket is never full and never started again
+        Assertions.assertTrue(rateLimiter.tryAcquirePermits(IP_ADDRESS_KEY, SHARED_DECISIONS_LIMIT / 2L));
+        assertSharedDecisions(rateLimiter, () -> timeSource.advance(STEP));
+    }
+
+    @Test
+    void continuousTokenBucketSharesItsDecisions() {
+        ManualTimeSource timeSource = new ManualTimeSource();
+        assertSharedDecisions(new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(SHARED_DECISIONS_LIMIT,
+                SHARED_DECISIONS_LIMIT, PERIOD, TokenBucketRefillStrategy.CONTINUOUS), timeSource), () -> timeSource.advance(STEP));
+    }
+
+    @Test
+    void fixedWindowCounterSharesItsDecisions() {
+        RateLimiter<?> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(Duration.ofHours(1L), SHARED_DECISIONS_LIMIT), new ManualTimeSource());
+        // the time does not move and each step refunds the permits of the previous one, so the window never ends
+        assertSharedDecisions(rateLimiter, () -> rateLimiter.settle(IP_ADDRESS_KEY, -STEP_PERMITS));
+    }
+
+    @Test
+    void leakyBucketSharesItsDecisions() {
+        ManualTimeSource timeSource = new ManualTimeSource();
+        assertSharedDecisions(new CaffeineLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(SHARED_DECISIONS_LIMIT, 5L, STEP, Duration.ofHours(1L)),
+                timeSource), () -> timeSource.advance(STEP));
+    }
+
+    // the remaining permits of the large buckets are only written into a decision reused by the caller. The numeric
+    // and binary keys are looked up without boxing or copying them
+    private static void assertNoAllocation(RateLimiter<?> rateLimiter) {
+        MutableRateLimiterDecision decision = new MutableRateLimiterDecision();
+        assertNoAllocation(() -> {
+            Assertions.assertTrue(rateLimiter.tryAcquirePermits(IP_ADDRESS_KEY, 1L));
+            rateLimiter.evaluateRequest(IP_ADDRESS_KEY);
+            Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 1L, decision));
+            Assertions.assertTrue(decision.getRemainingPermits() >= SHARED_DECISIONS_LIMIT);
+            Assertions.assertTrue(rateLimiter.tryAcquire(TENANT_KEY, 1L, decision));
+            Assertions.assertTrue(decision.getRemainingPermits() >= SHARED_DECISIONS_LIMIT);
+            Assertions.assertTrue(rateLimiter.tryAcquire(API_KEY_HASH, 1L, decision));
+            Assertions.assertTrue(decision.getRemainingPermits() >= SHARED_DECISIONS_LIMIT);
+        });
+    }
+
+    // the decisions without a wait and with few remaining permits are shared, also when returned by tryAcquire(key).
+    // Each step makes room for the permits of its requests
+    private static void assertSharedDecisions(RateLimiter<?> rateLimiter, Runnable step) {
+        MutableRateLimiterDecision decision = new MutableRateLimiterDecision();
+        assertNoAllocation(() -> {
+            step.run();
+            Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+            Assertions.assertTrue(rateLimiter.tryAcquirePermits(IP_ADDRESS_KEY, 1L));
+            rateLimiter.evaluateRequest(IP_ADDRESS_KEY);
+            Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 1L, decision));
+            Assertions.assertEquals(0L, decision.getNanosToNextPermit());
+        });
+    }
+
+    @SneakyThrows
+    private static void assertNoAllocation(Request request) {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "The allocated bytes of a thread are not available");
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled(),
+                "The allocated bytes of a thread are not available");
+
+        for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+            request.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            request.run();
+        }
+        allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytes;
+
+        Assertions.assertTrue(allocatedBytes <= MAX_ALLOCATED_BYTES,
+                allocatedBytes + " bytes allocated by " + MEASURED_REQUESTS + " requests");
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void run() throws RateLimiterException;
+    }
+}
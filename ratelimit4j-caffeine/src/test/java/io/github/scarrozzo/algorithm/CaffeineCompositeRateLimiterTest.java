@@ -0,0 +1,113 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineCompositeRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+class CaffeineCompositeRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new CaffeineCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(1L, 500L), CompositeRateLimiterConfig.Limit.of(10L, 60_000L)));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new CaffeineCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(10L, 1_000L), CompositeRateLimiterConfig.Limit.of(2L, 60_000L)), new ManualTimeSource());
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void everyLimitHasToAcceptTheRequest() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new CaffeineCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(2L, Duration.ofSeconds(1L)),
+                CompositeRateLimiterConfig.Limit.of(3L, Duration.ofMinutes(1L))), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+
+        // the per second limit is exhausted
+        RateLimiterDecision perSecond = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(perSecond.isAllowed());
+        Assertions.assertEquals(Duration.ofMillis(500L).toNanos(), perSecond.getNanosToNextPermit());
+
+        timeSource.advance(Duration.ofSeconds(1L));
+        RateLimiterDecision last = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(last.isAllowed());
+        Assertions.assertEquals(0L, last.getRemainingPermits());
+
+        // the per minute limit is exhausted, one request is earned every 20 seconds
+        RateLimiterDecision perMinute = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(perMinute.isAllowed());
+        Assertions.assertEquals(Duration.ofSeconds(19L).toNanos(), perMinute.getNanosToNextPermit());
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTheOtherLimits() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new CaffeineCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(5L, Duration.ofSeconds(1L)),
+                CompositeRateLimiterConfig.Limit.of(3L, Duration.ofMinutes(1L))), new ManualTimeSource());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 4L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(3L, rejected.getRemainingPermits());
+
+        RateLimiterDecision allowed = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(allowed.isAllowed());
+        Assertions.assertEquals(0L, allowed.getRemainingPermits());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void requestsLargerThanTheSmallestLimitAreRejected() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new CaffeineCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(10L, Duration.ofHours(1L)),
+                CompositeRateLimiterConfig.Limit.of(100L, Duration.ofDays(1L))), new ManualTimeSource());
+
+        // the emission time of the permits exceeds a long
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 100_000_000L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(10L, rejected.getRemainingPermits());
+
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 11L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void verifyManyRequestsConcurrentUpdatesWithSuccess() {
+        long numberOfRequests = 10_000L;
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new CaffeineCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(numberOfRequests, Duration.ofHours(1L)),
+                CompositeRateLimiterConfig.Limit.of(numberOfRequests * 2L, Duration.ofDays(1L))), new ManualTimeSource());
+
+        IntStream.range(0, (int) numberOfRequests).parallel().forEach(value ->
+                Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY)));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void configurationIsValidated() {
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new CompositeRateLimiterConfig(List.of()));
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> CompositeRateLimiterConfig.Limit.of(0L, 1_000L));
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> CompositeRateLimiterConfig.Limit.of(10L, Duration.ZERO));
+    }
+}
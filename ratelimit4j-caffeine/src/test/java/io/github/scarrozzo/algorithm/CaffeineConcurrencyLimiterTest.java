@@ -0,0 +1,100 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.Lease;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+class CaffeineConcurrencyLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    void requestsInFlightAreLimitedForEachKey() {
+        final ConcurrencyLimiter limiter = new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(2L, 60_000L));
+
+        Lease first = limiter.acquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isPresent());
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isEmpty());
+        Assertions.assertThrows(RateLimiterException.class, () -> limiter.acquire(IP_ADDRESS_KEY));
+        Assertions.assertTrue(limiter.tryAcquire("127.0.0.2").isPresent());
+
+        // releasing twice frees a single slot
+        first.release();
+        first.release();
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isPresent());
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isEmpty());
+    }
+
+    @Test
+    void requestsOutlivingTheLeaseTimeoutKeepTheirSlots() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final ConcurrencyLimiter limiter = new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(1L, 1_000L), timeSource);
+
+        Lease lease = limiter.acquire(IP_ADDRESS_KEY);
+        timeSource.advance(Duration.ofSeconds(2L));
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isEmpty());
+        timeSource.advance(Duration.ofSeconds(2L));
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isEmpty());
+
+        lease.release();
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isPresent());
+    }
+
+    @Test
+    void idleKeysAreDroppedAfterTheLeaseTimeout() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final ConcurrencyLimiter limiter = new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(1L, 1_000L), timeSource);
+
+        Lease lease = limiter.acquire(IP_ADDRESS_KEY);
+        timeSource.advance(Duration.ofSeconds(2L));
+        lease.release();
+        timeSource.advance(Duration.ofSeconds(2L));
+
+        // the key is recreated, the lease released again does not free the slot of the new one
+        Lease newLease = limiter.acquire(IP_ADDRESS_KEY);
+        lease.release();
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isEmpty());
+        newLease.release();
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isPresent());
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedTheLimit() {
+        long maxInFlight = 5L;
+        final ConcurrencyLimiter limiter = new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(maxInFlight, 60_000L));
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxObserved = new AtomicInteger();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> limiter.tryAcquire(IP_ADDRESS_KEY).ifPresent(lease -> {
+            maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            inFlight.decrementAndGet();
+            lease.release();
+        }));
+        Assertions.assertTrue(maxObserved.get() <= maxInFlight);
+
+        // once all the leases are released every slot is free again
+        ConcurrentLinkedQueue<Optional<Lease>> leases = new ConcurrentLinkedQueue<>();
+        IntStream.range(0, 100).parallel().forEach(i -> leases.add(limiter.tryAcquire(IP_ADDRESS_KEY)));
+        Assertions.assertEquals(maxInFlight, leases.stream().filter(Optional::isPresent).count());
+        List.copyOf(leases).forEach(lease -> lease.ifPresent(Lease::release));
+    }
+
+    @Test
+    void configurationIsValidated() {
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new ConcurrencyLimiterConfig(0L, 1_000L));
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new ConcurrencyLimiterConfig(1L, Duration.ZERO));
+    }
+}
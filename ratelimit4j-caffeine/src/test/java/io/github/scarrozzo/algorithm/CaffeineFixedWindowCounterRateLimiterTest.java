@@ -2,13 +2,18 @@ package io.github.scarrozzo.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineFixedWindowCounterRateLimiter;
 import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
 import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 class CaffeineFixedWindowCounterRateLimiterTest {
@@ -95,4 +100,122 @@ class CaffeineFixedWindowCounterRateLimiterTest {
                     System.out.println("Finished " + value + ". time: " + Instant.now());
                 }));
     }
+
+    @Test
+    void tryAcquireReturnsDecisionWithoutThrowing() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(2_000L, 2L));
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(1L, first.getRemainingPermits());
+        Assertions.assertEquals(0L, first.getNanosToNextPermit());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(second.isAllowed());
+        Assertions.assertEquals(0L, second.getRemainingPermits());
+
+        RateLimiterDecision third = Assertions.assertDoesNotThrow(() -> rateLimiter.tryAcquire(IP_ADDRESS_KEY));
+        Assertions.assertFalse(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+        Assertions.assertTrue(third.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(third.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(2_000L));
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(2_000L, 5L));
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void windowFollowsTheTimeSource() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(Duration.ofNanos(100_000L), 2), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        timeSource.advance(Duration.ofNanos(40_000L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(60_000L, rejected.getNanosToNextPermit());
+
+        timeSource.advance(Duration.ofNanos(60_000L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void numericAndBinaryKeysAreEvaluatedAsDistinctClients() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L), new ManualTimeSource());
+        byte[] apiKeyHash = {0x0a, 0x1b, 0x2c, 0x3d};
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(42L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(42L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(43L).isAllowed());
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(apiKeyHash));
+        // the content of the key is compared, not the array
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(apiKeyHash.clone()));
+        // the entry keeps a copy of the array, which the caller can reuse for another key
+        apiKeyHash[0] = 0x0b;
+        Assertions.assertTrue(rateLimiter.tryAcquire(apiKeyHash).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(new byte[]{0x0a, 0x1b, 0x2c, 0x3d}).isAllowed());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire((byte[]) null));
+    }
+
+    @Test
+    void onlyPrioritiesWithoutHeadroomAreAccepted() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L));
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.CRITICAL).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.LOW).isAllowed());
+    }
+
+    @Test
+    void reservationsOnlyTakeTheAvailablePermits() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L));
+
+        Assertions.assertFalse(rateLimiter.supportsReservations());
+        Assertions.assertTrue(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ofSeconds(1L)));
+        // the next window is not waited for
+        Assertions.assertFalse(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ofSeconds(1L)));
+    }
+
+    @Test
+    void costIsSettledInTheCurrentWindow() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 10L), timeSource);
+
+        rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 1L).orElseThrow().commit(9L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        rateLimiter.settle(IP_ADDRESS_KEY, -3L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).isAllowed());
+
+        // the cost of a request of an expired window is dropped
+        timeSource.advance(Duration.ofMinutes(1L));
+        rateLimiter.settle(IP_ADDRESS_KEY, 10L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+    }
 }
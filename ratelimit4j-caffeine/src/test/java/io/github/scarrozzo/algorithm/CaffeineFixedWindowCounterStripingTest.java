@@ -0,0 +1,118 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineFixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Many threads hit the same key, so its window is striped once its counter is contended. The counts must be exact
+ * whether the window has been striped or not.
+ */
+class CaffeineFixedWindowCounterStripingTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+    private static final int THREADS = 8;
+
+    @Test
+    @SneakyThrows
+    void hotKeyKeepsItsPermits() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 100_000L), timeSource);
+        final LongAdder allowedPermits = new LongAdder();
+
+        // the permits are never exhausted, so every request is accepted
+        runConcurrently(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                if (rateLimiter.tryAcquirePermits(IP_ADDRESS_KEY, 1L)) {
+                    allowedPermits.add(1L);
+                }
+            }
+        });
+        Assertions.assertEquals(80_000L, allowedPermits.sum());
+
+        RateLimiterDecision decision = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(decision.isAllowed());
+        Assertions.assertEquals(19_999L, decision.getRemainingPermits());
+
+        // the permits left in the window are accepted at once, even if they are spread over the cells
+        decision = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 19_999L);
+        Assertions.assertTrue(decision.isAllowed());
+        Assertions.assertEquals(0L, decision.getRemainingPermits());
+
+        decision = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertEquals(Duration.ofMinutes(1L).toNanos(), decision.getNanosToNextPermit());
+
+        // the refunds can be used again
+        rateLimiter.settle(IP_ADDRESS_KEY, -5L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        // each window starts again with all its permits
+        timeSource.advance(Duration.ofMinutes(1L));
+        decision = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(decision.isAllowed());
+        Assertions.assertEquals(99_999L, decision.getRemainingPermits());
+    }
+
+    @Test
+    @SneakyThrows
+    void hotKeyNeverExceedsTheLimit() {
+        long numberOfRequests = 100_000L;
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, numberOfRequests), new ManualTimeSource());
+        final LongAdder allowedPermits = new LongAdder();
+        final AtomicInteger threads = new AtomicInteger();
+
+        // the weighted requests need the permits of many cells once their own cell is exhausted
+        runConcurrently(() -> {
+            final long permits = threads.getAndIncrement() % 2 == 0 ? 1L : 3L;
+            for (int i = 0; i < 50_000; i++) {
+                if (rateLimiter.tryAcquirePermits(IP_ADDRESS_KEY, permits)) {
+                    allowedPermits.add(permits);
+                }
+            }
+        });
+
+        Assertions.assertTrue(allowedPermits.sum() <= numberOfRequests);
+        Assertions.assertTrue(allowedPermits.sum() > numberOfRequests - 3L * THREADS);
+
+        rateLimiter.settle(IP_ADDRESS_KEY, -5L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).isAllowed());
+    }
+
+    // the threads start together, so they contend on the key
+    private static void runConcurrently(Runnable task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            });
+            threads[t].start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
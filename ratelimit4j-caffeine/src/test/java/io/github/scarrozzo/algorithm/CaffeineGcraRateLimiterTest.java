@@ -0,0 +1,126 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineGcraRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.GcraRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+class CaffeineGcraRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final RateLimiter<GcraRateLimiterConfig> rateLimiter = new CaffeineGcraRateLimiter(new GcraRateLimiterConfig(2, 2_000L));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<GcraRateLimiterConfig> rateLimiter = new CaffeineGcraRateLimiter(new GcraRateLimiterConfig(2, 2_000L));
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void tokensAreRefilledOneAtATime() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<GcraRateLimiterConfig> rateLimiter = new CaffeineGcraRateLimiter(
+                new GcraRateLimiterConfig(4, Duration.ofMillis(400L)), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 4L).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(0L, rejected.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(100L).toNanos(), rejected.getNanosToNextPermit());
+
+        // a quarter of the refill period gives back exactly one token
+        timeSource.advance(Duration.ofMillis(100L));
+        RateLimiterDecision allowed = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(allowed.isAllowed());
+        Assertions.assertEquals(0L, allowed.getRemainingPermits());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        timeSource.advance(Duration.ofMillis(250L));
+        RateLimiterDecision weighted = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(weighted.isAllowed());
+        Assertions.assertEquals(0L, weighted.getRemainingPermits());
+    }
+
+    @Test
+    void requestsLargerThanTheBucketAreRejected() {
+        final RateLimiter<GcraRateLimiterConfig> rateLimiter = new CaffeineGcraRateLimiter(
+                new GcraRateLimiterConfig(10, Duration.ofSeconds(10L)), new ManualTimeSource());
+
+        // one second per token: the emission time of the permits exceeds a long
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10_000_000_000L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(10L, rejected.getRemainingPermits());
+
+        // the theoretical arrival time has not moved
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<GcraRateLimiterConfig> rateLimiter = new CaffeineGcraRateLimiter(new GcraRateLimiterConfig(5, 60_000L));
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void reserveMovesTheArrivalTime() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<GcraRateLimiterConfig> rateLimiter = new CaffeineGcraRateLimiter(
+                new GcraRateLimiterConfig(2, Duration.ofMillis(200L)), timeSource);
+
+        Assertions.assertEquals(0L, rateLimiter.reserve(IP_ADDRESS_KEY, 2L));
+        Assertions.assertEquals(Duration.ofMillis(100L).toNanos(), rateLimiter.reserve(IP_ADDRESS_KEY, 1L));
+        Assertions.assertEquals(-1L, rateLimiter.tryReserve(IP_ADDRESS_KEY, 1L, Duration.ofMillis(150L).toNanos()));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.reserve(IP_ADDRESS_KEY, 3L));
+
+        timeSource.advance(Duration.ofMillis(200L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void verifyManyRequestsConcurrentUpdatesWithSuccess() {
+        final RateLimiter<GcraRateLimiterConfig> rateLimiter = new CaffeineGcraRateLimiter(new GcraRateLimiterConfig(10_000L, 60_000L));
+        final AtomicInteger allowed = new AtomicInteger();
+
+        IntStream.range(0, 20_000).parallel().forEach(i -> {
+            if (rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed()) {
+                allowed.incrementAndGet();
+            }
+        });
+
+        // a few tokens can be refilled while the requests are running
+        Assertions.assertTrue(allowed.get() >= 10_000);
+        Assertions.assertTrue(allowed.get() < 10_100);
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineHierarchicalRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.HierarchicalRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.HierarchicalRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+class CaffeineHierarchicalRateLimiterTest {
+
+    private static final String TENANT_KEY = "tenant";
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final HierarchicalRateLimiter rateLimiter = new CaffeineHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(100L, 1_000L), CompositeRateLimiterConfig.Limit.of(10L, 1_000L)));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(List.of(RateLimiter.GLOBAL_KEY, TENANT_KEY)));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final HierarchicalRateLimiter rateLimiter = new CaffeineHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(100L, 60_000L), CompositeRateLimiterConfig.Limit.of(2L, 60_000L)),
+                new ManualTimeSource());
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(List.of(RateLimiter.GLOBAL_KEY, TENANT_KEY)));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(RateLimiter.GLOBAL_KEY + "/" + TENANT_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(List.of(RateLimiter.GLOBAL_KEY, TENANT_KEY)));
+    }
+
+    @Test
+    void outerLevelIsSharedByTheInnerKeys() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final HierarchicalRateLimiter rateLimiter = new CaffeineHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(3L, 3_000L), CompositeRateLimiterConfig.Limit.of(2L, 1_000L)), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, "user1"), 2L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, "user2")).isAllowed());
+
+        // user3 has a full bucket, but the tenant has none left
+        RateLimiterDecision decision = rateLimiter.tryAcquire(List.of(TENANT_KEY, "user3"));
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertEquals(0L, decision.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofSeconds(1L).toNanos(), decision.getNanosToNextPermit());
+
+        // the same user in another tenant has its own limit
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of("other", "user1"), 2L).isAllowed());
+
+        timeSource.advance(Duration.ofSeconds(1L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, "user3")).isAllowed());
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTheOuterLevels() {
+        final HierarchicalRateLimiter rateLimiter = new CaffeineHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(5L, 3_600_000L), CompositeRateLimiterConfig.Limit.of(3L, 3_600_000L)),
+                new ManualTimeSource());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(List.of(TENANT_KEY, "user1"), 4L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(3L, rejected.getRemainingPermits());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, "user1"), 3L).isAllowed());
+        RateLimiterDecision allowed = rateLimiter.tryAcquire(List.of(TENANT_KEY, "user2"), 2L);
+        Assertions.assertTrue(allowed.isAllowed());
+        Assertions.assertEquals(0L, allowed.getRemainingPermits());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(List.of(TENANT_KEY, "user2"), 0L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(List.of(TENANT_KEY)));
+    }
+
+    @Test
+    void requestsLargerThanTheSmallestLevelAreRejected() {
+        final HierarchicalRateLimiter rateLimiter = new CaffeineHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(100L, Duration.ofDays(1L)), CompositeRateLimiterConfig.Limit.of(10L, Duration.ofHours(1L))),
+                new ManualTimeSource());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, "user1"), 5L).isAllowed());
+
+        // the emission time of the permits exceeds a long
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(List.of(TENANT_KEY, "user1"), 100_000_000L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(5L, rejected.getRemainingPermits());
+
+        // the outer level has not been moved
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, "user2"), 10L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, "user1"), 5L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(List.of(TENANT_KEY, "user1")).isAllowed());
+    }
+
+    @Test
+    void keysOfThePathCannotContainTheSeparator() {
+        final HierarchicalRateLimiter rateLimiter = new CaffeineHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(10L, 3_600_000L), CompositeRateLimiterConfig.Limit.of(1L, 3_600_000L)),
+                new ManualTimeSource());
+
+        // [a/b, c] and [a, b/c] would share the limit of the inner level
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of("a", "b")).isAllowed());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(List.of("a/b", "c")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(List.of("a", "b/c")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire("a/b/c", 1L));
+    }
+
+    @Test
+    void verifyManyRequestsLimitError() {
+        long numberOfRequests = 1_000L;
+        final HierarchicalRateLimiter rateLimiter = new CaffeineHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(numberOfRequests, 3_600_000L), CompositeRateLimiterConfig.Limit.of(numberOfRequests, 3_600_000L)),
+                new ManualTimeSource());
+
+        // ten users share the tenant limit
+        long allowed = IntStream.range(0, (int) numberOfRequests * 3).parallel()
+                .filter(value -> rateLimiter.tryAcquire(List.of(TENANT_KEY, "user" + value % 10), 1L).isAllowed())
+                .count();
+
+        Assertions.assertEquals(numberOfRequests, allowed);
+    }
+
+    @Test
+    void configurationIsValidated() {
+        Assertions.assertThrows(RateLimiterConfigException.class, HierarchicalRateLimiterConfig::new);
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(10L, 1_000L), null));
+    }
+}
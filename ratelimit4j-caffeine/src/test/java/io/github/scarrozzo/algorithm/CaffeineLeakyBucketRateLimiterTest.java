@@ -2,13 +2,17 @@ package io.github.scarrozzo.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineLeakyBucketRateLimiter;
 import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 class CaffeineLeakyBucketRateLimiterTest {
@@ -27,7 +31,7 @@ class CaffeineLeakyBucketRateLimiterTest {
     @Test
     void evaluateRequestWithRateLimitError() {
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new CaffeineLeakyBucketRateLimiter(
-                new LeakyBucketRateLimiterConfig(2L, 1L, 10L, 1000L));
+                new LeakyBucketRateLimiterConfig(2L, 1L, 10L, 1000L), new ManualTimeSource());
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
@@ -139,4 +143,97 @@ class CaffeineLeakyBucketRateLimiterTest {
                 }));
     }
 
+    @Test
+    void tryAcquireReturnsDecisionWithoutThrowing() {
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new CaffeineLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(2L, 1L, 2_000L, 5_000L));
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(1L, first.getRemainingPermits());
+        Assertions.assertEquals(0L, first.getNanosToNextPermit());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(second.isAllowed());
+        Assertions.assertEquals(0L, second.getRemainingPermits());
+
+        RateLimiterDecision third = Assertions.assertDoesNotThrow(() -> rateLimiter.tryAcquire(IP_ADDRESS_KEY));
+        Assertions.assertFalse(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+        Assertions.assertTrue(third.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(third.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(2_000L));
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new CaffeineLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(5L, 1L, 2_000L, 5_000L));
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void reserveReturnsTimeToWaitForTheNextOutflow() {
+        long outflowPeriodMsec = 500L;
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new CaffeineLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(2L, 1L, outflowPeriodMsec, 5_000L));
+
+        Assertions.assertEquals(0L, rateLimiter.reserve(IP_ADDRESS_KEY, 2L));
+
+        long nanosToWait = rateLimiter.reserve(IP_ADDRESS_KEY, 1L);
+        Assertions.assertTrue(nanosToWait > 0L);
+        Assertions.assertTrue(nanosToWait <= TimeUnit.MILLISECONDS.toNanos(outflowPeriodMsec));
+
+        // the reserved place is released by the next outflow
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.reserve(IP_ADDRESS_KEY, 3L));
+    }
+
+    @Test
+    void acquireWaitsForTheNextOutflow() {
+        long outflowPeriodMsec = 300L;
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new CaffeineLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(1L, 1L, outflowPeriodMsec, 5_000L));
+
+        Assertions.assertTrue(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ZERO));
+        Assertions.assertFalse(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ofMillis(10L)));
+
+        long start = System.nanoTime();
+        Assertions.assertTrue(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ofSeconds(1L)));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(outflowPeriodMsec / 2));
+    }
+
+    @Test
+    void outflowIsComputedWhenTheKeyIsAccessed() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new CaffeineLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(10L, 2L, 1_000L, 500L), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+
+        // three periods leak out six requests, the partial period leaks nothing
+        timeSource.advance(Duration.ofMillis(3_500L));
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 7L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(6L, rejected.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(500L).toNanos(), rejected.getNanosToNextPermit());
+
+        // the key is kept beyond the inactivity period while its queue is not empty
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 6L).isAllowed());
+        timeSource.advance(Duration.ofMillis(1_500L));
+        Assertions.assertEquals(1L, rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(1_000L).toNanos(), rateLimiter.reserve(IP_ADDRESS_KEY, 2L));
+    }
 }
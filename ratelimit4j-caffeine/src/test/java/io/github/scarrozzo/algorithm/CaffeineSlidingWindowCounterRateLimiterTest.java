@@ -0,0 +1,94 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineSlidingWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+class CaffeineSlidingWindowCounterRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(500L, 1L));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(500L, 2L));
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void previousWindowIsWeightedAcrossTheBoundary() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(Duration.ofSeconds(1L), 10L), timeSource);
+
+        timeSource.advance(Duration.ofMillis(900L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+
+        // a fixed window would accept other 10 requests right after the boundary
+        timeSource.advance(Duration.ofMillis(100L));
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(0L, rejected.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(100L).toNanos(), rejected.getNanosToNextPermit());
+
+        // half of the previous window is still covered by the sliding window
+        timeSource.advance(Duration.ofMillis(500L));
+        RateLimiterDecision allowed = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L);
+        Assertions.assertTrue(allowed.isAllowed());
+        Assertions.assertEquals(0L, allowed.getRemainingPermits());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        // two windows later nothing is left
+        timeSource.advance(Duration.ofSeconds(2L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(Duration.ofHours(1L), 5L), new ManualTimeSource());
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void verifyManyRequestsConcurrentUpdatesWithSuccess() {
+        long numberOfRequests = 10_000L;
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(Duration.ofHours(1L), numberOfRequests), new ManualTimeSource());
+
+        IntStream.range(0, (int) numberOfRequests).parallel().forEach(value ->
+                Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY)));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+}
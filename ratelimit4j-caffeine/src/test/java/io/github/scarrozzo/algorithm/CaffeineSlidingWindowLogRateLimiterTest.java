@@ -0,0 +1,118 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineSlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+class CaffeineSlidingWindowLogRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(500L, 1L));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(500L, 2L));
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void requestsLeaveTheWindowOneByOne() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(Duration.ofSeconds(1L), 3L), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        timeSource.advance(Duration.ofMillis(300L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        timeSource.advance(Duration.ofMillis(300L));
+
+        RateLimiterDecision last = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(last.isAllowed());
+        Assertions.assertEquals(0L, last.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(400L).toNanos(), last.getNanosToNextPermit());
+
+        // a window that starts right after the first request still contains the other two
+        timeSource.advance(Duration.ofMillis(400L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(0L, rejected.getRemainingPermits());
+        // the second and the third request have to leave the window
+        Assertions.assertEquals(Duration.ofMillis(600L).toNanos(), rejected.getNanosToNextPermit());
+
+        timeSource.advance(Duration.ofMillis(600L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void windowsLongerThanAnIntOfNanoseconds() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(Duration.ofDays(1L), 2L), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        timeSource.advance(Duration.ofHours(12L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        // the timestamps are rounded to the time unit of the log, about 40 microseconds for one day
+        Assertions.assertEquals(Duration.ofHours(12L).toNanos(), rejected.getNanosToNextPermit(), Duration.ofMillis(1L).toNanos());
+
+        timeSource.advance(Duration.ofNanos(rejected.getNanosToNextPermit()));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(Duration.ofHours(1L), 5L), new ManualTimeSource());
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertFalse(rateLimiter.tryAcquire("127.0.0.2", 6L).isAllowed());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void verifyManyRequestsConcurrentUpdatesWithSuccess() {
+        long numberOfRequests = 10_000L;
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(Duration.ofHours(1L), numberOfRequests), new ManualTimeSource());
+
+        IntStream.range(0, (int) numberOfRequests).parallel().forEach(value ->
+                Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY)));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+}
@@ -1,14 +1,23 @@
 package io.github.scarrozzo.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.CostReservation;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
 import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 class CaffeineTokenBucketRateLimiterTest {
@@ -89,4 +98,243 @@ class CaffeineTokenBucketRateLimiterTest {
                     System.out.println("Finished " + value + ". time: " + Instant.now());
                 }));
     }
+
+    @Test
+    void tryAcquireReturnsDecisionWithoutThrowing() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(2, 2_000L));
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(1L, first.getRemainingPermits());
+        Assertions.assertEquals(0L, first.getNanosToNextPermit());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(second.isAllowed());
+        Assertions.assertEquals(0L, second.getRemainingPermits());
+
+        RateLimiterDecision third = Assertions.assertDoesNotThrow(() -> rateLimiter.tryAcquire(IP_ADDRESS_KEY));
+        Assertions.assertFalse(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+        Assertions.assertTrue(third.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(third.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(2_000L));
+    }
+
+    @Test
+    void tryAcquireWritesTheDecisionOfTheCaller() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(200L, 200L, Duration.ofSeconds(2L), TokenBucketRefillStrategy.CONTINUOUS), timeSource);
+        final MutableRateLimiterDecision decision = new MutableRateLimiterDecision();
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 1L, decision));
+        Assertions.assertTrue(decision.isAllowed());
+        Assertions.assertEquals(199L, decision.getRemainingPermits());
+        Assertions.assertEquals(0L, decision.getNanosToNextPermit());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 199L, decision));
+        Assertions.assertEquals(0L, decision.getRemainingPermits());
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(10L), decision.getNanosToNextPermit());
+
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L, decision));
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(20L), decision.getNanosToNextPermit());
+        Assertions.assertEquals(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).toString(), decision.toDecision().toString());
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(5, 2_000L));
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void evaluateRequestAsyncCompletesWithDecision() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(2, 2_000L));
+
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+
+        RateLimiterDecision decision = rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join();
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertEquals(0L, decision.getRemainingPermits());
+        Assertions.assertTrue(decision.getNanosToNextPermit() > 0L);
+    }
+
+    @Test
+    void reserveReturnsTimeToWaitForTheNextRefill() {
+        long refillPeriodMsec = 500L;
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(2, refillPeriodMsec));
+
+        Assertions.assertEquals(0L, rateLimiter.reserve(IP_ADDRESS_KEY, 2L));
+
+        long nanosToWait = rateLimiter.reserve(IP_ADDRESS_KEY, 1L);
+        Assertions.assertTrue(nanosToWait > 0L);
+        Assertions.assertTrue(nanosToWait <= TimeUnit.MILLISECONDS.toNanos(refillPeriodMsec));
+
+        // the reserved token is taken from the next bucket
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.reserve(IP_ADDRESS_KEY, 3L));
+    }
+
+    @Test
+    void acquireWaitsForTheNextRefill() {
+        long refillPeriodMsec = 300L;
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(1, refillPeriodMsec));
+
+        Assertions.assertTrue(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ZERO));
+        Assertions.assertFalse(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ofMillis(10L)));
+
+        long start = System.nanoTime();
+        Assertions.assertTrue(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ofSeconds(1L)));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(refillPeriodMsec / 2));
+    }
+
+    @Test
+    void refillFollowsTheTimeSource() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(1, Duration.ofNanos(500_000L)), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(500_000L, rejected.getNanosToNextPermit());
+
+        timeSource.advance(Duration.ofNanos(499_999L));
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        timeSource.advance(Duration.ofNanos(1L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void continuousRefillAddsTokensAsSoonAsTheyAreEarned() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        // 10 tokens per second: one token every 100 milliseconds
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(5L, 10L, Duration.ofSeconds(1L), TokenBucketRefillStrategy.CONTINUOUS), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(Duration.ofMillis(100L).toNanos(), rejected.getNanosToNextPermit());
+
+        // the time of a partially earned token is not lost
+        timeSource.advance(Duration.ofMillis(150L));
+        RateLimiterDecision allowed = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(allowed.isAllowed());
+        Assertions.assertEquals(0L, allowed.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(50L).toNanos(), allowed.getNanosToNextPermit());
+
+        timeSource.advance(Duration.ofMillis(250L));
+        RateLimiterDecision weighted = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(weighted.isAllowed());
+        Assertions.assertEquals(0L, weighted.getRemainingPermits());
+
+        // the bucket never holds more than its size
+        timeSource.advance(Duration.ofSeconds(10L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void intervalRefillAddsRefillTokensAtTheEndOfEachPeriod() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(4L, 2L, Duration.ofSeconds(1L), TokenBucketRefillStrategy.INTERVAL), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 4L).isAllowed());
+
+        timeSource.advance(Duration.ofMillis(999L));
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        timeSource.advance(Duration.ofMillis(1L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(Duration.ofSeconds(2L).toNanos(), rejected.getNanosToNextPermit());
+    }
+
+    @Test
+    void continuousRefillConfigurationIsValidated() {
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new TokenBucketRateLimiterConfig(5L, 0L, Duration.ofSeconds(1L), TokenBucketRefillStrategy.CONTINUOUS));
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new TokenBucketRateLimiterConfig(5L, 1L, Duration.ofSeconds(1L), null));
+    }
+
+    @Test
+    void lowerPrioritiesLeaveTheReservedHeadroom() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+
+        // LOW leaves 4 tokens, NORMAL 2, HIGH 1
+        RateLimiterDecision low = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 6L, RequestPriority.LOW);
+        Assertions.assertTrue(low.isAllowed());
+        Assertions.assertEquals(0L, low.getRemainingPermits());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.LOW).isAllowed());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L, RequestPriority.NORMAL).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.NORMAL).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.HIGH).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.HIGH).isAllowed());
+
+        // the critical requests can take the last token
+        RateLimiterDecision critical = rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.CRITICAL);
+        Assertions.assertTrue(critical.isAllowed());
+        Assertions.assertEquals(0L, critical.getRemainingPermits());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.CRITICAL).isAllowed());
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY, RequestPriority.CRITICAL));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, (RequestPriority) null));
+    }
+
+    @Test
+    void customPriorityReservesItsHeadroom() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+        final RequestPriority batch = RequestPriority.of("BATCH", 0.75);
+
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L, batch).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L, batch).isAllowed());
+        Assertions.assertEquals(RequestPriority.LOW, RequestPriority.named("low").orElseThrow());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RequestPriority.of("ALL", 1.0));
+    }
+
+    @Test
+    void costIsSettledAfterTheRequest() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+
+        // the request estimated at 2 permits cost 5
+        CostReservation reservation = rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 2L).orElseThrow();
+        reservation.commit(5L);
+        reservation.commit(8L);
+        Assertions.assertEquals(5L, rateLimiter.tryAcquire(IP_ADDRESS_KEY).getRemainingPermits() + 1L);
+
+        // a cache hit gives back all its permits
+        rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 4L).orElseThrow().refund();
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 4L).isAllowed());
+
+        // charges can exceed the limit, the debt is paid before new requests are accepted
+        rateLimiter.settle(IP_ADDRESS_KEY, 10L);
+        Assertions.assertTrue(rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 1L).isEmpty());
+        rateLimiter.settle(IP_ADDRESS_KEY, -100L);
+        Assertions.assertEquals(10L, rateLimiter.tryAcquire(IP_ADDRESS_KEY).getRemainingPermits() + 1L);
+    }
 }
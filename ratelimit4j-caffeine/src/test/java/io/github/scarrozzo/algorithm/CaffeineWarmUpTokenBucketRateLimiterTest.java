@@ -0,0 +1,105 @@
+package io.github.scarrozzo.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineWarmUpTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.WarmUpTokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class CaffeineWarmUpTokenBucketRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final RateLimiter<WarmUpTokenBucketRateLimiterConfig> rateLimiter = new CaffeineWarmUpTokenBucketRateLimiter(
+                new WarmUpTokenBucketRateLimiterConfig(3L, 1_000L, 10_000L));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        // a cold bucket only holds a third of the tokens
+        final RateLimiter<WarmUpTokenBucketRateLimiterConfig> rateLimiter = new CaffeineWarmUpTokenBucketRateLimiter(
+                new WarmUpTokenBucketRateLimiterConfig(6L, 60_000L, 60_000L), new ManualTimeSource());
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void rateAndBucketSizeGrowDuringTheWarmUp() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        // steady rate of 10 tokens per second, starting from 5 tokens per second
+        final RateLimiter<WarmUpTokenBucketRateLimiterConfig> rateLimiter = new CaffeineWarmUpTokenBucketRateLimiter(
+                new WarmUpTokenBucketRateLimiterConfig(10L, Duration.ofSeconds(1L), Duration.ofSeconds(10L), 2.0), timeSource);
+
+        RateLimiterDecision cold = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L);
+        Assertions.assertTrue(cold.isAllowed());
+        Assertions.assertEquals(0L, cold.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(200L).toNanos(), cold.getNanosToNextPermit());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        // halfway through the warm up the bucket holds 7.5 tokens
+        timeSource.advance(Duration.ofSeconds(5L));
+        RateLimiterDecision warming = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 7L);
+        Assertions.assertTrue(warming.isAllowed());
+        Assertions.assertEquals(0L, warming.getRemainingPermits());
+
+        timeSource.advance(Duration.ofSeconds(5L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+
+        // once warm the refill runs at the steady rate
+        timeSource.advance(Duration.ofMillis(100L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void idleKeyBecomesColdAgain() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<WarmUpTokenBucketRateLimiterConfig> rateLimiter = new CaffeineWarmUpTokenBucketRateLimiter(
+                new WarmUpTokenBucketRateLimiterConfig(10L, Duration.ofSeconds(1L), Duration.ofSeconds(10L), 2.0), timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(RateLimiter.GLOBAL_KEY).isAllowed());
+        timeSource.advance(Duration.ofSeconds(5L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(RateLimiter.GLOBAL_KEY).isAllowed());
+        timeSource.advance(Duration.ofSeconds(5L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(RateLimiter.GLOBAL_KEY, 10L).isAllowed());
+
+        // idle for a whole warm up period
+        timeSource.advance(Duration.ofSeconds(10L));
+        Assertions.assertFalse(rateLimiter.tryAcquire(RateLimiter.GLOBAL_KEY, 6L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(RateLimiter.GLOBAL_KEY, 5L).isAllowed());
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<WarmUpTokenBucketRateLimiterConfig> rateLimiter = new CaffeineWarmUpTokenBucketRateLimiter(
+                new WarmUpTokenBucketRateLimiterConfig(4L, Duration.ofHours(1L), Duration.ofHours(1L), 1.0), new ManualTimeSource());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(1L, rejected.getRemainingPermits());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 1L).isAllowed());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void configurationIsValidated() {
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new WarmUpTokenBucketRateLimiterConfig(10L, Duration.ofSeconds(1L), Duration.ZERO, 3.0));
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new WarmUpTokenBucketRateLimiterConfig(10L, Duration.ofSeconds(1L), Duration.ofSeconds(1L), 0.5));
+    }
+}
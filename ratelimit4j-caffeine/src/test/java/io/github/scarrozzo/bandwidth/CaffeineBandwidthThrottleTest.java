@@ -0,0 +1,34 @@
+package io.github.scarrozzo.bandwidth;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.bandwidth.BandwidthThrottle;
+import io.github.scarrozzo.ratelimit4j.core.bandwidth.RateLimitedOutputStream;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+class CaffeineBandwidthThrottleTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    @SneakyThrows
+    void transferWaitsForTheBandwidth() {
+        // 1000 bytes every 100 ms
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(1_000L, 100L));
+
+        long start = System.nanoTime();
+        try (OutputStream out = new RateLimitedOutputStream(OutputStream.nullOutputStream(),
+                new BandwidthThrottle(rateLimiter, IP_ADDRESS_KEY, 500))) {
+            out.write(new byte[3_000]);
+        }
+
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150L));
+    }
+}
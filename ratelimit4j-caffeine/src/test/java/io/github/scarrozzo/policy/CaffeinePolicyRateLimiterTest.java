@@ -0,0 +1,96 @@
+package io.github.scarrozzo.policy;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.registry.CaffeineRateLimiterFactory;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.GcraRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.HierarchicalRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.WarmUpTokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.policy.PolicyRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.registry.RateLimiterRegistry;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class CaffeinePolicyRateLimiterTest {
+
+    private static final String FREE_CUSTOMER_KEY = "free-customer";
+    private static final String PREMIUM_CUSTOMER_KEY = "premium-customer";
+
+    private static final FixedWindowCounterRateLimiterConfig FREE_PLAN = new FixedWindowCounterRateLimiterConfig(60_000L, 1L);
+    private static final FixedWindowCounterRateLimiterConfig PREMIUM_PLAN = new FixedWindowCounterRateLimiterConfig(60_000L, 3L);
+
+    @Test
+    void keysAreEvaluatedWithTheirPlan() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(new CaffeineRateLimiterFactory(new ManualTimeSource()));
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = registry.rateLimiter("api", FREE_PLAN,
+                key -> PREMIUM_CUSTOMER_KEY.equals(key) ? PREMIUM_PLAN : null);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(FREE_CUSTOMER_KEY).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(FREE_CUSTOMER_KEY).isAllowed());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(PREMIUM_CUSTOMER_KEY, 3L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(PREMIUM_CUSTOMER_KEY).isAllowed());
+
+        Assertions.assertSame(rateLimiter, registry.rateLimiter("api", FREE_PLAN, key -> null));
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                registry.rateLimiter("api", new TokenBucketRateLimiterConfig(10L, 1_000L), key -> null));
+    }
+
+    @Test
+    void keysWithTheSamePlanShareOneRateLimiter() {
+        final PolicyRateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new PolicyRateLimiter<>("api", FREE_PLAN,
+                key -> key.startsWith("premium") ? new FixedWindowCounterRateLimiterConfig(60_000L, 3L) : FREE_PLAN,
+                new CaffeineRateLimiterFactory());
+
+        Assertions.assertSame(rateLimiter.rateLimiterFor("premium-1"), rateLimiter.rateLimiterFor("premium-2"));
+        Assertions.assertSame(rateLimiter.rateLimiterFor("free-1"), rateLimiter.rateLimiterFor("free-2"));
+        Assertions.assertNotSame(rateLimiter.rateLimiterFor("premium-1"), rateLimiter.rateLimiterFor("free-1"));
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(42L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(42L).isAllowed());
+    }
+
+    @Test
+    void keysKeepTheirPermitsWhenTheirPlanChanges() {
+        final Duration hour = Duration.ofHours(1L);
+        // each plan doubles the permits of the free plan, at the same rate for the cell rate limiters
+        final List<List<RateLimiterConfig>> plans = List.of(
+                List.of(new TokenBucketRateLimiterConfig(2L, hour), new TokenBucketRateLimiterConfig(4L, hour)),
+                List.of(new LeakyBucketRateLimiterConfig(2L, 1L, hour, hour), new LeakyBucketRateLimiterConfig(4L, 1L, hour, hour)),
+                List.of(new FixedWindowCounterRateLimiterConfig(hour, 2L), new FixedWindowCounterRateLimiterConfig(hour, 4L)),
+                List.of(new GcraRateLimiterConfig(2L, hour.multipliedBy(2L)), new GcraRateLimiterConfig(4L, hour.multipliedBy(4L))),
+                List.of(new SlidingWindowCounterRateLimiterConfig(hour, 2L), new SlidingWindowCounterRateLimiterConfig(hour, 4L)),
+                List.of(new SlidingWindowLogRateLimiterConfig(hour, 2L), new SlidingWindowLogRateLimiterConfig(hour, 4L)),
+                List.of(new WarmUpTokenBucketRateLimiterConfig(2L, hour, hour, 1.0), new WarmUpTokenBucketRateLimiterConfig(4L, hour, hour, 1.0)),
+                List.of(new CompositeRateLimiterConfig(CompositeRateLimiterConfig.Limit.of(2L, hour.multipliedBy(2L))),
+                        new CompositeRateLimiterConfig(CompositeRateLimiterConfig.Limit.of(4L, hour.multipliedBy(4L)))),
+                List.of(new HierarchicalRateLimiterConfig(CompositeRateLimiterConfig.Limit.of(2L, hour.multipliedBy(2L))),
+                        new HierarchicalRateLimiterConfig(CompositeRateLimiterConfig.Limit.of(4L, hour.multipliedBy(4L)))));
+
+        for (List<RateLimiterConfig> plan : plans) {
+            final Map<String, RateLimiterConfig> customerPlans = new ConcurrentHashMap<>();
+            final PolicyRateLimiter<RateLimiterConfig> rateLimiter = new PolicyRateLimiter<>("api", plan.get(0),
+                    customerPlans::get, new CaffeineRateLimiterFactory(new ManualTimeSource()));
+
+            // the first requests of a customer are evaluated with the default plan while its plan is resolved
+            Assertions.assertTrue(rateLimiter.tryAcquire(PREMIUM_CUSTOMER_KEY, 2L).isAllowed(), plan.get(0).toString());
+            customerPlans.put(PREMIUM_CUSTOMER_KEY, plan.get(1));
+
+            Assertions.assertTrue(rateLimiter.tryAcquire(PREMIUM_CUSTOMER_KEY, 2L).isAllowed(), plan.get(1).toString());
+            Assertions.assertFalse(rateLimiter.tryAcquire(PREMIUM_CUSTOMER_KEY).isAllowed(), plan.get(1).toString());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.scarrozzo.registry;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineFixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.registry.CaffeineRateLimiterFactory;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.registry.RateLimiterRegistry;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+class CaffeineRateLimiterRegistryTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    void rateLimiterIsCreatedOnceForEachName() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(new CaffeineRateLimiterFactory());
+
+        RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = registry.rateLimiter("policy",
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L));
+
+        Assertions.assertInstanceOf(CaffeineFixedWindowCounterRateLimiter.class, rateLimiter);
+        Assertions.assertSame(rateLimiter, registry.rateLimiter("policy", new FixedWindowCounterRateLimiterConfig(1_000L, 5L)));
+        Assertions.assertSame(rateLimiter, registry.find("policy").orElseThrow());
+        Assertions.assertEquals(Set.of("policy"), registry.getNames());
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                registry.rateLimiter("policy", new TokenBucketRateLimiterConfig(10L, 1_000L)));
+
+        Assertions.assertTrue(registry.remove("policy"));
+        Assertions.assertTrue(registry.find("policy").isEmpty());
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                registry.rateLimiter(" ", new FixedWindowCounterRateLimiterConfig(60_000L, 1L)));
+    }
+
+    @Test
+    void rateLimitersShareTheStoreButNotTheKeys() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiterRegistry registry = new RateLimiterRegistry(new CaffeineRateLimiterFactory(timeSource));
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> shortWindow = registry.rateLimiter("short",
+                new FixedWindowCounterRateLimiterConfig(1_000L, 1L));
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> longWindow = registry.rateLimiter("long",
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L));
+
+        Assertions.assertTrue(shortWindow.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertTrue(longWindow.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(shortWindow.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(longWindow.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        // each scope expires its keys with its own policy
+        timeSource.advance(Duration.ofSeconds(1L));
+        Assertions.assertTrue(shortWindow.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(longWindow.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void leakyBucketRateLimitersStartNoThread() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(new CaffeineRateLimiterFactory());
+
+        IntStream.range(0, 100).forEach(i -> Assertions.assertTrue(registry.rateLimiter("policy" + i,
+                new LeakyBucketRateLimiterConfig(10L, 1L, 100L, 1_000L)).tryAcquire(IP_ADDRESS_KEY + i).isAllowed()));
+
+        // the outflows are computed when the keys are accessed
+        long timerThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("Timer-") || thread.getName().equals("ratelimit4j-leaky-bucket-outflow"))
+                .count();
+        Assertions.assertEquals(0L, timerThreads);
+        Assertions.assertEquals(100, registry.getNames().size());
+    }
+}
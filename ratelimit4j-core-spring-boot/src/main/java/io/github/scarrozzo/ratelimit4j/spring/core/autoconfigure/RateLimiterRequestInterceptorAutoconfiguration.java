@@ -0,0 +1,86 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.core.concurrency.AdaptiveConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.AdaptiveConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.pressure.JvmPressureConfig;
+import io.github.scarrozzo.ratelimit4j.core.pressure.JvmPressureSampler;
+import io.github.scarrozzo.ratelimit4j.core.pressure.PressureAwareRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.pressure.PressureSource;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.AdaptiveConcurrencyLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.JvmPressureProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Shared by the starters: the interceptors of their rate limiters are created by the factory, which picks up the
+ * concurrency limiter, the adaptive concurrency limiter and the pressure source beans, if any.
+ */
+@Configuration
+@EnableConfigurationProperties({SpringBootRateLimiterProperties.class, AdaptiveConcurrencyLimiterProperties.class,
+        JvmPressureProperties.class})
+public class RateLimiterRequestInterceptorAutoconfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "ratelimit4j.spring.web.adaptiveconcurrency", name = "enabled", havingValue = "true")
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(AdaptiveConcurrencyLimiterProperties adaptiveConcurrencyLimiterProperties) {
+        int initialLimit = AdaptiveConcurrencyLimiterProperties.DEFAULT_INITIAL_LIMIT;
+        int minLimit = AdaptiveConcurrencyLimiterProperties.DEFAULT_MIN_LIMIT;
+        int maxLimit = AdaptiveConcurrencyLimiterProperties.DEFAULT_MAX_LIMIT;
+
+        if (adaptiveConcurrencyLimiterProperties.getInitialLimit() != null) {
+            initialLimit = adaptiveConcurrencyLimiterProperties.getInitialLimit();
+        }
+
+        if (adaptiveConcurrencyLimiterProperties.getMinLimit() != null) {
+            minLimit = adaptiveConcurrencyLimiterProperties.getMinLimit();
+        }
+
+        if (adaptiveConcurrencyLimiterProperties.getMaxLimit() != null) {
+            maxLimit = adaptiveConcurrencyLimiterProperties.getMaxLimit();
+        }
+
+        return new AdaptiveConcurrencyLimiter(new AdaptiveConcurrencyLimiterConfig(initialLimit, minLimit, maxLimit));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(PressureSource.class)
+    @ConditionalOnProperty(prefix = "ratelimit4j.spring.web.pressure", name = "enabled", havingValue = "true")
+    public JvmPressureSampler jvmPressureSampler(JvmPressureProperties jvmPressureProperties) {
+        long samplingIntervalInMilliSeconds = JvmPressureProperties.DEFAULT_SAMPLING_INTERVAL_IN_MILLISECS;
+
+        if (jvmPressureProperties.getSamplingIntervalInMilliSeconds() != null) {
+            samplingIntervalInMilliSeconds = jvmPressureProperties.getSamplingIntervalInMilliSeconds();
+        }
+
+        return new JvmPressureSampler(new JvmPressureConfig(Duration.ofMillis(samplingIntervalInMilliSeconds)));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiterRequestInterceptorFactory rateLimiterRequestInterceptorFactory(SpringBootRateLimiterProperties springBootRateLimiterProperties,
+                                                                                     JvmPressureProperties jvmPressureProperties,
+                                                                                     ObjectProvider<ConcurrencyLimiter> concurrencyLimiter,
+                                                                                     ObjectProvider<AdaptiveConcurrencyLimiter> adaptiveConcurrencyLimiter,
+                                                                                     ObjectProvider<PressureSource> pressureSource) {
+        double minAdmissionRatio = PressureAwareRateLimiter.DEFAULT_MIN_ADMISSION_RATIO;
+
+        if (jvmPressureProperties.getMinAdmissionRatio() != null) {
+            minAdmissionRatio = jvmPressureProperties.getMinAdmissionRatio();
+        }
+
+        return new RateLimiterRequestInterceptorFactory(springBootRateLimiterProperties, concurrencyLimiter.getIfUnique(),
+                adaptiveConcurrencyLimiter.getIfUnique(), jvmPressureProperties.isEnabled() ? pressureSource.getIfUnique() : null,
+                minAdmissionRatio);
+    }
+
+}
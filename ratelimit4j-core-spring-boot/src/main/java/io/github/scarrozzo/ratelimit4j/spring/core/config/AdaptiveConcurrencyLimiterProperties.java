@@ -0,0 +1,19 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit4j.spring.web.adaptiveconcurrency")
+public class AdaptiveConcurrencyLimiterProperties {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    private boolean enabled;
+    private Integer initialLimit;
+    private Integer minLimit;
+    private Integer maxLimit;
+
+}
@@ -2,5 +2,7 @@ package io.github.scarrozzo.ratelimit4j.spring.core.config;
 
 public enum ClientType {
     IP_ADDRESS,
-    JWT
+    JWT,
+    // all the requests share the same key, e.g. to limit a whole instance while it warms up
+    GLOBAL
 }
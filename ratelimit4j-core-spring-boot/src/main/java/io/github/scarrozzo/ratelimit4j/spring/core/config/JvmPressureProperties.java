@@ -0,0 +1,17 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit4j.spring.web.pressure")
+public class JvmPressureProperties {
+
+    public static final long DEFAULT_SAMPLING_INTERVAL_IN_MILLISECS = 1_000L;
+
+    private boolean enabled;
+    private Long samplingIntervalInMilliSeconds;
+    // defaults to PressureAwareRateLimiter.DEFAULT_MIN_ADMISSION_RATIO
+    private Double minAdmissionRatio;
+
+}
@@ -16,9 +16,14 @@ public class SpringBootRateLimiterProperties {
     protected static final ClientType DEFAULT_CLIENT_TYPE = ClientType.IP_ADDRESS;
     protected static final List<String> DEFAULT_ANALYZED_PATHS = new ArrayList<>();
     protected static final List<RateLimiterType> DEFAULT_RATE_LIMITER_TYPES = List.of(RateLimiterType.TOKEN_BUCKET);
+    protected static final String DEFAULT_PRIORITY = "NORMAL";
 
     @NotNull
     private List<RateLimiterType> limiterTypes = DEFAULT_RATE_LIMITER_TYPES;
     private ClientType clientType = SpringBootRateLimiterProperties.DEFAULT_CLIENT_TYPE;
     private List<String> analyzedPaths = SpringBootRateLimiterProperties.DEFAULT_ANALYZED_PATHS;
+    private String priorityHeader;
+    // the class of the requests without the priority header or with an unknown one
+    private String defaultPriority = SpringBootRateLimiterProperties.DEFAULT_PRIORITY;
+    private boolean costAccounting;
 }
@@ -2,6 +2,7 @@ package io.github.scarrozzo.ratelimit4j.spring.core.evaluator;
 
 
 import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
 import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.ClientType;
 import io.github.scarrozzo.ratelimit4j.spring.core.exception.InvalidClientTypeException;
@@ -36,50 +37,116 @@ public class HttpRequestEvaluator {
                                                              HttpServletRequest request,
                                                              List<String> analyzedPaths,
                                                              RateLimiter<T> rateLimiter) {
+        resolve(clientType, request, analyzedPaths, rateLimiter, null);
+    }
+
+    /**
+     * Evaluates the request with the given priority class, see {@link #getPriority}. A null priority, or a rate limiter
+     * not supporting priorities, evaluates the request without priority.
+     */
+    public static <T extends RateLimiterConfig> void resolve(ClientType clientType,
+                                                             HttpServletRequest request,
+                                                             List<String> analyzedPaths,
+                                                             RateLimiter<T> rateLimiter,
+                                                             RequestPriority priority) {
+        if (request.getRequestURI() != null &&
+                analyzedPaths.stream().anyMatch(path -> Pattern.matches(path, request.getRequestURI()))) {
+            evaluate(clientType, request, rateLimiter, priority);
+        } else {
+            log.debug("Evaluate request not called for [path={}] because is not in the analyzed paths", request.getRequestURI());
+        }
+    }
+
+    /**
+     * Evaluates a request already known to be in the analyzed paths, e.g. matched against patterns compiled once.
+     */
+    public static <T extends RateLimiterConfig> void evaluate(ClientType clientType,
+                                                              HttpServletRequest request,
+                                                              RateLimiter<T> rateLimiter,
+                                                              RequestPriority priority) {
         switch (clientType) {
-            case IP_ADDRESS -> evaluateByIpAddress(request, analyzedPaths, rateLimiter);
-            case JWT -> evaluateByJwt(request, analyzedPaths, rateLimiter);
+            case IP_ADDRESS -> evaluateByIpAddress(request, rateLimiter, priority);
+            case JWT -> evaluateByJwt(request, rateLimiter, priority);
+            case GLOBAL -> evaluateGlobally(request, rateLimiter, priority);
             default -> throw new InvalidClientTypeException();
         }
     }
 
+    /**
+     * Reads the priority class named by the given header, e.g. set by a gateway from the plan of the client. The
+     * requests without the header, or with an unknown class, get the default priority: they must not be treated as
+     * critical, or untagged and spoofed requests would take the headroom reserved to the higher classes.
+     *
+     * @return the predefined priority class named by the header, or the default priority if the header is missing or unknown
+     */
+    public static RequestPriority getPriority(HttpServletRequest request, String priorityHeader, RequestPriority defaultPriority) {
+        String priorityName = StringUtils.hasText(priorityHeader) ? request.getHeader(priorityHeader) : null;
+        if (!StringUtils.hasText(priorityName)) {
+            return defaultPriority;
+        }
+
+        return RequestPriority.named(priorityName.trim()).orElseGet(() -> {
+            log.debug("Unknown priority [priority={}, path={}]", priorityName, request.getRequestURI());
+            return defaultPriority;
+        });
+    }
+
+    /**
+     * @return the key identifying the client of the request, or null if the request does not carry it
+     */
+    public static String getClientKey(ClientType clientType, HttpServletRequest request) {
+        return switch (clientType) {
+            case IP_ADDRESS -> getClientIpAddress(request);
+            case JWT -> request.getHeader(HttpHeaders.AUTHORIZATION) == null ? null : getJwt(request);
+            case GLOBAL -> RateLimiter.GLOBAL_KEY;
+            default -> throw new InvalidClientTypeException();
+        };
+    }
+
     private static <T extends RateLimiterConfig> void evaluateByIpAddress(HttpServletRequest request,
-                                                                          List<String> analyzedPaths,
-                                                                          RateLimiter<T> rateLimiter) {
-        if (request.getRequestURI() != null &&
-                analyzedPaths.stream().anyMatch(path -> Pattern.matches(path, request.getRequestURI()))) {
-            String ipAddress = getClientIpAddress(request);
-
-            if (StringUtils.hasText(ipAddress)) {
-                log.debug("Evaluating request for [ip={}, path={}, limiterType={}]", ipAddress, request.getRequestURI(),
-                        rateLimiter.getRateLimiterConfig().getRateLimiterType());
-                rateLimiter.evaluateRequest(ipAddress);
-            } else {
-                log.warn("Cannot evaluate request for [ip={}, path={}, limiterType={}] because ip address is empty",
-                        ipAddress, request.getRequestURI(), rateLimiter.getRateLimiterConfig().getRateLimiterType());
-            }
+                                                                          RateLimiter<T> rateLimiter,
+                                                                          RequestPriority priority) {
+        String ipAddress = getClientIpAddress(request);
+
+        if (StringUtils.hasText(ipAddress)) {
+            log.debug("Evaluating request for [ip={}, path={}, limiterType={}]", ipAddress, request.getRequestURI(),
+                    rateLimiter.getRateLimiterConfig().getRateLimiterType());
+            evaluateKey(rateLimiter, ipAddress, priority);
         } else {
-            log.debug("Evaluate request not called for [path={}] because is not in the analyzed paths", request.getRequestURI());
+            log.warn("Cannot evaluate request for [ip={}, path={}, limiterType={}] because ip address is empty",
+                    ipAddress, request.getRequestURI(), rateLimiter.getRateLimiterConfig().getRateLimiterType());
         }
     }
 
     private static <T extends RateLimiterConfig> void evaluateByJwt(HttpServletRequest request,
-                                                                    List<String> analyzedPaths,
-                                                                    RateLimiter<T> rateLimiter) {
-        if (request.getRequestURI() != null &&
-                analyzedPaths.stream().anyMatch(path -> Pattern.matches(path, request.getRequestURI()))) {
-            String jwt = getJwt(request);
-            if (StringUtils.hasText(jwt)) {
-                log.debug("Evaluating request for [jwt={}, path={}, limiterType={}]", jwt, request.getRequestURI(),
-                        rateLimiter.getRateLimiterConfig().getRateLimiterType());
-                rateLimiter.evaluateRequest(jwt);
-            } else {
-                log.warn("Cannot evaluate request for [jwt={}, path={}, limiterType={}] because jwt is empty", jwt,
-                        request.getRequestURI(), rateLimiter.getRateLimiterConfig().getRateLimiterType());
-            }
+                                                                    RateLimiter<T> rateLimiter,
+                                                                    RequestPriority priority) {
+        String jwt = getJwt(request);
+        if (StringUtils.hasText(jwt)) {
+            log.debug("Evaluating request for [jwt={}, path={}, limiterType={}]", jwt, request.getRequestURI(),
+                    rateLimiter.getRateLimiterConfig().getRateLimiterType());
+            evaluateKey(rateLimiter, jwt, priority);
         } else {
-            log.debug("Evaluate request not called for [path={}] because is not in the analyzed paths", request.getRequestURI());
+            log.warn("Cannot evaluate request for [jwt={}, path={}, limiterType={}] because jwt is empty", jwt,
+                    request.getRequestURI(), rateLimiter.getRateLimiterConfig().getRateLimiterType());
+        }
+    }
+
+    private static <T extends RateLimiterConfig> void evaluateGlobally(HttpServletRequest request,
+                                                                       RateLimiter<T> rateLimiter,
+                                                                       RequestPriority priority) {
+        log.debug("Evaluating request for [key={}, path={}, limiterType={}]", RateLimiter.GLOBAL_KEY, request.getRequestURI(),
+                rateLimiter.getRateLimiterConfig().getRateLimiterType());
+        evaluateKey(rateLimiter, RateLimiter.GLOBAL_KEY, priority);
+    }
+
+    private static <T extends RateLimiterConfig> void evaluateKey(RateLimiter<T> rateLimiter, String key, RequestPriority priority) {
+        if (priority == null || !rateLimiter.supportsPriorities()) {
+            rateLimiter.evaluateRequest(key);
+            return;
         }
+
+        rateLimiter.evaluateRequest(key, priority);
     }
 
     private static String getClientIpAddress(HttpServletRequest request) {
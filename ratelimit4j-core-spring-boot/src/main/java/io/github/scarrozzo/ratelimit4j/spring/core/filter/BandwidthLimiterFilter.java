@@ -0,0 +1,378 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.filter;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.bandwidth.BandwidthThrottle;
+import io.github.scarrozzo.ratelimit4j.core.bandwidth.RateLimitedInputStream;
+import io.github.scarrozzo.ratelimit4j.core.bandwidth.RateLimitedOutputStream;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.ClientType;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.evaluator.HttpRequestEvaluator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Limits the bytes of the request and response bodies of the analyzed paths, one permit per byte, for the client key
+ * used by the rate limiter interceptor. Both directions consume the permits of the same key. The bandwidth limiter
+ * must support reservations, like the token bucket ones, with a bucket holding at least a chunk.
+ * The bodies are throttled only when read and written with blocking I/O, the non-blocking listeners are not.
+ */
+@Slf4j
+public class BandwidthLimiterFilter extends OncePerRequestFilter {
+
+    private ClientType clientType;
+    private List<Pattern> analyzedPaths;
+    private final RateLimiter<?> bandwidthLimiter;
+    private final int chunkSize;
+
+    public BandwidthLimiterFilter(SpringBootRateLimiterProperties springBootRateLimiterProperties, RateLimiter<?> bandwidthLimiter) {
+        this(springBootRateLimiterProperties, bandwidthLimiter, BandwidthThrottle.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize bytes reserved at each call to the bandwidth limiter
+     */
+    public BandwidthLimiterFilter(SpringBootRateLimiterProperties springBootRateLimiterProperties, RateLimiter<?> bandwidthLimiter,
+                                  int chunkSize) {
+        if (bandwidthLimiter == null) {
+            throw new IllegalArgumentException("Invalid bandwidth limiter. Bandwidth limiter cannot be null");
+        }
+
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size. Chunk size should be greater than zero");
+        }
+
+        if (!bandwidthLimiter.supportsReservations()) {
+            throw new IllegalArgumentException("Invalid bandwidth limiter. Bandwidth limiter should support reservations");
+        }
+
+        if (springBootRateLimiterProperties.getClientType() != null) {
+            this.clientType = springBootRateLimiterProperties.getClientType();
+        }
+
+        if (springBootRateLimiterProperties.getAnalyzedPaths() != null) {
+            this.analyzedPaths = springBootRateLimiterProperties.getAnalyzedPaths().stream().map(Pattern::compile).toList();
+        }
+
+        this.bandwidthLimiter = bandwidthLimiter;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (clientType == null || uri == null || analyzedPaths == null) {
+            return true;
+        }
+
+        for (Pattern path : analyzedPaths) {
+            if (path.matcher(uri).matches()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientKey = HttpRequestEvaluator.getClientKey(clientType, request);
+        if (!StringUtils.hasText(clientKey)) {
+            log.warn("Cannot limit the bandwidth for [path={}] because the client key is empty", request.getRequestURI());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        BandwidthThrottle requestThrottle = new BandwidthThrottle(bandwidthLimiter, clientKey, chunkSize);
+        BandwidthThrottle responseThrottle = new BandwidthThrottle(bandwidthLimiter, clientKey, chunkSize);
+        try {
+            filterChain.doFilter(new RateLimitedRequest(request, requestThrottle), new RateLimitedResponse(response, responseThrottle));
+        } finally {
+            requestThrottle.release();
+            responseThrottle.release();
+            log.debug("Bandwidth used by [key={}, path={}]: {} bytes read, {} bytes written", clientKey,
+                    request.getRequestURI(), requestThrottle.getTransferredBytes(), responseThrottle.getTransferredBytes());
+        }
+    }
+
+    private static class RateLimitedRequest extends HttpServletRequestWrapper {
+
+        private final BandwidthThrottle throttle;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        private RateLimitedRequest(HttpServletRequest request, BandwidthThrottle throttle) {
+            super(request);
+            this.throttle = throttle;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new RateLimitedServletInputStream(super.getInputStream(), throttle);
+            }
+
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                reader = new BufferedReader(encoding == null
+                        ? new InputStreamReader(getInputStream(), StandardCharsets.ISO_8859_1)
+                        : new InputStreamReader(getInputStream(), encoding));
+            }
+
+            return reader;
+        }
+    }
+
+    private static class RateLimitedResponse extends HttpServletResponseWrapper {
+
+        private final BandwidthThrottle throttle;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private RateLimitedResponse(HttpServletResponse response, BandwidthThrottle throttle) {
+            super(response);
+            this.throttle = throttle;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+
+            if (outputStream == null) {
+                outputStream = new RateLimitedServletOutputStream(super.getOutputStream(), throttle);
+            }
+
+            return outputStream;
+        }
+
+        // the writer encodes into the stream of the wrapped response, so the body is either written by the writer or
+        // by the stream of this response
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called for this response");
+                }
+
+                String encoding = getCharacterEncoding();
+                CharsetEncoder encoder = (encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding)).newEncoder();
+                writer = new PrintWriter(new RateLimitedWriter(new RateLimitedOutputStream(super.getOutputStream(), throttle), encoder));
+            }
+
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+
+            super.flushBuffer();
+        }
+    }
+
+    // the characters are encoded once into a reused buffer, then the bytes are written through the throttled stream
+    private static class RateLimitedWriter extends Writer {
+
+        private static final int BUFFER_SIZE = 1024;
+
+        private final OutputStream outputStream;
+        private final CharsetEncoder encoder;
+        // the chars not encoded yet, e.g. a high surrogate waiting for the rest of the pair
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer bytes;
+
+        private RateLimitedWriter(OutputStream outputStream, CharsetEncoder encoder) {
+            this.outputStream = outputStream;
+            this.encoder = encoder.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.bytes = ByteBuffer.allocate((int) Math.ceil(BUFFER_SIZE * encoder.maxBytesPerChar()));
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            while (len > 0) {
+                int count = Math.min(len, chars.remaining());
+                chars.put(cbuf, off, count);
+                encode();
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            while (len > 0) {
+                int count = Math.min(len, chars.remaining());
+                chars.put(str, off, off + count);
+                encode();
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            outputStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                chars.flip();
+                CoderResult result;
+                do {
+                    result = encoder.encode(chars, bytes, true);
+                    writeBytes();
+                } while (result.isOverflow());
+                do {
+                    result = encoder.flush(bytes);
+                    writeBytes();
+                } while (result.isOverflow());
+            } finally {
+                outputStream.close();
+            }
+        }
+
+        private void encode() throws IOException {
+            chars.flip();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, false);
+                writeBytes();
+            } while (result.isOverflow());
+            chars.compact();
+        }
+
+        private void writeBytes() throws IOException {
+            outputStream.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+    }
+
+    private static class RateLimitedServletInputStream extends ServletInputStream {
+
+        private final ServletInputStream servletInputStream;
+        private final RateLimitedInputStream inputStream;
+
+        private RateLimitedServletInputStream(ServletInputStream servletInputStream, BandwidthThrottle throttle) {
+            this.servletInputStream = servletInputStream;
+            this.inputStream = new RateLimitedInputStream(servletInputStream, throttle);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return inputStream.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return inputStream.read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return inputStream.skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return servletInputStream.available();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return servletInputStream.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return servletInputStream.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            servletInputStream.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    private static class RateLimitedServletOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream servletOutputStream;
+        private final RateLimitedOutputStream outputStream;
+
+        private RateLimitedServletOutputStream(ServletOutputStream servletOutputStream, BandwidthThrottle throttle) {
+            this.servletOutputStream = servletOutputStream;
+            this.outputStream = new RateLimitedOutputStream(servletOutputStream, throttle);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            outputStream.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            outputStream.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            servletOutputStream.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return servletOutputStream.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            servletOutputStream.setWriteListener(writeListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
+    }
+}
@@ -1,41 +1,142 @@
 package io.github.scarrozzo.ratelimit4j.spring.core.interceptor;
 
+import io.github.scarrozzo.ratelimit4j.core.algorithm.CostReservation;
 import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.AdaptiveConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.Lease;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.ClientType;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
 import io.github.scarrozzo.ratelimit4j.spring.core.evaluator.HttpRequestEvaluator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 @Slf4j
 public class RateLimiterRequestInterceptor<T extends RateLimiter> implements HandlerInterceptor {
 
+    /**
+     * Request attribute where the handler can store the actual cost of the request in permits, as a Number, when cost
+     * accounting is enabled: e.g. the rows it read, or zero for a response served from the cache.
+     */
+    public static final String COST_ATTRIBUTE = RateLimiterRequestInterceptor.class.getName() + ".cost";
+
+    private static final String COST_RESERVATION_ATTRIBUTE = RateLimiterRequestInterceptor.class.getName() + ".costReservation";
+    private static final String CONCURRENCY_SLOTS_ATTRIBUTE = RateLimiterRequestInterceptor.class.getName() + ".concurrencySlots";
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
     private ClientType clientType;
-    private List<String> analyzedPaths;
+    private List<Pattern> analyzedPaths;
+    private String priorityHeader;
+    private RequestPriority defaultPriority;
+    private boolean costAccounting;
+    // the permit of a request is reserved when it can be settled or refunded later
+    private final boolean reservingPermits;
+    // each interceptor of the request settles its own reservation, e.g. one per limiter type of the starters
+    private final String costReservationAttribute = COST_RESERVATION_ATTRIBUTE + "." + INSTANCES.incrementAndGet();
     private final T rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
 
     public RateLimiterRequestInterceptor(SpringBootRateLimiterProperties springBootRateLimiterProperties, T rateLimiter) {
+        this(springBootRateLimiterProperties, rateLimiter, null, null);
+    }
+
+    /**
+     * Also limits the analyzed requests in flight, timing them from preHandle to afterCompletion to adjust the limit.
+     * The requests are evaluated by the rate limiter first, so the rejected ones do not take a slot, and the requests
+     * rejected for concurrency get their rate permit back if the rate limiter supports settlements.
+     */
+    public RateLimiterRequestInterceptor(SpringBootRateLimiterProperties springBootRateLimiterProperties, T rateLimiter,
+                                         AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+        this(springBootRateLimiterProperties, rateLimiter, null, adaptiveConcurrencyLimiter);
+    }
+
+    /**
+     * Also limits the analyzed requests in flight of each client, identified like by the rate limiter. The lease of a
+     * request is released in afterCompletion.
+     */
+    public RateLimiterRequestInterceptor(SpringBootRateLimiterProperties springBootRateLimiterProperties, T rateLimiter,
+                                         ConcurrencyLimiter concurrencyLimiter) {
+        this(springBootRateLimiterProperties, rateLimiter, concurrencyLimiter, null);
+    }
+
+    /**
+     * @param concurrencyLimiter         limiter of the requests in flight of each client, or null
+     * @param adaptiveConcurrencyLimiter limiter of all the requests in flight, or null
+     */
+    public RateLimiterRequestInterceptor(SpringBootRateLimiterProperties springBootRateLimiterProperties, T rateLimiter,
+                                         ConcurrencyLimiter concurrencyLimiter,
+                                         AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
         log.trace("Spring boot properties: " + springBootRateLimiterProperties);
         if (springBootRateLimiterProperties.getClientType() != null) {
             this.clientType = springBootRateLimiterProperties.getClientType();
         }
 
         if (springBootRateLimiterProperties.getAnalyzedPaths() != null) {
-            this.analyzedPaths = springBootRateLimiterProperties.getAnalyzedPaths();
+            this.analyzedPaths = springBootRateLimiterProperties.getAnalyzedPaths().stream().map(Pattern::compile).toList();
+        }
+
+        if (StringUtils.hasText(springBootRateLimiterProperties.getPriorityHeader())) {
+            if (rateLimiter.supportsPriorities()) {
+                this.priorityHeader = springBootRateLimiterProperties.getPriorityHeader();
+                this.defaultPriority = RequestPriority.named(springBootRateLimiterProperties.getDefaultPriority())
+                        .orElseThrow(() -> new RateLimiterConfigException(
+                                "Invalid default priority. Default priority should be CRITICAL, HIGH, NORMAL or LOW"));
+            } else {
+                log.warn("Priority header [{}] ignored because priorities are not supported by [limiterType={}]",
+                        springBootRateLimiterProperties.getPriorityHeader(), rateLimiter.getRateLimiterConfig().getRateLimiterType());
+            }
+        }
+
+        if (springBootRateLimiterProperties.isCostAccounting()) {
+            if (rateLimiter.supportsSettlement()) {
+                this.costAccounting = true;
+            } else {
+                log.warn("Cost accounting disabled because settlements are not supported by [limiterType={}]",
+                        rateLimiter.getRateLimiterConfig().getRateLimiterType());
+            }
         }
 
         this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
+        this.reservingPermits = rateLimiter.supportsSettlement() &&
+                (costAccounting || concurrencyLimiter != null || adaptiveConcurrencyLimiter != null);
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object object) {
         log.trace("preHandler called.");
-        HttpRequestEvaluator.resolve(clientType, request, analyzedPaths, rateLimiter);
+        if (!isAnalyzed(request)) {
+            log.debug("Evaluate request not called for [path={}] because is not in the analyzed paths", request.getRequestURI());
+            return true;
+        }
+
+        RequestPriority priority = priorityHeader == null ? null : HttpRequestEvaluator.getPriority(request, priorityHeader, defaultPriority);
+        if (reservingPermits) {
+            reservePermit(request, priority);
+        } else {
+            HttpRequestEvaluator.evaluate(clientType, request, rateLimiter, priority);
+        }
+
+        if (concurrencyLimiter != null || adaptiveConcurrencyLimiter != null) {
+            acquireConcurrencySlots(request);
+        }
+
         return true;
     }
 
@@ -47,5 +148,141 @@ public class RateLimiterRequestInterceptor<T extends RateLimiter> implements Han
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object object, Exception exception) {
         log.trace("afterCompletion called.");
+        if (request.getAttribute(costReservationAttribute) instanceof CostReservation reservation) {
+            request.removeAttribute(costReservationAttribute);
+            if (costAccounting) {
+                reservation.commit(actualCost(request, response, exception));
+            }
+        }
+
+        // the slots taken by all the interceptors of the request are released by the first afterCompletion
+        if (request.getAttribute(CONCURRENCY_SLOTS_ATTRIBUTE) instanceof ConcurrencySlots slots) {
+            request.removeAttribute(CONCURRENCY_SLOTS_ATTRIBUTE);
+            slots.release(isFailed(response, exception));
+        }
+    }
+
+    // the permit taken by the evaluation is the estimated cost, committed or refunded later
+    private void reservePermit(HttpServletRequest request, RequestPriority priority) {
+        String clientKey = HttpRequestEvaluator.getClientKey(clientType, request);
+        if (!StringUtils.hasText(clientKey)) {
+            log.warn("Cannot evaluate request for [path={}, limiterType={}] because the client key is empty",
+                    request.getRequestURI(), rateLimiter.getRateLimiterConfig().getRateLimiterType());
+            return;
+        }
+
+        log.debug("Evaluating request for [key={}, path={}, limiterType={}]", clientKey, request.getRequestURI(),
+                rateLimiter.getRateLimiterConfig().getRateLimiterType());
+        RateLimiter<?> limiter = rateLimiter;
+        Optional<CostReservation> reservation = priority == null || !limiter.supportsPriorities() ?
+                limiter.tryReserveCost(clientKey, 1L) : limiter.tryReserveCost(clientKey, 1L, priority);
+        request.setAttribute(costReservationAttribute, reservation.orElseThrow(RateLimiterException::new));
+    }
+
+    // the requests failed because of the server are refunded, the others are charged their actual cost if known
+    private static long actualCost(HttpServletRequest request, HttpServletResponse response, Exception exception) {
+        if (isFailed(response, exception)) {
+            return 0L;
+        }
+
+        return request.getAttribute(COST_ATTRIBUTE) instanceof Number cost ? Math.max(cost.longValue(), 0L) : 1L;
+    }
+
+    private static boolean isFailed(HttpServletResponse response, Exception exception) {
+        return exception != null || response.getStatus() >= 500;
+    }
+
+    private void acquireConcurrencySlots(HttpServletRequest request) {
+        ConcurrencySlots slots = concurrencySlots(request);
+        Lease lease = null;
+        // a concurrency limiter shared by several interceptors gives a single lease to the request
+        if (concurrencyLimiter != null && !slots.leases.containsKey(concurrencyLimiter)) {
+            String clientKey = HttpRequestEvaluator.getClientKey(clientType, request);
+            if (StringUtils.hasText(clientKey)) {
+                lease = concurrencyLimiter.tryAcquire(clientKey).orElse(null);
+                if (lease == null) {
+                    rejectConcurrentRequest(request);
+                }
+            } else {
+                log.warn("Cannot limit the requests in flight for [path={}] because the client key is empty", request.getRequestURI());
+            }
+            slots.leases.put(concurrencyLimiter, lease);
+        }
+
+        if (adaptiveConcurrencyLimiter != null && !slots.permits.containsKey(adaptiveConcurrencyLimiter)) {
+            AdaptiveConcurrencyLimiter.Permit permit = adaptiveConcurrencyLimiter.tryAcquire().orElse(null);
+            if (permit == null) {
+                // afterCompletion is not called when preHandle throws
+                if (lease != null) {
+                    slots.leases.remove(concurrencyLimiter);
+                    lease.release();
+                }
+                rejectConcurrentRequest(request);
+            }
+            slots.permits.put(adaptiveConcurrencyLimiter, permit);
+        }
+    }
+
+    // afterCompletion is not called when preHandle throws, so the rate permit of the rejected request is refunded here
+    private void rejectConcurrentRequest(HttpServletRequest request) {
+        if (request.getAttribute(costReservationAttribute) instanceof CostReservation reservation) {
+            request.removeAttribute(costReservationAttribute);
+            reservation.refund();
+        }
+
+        throw new RateLimiterException("Concurrency limit reached");
+    }
+
+    private static ConcurrencySlots concurrencySlots(HttpServletRequest request) {
+        if (request.getAttribute(CONCURRENCY_SLOTS_ATTRIBUTE) instanceof ConcurrencySlots slots) {
+            return slots;
+        }
+
+        ConcurrencySlots slots = new ConcurrencySlots();
+        request.setAttribute(CONCURRENCY_SLOTS_ATTRIBUTE, slots);
+        return slots;
+    }
+
+    private boolean isAnalyzed(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri == null || analyzedPaths == null) {
+            return false;
+        }
+
+        for (Pattern path : analyzedPaths) {
+            if (path.matcher(uri).matches()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Slots held by a request, taken once from each concurrency limiter even when the request goes through several
+     * interceptors sharing it, e.g. one per limiter type of the starters.
+     */
+    private static final class ConcurrencySlots {
+
+        // by identity, a null lease for the requests without a client key
+        private final Map<ConcurrencyLimiter, Lease> leases = new IdentityHashMap<>();
+        private final Map<AdaptiveConcurrencyLimiter, AdaptiveConcurrencyLimiter.Permit> permits = new IdentityHashMap<>();
+
+        private void release(boolean failed) {
+            for (Lease lease : leases.values()) {
+                if (lease != null) {
+                    lease.release();
+                }
+            }
+
+            for (AdaptiveConcurrencyLimiter.Permit permit : permits.values()) {
+                // a timeout or a server error is a sign of overload, its latency does not say how long the work takes
+                if (failed) {
+                    permit.releaseDropped();
+                } else {
+                    permit.release();
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,49 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.interceptor;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.AdaptiveConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.pressure.PressureAwareRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.pressure.PressureSource;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+
+/**
+ * Creates the interceptors of the rate limiters configured by the starters. All the interceptors share the same
+ * concurrency limiters, which give a single slot to each request, and their rate limiters shed the requests as the
+ * pressure rises when a pressure source is set.
+ */
+public class RateLimiterRequestInterceptorFactory {
+
+    private final SpringBootRateLimiterProperties springBootRateLimiterProperties;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final PressureSource pressureSource;
+    private final double minAdmissionRatio;
+
+    /**
+     * @param concurrencyLimiter         limiter of the requests in flight of each client, or null
+     * @param adaptiveConcurrencyLimiter limiter of all the requests in flight, or null
+     * @param pressureSource             pressure scaling down the admission rate of the rate limiters, or null
+     * @param minAdmissionRatio          fraction of the requests admitted at full pressure
+     */
+    public RateLimiterRequestInterceptorFactory(SpringBootRateLimiterProperties springBootRateLimiterProperties,
+                                                ConcurrencyLimiter concurrencyLimiter,
+                                                AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+                                                PressureSource pressureSource,
+                                                double minAdmissionRatio) {
+        this.springBootRateLimiterProperties = springBootRateLimiterProperties;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
+        this.pressureSource = pressureSource;
+        this.minAdmissionRatio = minAdmissionRatio;
+    }
+
+    public <C extends RateLimiterConfig> RateLimiterRequestInterceptor<RateLimiter<C>> create(RateLimiter<C> rateLimiter) {
+        RateLimiter<C> limiter = pressureSource == null ? rateLimiter :
+                new PressureAwareRateLimiter<>(rateLimiter, pressureSource, minAdmissionRatio);
+        return new RateLimiterRequestInterceptor<>(springBootRateLimiterProperties, limiter, concurrencyLimiter,
+                adaptiveConcurrencyLimiter);
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.evaluator;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineSlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.ClientType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+class HttpRequestEvaluatorTest {
+
+    private static final String PRIORITY_HEADER = "X-Priority";
+    private static final List<String> ANALYZED_PATHS = List.of("/api/.*");
+
+    @Test
+    void priorityIsReadFromTheHeader() {
+        Assertions.assertEquals(RequestPriority.HIGH, HttpRequestEvaluator.getPriority(request("high"), PRIORITY_HEADER, RequestPriority.NORMAL));
+        Assertions.assertEquals(RequestPriority.LOW, HttpRequestEvaluator.getPriority(request(" LOW "), PRIORITY_HEADER, RequestPriority.NORMAL));
+        Assertions.assertEquals(RequestPriority.CRITICAL, HttpRequestEvaluator.getPriority(request("CRITICAL"), PRIORITY_HEADER, RequestPriority.NORMAL));
+    }
+
+    @Test
+    void missingOrUnknownPriorityFallsBackToTheDefault() {
+        Assertions.assertEquals(RequestPriority.NORMAL, HttpRequestEvaluator.getPriority(request(null), PRIORITY_HEADER, RequestPriority.NORMAL));
+        Assertions.assertEquals(RequestPriority.NORMAL, HttpRequestEvaluator.getPriority(request(" "), PRIORITY_HEADER, RequestPriority.NORMAL));
+        Assertions.assertEquals(RequestPriority.LOW, HttpRequestEvaluator.getPriority(request("VIP"), PRIORITY_HEADER, RequestPriority.LOW));
+        Assertions.assertEquals(RequestPriority.LOW, HttpRequestEvaluator.getPriority(request("HIGH"), null, RequestPriority.LOW));
+    }
+
+    @Test
+    void requestIsEvaluatedWithItsPriority() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new CaffeineTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+
+        // NORMAL leaves 2 tokens to the higher classes
+        for (int i = 0; i < 8; i++) {
+            HttpRequestEvaluator.resolve(ClientType.IP_ADDRESS, request(null), ANALYZED_PATHS, rateLimiter, RequestPriority.NORMAL);
+        }
+        Assertions.assertThrows(RateLimiterException.class,
+                () -> HttpRequestEvaluator.resolve(ClientType.IP_ADDRESS, request(null), ANALYZED_PATHS, rateLimiter, RequestPriority.NORMAL));
+        Assertions.assertDoesNotThrow(
+                () -> HttpRequestEvaluator.resolve(ClientType.IP_ADDRESS, request(null), ANALYZED_PATHS, rateLimiter, RequestPriority.CRITICAL));
+    }
+
+    @Test
+    void priorityIsIgnoredByRateLimitersWithoutPriorities() {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new CaffeineSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(3_600_000L, 2L), new ManualTimeSource());
+
+        Assertions.assertDoesNotThrow(
+                () -> HttpRequestEvaluator.resolve(ClientType.IP_ADDRESS, request(null), ANALYZED_PATHS, rateLimiter, RequestPriority.LOW));
+        Assertions.assertDoesNotThrow(
+                () -> HttpRequestEvaluator.resolve(ClientType.IP_ADDRESS, request(null), ANALYZED_PATHS, rateLimiter, RequestPriority.LOW));
+        Assertions.assertThrows(RateLimiterException.class,
+                () -> HttpRequestEvaluator.resolve(ClientType.IP_ADDRESS, request(null), ANALYZED_PATHS, rateLimiter, RequestPriority.CRITICAL));
+    }
+
+    @Test
+    void clientKeyIsReadFromTheRequest() {
+        MockHttpServletRequest request = request(null);
+        request.addHeader("X-Forwarded-For", "10.0.0.1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+
+        Assertions.assertEquals("10.0.0.1", HttpRequestEvaluator.getClientKey(ClientType.IP_ADDRESS, request));
+        Assertions.assertEquals("token", HttpRequestEvaluator.getClientKey(ClientType.JWT, request));
+        Assertions.assertEquals(RateLimiter.GLOBAL_KEY, HttpRequestEvaluator.getClientKey(ClientType.GLOBAL, request));
+        Assertions.assertNull(HttpRequestEvaluator.getClientKey(ClientType.JWT, request(null)));
+    }
+
+    private static MockHttpServletRequest request(String priority) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/resource");
+        if (priority != null) {
+            request.addHeader(PRIORITY_HEADER, priority);
+        }
+        return request;
+    }
+}
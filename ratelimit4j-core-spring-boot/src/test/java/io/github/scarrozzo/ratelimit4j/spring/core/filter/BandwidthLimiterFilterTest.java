@@ -0,0 +1,148 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.filter;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineFixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class BandwidthLimiterFilterTest {
+
+    private static final String CLIENT_IP = "10.0.0.1";
+    private static final int CHUNK_SIZE = 64;
+
+    @Test
+    void bodiesConsumeOnePermitPerByte() throws Exception {
+        final CaffeineTokenBucketRateLimiter bandwidthLimiter = bandwidthLimiter();
+        final BandwidthLimiterFilter filter = new BandwidthLimiterFilter(properties(), bandwidthLimiter, CHUNK_SIZE);
+
+        MockHttpServletRequest request = request("/api/v1/resource");
+        request.setContent(new byte[50]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            Assertions.assertEquals(50, req.getInputStream().readAllBytes().length);
+            res.getOutputStream().write(new byte[100]);
+        });
+        Assertions.assertEquals(100, response.getContentAsByteArray().length);
+
+        // the characters are charged by their encoded bytes
+        MockHttpServletResponse writerResponse = new MockHttpServletResponse();
+        writerResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        filter.doFilter(request("/api/v1/resource"), writerResponse, (req, res) -> res.getWriter().print("è".repeat(40)));
+        Assertions.assertEquals("è".repeat(40), writerResponse.getContentAsString());
+
+        // the credit left by the chunks is refunded at the end of the request
+        Assertions.assertEquals(1_000L - 50L - 100L - 80L, remainingPermits(bandwidthLimiter));
+    }
+
+    @Test
+    void requestsOutsideTheAnalyzedPathsAreNotThrottled() throws Exception {
+        final CaffeineTokenBucketRateLimiter bandwidthLimiter = bandwidthLimiter();
+        final BandwidthLimiterFilter filter = new BandwidthLimiterFilter(properties(), bandwidthLimiter, CHUNK_SIZE);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("/health"), response, (req, res) -> {
+            Assertions.assertSame(response, res);
+            res.getOutputStream().write(new byte[100]);
+        });
+        Assertions.assertEquals(1_000L, remainingPermits(bandwidthLimiter));
+    }
+
+    @Test
+    void creditIsReleasedWhenTheRequestFails() {
+        final CaffeineTokenBucketRateLimiter bandwidthLimiter = bandwidthLimiter();
+        final BandwidthLimiterFilter filter = new BandwidthLimiterFilter(properties(), bandwidthLimiter, CHUNK_SIZE);
+
+        FilterChain failingChain = (req, res) -> {
+            res.getOutputStream().write(new byte[10]);
+            throw new IOException("Connection reset");
+        };
+        Assertions.assertThrows(IOException.class,
+                () -> filter.doFilter(request("/api/v1/resource"), new MockHttpServletResponse(), failingChain));
+        Assertions.assertEquals(1_000L - 10L, remainingPermits(bandwidthLimiter));
+    }
+
+    @Test
+    void bodyIsWrittenEitherByTheWriterOrByTheStream() {
+        final BandwidthLimiterFilter filter = new BandwidthLimiterFilter(properties(), bandwidthLimiter(), CHUNK_SIZE);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> filter.doFilter(request("/api/v1/resource"),
+                new MockHttpServletResponse(), (req, res) -> {
+                    res.getWriter();
+                    res.getOutputStream();
+                }));
+        Assertions.assertThrows(IllegalStateException.class, () -> filter.doFilter(request("/api/v1/resource"),
+                new MockHttpServletResponse(), (req, res) -> {
+                    res.getOutputStream();
+                    res.getWriter();
+                }));
+
+        MockHttpServletResponse streamResponse = new MockHttpServletResponse();
+        streamResponse.setOutputStreamAccessAllowed(false);
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request("/api/v1/resource"), streamResponse, (req, res) -> res.getWriter()));
+    }
+
+    @Test
+    void writerWithoutEncodingFallsBackToIsoLatin1() throws Exception {
+        final CaffeineTokenBucketRateLimiter bandwidthLimiter = bandwidthLimiter();
+        final BandwidthLimiterFilter filter = new BandwidthLimiterFilter(properties(), bandwidthLimiter, CHUNK_SIZE);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServletResponse responseWithoutEncoding = new HttpServletResponseWrapper(response) {
+            @Override
+            public String getCharacterEncoding() {
+                return null;
+            }
+        };
+        filter.doFilter(request("/api/v1/resource"), responseWithoutEncoding, (req, res) -> res.getWriter().print("è".repeat(40)));
+        Assertions.assertArrayEquals("è".repeat(40).getBytes(StandardCharsets.ISO_8859_1), response.getContentAsByteArray());
+        Assertions.assertEquals(1_000L - 40L, remainingPermits(bandwidthLimiter));
+    }
+
+    @Test
+    void bandwidthLimiterShouldSupportReservations() {
+        final CaffeineFixedWindowCounterRateLimiter bandwidthLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(3_600_000L, 1_000L), new ManualTimeSource());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BandwidthLimiterFilter(properties(), bandwidthLimiter));
+    }
+
+    private static CaffeineTokenBucketRateLimiter bandwidthLimiter() {
+        return new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(1_000L, 3_600_000L), new ManualTimeSource());
+    }
+
+    private static SpringBootRateLimiterProperties properties() {
+        SpringBootRateLimiterProperties properties = new SpringBootRateLimiterProperties();
+        properties.setAnalyzedPaths(List.of("/api/.*"));
+        return properties;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(CLIENT_IP);
+        return request;
+    }
+
+    // drains the bucket of the client
+    private static long remainingPermits(RateLimiter<?> rateLimiter) {
+        long permits = 0L;
+        while (rateLimiter.tryAcquire(CLIENT_IP).isAllowed()) {
+            permits++;
+        }
+        return permits;
+    }
+}
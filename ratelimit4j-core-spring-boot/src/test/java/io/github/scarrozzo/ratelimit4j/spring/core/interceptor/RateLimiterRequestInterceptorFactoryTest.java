@@ -0,0 +1,68 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.interceptor;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+class RateLimiterRequestInterceptorFactoryTest {
+
+    private static final String CLIENT_IP = "10.0.0.1";
+
+    @Test
+    void interceptorsShareTheConcurrencyLimiter() {
+        final RateLimiterRequestInterceptorFactory factory = new RateLimiterRequestInterceptorFactory(properties(),
+                new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(1L, 60_000L)), null, null, 0.0);
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = factory.create(rateLimiter());
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> otherInterceptor = factory.create(rateLimiter());
+
+        MockHttpServletRequest inFlightRequest = request();
+        Assertions.assertTrue(interceptor.preHandle(inFlightRequest, new MockHttpServletResponse(), null));
+        Assertions.assertThrows(RateLimiterException.class,
+                () -> otherInterceptor.preHandle(request(), new MockHttpServletResponse(), null));
+
+        interceptor.afterCompletion(inFlightRequest, new MockHttpServletResponse(), null, null);
+        Assertions.assertTrue(otherInterceptor.preHandle(request(), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void requestsAreShedAtFullPressure() {
+        final RateLimiterRequestInterceptorFactory factory = new RateLimiterRequestInterceptorFactory(properties(),
+                null, null, () -> 1.0, 0.0);
+        final CaffeineTokenBucketRateLimiter rateLimiter = rateLimiter();
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = factory.create(rateLimiter);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThrows(RateLimiterException.class,
+                    () -> interceptor.preHandle(request(), new MockHttpServletResponse(), null));
+        }
+        // the shed requests did not consume any permit
+        Assertions.assertTrue(rateLimiter.tryAcquire(CLIENT_IP, 10L).isAllowed());
+    }
+
+    private static CaffeineTokenBucketRateLimiter rateLimiter() {
+        return new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+    }
+
+    private static SpringBootRateLimiterProperties properties() {
+        SpringBootRateLimiterProperties properties = new SpringBootRateLimiterProperties();
+        properties.setAnalyzedPaths(List.of("/api/.*"));
+        return properties;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/resource");
+        request.setRemoteAddr(CLIENT_IP);
+        return request;
+    }
+}
@@ -0,0 +1,310 @@
+package io.github.scarrozzo.ratelimit4j.spring.core.interceptor;
+
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineFixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineSlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.caffeine.algorithm.CaffeineTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.AdaptiveConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.AdaptiveConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+class RateLimiterRequestInterceptorTest {
+
+    private static final String PRIORITY_HEADER = "X-Priority";
+    private static final String CLIENT_IP = "10.0.0.1";
+
+    @Test
+    void untaggedRequestsCannotUseTheReservedHeadroom() {
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                properties(PRIORITY_HEADER), new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource()));
+
+        // the requests without the header, or with an unknown class, are NORMAL: they leave 2 tokens
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertTrue(preHandle(interceptor, i % 2 == 0 ? null : "VIP"));
+        }
+        Assertions.assertThrows(RateLimiterException.class, () -> preHandle(interceptor, null));
+        Assertions.assertThrows(RateLimiterException.class, () -> preHandle(interceptor, "VIP"));
+
+        Assertions.assertTrue(preHandle(interceptor, "HIGH"));
+        Assertions.assertThrows(RateLimiterException.class, () -> preHandle(interceptor, "HIGH"));
+        Assertions.assertTrue(preHandle(interceptor, "CRITICAL"));
+    }
+
+    @Test
+    void defaultPriorityIsConfigurable() {
+        SpringBootRateLimiterProperties properties = properties(PRIORITY_HEADER);
+        properties.setDefaultPriority("LOW");
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                properties, new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource()));
+
+        // LOW leaves 4 tokens
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertTrue(preHandle(interceptor, null));
+        }
+        Assertions.assertThrows(RateLimiterException.class, () -> preHandle(interceptor, null));
+        Assertions.assertTrue(preHandle(interceptor, "NORMAL"));
+
+        properties.setDefaultPriority("VIP");
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new RateLimiterRequestInterceptor<>(
+                properties, new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L))));
+    }
+
+    @Test
+    void priorityHeaderIsIgnoredByRateLimitersWithoutPriorities() {
+        final RateLimiterRequestInterceptor<RateLimiter<FixedWindowCounterRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                properties(PRIORITY_HEADER), new CaffeineFixedWindowCounterRateLimiter(new FixedWindowCounterRateLimiterConfig(3_600_000L, 2L), new ManualTimeSource()));
+
+        Assertions.assertTrue(preHandle(interceptor, "LOW"));
+        Assertions.assertTrue(preHandle(interceptor, null));
+        Assertions.assertThrows(RateLimiterException.class, () -> preHandle(interceptor, "CRITICAL"));
+    }
+
+    @Test
+    void costIsSettledFromTheRequestAttribute() {
+        final CaffeineTokenBucketRateLimiter rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                costAccountingProperties(), rateLimiter);
+
+        MockHttpServletRequest request = request("/api/v1/resource");
+        Assertions.assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        request.setAttribute(RateLimiterRequestInterceptor.COST_ATTRIBUTE, 6);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        // a request without a cost is charged its permit, a cached one is refunded
+        complete(interceptor, request("/api/v1/resource"), HttpStatus.OK.value(), null);
+        MockHttpServletRequest cachedRequest = request("/api/v1/resource");
+        cachedRequest.setAttribute(RateLimiterRequestInterceptor.COST_ATTRIBUTE, 0L);
+        complete(interceptor, cachedRequest, HttpStatus.OK.value(), null);
+        Assertions.assertEquals(3L, remainingPermits(rateLimiter));
+    }
+
+    @Test
+    void costIsSettledByEveryLimiterType() {
+        final CaffeineTokenBucketRateLimiter tokenBucket = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+        final CaffeineFixedWindowCounterRateLimiter fixedWindow = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(3_600_000L, 10L), new ManualTimeSource());
+        final List<RateLimiterRequestInterceptor<?>> interceptors = List.of(
+                new RateLimiterRequestInterceptor<>(costAccountingProperties(), tokenBucket),
+                new RateLimiterRequestInterceptor<>(costAccountingProperties(), fixedWindow));
+
+        MockHttpServletRequest request = request("/api/v1/resource");
+        preHandle(interceptors, request);
+        request.setAttribute(RateLimiterRequestInterceptor.COST_ATTRIBUTE, 6);
+        afterCompletion(interceptors, request);
+        Assertions.assertEquals(4L, remainingPermits(tokenBucket));
+        Assertions.assertEquals(4L, remainingPermits(fixedWindow));
+    }
+
+    @Test
+    void failedRequestsAreRefunded() {
+        final CaffeineFixedWindowCounterRateLimiter rateLimiter = new CaffeineFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(3_600_000L, 2L), new ManualTimeSource());
+        final RateLimiterRequestInterceptor<RateLimiter<FixedWindowCounterRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                costAccountingProperties(), rateLimiter);
+
+        for (int i = 0; i < 5; i++) {
+            complete(interceptor, request("/api/v1/resource"), HttpStatus.SERVICE_UNAVAILABLE.value(), null);
+            complete(interceptor, request("/api/v1/resource"), HttpStatus.OK.value(), new IllegalStateException());
+        }
+
+        complete(interceptor, request("/api/v1/resource"), HttpStatus.OK.value(), null);
+        complete(interceptor, request("/api/v1/resource"), HttpStatus.OK.value(), null);
+        Assertions.assertThrows(RateLimiterException.class, () -> complete(interceptor, request("/api/v1/resource"), HttpStatus.OK.value(), null));
+    }
+
+    @Test
+    void costAccountingIsIgnoredByRateLimitersWithoutSettlements() {
+        final RateLimiterRequestInterceptor<RateLimiter<SlidingWindowLogRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                costAccountingProperties(), new CaffeineSlidingWindowLogRateLimiter(new SlidingWindowLogRateLimiterConfig(3_600_000L, 2L), new ManualTimeSource()));
+
+        // the requests are still limited, their cost and failures are not accounted
+        MockHttpServletRequest request = request("/api/v1/resource");
+        request.setAttribute(RateLimiterRequestInterceptor.COST_ATTRIBUTE, 0L);
+        complete(interceptor, request, HttpStatus.OK.value(), null);
+        complete(interceptor, request("/api/v1/resource"), HttpStatus.INTERNAL_SERVER_ERROR.value(), null);
+        Assertions.assertThrows(RateLimiterException.class, () -> complete(interceptor, request("/api/v1/resource"), HttpStatus.OK.value(), null));
+    }
+
+    @Test
+    void requestsRejectedForConcurrencyGetTheirRatePermitBack() {
+        final CaffeineTokenBucketRateLimiter rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                properties(null), rateLimiter, new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(1L, 60_000L)));
+
+        MockHttpServletRequest inFlightRequest = request("/api/v1/resource");
+        Assertions.assertTrue(interceptor.preHandle(inFlightRequest, new MockHttpServletResponse(), null));
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThrows(RateLimiterException.class,
+                    () -> interceptor.preHandle(request("/api/v1/resource"), new MockHttpServletResponse(), null));
+        }
+
+        interceptor.afterCompletion(inFlightRequest, new MockHttpServletResponse(), null, null);
+        complete(interceptor, request("/api/v1/resource"), HttpStatus.OK.value(), null);
+        Assertions.assertEquals(8L, remainingPermits(rateLimiter));
+    }
+
+    @Test
+    void requestsTakeOneLeaseWhateverTheNumberOfLimiterTypes() {
+        final CaffeineConcurrencyLimiter concurrencyLimiter = new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(2L, 60_000L));
+        final List<RateLimiterRequestInterceptor<?>> interceptors = List.of(
+                new RateLimiterRequestInterceptor<>(properties(null), new CaffeineTokenBucketRateLimiter(
+                        new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource()), concurrencyLimiter),
+                new RateLimiterRequestInterceptor<>(properties(null), new CaffeineFixedWindowCounterRateLimiter(
+                        new FixedWindowCounterRateLimiterConfig(3_600_000L, 10L), new ManualTimeSource()), concurrencyLimiter));
+
+        MockHttpServletRequest firstRequest = request("/api/v1/resource");
+        MockHttpServletRequest secondRequest = request("/api/v1/resource");
+        preHandle(interceptors, firstRequest);
+        preHandle(interceptors, secondRequest);
+        Assertions.assertThrows(RateLimiterException.class, () -> preHandle(interceptors, request("/api/v1/resource")));
+
+        // the completed requests free all their slots
+        afterCompletion(interceptors, firstRequest);
+        afterCompletion(interceptors, secondRequest);
+        Assertions.assertTrue(concurrencyLimiter.tryAcquire(CLIENT_IP).isPresent());
+        Assertions.assertTrue(concurrencyLimiter.tryAcquire(CLIENT_IP).isPresent());
+        Assertions.assertFalse(concurrencyLimiter.tryAcquire(CLIENT_IP).isPresent());
+    }
+
+    @Test
+    void requestsRejectedByTheAdaptiveLimiterGetTheirRatePermitBack() {
+        final CaffeineTokenBucketRateLimiter rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource());
+        final CaffeineConcurrencyLimiter concurrencyLimiter = new CaffeineConcurrencyLimiter(new ConcurrencyLimiterConfig(2L, 60_000L));
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                properties(null), rateLimiter, concurrencyLimiter, new AdaptiveConcurrencyLimiter(new AdaptiveConcurrencyLimiterConfig(1, 1, 1)));
+
+        MockHttpServletRequest inFlightRequest = request("/api/v1/resource");
+        Assertions.assertTrue(interceptor.preHandle(inFlightRequest, new MockHttpServletResponse(), null));
+        Assertions.assertThrows(RateLimiterException.class,
+                () -> interceptor.preHandle(request("/api/v1/resource"), new MockHttpServletResponse(), null));
+        Assertions.assertEquals(9L, remainingPermits(rateLimiter));
+        // the lease of the rejected request is released too
+        Assertions.assertTrue(concurrencyLimiter.tryAcquire(CLIENT_IP).isPresent());
+        Assertions.assertFalse(concurrencyLimiter.tryAcquire(CLIENT_IP).isPresent());
+    }
+
+    @Test
+    void failedRequestsShrinkTheAdaptiveLimit() {
+        final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiterConfig(10, 5, 20), new ManualTimeSource());
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                properties(null), new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource()),
+                adaptiveConcurrencyLimiter);
+
+        complete(interceptor, request("/api/v1/resource"), HttpStatus.GATEWAY_TIMEOUT.value(), null);
+        Assertions.assertEquals(9, adaptiveConcurrencyLimiter.getLimit());
+        complete(interceptor, request("/api/v1/resource"), HttpStatus.OK.value(), new IllegalStateException());
+        Assertions.assertEquals(8, adaptiveConcurrencyLimiter.getLimit());
+
+        // the client errors are sampled like the successful requests
+        complete(interceptor, request("/api/v1/resource"), HttpStatus.NOT_FOUND.value(), null);
+        Assertions.assertEquals(8, adaptiveConcurrencyLimiter.getLimit());
+        Assertions.assertEquals(0, adaptiveConcurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    void requestsTakeOneAdaptivePermitWhateverTheNumberOfLimiterTypes() {
+        final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiterConfig(10, 5, 20), new ManualTimeSource());
+        final List<RateLimiterRequestInterceptor<?>> interceptors = List.of(
+                new RateLimiterRequestInterceptor<>(properties(null), new CaffeineTokenBucketRateLimiter(
+                        new TokenBucketRateLimiterConfig(10L, 3_600_000L), new ManualTimeSource()), adaptiveConcurrencyLimiter),
+                new RateLimiterRequestInterceptor<>(properties(null), new CaffeineFixedWindowCounterRateLimiter(
+                        new FixedWindowCounterRateLimiterConfig(3_600_000L, 10L), new ManualTimeSource()), adaptiveConcurrencyLimiter));
+
+        MockHttpServletRequest request = request("/api/v1/resource");
+        preHandle(interceptors, request);
+        Assertions.assertEquals(1, adaptiveConcurrencyLimiter.getInFlight());
+
+        afterCompletion(interceptors, request);
+        Assertions.assertEquals(0, adaptiveConcurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    void requestsOutsideTheAnalyzedPathsAreNotEvaluated() {
+        final CaffeineTokenBucketRateLimiter rateLimiter = new CaffeineTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(1L, 3_600_000L), new ManualTimeSource());
+        final RateLimiterRequestInterceptor<RateLimiter<TokenBucketRateLimiterConfig>> interceptor = new RateLimiterRequestInterceptor<>(
+                costAccountingProperties(), rateLimiter, new AdaptiveConcurrencyLimiter(new AdaptiveConcurrencyLimiterConfig(1, 1, 1)));
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(interceptor.preHandle(request("/health"), new MockHttpServletResponse(), null));
+        }
+        Assertions.assertEquals(1L, remainingPermits(rateLimiter));
+    }
+
+    private static SpringBootRateLimiterProperties costAccountingProperties() {
+        SpringBootRateLimiterProperties properties = properties(null);
+        properties.setCostAccounting(true);
+        return properties;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(CLIENT_IP);
+        return request;
+    }
+
+    private static void complete(RateLimiterRequestInterceptor<?> interceptor, MockHttpServletRequest request, int status, Exception exception) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        response.setStatus(status);
+        interceptor.afterCompletion(request, response, null, exception);
+    }
+
+    // like the dispatcher servlet: when an interceptor throws, the previous ones are completed
+    private static void preHandle(List<RateLimiterRequestInterceptor<?>> interceptors, MockHttpServletRequest request) {
+        for (int i = 0; i < interceptors.size(); i++) {
+            try {
+                interceptors.get(i).preHandle(request, new MockHttpServletResponse(), null);
+            } catch (RateLimiterException e) {
+                afterCompletion(interceptors.subList(0, i), request);
+                throw e;
+            }
+        }
+    }
+
+    private static void afterCompletion(List<RateLimiterRequestInterceptor<?>> interceptors, MockHttpServletRequest request) {
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            interceptors.get(i).afterCompletion(request, new MockHttpServletResponse(), null, null);
+        }
+    }
+
+    // drains the bucket of the client
+    private static long remainingPermits(RateLimiter<?> rateLimiter) {
+        long permits = 0L;
+        while (rateLimiter.tryAcquire(CLIENT_IP).isAllowed()) {
+            permits++;
+        }
+        return permits;
+    }
+
+    private static SpringBootRateLimiterProperties properties(String priorityHeader) {
+        SpringBootRateLimiterProperties properties = new SpringBootRateLimiterProperties();
+        properties.setAnalyzedPaths(List.of("/api/.*"));
+        properties.setPriorityHeader(priorityHeader);
+        return properties;
+    }
+
+    private static boolean preHandle(RateLimiterRequestInterceptor<?> interceptor, String priority) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/resource");
+        if (priority != null) {
+            request.addHeader(PRIORITY_HEADER, priority);
+        }
+        return interceptor.preHandle(request, new MockHttpServletResponse(), null);
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+public abstract class CompositeRateLimiter extends RateLimiter<CompositeRateLimiterConfig> {
+    protected CompositeRateLimiter(CompositeRateLimiterConfig compositeRateLimiterConfig) {
+        super(compositeRateLimiterConfig);
+    }
+
+    protected CompositeRateLimiter(CompositeRateLimiterConfig compositeRateLimiterConfig, TimeSource timeSource) {
+        super(compositeRateLimiterConfig, timeSource);
+    }
+}
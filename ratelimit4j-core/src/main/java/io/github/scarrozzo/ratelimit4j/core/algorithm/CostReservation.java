@@ -0,0 +1,47 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Permits taken for a request whose cost is only known after it completes, e.g. the rows it read or whether it was
+ * served from the cache. The estimated permits are consumed when the reservation is made, the difference with the
+ * actual cost is settled when it is committed. Only the first commit or refund of a reservation has effect.
+ */
+public final class CostReservation {
+
+    private final RateLimiter<?> rateLimiter;
+    @Getter
+    private final String key;
+    @Getter
+    private final long reservedPermits;
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    CostReservation(RateLimiter<?> rateLimiter, String key, long reservedPermits) {
+        this.rateLimiter = rateLimiter;
+        this.key = key;
+        this.reservedPermits = reservedPermits;
+    }
+
+    /**
+     * Charges the permits used beyond the reserved ones, even over the limit, or refunds the unused ones.
+     */
+    public void commit(long actualPermits) {
+        if (actualPermits < 0L) {
+            throw new IllegalArgumentException("Invalid number of permits. Permits cannot be negative");
+        }
+
+        if (settled.compareAndSet(false, true) && actualPermits != reservedPermits) {
+            rateLimiter.settle(key, actualPermits - reservedPermits);
+        }
+    }
+
+    /**
+     * Gives back all the reserved permits, e.g. for a request served from the cache or failed because of the server.
+     */
+    public void refund() {
+        commit(0L);
+    }
+
+}
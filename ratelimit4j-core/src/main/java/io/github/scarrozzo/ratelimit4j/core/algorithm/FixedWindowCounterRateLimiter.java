@@ -1,9 +1,14 @@
 package io.github.scarrozzo.ratelimit4j.core.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
 
 public abstract class FixedWindowCounterRateLimiter extends RateLimiter<FixedWindowCounterRateLimiterConfig> {
     protected FixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig) {
         super(fixedWindowCounterRateLimiterConfig);
     }
+
+    protected FixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig, TimeSource timeSource) {
+        super(fixedWindowCounterRateLimiterConfig, timeSource);
+    }
 }
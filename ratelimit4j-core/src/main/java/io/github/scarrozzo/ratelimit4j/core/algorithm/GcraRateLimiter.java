@@ -0,0 +1,14 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.config.GcraRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+public abstract class GcraRateLimiter extends RateLimiter<GcraRateLimiterConfig> {
+    protected GcraRateLimiter(GcraRateLimiterConfig gcraRateLimiterConfig) {
+        super(gcraRateLimiterConfig);
+    }
+
+    protected GcraRateLimiter(GcraRateLimiterConfig gcraRateLimiterConfig, TimeSource timeSource) {
+        super(gcraRateLimiterConfig, timeSource);
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.config.HierarchicalRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Evaluates an ordered key path, e.g. {@code [GLOBAL_KEY, tenant, user]}, against one limit for each level. The
+ * permits are consumed from every level only if all the levels accept them.
+ * A level is identified by the whole path up to it, so the same user in two tenants has two distinct limits.
+ */
+public abstract class HierarchicalRateLimiter extends RateLimiter<HierarchicalRateLimiterConfig> {
+
+    /**
+     * Separates the levels when the key path is given as a single string, e.g. {@code "tenant/user"}.
+     */
+    public static final String KEY_PATH_SEPARATOR = "/";
+
+    protected HierarchicalRateLimiter(HierarchicalRateLimiterConfig hierarchicalRateLimiterConfig) {
+        super(hierarchicalRateLimiterConfig);
+    }
+
+    protected HierarchicalRateLimiter(HierarchicalRateLimiterConfig hierarchicalRateLimiterConfig, TimeSource timeSource) {
+        super(hierarchicalRateLimiterConfig, timeSource);
+    }
+
+    public RateLimiterDecision tryAcquire(List<String> keyPath) {
+        return tryAcquire(keyPath, 1L);
+    }
+
+    /**
+     * Evaluates a request that costs the given number of permits on every level of the key path.
+     */
+    public abstract RateLimiterDecision tryAcquire(List<String> keyPath, long permits);
+
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(List<String> keyPath, long permits) {
+        checkKeyPath(keyPath);
+        return super.evaluateRequestAsync(String.join(KEY_PATH_SEPARATOR, keyPath), permits);
+    }
+
+    public void evaluateRequest(List<String> keyPath) throws RateLimiterException {
+        evaluateRequest(keyPath, 1L);
+    }
+
+    public void evaluateRequest(List<String> keyPath, long permits) throws RateLimiterException {
+        if (!tryAcquire(keyPath, permits).isAllowed()) {
+            throw new RateLimiterException();
+        }
+    }
+
+    /**
+     * Evaluates the key path obtained by splitting the key on {@link #KEY_PATH_SEPARATOR}.
+     */
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquire(splitKeyPath(key), permits);
+    }
+
+    protected List<String> splitKeyPath(String key) {
+        return key == null ? null : Arrays.asList(key.split(KEY_PATH_SEPARATOR, -1));
+    }
+
+    /**
+     * The keys of a path cannot contain {@link #KEY_PATH_SEPARATOR}: a level is identified by the keys joined with it, so
+     * {@code [a/b, c]} and {@code [a, b/c]} would share their limits.
+     */
+    protected void checkKeyPath(List<String> keyPath) {
+        if (keyPath == null || keyPath.size() != rateLimiterConfig.getLevels().size() || keyPath.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Invalid key path. The key path should have one key for each of the "
+                    + rateLimiterConfig.getLevels().size() + " levels");
+        }
+
+        if (keyPath.stream().anyMatch(key -> key.contains(KEY_PATH_SEPARATOR))) {
+            throw new IllegalArgumentException("Invalid key path. The keys of the path cannot contain " + KEY_PATH_SEPARATOR);
+        }
+    }
+}
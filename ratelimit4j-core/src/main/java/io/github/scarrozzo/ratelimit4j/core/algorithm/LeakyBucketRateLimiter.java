@@ -1,9 +1,14 @@
 package io.github.scarrozzo.ratelimit4j.core.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
 
 public abstract class LeakyBucketRateLimiter extends RateLimiter<LeakyBucketRateLimiterConfig> {
     protected LeakyBucketRateLimiter(LeakyBucketRateLimiterConfig leakyBucketRateLimiterConfig) {
         super(leakyBucketRateLimiterConfig);
     }
+
+    protected LeakyBucketRateLimiter(LeakyBucketRateLimiterConfig leakyBucketRateLimiterConfig, TimeSource timeSource) {
+        super(leakyBucketRateLimiterConfig, timeSource);
+    }
 }
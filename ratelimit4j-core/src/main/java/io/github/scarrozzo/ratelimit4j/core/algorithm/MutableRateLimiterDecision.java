@@ -0,0 +1,38 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A decision written by {@link RateLimiter#tryAcquire(String, long, MutableRateLimiterDecision)} instead of being
+ * created for each request. A caller can reuse the same instance for all its requests, e.g. one for each thread, since
+ * it is not safe to share among the threads: the in-memory rate limiters then evaluate a request of an existing key
+ * without allocating, whatever its remaining permits and its wait.
+ */
+@ToString
+@Getter
+public final class MutableRateLimiterDecision {
+
+    private boolean allowed;
+    private long remainingPermits;
+    private long nanosToNextPermit;
+
+    public void set(boolean allowed, long remainingPermits, long nanosToNextPermit) {
+        this.allowed = allowed;
+        this.remainingPermits = remainingPermits;
+        this.nanosToNextPermit = Math.max(nanosToNextPermit, 0L);
+    }
+
+    public void set(RateLimiterDecision decision) {
+        set(decision.isAllowed(), decision.getRemainingPermits(), decision.getNanosToNextPermit());
+    }
+
+    /**
+     * @return an immutable copy of the decision
+     */
+    public RateLimiterDecision toDecision() {
+        return allowed
+                ? RateLimiterDecision.allowed(remainingPermits, nanosToNextPermit)
+                : RateLimiterDecision.rejected(remainingPermits, nanosToNextPermit);
+    }
+}
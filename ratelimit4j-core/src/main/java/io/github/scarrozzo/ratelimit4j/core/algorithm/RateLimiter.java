@@ -3,22 +3,328 @@ package io.github.scarrozzo.ratelimit4j.core.algorithm;
 import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
 import lombok.Getter;
 
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.locks.LockSupport;
+
 public abstract class RateLimiter<T extends RateLimiterConfig> {
 
+    /**
+     * Key shared by all the requests, to limit the whole application instance instead of a single client.
+     */
+    public static final String GLOBAL_KEY = "ratelimit4j:global";
+
     @Getter
     protected T rateLimiterConfig;
 
+    @Getter
+    protected final TimeSource timeSource;
+
     protected RateLimiter(T rateLimiterConfig) {
+        this(rateLimiterConfig, TimeSource.system());
+    }
+
+    protected RateLimiter(T rateLimiterConfig, TimeSource timeSource) {
         if (rateLimiterConfig == null) {
             throw new RateLimiterConfigException("Rate limiter config cannot be null");
         }
 
+        if (timeSource == null) {
+            throw new RateLimiterConfigException("Time source cannot be null");
+        }
+
         this.rateLimiterConfig = rateLimiterConfig;
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Evaluates the request without throwing when the limit is reached.
+     */
+    public RateLimiterDecision tryAcquire(String key) {
+        return tryAcquire(key, 1L);
+    }
+
+    /**
+     * Evaluates a request that costs the given number of permits. Permits are consumed all or nothing.
+     */
+    public abstract RateLimiterDecision tryAcquire(String key, long permits);
+
+    /**
+     * Evaluates the request like {@link #tryAcquire(String, long)} but only tells whether it is allowed: no decision is
+     * created, so the in-memory rate limiters accept or reject a request of an existing key without allocating.
+     */
+    public boolean tryAcquirePermits(String key, long permits) {
+        return tryAcquire(key, permits).isAllowed();
+    }
+
+    /**
+     * Evaluates the request like {@link #tryAcquire(String, long)} but writes its decision into the given one, which the
+     * caller can reuse: the in-memory rate limiters evaluate a request of an existing key without allocating.
+     *
+     * @return whether the request is allowed
+     */
+    public boolean tryAcquire(String key, long permits, MutableRateLimiterDecision decision) {
+        decision.set(tryAcquire(key, permits));
+        return decision.isAllowed();
+    }
+
+    /**
+     * Evaluates a request identified by a numeric key, e.g. a tenant id. By default the key is encoded as its decimal
+     * string, backends storing the keys in memory can override it to use the number directly. A client should always be
+     * identified by the same key type, a number and its string encoding may be kept apart.
+     */
+    public RateLimiterDecision tryAcquire(long key) {
+        return tryAcquire(key, 1L);
+    }
+
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquire(encodeKey(key), permits);
+    }
+
+    /**
+     * Evaluates the request of a numeric key like {@link #tryAcquire(String, long, MutableRateLimiterDecision)}.
+     */
+    public boolean tryAcquire(long key, long permits, MutableRateLimiterDecision decision) {
+        decision.set(tryAcquire(key, permits));
+        return decision.isAllowed();
+    }
+
+    /**
+     * Evaluates a request identified by a binary key, e.g. the hash of an API key. By default the key is encoded as a
+     * lowercase hexadecimal string. The array must not be modified during the call.
+     */
+    public RateLimiterDecision tryAcquire(byte[] key) {
+        return tryAcquire(key, 1L);
+    }
+
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquire(encodeKey(key), permits);
+    }
+
+    /**
+     * Evaluates the request of a binary key like {@link #tryAcquire(String, long, MutableRateLimiterDecision)}.
+     */
+    public boolean tryAcquire(byte[] key, long permits, MutableRateLimiterDecision decision) {
+        decision.set(tryAcquire(key, permits));
+        return decision.isAllowed();
+    }
+
+    /**
+     * Evaluates a request of the given priority class against the capacity of the key shared by all the classes: the
+     * request is accepted only if the permits left after it are at least the headroom reserved to the higher classes.
+     * Rate limiters not supporting priorities only accept the classes without reserved headroom, the other ones are
+     * rejected.
+     */
+    public RateLimiterDecision tryAcquire(String key, RequestPriority priority) {
+        return tryAcquire(key, 1L, priority);
+    }
+
+    public RateLimiterDecision tryAcquire(String key, long permits, RequestPriority priority) {
+        checkPriority(priority);
+        // the headroom cannot be checked, so it is never taken
+        if (priority.getReservedFraction() > 0.0) {
+            return RateLimiterDecision.rejected(0L, 0L);
+        }
+
+        return tryAcquire(key, permits);
+    }
+
+    /**
+     * @return whether the classes with reserved headroom are accepted by {@link #tryAcquire(String, long, RequestPriority)}
+     */
+    public boolean supportsPriorities() {
+        return false;
+    }
+
+    /**
+     * Evaluates the request asynchronously. Implementations backed by a remote store complete the stage without
+     * blocking the calling thread, in-memory implementations return an already completed stage.
+     */
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key) {
+        return evaluateRequestAsync(key, 1L);
+    }
+
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        try {
+            return CompletableFuture.completedFuture(tryAcquire(key, permits));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void evaluateRequest(String key) throws RateLimiterException {
+        evaluateRequest(key, 1L);
+    }
+
+    public void evaluateRequest(String key, long permits) throws RateLimiterException {
+        if (!tryAcquirePermits(key, permits)) {
+            throw new RateLimiterException();
+        }
+    }
+
+    public void evaluateRequest(String key, RequestPriority priority) throws RateLimiterException {
+        if (!tryAcquire(key, 1L, priority).isAllowed()) {
+            throw new RateLimiterException();
+        }
+    }
+
+    public void evaluateRequest(long key) throws RateLimiterException {
+        evaluateRequest(key, 1L);
     }
 
+    public void evaluateRequest(long key, long permits) throws RateLimiterException {
+        if (!tryAcquire(key, permits).isAllowed()) {
+            throw new RateLimiterException();
+        }
+    }
+
+    public void evaluateRequest(byte[] key) throws RateLimiterException {
+        evaluateRequest(key, 1L);
+    }
+
+    public void evaluateRequest(byte[] key, long permits) throws RateLimiterException {
+        if (!tryAcquire(key, permits).isAllowed()) {
+            throw new RateLimiterException();
+        }
+    }
+
+    /**
+     * Reserves the permits and returns the nanoseconds to wait before they can be used. The permits are consumed
+     * immediately, so the caller must not retry the reservation.
+     */
+    public long reserve(String key, long permits) throws RateLimiterException {
+        long nanosToWait = tryReserve(key, permits, Long.MAX_VALUE);
+        if (nanosToWait < 0L) {
+            throw new RateLimiterException(supportsReservations()
+                    ? "Requested permits exceed the capacity of the rate limiter"
+                    : "Requested permits are not available");
+        }
+
+        return nanosToWait;
+    }
+
+    /**
+     * Reserves the permits only if they become valid within the timeout. Rate limiters not supporting reservations
+     * only reserve the permits available now, without waiting.
+     *
+     * @return the nanoseconds to wait before the reserved permits can be used, or -1 if nothing was reserved
+     */
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        return tryAcquirePermits(key, permits) ? 0L : -1L;
+    }
+
+    /**
+     * @return whether {@link #tryReserve(String, long, long)}, and so {@link #acquire(String, long, Duration)}, can wait
+     * for the permits
+     */
+    public boolean supportsReservations() {
+        return false;
+    }
+
+    /**
+     * Consumes the estimated cost of a request whose actual cost is settled after it completes.
+     *
+     * @return the reservation to commit with the actual cost, or an empty optional if the estimated permits are not
+     * available
+     */
+    public Optional<CostReservation> tryReserveCost(String key, long estimatedPermits) {
+        if (!tryAcquire(key, estimatedPermits).isAllowed()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new CostReservation(this, key, estimatedPermits));
+    }
+
+    /**
+     * Consumes the estimated cost of a request of the given priority class, see {@link #tryReserveCost(String, long)}.
+     */
+    public Optional<CostReservation> tryReserveCost(String key, long estimatedPermits, RequestPriority priority) {
+        if (!tryAcquire(key, estimatedPermits, priority).isAllowed()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new CostReservation(this, key, estimatedPermits));
+    }
+
+    /**
+     * Charges positive permits to the key without checking the limit, the debt is paid before new requests are
+     * accepted, or refunds negative permits. Rate limiters backed by a remote store may apply the settlements
+     * asynchronously. Rate limiters not supporting settlements ignore them, so the estimated cost of a request stays
+     * consumed.
+     */
+    public void settle(String key, long permits) {
+        // nothing to settle: the permits consumed by the request are kept
+    }
 
-    public abstract void evaluateRequest(String key) throws RateLimiterException;
+    /**
+     * @return whether {@link #settle(String, long)}, and so the commit of a {@link CostReservation}, is supported
+     */
+    public boolean supportsSettlement() {
+        return false;
+    }
+
+    public boolean acquire(String key, Duration timeout) {
+        return acquire(key, 1L, timeout);
+    }
+
+    /**
+     * Waits until the permits are available, parking the calling thread without holding any monitor.
+     *
+     * @return false, without consuming anything, if the permits cannot be obtained within the timeout
+     */
+    public boolean acquire(String key, long permits, Duration timeout) {
+        long nanosToWait = tryReserve(key, permits, Math.max(timeout.toNanos(), 0L));
+        if (nanosToWait < 0L) {
+            return false;
+        }
+
+        parkUninterruptibly(nanosToWait);
+        return true;
+    }
+
+    private static void parkUninterruptibly(long nanos) {
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + nanos;
+
+        // parkNanos may return early because of an unpark or an interrupt, park again for the remaining time
+        for (long remaining = nanos; remaining > 0L; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+            interrupted |= Thread.interrupted();
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected static String encodeKey(long key) {
+        return Long.toString(key);
+    }
+
+    protected static String encodeKey(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Invalid key. Key cannot be null");
+        }
+
+        return HexFormat.of().formatHex(key);
+    }
+
+    protected static void checkPriority(RequestPriority priority) {
+        if (priority == null) {
+            throw new IllegalArgumentException("Invalid priority. Priority cannot be null");
+        }
+    }
+
+    protected static void checkPermits(long permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Invalid number of permits. Permits should be greater than zero");
+        }
+    }
 
 }
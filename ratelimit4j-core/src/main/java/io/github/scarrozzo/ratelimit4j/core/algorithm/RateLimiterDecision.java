@@ -0,0 +1,51 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The decisions without a wait and with few remaining permits, the most common ones for the small limits, are shared
+ * instances: the decisions should not be compared by identity. The others are created for each request, a
+ * {@link MutableRateLimiterDecision} reused by the caller avoids it.
+ */
+@ToString
+@Getter
+public final class RateLimiterDecision {
+
+    private static final int CACHED_PERMITS = 128;
+    private static final RateLimiterDecision[] ALLOWED = new RateLimiterDecision[CACHED_PERMITS];
+    private static final RateLimiterDecision[] REJECTED = new RateLimiterDecision[CACHED_PERMITS];
+
+    static {
+        for (int permits = 0; permits < CACHED_PERMITS; permits++) {
+            ALLOWED[permits] = new RateLimiterDecision(true, permits, 0L);
+            REJECTED[permits] = new RateLimiterDecision(false, permits, 0L);
+        }
+    }
+
+    private final boolean allowed;
+    private final long remainingPermits;
+    private final long nanosToNextPermit;
+
+    private RateLimiterDecision(boolean allowed, long remainingPermits, long nanosToNextPermit) {
+        this.allowed = allowed;
+        this.remainingPermits = remainingPermits;
+        this.nanosToNextPermit = nanosToNextPermit;
+    }
+
+    public static RateLimiterDecision allowed(long remainingPermits, long nanosToNextPermit) {
+        return isCached(remainingPermits, nanosToNextPermit)
+                ? ALLOWED[(int) remainingPermits]
+                : new RateLimiterDecision(true, remainingPermits, Math.max(nanosToNextPermit, 0L));
+    }
+
+    public static RateLimiterDecision rejected(long remainingPermits, long nanosToNextPermit) {
+        return isCached(remainingPermits, nanosToNextPermit)
+                ? REJECTED[(int) remainingPermits]
+                : new RateLimiterDecision(false, remainingPermits, Math.max(nanosToNextPermit, 0L));
+    }
+
+    private static boolean isCached(long remainingPermits, long nanosToNextPermit) {
+        return nanosToNextPermit <= 0L && remainingPermits >= 0L && remainingPermits < CACHED_PERMITS;
+    }
+}
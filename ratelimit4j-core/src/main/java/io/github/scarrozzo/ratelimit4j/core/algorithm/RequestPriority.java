@@ -0,0 +1,65 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Priority class of a request. A request can only use the capacity of its key above the headroom reserved to the
+ * higher classes, a fraction of the capacity, so under overload the lower classes are rejected first while the
+ * critical ones can always use the whole capacity.
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+public final class RequestPriority {
+
+    public static final RequestPriority CRITICAL = new RequestPriority("CRITICAL", 0.0);
+    public static final RequestPriority HIGH = new RequestPriority("HIGH", 0.1);
+    public static final RequestPriority NORMAL = new RequestPriority("NORMAL", 0.2);
+    public static final RequestPriority LOW = new RequestPriority("LOW", 0.4);
+
+    private final String name;
+    private final double reservedFraction;
+
+    private RequestPriority(String name, double reservedFraction) {
+        this.name = name;
+        this.reservedFraction = reservedFraction;
+    }
+
+    /**
+     * @param reservedFraction fraction of the capacity the requests of this class cannot use, from zero (included) to
+     *                         one (excluded)
+     */
+    public static RequestPriority of(String name, double reservedFraction) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Invalid priority name. Name cannot be blank");
+        }
+
+        if (!(reservedFraction >= 0.0 && reservedFraction < 1.0)) {
+            throw new IllegalArgumentException("Invalid reserved fraction. Reserved fraction should be at least zero and lower than one");
+        }
+
+        return new RequestPriority(name, reservedFraction);
+    }
+
+    /**
+     * @return the predefined priority with the given name, ignoring the case
+     */
+    public static Optional<RequestPriority> named(String name) {
+        return Stream.of(CRITICAL, HIGH, NORMAL, LOW)
+                .filter(priority -> priority.name.equalsIgnoreCase(name))
+                .findFirst();
+    }
+
+    /**
+     * @return the permits that must be left after a request of this class, rounded up
+     */
+    public long reservedPermits(long capacity) {
+        return (long) Math.ceil(capacity * reservedFraction);
+    }
+
+}
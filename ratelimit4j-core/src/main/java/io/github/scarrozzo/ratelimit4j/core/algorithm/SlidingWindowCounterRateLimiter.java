@@ -0,0 +1,15 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+public abstract class SlidingWindowCounterRateLimiter extends RateLimiter<SlidingWindowCounterRateLimiterConfig> {
+    protected SlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig) {
+        super(slidingWindowCounterRateLimiterConfig);
+    }
+
+    protected SlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig,
+                                              TimeSource timeSource) {
+        super(slidingWindowCounterRateLimiterConfig, timeSource);
+    }
+}
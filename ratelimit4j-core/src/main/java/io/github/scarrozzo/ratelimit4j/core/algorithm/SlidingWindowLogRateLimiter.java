@@ -0,0 +1,15 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+public abstract class SlidingWindowLogRateLimiter extends RateLimiter<SlidingWindowLogRateLimiterConfig> {
+    protected SlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig) {
+        super(slidingWindowLogRateLimiterConfig);
+    }
+
+    protected SlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig,
+                                          TimeSource timeSource) {
+        super(slidingWindowLogRateLimiterConfig, timeSource);
+    }
+}
@@ -1,9 +1,14 @@
 package io.github.scarrozzo.ratelimit4j.core.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
 
 public abstract class TokenBucketRateLimiter extends RateLimiter<TokenBucketRateLimiterConfig> {
     protected TokenBucketRateLimiter(TokenBucketRateLimiterConfig rateLimiterConfig) {
         super(rateLimiterConfig);
     }
+
+    protected TokenBucketRateLimiter(TokenBucketRateLimiterConfig rateLimiterConfig, TimeSource timeSource) {
+        super(rateLimiterConfig, timeSource);
+    }
 }
@@ -0,0 +1,14 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.config.WarmUpTokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+public abstract class WarmUpTokenBucketRateLimiter extends RateLimiter<WarmUpTokenBucketRateLimiterConfig> {
+    protected WarmUpTokenBucketRateLimiter(WarmUpTokenBucketRateLimiterConfig warmUpTokenBucketRateLimiterConfig) {
+        super(warmUpTokenBucketRateLimiterConfig);
+    }
+
+    protected WarmUpTokenBucketRateLimiter(WarmUpTokenBucketRateLimiterConfig warmUpTokenBucketRateLimiterConfig, TimeSource timeSource) {
+        super(warmUpTokenBucketRateLimiterConfig, timeSource);
+    }
+}
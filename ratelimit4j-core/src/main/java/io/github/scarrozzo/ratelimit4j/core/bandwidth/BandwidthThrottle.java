@@ -0,0 +1,119 @@
+package io.github.scarrozzo.ratelimit4j.core.bandwidth;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import lombok.Getter;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the bytes transferred for a key, one permit per byte. The permits are reserved in chunks, so the rate
+ * limiter is called once per chunk instead of once per read or write, and the transfers use the credit left by the
+ * previous chunk. The rate limiter must support reservations, like the token bucket ones, and its bucket must hold a
+ * whole chunk. The credit left by the last chunk is refunded only if the rate limiter supports settlements.
+ * A throttle is not thread safe, it is meant to be used by one stream or channel at a time.
+ */
+public final class BandwidthThrottle {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final RateLimiter<?> rateLimiter;
+    private final boolean refundable;
+    @Getter
+    private final String key;
+    @Getter
+    private final int chunkSize;
+    private long credit;
+    @Getter
+    private long transferredBytes;
+
+    public BandwidthThrottle(RateLimiter<?> rateLimiter, String key) {
+        this(rateLimiter, key, DEFAULT_CHUNK_SIZE);
+    }
+
+    public BandwidthThrottle(RateLimiter<?> rateLimiter, String key, int chunkSize) {
+        if (rateLimiter == null) {
+            throw new IllegalArgumentException("Invalid rate limiter. Rate limiter cannot be null");
+        }
+
+        if (key == null) {
+            throw new IllegalArgumentException("Invalid key. Key cannot be null");
+        }
+
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size. Chunk size should be greater than zero");
+        }
+
+        // the chunks are reservations waiting for the bandwidth
+        if (!rateLimiter.supportsReservations()) {
+            throw new IllegalArgumentException("Invalid rate limiter. Rate limiter should support reservations");
+        }
+
+        this.rateLimiter = rateLimiter;
+        this.refundable = rateLimiter.supportsSettlement();
+        this.key = key;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Waits until some bytes can be transferred, reserving a new chunk when the credit is exhausted.
+     *
+     * @return the bytes that can be transferred now, at least one and at most the requested ones
+     * @throws InterruptedIOException if the thread is interrupted while waiting for the chunk
+     */
+    public int acquire(int requestedBytes) throws InterruptedIOException {
+        if (requestedBytes <= 0) {
+            throw new IllegalArgumentException("Invalid number of bytes. Bytes should be greater than zero");
+        }
+
+        if (credit == 0L) {
+            long nanosToWait = rateLimiter.reserve(key, chunkSize);
+            // the chunk is reserved even if the wait is interrupted, its credit is refunded by release
+            credit = chunkSize;
+            park(nanosToWait);
+        }
+
+        return (int) Math.min(requestedBytes, credit);
+    }
+
+    /**
+     * Records the bytes actually transferred, at most the ones returned by the last acquire.
+     */
+    public void consume(long bytes) {
+        if (bytes < 0L || bytes > credit) {
+            throw new IllegalArgumentException("Invalid number of bytes. Bytes should be between zero and the credit");
+        }
+
+        credit -= bytes;
+        transferredBytes += bytes;
+    }
+
+    /**
+     * Refunds the credit left by the last chunk, when the rate limiter supports settlements. The throttle can still be
+     * used afterwards.
+     */
+    public void release() {
+        if (credit == 0L) {
+            return;
+        }
+
+        long unusedCredit = credit;
+        credit = 0L;
+        // otherwise the credit is lost, which only makes the limit stricter
+        if (refundable) {
+            rateLimiter.settle(key, -unusedCredit);
+        }
+    }
+
+    private static void park(long nanos) throws InterruptedIOException {
+        long deadline = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0L; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the bandwidth");
+            }
+        }
+    }
+
+}
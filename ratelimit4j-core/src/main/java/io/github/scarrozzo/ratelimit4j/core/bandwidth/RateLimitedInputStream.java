@@ -0,0 +1,79 @@
+package io.github.scarrozzo.ratelimit4j.core.bandwidth;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream reading at most the bytes allowed by the throttle. A read returns fewer bytes than requested when the
+ * credit of the current chunk is lower, like a socket does. Closing the stream refunds the unused credit.
+ */
+public class RateLimitedInputStream extends FilterInputStream {
+
+    private final BandwidthThrottle throttle;
+
+    public RateLimitedInputStream(InputStream in, BandwidthThrottle throttle) {
+        super(in);
+
+        if (throttle == null) {
+            throw new IllegalArgumentException("Invalid throttle. Throttle cannot be null");
+        }
+
+        this.throttle = throttle;
+    }
+
+    @Override
+    public int read() throws IOException {
+        throttle.acquire(1);
+        int b = in.read();
+        if (b >= 0) {
+            throttle.consume(1L);
+        }
+
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return in.read(b, off, len);
+        }
+
+        int bytesRead = in.read(b, off, throttle.acquire(len));
+        if (bytesRead > 0) {
+            throttle.consume(bytesRead);
+        }
+
+        return bytesRead;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0L) {
+            return 0L;
+        }
+
+        long skipped = in.skip(throttle.acquire((int) Math.min(n, Integer.MAX_VALUE)));
+        if (skipped > 0L) {
+            throttle.consume(skipped);
+        }
+
+        return skipped;
+    }
+
+    // the bytes read again after a reset would be charged twice
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            throttle.release();
+        } finally {
+            super.close();
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.github.scarrozzo.ratelimit4j.core.bandwidth;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream writing the bytes as fast as the throttle allows: a large write is split into the credit of the
+ * chunks it needs and passed to the wrapped stream without copying. Closing the stream refunds the unused credit.
+ */
+public class RateLimitedOutputStream extends FilterOutputStream {
+
+    private final BandwidthThrottle throttle;
+
+    public RateLimitedOutputStream(OutputStream out, BandwidthThrottle throttle) {
+        super(out);
+
+        if (throttle == null) {
+            throw new IllegalArgumentException("Invalid throttle. Throttle cannot be null");
+        }
+
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        throttle.acquire(1);
+        out.write(b);
+        throttle.consume(1L);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if ((off | len | (b.length - (len + off)) | (off + len)) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        while (len > 0) {
+            int allowed = throttle.acquire(len);
+            out.write(b, off, allowed);
+            throttle.consume(allowed);
+            off += allowed;
+            len -= allowed;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            throttle.release();
+        } finally {
+            super.close();
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package io.github.scarrozzo.ratelimit4j.core.bandwidth;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Blocking channel reading at most the bytes allowed by the throttle. The limit of the destination buffer is lowered
+ * to the credit during the read, so the bytes go straight into the caller's buffer, direct ones included. Closing the
+ * channel refunds the unused credit.
+ */
+public class RateLimitedReadableByteChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel channel;
+    private final BandwidthThrottle throttle;
+
+    public RateLimitedReadableByteChannel(ReadableByteChannel channel, BandwidthThrottle throttle) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Invalid channel. Channel cannot be null");
+        }
+
+        if (throttle == null) {
+            throw new IllegalArgumentException("Invalid throttle. Throttle cannot be null");
+        }
+
+        this.channel = channel;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!dst.hasRemaining()) {
+            return channel.read(dst);
+        }
+
+        int limit = dst.limit();
+        dst.limit(dst.position() + throttle.acquire(dst.remaining()));
+        int bytesRead;
+        try {
+            bytesRead = channel.read(dst);
+        } finally {
+            dst.limit(limit);
+        }
+
+        if (bytesRead > 0) {
+            throttle.consume(bytesRead);
+        }
+
+        return bytesRead;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            throttle.release();
+        } finally {
+            channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.github.scarrozzo.ratelimit4j.core.bandwidth;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Blocking channel writing at most the bytes allowed by the throttle. The limit of the source buffer is lowered to the
+ * credit during the write, so the bytes go straight from the caller's buffer, direct ones included. Closing the
+ * channel refunds the unused credit.
+ */
+public class RateLimitedWritableByteChannel implements WritableByteChannel {
+
+    private final WritableByteChannel channel;
+    private final BandwidthThrottle throttle;
+
+    public RateLimitedWritableByteChannel(WritableByteChannel channel, BandwidthThrottle throttle) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Invalid channel. Channel cannot be null");
+        }
+
+        if (throttle == null) {
+            throw new IllegalArgumentException("Invalid throttle. Throttle cannot be null");
+        }
+
+        this.channel = channel;
+        this.throttle = throttle;
+    }
+
+    /**
+     * Writes the bytes allowed by the credit of the current chunk, waiting for a new chunk if the credit is exhausted.
+     * Like a non-blocking write it may write fewer bytes than remaining in the buffer.
+     */
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!src.hasRemaining()) {
+            return channel.write(src);
+        }
+
+        int limit = src.limit();
+        src.limit(src.position() + throttle.acquire(src.remaining()));
+        int bytesWritten;
+        try {
+            bytesWritten = channel.write(src);
+        } finally {
+            src.limit(limit);
+        }
+
+        throttle.consume(bytesWritten);
+        return bytesWritten;
+    }
+
+    /**
+     * Transfers a region of the file to the wrapped channel with {@link FileChannel#transferTo}, one credit at a time,
+     * so the operating system can still send the bytes without copying them to the heap (e.g. sendfile to a socket).
+     *
+     * @return the bytes transferred, fewer than requested if the file ends or the wrapped channel does not accept more
+     */
+    public long transferFrom(FileChannel source, long position, long count) throws IOException {
+        long transferred = 0L;
+        while (transferred < count) {
+            int allowed = throttle.acquire((int) Math.min(count - transferred, Integer.MAX_VALUE));
+            long bytesTransferred = source.transferTo(position + transferred, allowed, channel);
+            throttle.consume(bytesTransferred);
+            transferred += bytesTransferred;
+            if (bytesTransferred < allowed) {
+                break;
+            }
+        }
+
+        return transferred;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            throttle.release();
+        } finally {
+            channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package io.github.scarrozzo.ratelimit4j.core.concurrency;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+import lombok.Getter;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the requests in flight instead of their rate, adjusting the limit from the measured latency like the gradient
+ * algorithms of TCP Vegas and Netflix concurrency-limits. A latency growing over its long-term average means the
+ * requests are queueing somewhere, e.g. in a slow downstream, so the limit shrinks before the queues build up; while
+ * the latency is stable the limit grows by about its square root, probing for more capacity.
+ * The limit does not grow while less than half of it is used, so an idle service keeps a meaningful limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // the long-term latency decays faster once it is this many times the latency of the requests, e.g. after an outage
+    private static final double RECOVERY_RATIO = 2.0;
+    private static final double RECOVERY_DECAY = 0.95;
+    private static final double MIN_GRADIENT = 0.5;
+
+    @Getter
+    private final AdaptiveConcurrencyLimiterConfig config;
+    @Getter
+    private final TimeSource timeSource;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Object sampleLock = new Object();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longLatency;
+
+    public AdaptiveConcurrencyLimiter(AdaptiveConcurrencyLimiterConfig config) {
+        this(config, TimeSource.system());
+    }
+
+    public AdaptiveConcurrencyLimiter(AdaptiveConcurrencyLimiterConfig config, TimeSource timeSource) {
+        if (config == null) {
+            throw new RateLimiterConfigException("Adaptive concurrency limiter config cannot be null");
+        }
+
+        if (timeSource == null) {
+            throw new RateLimiterConfigException("Time source cannot be null");
+        }
+
+        this.config = config;
+        this.timeSource = timeSource;
+        this.estimatedLimit = config.getInitialLimit();
+        this.limit = config.getInitialLimit();
+    }
+
+    /**
+     * Takes a slot for a request. The permit must be released when the request completes, also when it fails.
+     *
+     * @return an empty optional, without taking anything, if the in-flight limit is reached
+     */
+    public Optional<Permit> tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return Optional.empty();
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return Optional.of(new Permit(timeSource.nanoTime(), current + 1));
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void onSample(long latency, int inFlightAtStart) {
+        synchronized (sampleLock) {
+            if (longLatency == 0.0) {
+                longLatency = latency;
+            } else {
+                longLatency += (latency - longLatency) / config.getLongWindow();
+            }
+
+            if (longLatency > RECOVERY_RATIO * latency) {
+                longLatency *= RECOVERY_DECAY;
+            }
+
+            if (inFlightAtStart < estimatedLimit / 2.0) {
+                return;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, config.getTolerance() * longLatency / Math.max(latency, 1L)));
+            double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            updateLimit(estimatedLimit * (1.0 - config.getSmoothing()) + newLimit * config.getSmoothing());
+        }
+    }
+
+    private void onDrop() {
+        synchronized (sampleLock) {
+            updateLimit(estimatedLimit * config.getBackoffRatio());
+        }
+    }
+
+    private void updateLimit(double newLimit) {
+        estimatedLimit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Slot taken by a request in flight. Only the first release of a permit has effect.
+     */
+    public final class Permit implements Lease {
+
+        private final long startTime;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startTime, int inFlightAtStart) {
+            this.startTime = startTime;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the slot of a completed request, using its latency to adjust the limit.
+         */
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                onSample(timeSource.nanoTime() - startTime, inFlightAtStart);
+            }
+        }
+
+        /**
+         * Releases the slot of a request dropped because of overload, e.g. a timeout, shrinking the limit.
+         */
+        public void releaseDropped() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                onDrop();
+            }
+        }
+
+        /**
+         * Releases the slot without adjusting the limit, e.g. for a request failed before doing any real work.
+         */
+        public void releaseIgnored() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.github.scarrozzo.ratelimit4j.core.concurrency;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Bounds of the in-flight limit and tuning of its adjustment. The limit moves by the gradient between the long-term
+ * average latency and the latency of each request: it grows while the latency stays within tolerance times the
+ * average and shrinks, at most by half per sample, when the requests start queueing.
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+public final class AdaptiveConcurrencyLimiterConfig {
+
+    public static final double DEFAULT_TOLERANCE = 1.5;
+    public static final double DEFAULT_SMOOTHING = 0.2;
+    public static final int DEFAULT_LONG_WINDOW = 600;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int longWindow;
+    private final double backoffRatio;
+
+    public AdaptiveConcurrencyLimiterConfig(final int initialLimit, final int minLimit, final int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_TOLERANCE, DEFAULT_SMOOTHING, DEFAULT_LONG_WINDOW, DEFAULT_BACKOFF_RATIO);
+    }
+
+    /**
+     * @param tolerance    ratio between the latency of a request and the long-term average latency accepted before the
+     *                     limit shrinks
+     * @param smoothing    weight of each new estimate of the limit, between zero (excluded) and one
+     * @param longWindow   number of samples averaged by the long-term latency
+     * @param backoffRatio factor applied to the limit when a request is dropped, e.g. because of a timeout
+     */
+    public AdaptiveConcurrencyLimiterConfig(final int initialLimit,
+                                            final int minLimit,
+                                            final int maxLimit,
+                                            final double tolerance,
+                                            final double smoothing,
+                                            final int longWindow,
+                                            final double backoffRatio) {
+        if (minLimit <= 0) {
+            throw new RateLimiterConfigException("Invalid min limit. Min limit should be greater than zero");
+        }
+
+        if (maxLimit < minLimit) {
+            throw new RateLimiterConfigException("Invalid max limit. Max limit should not be lower than the min limit");
+        }
+
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new RateLimiterConfigException("Invalid initial limit. Initial limit should be between the min and the max limit");
+        }
+
+        if (!(tolerance >= 1.0) || Double.isInfinite(tolerance)) {
+            throw new RateLimiterConfigException("Invalid tolerance. Tolerance should be at least one");
+        }
+
+        if (!(smoothing > 0.0 && smoothing <= 1.0)) {
+            throw new RateLimiterConfigException("Invalid smoothing. Smoothing should be greater than zero and at most one");
+        }
+
+        if (longWindow <= 0) {
+            throw new RateLimiterConfigException("Invalid long window. Long window should be greater than zero");
+        }
+
+        if (!(backoffRatio > 0.0 && backoffRatio < 1.0)) {
+            throw new RateLimiterConfigException("Invalid backoff ratio. Backoff ratio should be between zero and one");
+        }
+
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.backoffRatio = backoffRatio;
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.github.scarrozzo.ratelimit4j.core.concurrency;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import lombok.Getter;
+
+import java.util.Optional;
+
+/**
+ * Limits the requests of each key in flight at the same time, e.g. for endpoints whose cost is the time they hold a
+ * worker rather than their rate.
+ */
+public abstract class ConcurrencyLimiter {
+
+    @Getter
+    protected final ConcurrencyLimiterConfig concurrencyLimiterConfig;
+
+    protected ConcurrencyLimiter(ConcurrencyLimiterConfig concurrencyLimiterConfig) {
+        if (concurrencyLimiterConfig == null) {
+            throw new RateLimiterConfigException("Concurrency limiter config cannot be null");
+        }
+
+        this.concurrencyLimiterConfig = concurrencyLimiterConfig;
+    }
+
+    /**
+     * Takes a slot for a request of the key. The lease must be released when the request completes.
+     *
+     * @return an empty optional, without taking anything, if the key has reached its requests in flight
+     */
+    public abstract Optional<Lease> tryAcquire(String key);
+
+    /**
+     * @throws RateLimiterException if the key has reached its requests in flight
+     */
+    public Lease acquire(String key) throws RateLimiterException {
+        return tryAcquire(key).orElseThrow(() -> new RateLimiterException("Concurrency limit reached"));
+    }
+
+    protected static void checkKey(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Invalid key. Key cannot be null");
+        }
+    }
+
+}
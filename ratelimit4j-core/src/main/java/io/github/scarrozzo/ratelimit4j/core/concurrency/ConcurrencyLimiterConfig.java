@@ -0,0 +1,47 @@
+package io.github.scarrozzo.ratelimit4j.core.concurrency;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * At most maxInFlight requests of the same key are admitted at the same time. A lease not released within the lease
+ * timeout, e.g. because the node holding it crashed, expires and frees its slot.
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+public final class ConcurrencyLimiterConfig {
+
+    private final long maxInFlight;
+    private final long leaseTimeoutInNanoseconds;
+
+    public ConcurrencyLimiterConfig(final long maxInFlight, final long leaseTimeoutInMilliSeconds) {
+        this(maxInFlight, Duration.ofMillis(leaseTimeoutInMilliSeconds));
+    }
+
+    public ConcurrencyLimiterConfig(final long maxInFlight, final Duration leaseTimeout) {
+        if (maxInFlight <= 0) {
+            throw new RateLimiterConfigException("Invalid max in flight. Max in flight should be greater than zero");
+        }
+
+        if (leaseTimeout == null || leaseTimeout.isNegative() || leaseTimeout.isZero()) {
+            throw new RateLimiterConfigException("Invalid lease timeout. Lease timeout should be greater than zero");
+        }
+
+        this.maxInFlight = maxInFlight;
+        this.leaseTimeoutInNanoseconds = leaseTimeout.toNanos();
+    }
+
+    /**
+     * @return the lease timeout truncated to milliseconds
+     */
+    public long getLeaseTimeoutInMilliSeconds() {
+        return TimeUnit.NANOSECONDS.toMillis(leaseTimeoutInNanoseconds);
+    }
+
+}
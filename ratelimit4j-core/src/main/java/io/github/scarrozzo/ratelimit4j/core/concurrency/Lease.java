@@ -0,0 +1,16 @@
+package io.github.scarrozzo.ratelimit4j.core.concurrency;
+
+/**
+ * Slot taken by a request in flight, to be released when the request completes, also when it fails.
+ * Only the first release of a lease has effect.
+ */
+public interface Lease extends AutoCloseable {
+
+    void release();
+
+    @Override
+    default void close() {
+        release();
+    }
+
+}
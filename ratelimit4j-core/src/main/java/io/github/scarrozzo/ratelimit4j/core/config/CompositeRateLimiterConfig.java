@@ -0,0 +1,80 @@
+package io.github.scarrozzo.ratelimit4j.core.config;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Several limits applied together to the same key, e.g. 10 per second and 500 per minute: a request is accepted only
+ * if all of them accept it. Each limit is a bucket of numberOfRequests tokens refilled continuously over its window,
+ * evaluated like the GCRA.
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false)
+@Getter
+public final class CompositeRateLimiterConfig extends RateLimiterConfig {
+
+    private final List<Limit> limits;
+
+    public CompositeRateLimiterConfig(final Limit... limits) {
+        this(limits == null ? null : Arrays.asList(limits));
+    }
+
+    public CompositeRateLimiterConfig(final List<Limit> limits) {
+        if (limits == null || limits.isEmpty() || limits.stream().anyMatch(Objects::isNull)) {
+            throw new RateLimiterConfigException("Invalid limits. At least one limit should be configured");
+        }
+
+        this.limits = List.copyOf(limits);
+        this.rateLimiterType = RateLimiterType.COMPOSITE;
+    }
+
+    @ToString
+    @EqualsAndHashCode
+    @Getter
+    public static final class Limit {
+        private final long numberOfRequests;
+        private final long windowSizeInNanoseconds;
+        private final long emissionIntervalInNanoseconds;
+
+        private Limit(final long numberOfRequests, final Duration windowSize) {
+            if (numberOfRequests <= 0) {
+                throw new RateLimiterConfigException("Invalid number of requests. Number of requests should be greater than zero");
+            }
+
+            if (windowSize == null || windowSize.isNegative() || windowSize.isZero()) {
+                throw new RateLimiterConfigException("Invalid window size. Window size should be greater than zero");
+            }
+
+            if (windowSize.toNanos() < numberOfRequests) {
+                throw new RateLimiterConfigException("Invalid window size. Window size should allow at least one nanosecond per request");
+            }
+
+            this.numberOfRequests = numberOfRequests;
+            this.windowSizeInNanoseconds = windowSize.toNanos();
+            this.emissionIntervalInNanoseconds = windowSizeInNanoseconds / numberOfRequests;
+        }
+
+        public static Limit of(final long numberOfRequests, final Duration windowSize) {
+            return new Limit(numberOfRequests, windowSize);
+        }
+
+        public static Limit of(final long numberOfRequests, final long windowSizeInMilliseconds) {
+            return new Limit(numberOfRequests, Duration.ofMillis(windowSizeInMilliseconds));
+        }
+
+        /**
+         * @return how far the theoretical arrival time can run ahead of the current time, i.e. the burst size
+         */
+        public long getBurstToleranceInNanoseconds() {
+            return emissionIntervalInNanoseconds * numberOfRequests;
+        }
+    }
+
+}
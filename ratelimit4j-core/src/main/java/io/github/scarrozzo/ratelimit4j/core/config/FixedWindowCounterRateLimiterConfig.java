@@ -1,19 +1,29 @@
 package io.github.scarrozzo.ratelimit4j.core.config;
 
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @ToString
+@EqualsAndHashCode(callSuper = false)
 @Getter
 public class FixedWindowCounterRateLimiterConfig extends RateLimiterConfig {
 
-    private final long windowSizeInMilliseconds;
+    private final long windowSizeInNanoseconds;
     private final long numberOfRequests;
 
     public FixedWindowCounterRateLimiterConfig(final long windowSizeInMilliseconds,
                                                final long numberOfRequests) {
-        if (windowSizeInMilliseconds <= 0) {
+        this(Duration.ofMillis(windowSizeInMilliseconds), numberOfRequests);
+    }
+
+    public FixedWindowCounterRateLimiterConfig(final Duration windowSize,
+                                               final long numberOfRequests) {
+        if (windowSize == null || windowSize.isNegative() || windowSize.isZero()) {
             throw new RateLimiterConfigException("Invalid window size. Window size should be greater than zero");
         }
 
@@ -21,9 +31,16 @@ public class FixedWindowCounterRateLimiterConfig extends RateLimiterConfig {
             throw new RateLimiterConfigException("Invalid number of requests. Number of requests should be greater than zero");
         }
 
-        this.windowSizeInMilliseconds = windowSizeInMilliseconds;
+        this.windowSizeInNanoseconds = windowSize.toNanos();
         this.numberOfRequests = numberOfRequests;
         this.rateLimiterType = RateLimiterType.FIXED_WINDOW_COUNTER;
     }
 
+    /**
+     * @return the window size truncated to milliseconds
+     */
+    public long getWindowSizeInMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(windowSizeInNanoseconds);
+    }
+
 }
@@ -0,0 +1,53 @@
+package io.github.scarrozzo.ratelimit4j.core.config;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Generic Cell Rate Algorithm: the bucket refills continuously, one token every refill period divided by the bucket
+ * size, and accepts bursts up to the bucket size.
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false)
+@Getter
+public final class GcraRateLimiterConfig extends RateLimiterConfig {
+
+    private final long bucketSize;
+    private final long refillPeriodInNanoseconds;
+    private final long emissionIntervalInNanoseconds;
+
+    public GcraRateLimiterConfig(final long bucketSize, final long refillPeriodInMilliSeconds) {
+        this(bucketSize, Duration.ofMillis(refillPeriodInMilliSeconds));
+    }
+
+    public GcraRateLimiterConfig(final long bucketSize, final Duration refillPeriod) {
+        if (bucketSize <= 0) {
+            throw new RateLimiterConfigException("Invalid bucket size. Bucket size should be greater than zero");
+        }
+
+        if (refillPeriod == null || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new RateLimiterConfigException("Invalid refill period. Refill period should be greater than zero");
+        }
+
+        if (refillPeriod.toNanos() < bucketSize) {
+            throw new RateLimiterConfigException("Invalid refill period. Refill period should allow at least one nanosecond per token");
+        }
+
+        this.bucketSize = bucketSize;
+        this.refillPeriodInNanoseconds = refillPeriod.toNanos();
+        this.emissionIntervalInNanoseconds = refillPeriodInNanoseconds / bucketSize;
+        this.rateLimiterType = RateLimiterType.GCRA;
+    }
+
+    /**
+     * @return how far the theoretical arrival time can run ahead of the current time, i.e. the burst size
+     */
+    public long getBurstToleranceInNanoseconds() {
+        return emissionIntervalInNanoseconds * bucketSize;
+    }
+
+}
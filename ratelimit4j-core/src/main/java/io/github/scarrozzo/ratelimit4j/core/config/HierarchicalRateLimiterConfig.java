@@ -0,0 +1,37 @@
+package io.github.scarrozzo.ratelimit4j.core.config;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One limit for each level of a key path, ordered from the outermost level to the innermost one, e.g. the whole
+ * service, then the tenant, then the user. A request is accepted only if every level of its path accepts it.
+ * Each level is evaluated like a {@link CompositeRateLimiterConfig.Limit}.
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false)
+@Getter
+public final class HierarchicalRateLimiterConfig extends RateLimiterConfig {
+
+    private final List<CompositeRateLimiterConfig.Limit> levels;
+
+    public HierarchicalRateLimiterConfig(final CompositeRateLimiterConfig.Limit... levels) {
+        this(levels == null ? null : Arrays.asList(levels));
+    }
+
+    public HierarchicalRateLimiterConfig(final List<CompositeRateLimiterConfig.Limit> levels) {
+        if (levels == null || levels.isEmpty() || levels.stream().anyMatch(Objects::isNull)) {
+            throw new RateLimiterConfigException("Invalid levels. At least one level should be configured");
+        }
+
+        this.levels = List.copyOf(levels);
+        this.rateLimiterType = RateLimiterType.HIERARCHICAL;
+    }
+
+}
@@ -1,22 +1,35 @@
 package io.github.scarrozzo.ratelimit4j.core.config;
 
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @ToString
+@EqualsAndHashCode(callSuper = false)
 @Getter
 public class LeakyBucketRateLimiterConfig extends RateLimiterConfig {
 
     private final long bucketSize;
     private final long outflowRateNumReq;
-    private final long outflowRatePeriodInMilliseconds;
-    private final long clearQueueAfterInactivityInMilliseconds;
+    private final long outflowRatePeriodInNanoseconds;
+    private final long clearQueueAfterInactivityInNanoseconds;
 
     public LeakyBucketRateLimiterConfig(final long bucketSize,
                                         final long outflowRateNumReq,
                                         final long outflowRatePeriodInMilliseconds,
                                         final long clearQueueAfterInactivityInMilliseconds) {
+        this(bucketSize, outflowRateNumReq, Duration.ofMillis(outflowRatePeriodInMilliseconds),
+                Duration.ofMillis(clearQueueAfterInactivityInMilliseconds));
+    }
+
+    public LeakyBucketRateLimiterConfig(final long bucketSize,
+                                        final long outflowRateNumReq,
+                                        final Duration outflowRatePeriod,
+                                        final Duration clearQueueAfterInactivity) {
         if (bucketSize <= 0) {
             throw new RateLimiterConfigException("Invalid bucket size. Bucket size should be greater than zero");
         }
@@ -25,19 +38,33 @@ public class LeakyBucketRateLimiterConfig extends RateLimiterConfig {
             throw new RateLimiterConfigException("Invalid outflow rate number of requests. Outflow rate number of requests should be greater than zero");
         }
 
-        if (outflowRatePeriodInMilliseconds <= 0) {
+        if (outflowRatePeriod == null || outflowRatePeriod.isNegative() || outflowRatePeriod.isZero()) {
             throw new RateLimiterConfigException("Invalid outflow rate period. Outflow rate period should be freater than zero");
         }
 
-        if (clearQueueAfterInactivityInMilliseconds <= 0) {
+        if (clearQueueAfterInactivity == null || clearQueueAfterInactivity.isNegative() || clearQueueAfterInactivity.isZero()) {
             throw new RateLimiterConfigException("Invalid clear queue period. it should be greater than zero");
         }
 
         this.bucketSize = bucketSize;
         this.outflowRateNumReq = outflowRateNumReq;
-        this.outflowRatePeriodInMilliseconds = outflowRatePeriodInMilliseconds;
-        this.clearQueueAfterInactivityInMilliseconds = clearQueueAfterInactivityInMilliseconds;
+        this.outflowRatePeriodInNanoseconds = outflowRatePeriod.toNanos();
+        this.clearQueueAfterInactivityInNanoseconds = clearQueueAfterInactivity.toNanos();
         this.rateLimiterType = RateLimiterType.LEAKY_BUCKET;
     }
 
+    /**
+     * @return the outflow rate period truncated to milliseconds
+     */
+    public long getOutflowRatePeriodInMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(outflowRatePeriodInNanoseconds);
+    }
+
+    /**
+     * @return the inactivity period truncated to milliseconds
+     */
+    public long getClearQueueAfterInactivityInMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(clearQueueAfterInactivityInNanoseconds);
+    }
+
 }
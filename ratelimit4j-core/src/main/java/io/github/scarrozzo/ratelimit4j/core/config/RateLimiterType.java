@@ -3,5 +3,11 @@ package io.github.scarrozzo.ratelimit4j.core.config;
 public enum RateLimiterType {
     TOKEN_BUCKET,
     LEAKY_BUCKET,
-    FIXED_WINDOW_COUNTER
+    FIXED_WINDOW_COUNTER,
+    GCRA,
+    SLIDING_WINDOW_COUNTER,
+    SLIDING_WINDOW_LOG,
+    WARM_UP_TOKEN_BUCKET,
+    COMPOSITE,
+    HIERARCHICAL
 }
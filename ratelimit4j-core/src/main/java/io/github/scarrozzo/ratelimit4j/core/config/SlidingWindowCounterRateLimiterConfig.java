@@ -0,0 +1,50 @@
+package io.github.scarrozzo.ratelimit4j.core.config;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding window counter: the requests of the previous window are weighted by the fraction of it still covered by
+ * the sliding window, so a client cannot send twice the limit across a window boundary.
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false)
+@Getter
+public class SlidingWindowCounterRateLimiterConfig extends RateLimiterConfig {
+
+    private final long windowSizeInNanoseconds;
+    private final long numberOfRequests;
+
+    public SlidingWindowCounterRateLimiterConfig(final long windowSizeInMilliseconds,
+                                                 final long numberOfRequests) {
+        this(Duration.ofMillis(windowSizeInMilliseconds), numberOfRequests);
+    }
+
+    public SlidingWindowCounterRateLimiterConfig(final Duration windowSize,
+                                                 final long numberOfRequests) {
+        if (windowSize == null || windowSize.isNegative() || windowSize.isZero()) {
+            throw new RateLimiterConfigException("Invalid window size. Window size should be greater than zero");
+        }
+
+        if (numberOfRequests <= 0) {
+            throw new RateLimiterConfigException("Invalid number of requests. Number of requests should be greater than zero");
+        }
+
+        this.windowSizeInNanoseconds = windowSize.toNanos();
+        this.numberOfRequests = numberOfRequests;
+        this.rateLimiterType = RateLimiterType.SLIDING_WINDOW_COUNTER;
+    }
+
+    /**
+     * @return the window size truncated to milliseconds
+     */
+    public long getWindowSizeInMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(windowSizeInNanoseconds);
+    }
+
+}
@@ -0,0 +1,55 @@
+package io.github.scarrozzo.ratelimit4j.core.config;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding window log: the timestamps of the accepted requests are kept, so at most numberOfRequests are accepted in
+ * any window of the given size.
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false)
+@Getter
+public class SlidingWindowLogRateLimiterConfig extends RateLimiterConfig {
+
+    private final long windowSizeInNanoseconds;
+    private final long numberOfRequests;
+
+    public SlidingWindowLogRateLimiterConfig(final long windowSizeInMilliseconds,
+                                             final long numberOfRequests) {
+        this(Duration.ofMillis(windowSizeInMilliseconds), numberOfRequests);
+    }
+
+    public SlidingWindowLogRateLimiterConfig(final Duration windowSize,
+                                             final long numberOfRequests) {
+        if (windowSize == null || windowSize.isNegative() || windowSize.isZero()) {
+            throw new RateLimiterConfigException("Invalid window size. Window size should be greater than zero");
+        }
+
+        if (numberOfRequests <= 0) {
+            throw new RateLimiterConfigException("Invalid number of requests. Number of requests should be greater than zero");
+        }
+
+        // one timestamp is kept for each accepted request
+        if (numberOfRequests > Integer.MAX_VALUE) {
+            throw new RateLimiterConfigException("Invalid number of requests. Number of requests should be at most " + Integer.MAX_VALUE);
+        }
+
+        this.windowSizeInNanoseconds = windowSize.toNanos();
+        this.numberOfRequests = numberOfRequests;
+        this.rateLimiterType = RateLimiterType.SLIDING_WINDOW_LOG;
+    }
+
+    /**
+     * @return the window size truncated to milliseconds
+     */
+    public long getWindowSizeInMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(windowSizeInNanoseconds);
+    }
+
+}
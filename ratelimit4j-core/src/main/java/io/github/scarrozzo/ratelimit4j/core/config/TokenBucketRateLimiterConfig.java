@@ -1,28 +1,63 @@
 package io.github.scarrozzo.ratelimit4j.core.config;
 
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @ToString
+@EqualsAndHashCode(callSuper = false)
 @Getter
 public final class TokenBucketRateLimiterConfig extends RateLimiterConfig {
 
     private final long bucketSize;
-    private final long refillPeriodInMilliSeconds;
+    private final long refillTokens;
+    private final long refillPeriodInNanoseconds;
+    private final TokenBucketRefillStrategy refillStrategy;
 
     public TokenBucketRateLimiterConfig(final long bucketSize, final long refillPeriodInMilliSeconds) {
+        this(bucketSize, Duration.ofMillis(refillPeriodInMilliSeconds));
+    }
+
+    public TokenBucketRateLimiterConfig(final long bucketSize, final Duration refillPeriod) {
+        this(bucketSize, bucketSize, refillPeriod, TokenBucketRefillStrategy.INTERVAL);
+    }
+
+    public TokenBucketRateLimiterConfig(final long bucketSize,
+                                        final long refillTokens,
+                                        final Duration refillPeriod,
+                                        final TokenBucketRefillStrategy refillStrategy) {
         if (bucketSize <= 0) {
             throw new RateLimiterConfigException("Invalid bucket size. Bucket size should be greater than zero");
         }
 
-        if (refillPeriodInMilliSeconds <= 0) {
+        if (refillPeriod == null || refillPeriod.isNegative() || refillPeriod.isZero()) {
             throw new RateLimiterConfigException("Invalid refill period. Refill period should be greater than zero");
         }
 
+        if (refillTokens <= 0) {
+            throw new RateLimiterConfigException("Invalid refill tokens. Refill tokens should be greater than zero");
+        }
+
+        if (refillStrategy == null) {
+            throw new RateLimiterConfigException("Invalid refill strategy. Refill strategy cannot be null");
+        }
+
         this.bucketSize = bucketSize;
-        this.refillPeriodInMilliSeconds = refillPeriodInMilliSeconds;
+        this.refillTokens = refillTokens;
+        this.refillPeriodInNanoseconds = refillPeriod.toNanos();
+        this.refillStrategy = refillStrategy;
         this.rateLimiterType = RateLimiterType.TOKEN_BUCKET;
     }
 
+    /**
+     * @return the refill period truncated to milliseconds
+     */
+    public long getRefillPeriodInMilliSeconds() {
+        return TimeUnit.NANOSECONDS.toMillis(refillPeriodInNanoseconds);
+    }
+
 }
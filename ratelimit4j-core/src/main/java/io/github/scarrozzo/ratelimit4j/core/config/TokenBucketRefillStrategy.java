@@ -0,0 +1,12 @@
+package io.github.scarrozzo.ratelimit4j.core.config;
+
+public enum TokenBucketRefillStrategy {
+    /**
+     * refillTokens are added at the end of each refill period
+     */
+    INTERVAL,
+    /**
+     * tokens are added one at a time as soon as they are earned, at the rate of refillTokens per refill period
+     */
+    CONTINUOUS
+}
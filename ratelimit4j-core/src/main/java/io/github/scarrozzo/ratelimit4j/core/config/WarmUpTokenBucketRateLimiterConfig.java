@@ -0,0 +1,75 @@
+package io.github.scarrozzo.ratelimit4j.core.config;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Continuously refilled token bucket that starts cold: both the refill rate and the bucket size start at
+ * 1 / coldFactor of their steady value and grow linearly to it over the warm-up period, like Guava's SmoothWarmingUp.
+ * A key that stays idle for a whole warm-up period becomes cold again.
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false)
+@Getter
+public final class WarmUpTokenBucketRateLimiterConfig extends RateLimiterConfig {
+
+    public static final double DEFAULT_COLD_FACTOR = 3.0;
+
+    private final long bucketSize;
+    private final long refillPeriodInNanoseconds;
+    private final long warmUpPeriodInNanoseconds;
+    private final double coldFactor;
+
+    public WarmUpTokenBucketRateLimiterConfig(final long bucketSize,
+                                              final long refillPeriodInMilliSeconds,
+                                              final long warmUpPeriodInMilliSeconds) {
+        this(bucketSize, Duration.ofMillis(refillPeriodInMilliSeconds), Duration.ofMillis(warmUpPeriodInMilliSeconds), DEFAULT_COLD_FACTOR);
+    }
+
+    public WarmUpTokenBucketRateLimiterConfig(final long bucketSize,
+                                              final Duration refillPeriod,
+                                              final Duration warmUpPeriod,
+                                              final double coldFactor) {
+        if (bucketSize <= 0) {
+            throw new RateLimiterConfigException("Invalid bucket size. Bucket size should be greater than zero");
+        }
+
+        if (refillPeriod == null || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new RateLimiterConfigException("Invalid refill period. Refill period should be greater than zero");
+        }
+
+        if (warmUpPeriod == null || warmUpPeriod.isNegative() || warmUpPeriod.isZero()) {
+            throw new RateLimiterConfigException("Invalid warm up period. Warm up period should be greater than zero");
+        }
+
+        if (!(coldFactor >= 1.0) || Double.isInfinite(coldFactor)) {
+            throw new RateLimiterConfigException("Invalid cold factor. Cold factor should be at least one");
+        }
+
+        this.bucketSize = bucketSize;
+        this.refillPeriodInNanoseconds = refillPeriod.toNanos();
+        this.warmUpPeriodInNanoseconds = warmUpPeriod.toNanos();
+        this.coldFactor = coldFactor;
+        this.rateLimiterType = RateLimiterType.WARM_UP_TOKEN_BUCKET;
+    }
+
+    /**
+     * @return the refill period truncated to milliseconds
+     */
+    public long getRefillPeriodInMilliSeconds() {
+        return TimeUnit.NANOSECONDS.toMillis(refillPeriodInNanoseconds);
+    }
+
+    /**
+     * @return the warm up period truncated to milliseconds
+     */
+    public long getWarmUpPeriodInMilliSeconds() {
+        return TimeUnit.NANOSECONDS.toMillis(warmUpPeriodInNanoseconds);
+    }
+
+}
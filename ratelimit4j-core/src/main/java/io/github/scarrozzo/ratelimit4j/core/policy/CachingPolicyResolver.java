@@ -0,0 +1,151 @@
+package io.github.scarrozzo.ratelimit4j.core.policy;
+
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded cache of the policies resolved by another resolver. The policies are loaded and refreshed by the executor:
+ * a request never waits for a lookup, it uses the cached policy, even when a refresh is in progress, or the default
+ * config while the first lookup of its key has not completed yet.
+ * When the cache is full a clock gives a second chance to the keys requested since its last pass and evicts the others,
+ * which are resolved again at their next request: the keys in use stay cached while a burst of new keys goes through
+ * the cache. A failed lookup is logged, keeps the previous policy and is retried after the refresh period.
+ */
+public class CachingPolicyResolver<T extends RateLimiterConfig> implements PolicyResolver<T> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final Duration DEFAULT_REFRESH_AFTER = Duration.ofMinutes(1L);
+
+    private static final System.Logger LOGGER = System.getLogger(CachingPolicyResolver.class.getName());
+
+    private final PolicyResolver<T> policyResolver;
+    private final int maximumSize;
+    private final long refreshAfterInNanoseconds;
+    private final Executor executor;
+    private final TimeSource timeSource;
+    private final ConcurrentHashMap<String, CachedPolicy<T>> policies = new ConcurrentHashMap<>();
+    // the cached keys in the order the clock visits them
+    private final ConcurrentLinkedQueue<String> clock = new ConcurrentLinkedQueue<>();
+
+    public CachingPolicyResolver(PolicyResolver<T> policyResolver) {
+        this(policyResolver, DEFAULT_MAXIMUM_SIZE, DEFAULT_REFRESH_AFTER);
+    }
+
+    public CachingPolicyResolver(PolicyResolver<T> policyResolver, int maximumSize, Duration refreshAfter) {
+        this(policyResolver, maximumSize, refreshAfter, ForkJoinPool.commonPool(), TimeSource.system());
+    }
+
+    public CachingPolicyResolver(PolicyResolver<T> policyResolver, int maximumSize, Duration refreshAfter,
+                                 Executor executor, TimeSource timeSource) {
+        if (policyResolver == null || executor == null || timeSource == null) {
+            throw new RateLimiterConfigException("Policy resolver, executor and time source cannot be null");
+        }
+
+        if (maximumSize <= 0) {
+            throw new RateLimiterConfigException("Invalid maximum size. Maximum size should be greater than zero");
+        }
+
+        if (refreshAfter == null || refreshAfter.isNegative() || refreshAfter.isZero()) {
+            throw new RateLimiterConfigException("Invalid refresh period. Refresh period should be greater than zero");
+        }
+
+        this.policyResolver = policyResolver;
+        this.maximumSize = maximumSize;
+        this.refreshAfterInNanoseconds = refreshAfter.toNanos();
+        this.executor = executor;
+        this.timeSource = timeSource;
+    }
+
+    @Override
+    public T resolve(String key) {
+        CachedPolicy<T> cachedPolicy = policies.get(key);
+        if (cachedPolicy == null) {
+            CachedPolicy<T> newPolicy = new CachedPolicy<>(timeSource.nanoTime());
+            cachedPolicy = policies.putIfAbsent(key, newPolicy);
+            if (cachedPolicy == null) {
+                clock.add(key);
+                evict();
+                load(key, newPolicy);
+                return newPolicy.policy;
+            }
+        }
+
+        // written only when it changes, so the hits on a key do not contend on its cache line
+        if (!cachedPolicy.referenced) {
+            cachedPolicy.referenced = true;
+        }
+
+        if (timeSource.nanoTime() - cachedPolicy.loadTime >= refreshAfterInNanoseconds) {
+            load(key, cachedPolicy);
+        }
+
+        return cachedPolicy.policy;
+    }
+
+    public int size() {
+        return policies.size();
+    }
+
+    private void load(String key, CachedPolicy<T> cachedPolicy) {
+        if (!cachedPolicy.loading.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    cachedPolicy.policy = policyResolver.resolve(key);
+                } catch (RuntimeException e) {
+                    // keep the previous policy, the lookup is retried after the refresh period
+                    LOGGER.log(System.Logger.Level.WARNING, "Policy lookup failed, keeping the previous policy [key=" + key + "]", e);
+                } finally {
+                    cachedPolicy.loadTime = timeSource.nanoTime();
+                    cachedPolicy.loading.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cachedPolicy.loading.set(false);
+        }
+    }
+
+    // the second chances are bounded, so the eviction ends even when every key is requested again meanwhile
+    private void evict() {
+        int secondChances = maximumSize;
+        while (policies.size() > maximumSize) {
+            String key = clock.poll();
+            if (key == null) {
+                return;
+            }
+
+            CachedPolicy<T> cachedPolicy = policies.get(key);
+            if (cachedPolicy != null && cachedPolicy.referenced && secondChances-- > 0) {
+                cachedPolicy.referenced = false;
+                clock.add(key);
+            } else if (cachedPolicy != null) {
+                policies.remove(key, cachedPolicy);
+            }
+        }
+    }
+
+    private static final class CachedPolicy<T> {
+        private final AtomicBoolean loading = new AtomicBoolean();
+        private volatile T policy;
+        private volatile long loadTime;
+        // requested since the last pass of the clock
+        private volatile boolean referenced;
+
+        private CachedPolicy(long loadTime) {
+            this.loadTime = loadTime;
+        }
+    }
+
+}
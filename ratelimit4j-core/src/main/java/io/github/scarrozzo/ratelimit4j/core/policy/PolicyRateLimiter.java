@@ -0,0 +1,111 @@
+package io.github.scarrozzo.ratelimit4j.core.policy;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.registry.RateLimiterFactory;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates each key with the config returned by a {@link PolicyResolver}, e.g. the limits of the plan of a customer,
+ * and with the default config when the resolver returns null.
+ * The keys are routed to one rate limiter for each distinct config, all created by the factory with the same name, so
+ * the number of limiters grows with the number of plans and not with the number of keys. The limiters of the same name
+ * share the state of the keys and evaluate it with their own limits, so a key keeps its state when its plan changes or
+ * when it is served by the default config while its plan is resolved.
+ */
+public class PolicyRateLimiter<T extends RateLimiterConfig> extends RateLimiter<T> {
+
+    private final String name;
+    private final PolicyResolver<T> policyResolver;
+    private final RateLimiterFactory rateLimiterFactory;
+    private final RateLimiter<T> defaultRateLimiter;
+    private final ConcurrentHashMap<T, RateLimiter<T>> rateLimiters = new ConcurrentHashMap<>();
+
+    public PolicyRateLimiter(String name, T defaultConfig, PolicyResolver<T> policyResolver,
+                             RateLimiterFactory rateLimiterFactory) {
+        super(defaultConfig);
+
+        if (policyResolver == null || rateLimiterFactory == null) {
+            throw new RateLimiterConfigException("Policy resolver and rate limiter factory cannot be null");
+        }
+
+        this.name = name;
+        this.policyResolver = policyResolver;
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.defaultRateLimiter = create(defaultConfig);
+    }
+
+    /**
+     * @return the rate limiter evaluating the key with its resolved config
+     */
+    public RateLimiter<T> rateLimiterFor(String key) {
+        T config = policyResolver.resolve(key);
+        if (config == null || config.equals(rateLimiterConfig)) {
+            return defaultRateLimiter;
+        }
+
+        return rateLimiters.computeIfAbsent(config, this::create);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return rateLimiterFor(key).tryAcquire(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return rateLimiterFor(encodeKey(key)).tryAcquire(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return rateLimiterFor(encodeKey(key)).tryAcquire(key, permits);
+    }
+
+    // all the configs of a policy are evaluated by limiters of the same type
+    @Override
+    public boolean supportsPriorities() {
+        return defaultRateLimiter.supportsPriorities();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits, RequestPriority priority) {
+        return rateLimiterFor(key).tryAcquire(key, permits, priority);
+    }
+
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        return rateLimiterFor(key).evaluateRequestAsync(key, permits);
+    }
+
+    @Override
+    public boolean supportsSettlement() {
+        return defaultRateLimiter.supportsSettlement();
+    }
+
+    @Override
+    public void settle(String key, long permits) {
+        rateLimiterFor(key).settle(key, permits);
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        return rateLimiterFor(key).tryReserve(key, permits, timeoutNanos);
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return defaultRateLimiter.supportsReservations();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RateLimiter<T> create(T config) {
+        return (RateLimiter<T>) rateLimiterFactory.create(name, config);
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.scarrozzo.ratelimit4j.core.policy;
+
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+
+/**
+ * Maps a key to its limit parameters, e.g. looking up the plan of the customer in a database or in a config service.
+ * Wrap slow resolvers in a {@link CachingPolicyResolver}, so the lookups are not made while evaluating the requests.
+ */
+@FunctionalInterface
+public interface PolicyResolver<T extends RateLimiterConfig> {
+
+    /**
+     * @return the config of the key, or null to use the default config of the rate limiter
+     */
+    T resolve(String key);
+
+}
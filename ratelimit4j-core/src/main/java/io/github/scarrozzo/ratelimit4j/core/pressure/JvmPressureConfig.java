@@ -0,0 +1,74 @@
+package io.github.scarrozzo.ratelimit4j.core.pressure;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Each JVM signal becomes a pressure growing linearly from zero at its low threshold to one at its high threshold:
+ * the fraction of time spent in GC pauses, the heap occupancy after the last collection and the CPU load of the process.
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+public final class JvmPressureConfig {
+
+    public static final Duration DEFAULT_SAMPLING_INTERVAL = Duration.ofSeconds(1L);
+    public static final double DEFAULT_GC_TIME_RATIO_LOW = 0.05;
+    public static final double DEFAULT_GC_TIME_RATIO_HIGH = 0.25;
+    public static final double DEFAULT_HEAP_AFTER_GC_LOW = 0.75;
+    public static final double DEFAULT_HEAP_AFTER_GC_HIGH = 0.95;
+    public static final double DEFAULT_CPU_LOAD_LOW = 0.85;
+    public static final double DEFAULT_CPU_LOAD_HIGH = 1.0;
+
+    private final long samplingIntervalInNanoseconds;
+    private final double gcTimeRatioLow;
+    private final double gcTimeRatioHigh;
+    private final double heapAfterGcLow;
+    private final double heapAfterGcHigh;
+    private final double cpuLoadLow;
+    private final double cpuLoadHigh;
+
+    public JvmPressureConfig() {
+        this(DEFAULT_SAMPLING_INTERVAL);
+    }
+
+    public JvmPressureConfig(final Duration samplingInterval) {
+        this(samplingInterval, DEFAULT_GC_TIME_RATIO_LOW, DEFAULT_GC_TIME_RATIO_HIGH, DEFAULT_HEAP_AFTER_GC_LOW,
+                DEFAULT_HEAP_AFTER_GC_HIGH, DEFAULT_CPU_LOAD_LOW, DEFAULT_CPU_LOAD_HIGH);
+    }
+
+    public JvmPressureConfig(final Duration samplingInterval,
+                             final double gcTimeRatioLow,
+                             final double gcTimeRatioHigh,
+                             final double heapAfterGcLow,
+                             final double heapAfterGcHigh,
+                             final double cpuLoadLow,
+                             final double cpuLoadHigh) {
+        if (samplingInterval == null || samplingInterval.isNegative() || samplingInterval.isZero()) {
+            throw new RateLimiterConfigException("Invalid sampling interval. Sampling interval should be greater than zero");
+        }
+
+        checkThresholds("GC time ratio", gcTimeRatioLow, gcTimeRatioHigh);
+        checkThresholds("heap after GC", heapAfterGcLow, heapAfterGcHigh);
+        checkThresholds("CPU load", cpuLoadLow, cpuLoadHigh);
+
+        this.samplingIntervalInNanoseconds = samplingInterval.toNanos();
+        this.gcTimeRatioLow = gcTimeRatioLow;
+        this.gcTimeRatioHigh = gcTimeRatioHigh;
+        this.heapAfterGcLow = heapAfterGcLow;
+        this.heapAfterGcHigh = heapAfterGcHigh;
+        this.cpuLoadLow = cpuLoadLow;
+        this.cpuLoadHigh = cpuLoadHigh;
+    }
+
+    private static void checkThresholds(String signal, double low, double high) {
+        if (!(low >= 0.0 && low < high && high <= 1.0)) {
+            throw new RateLimiterConfigException("Invalid " + signal + " thresholds. Thresholds should be between zero and one, the low one lower than the high one");
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+package io.github.scarrozzo.ratelimit4j.core.pressure;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads the JVM signals once per sampling interval from a daemon thread, so reading the pressure is a volatile load.
+ * The pressure is the highest among the GC time ratio, the heap occupancy after GC and the process CPU load, each
+ * scaled between its thresholds. The heap occupancy is the one of the tenured pools: the young pools are nearly full
+ * after a young collection whatever the pressure, e.g. the survivor spaces of the Parallel and Serial collectors. The GC frequency is exposed too, but it weighs on the pressure only through the time
+ * of the pauses. The signals not available on the running JVM count as no pressure.
+ */
+public final class JvmPressureSampler implements PressureSource, AutoCloseable {
+
+    private final JvmPressureConfig config;
+    private final List<GarbageCollectorMXBean> garbageCollectors;
+    private final List<MemoryPoolMXBean> tenuredPools;
+    private final OperatingSystemMXBean operatingSystem;
+    private final Thread sampler;
+    private long lastSampleTime;
+    private long lastGcTime;
+    private long lastGcCount;
+    private volatile boolean closed;
+    private volatile double pressure;
+    private volatile double gcTimeRatio;
+    private volatile double gcFrequency;
+    private volatile double heapAfterGc;
+    private volatile double cpuLoad;
+
+    public JvmPressureSampler() {
+        this(new JvmPressureConfig());
+    }
+
+    public JvmPressureSampler(JvmPressureConfig config) {
+        if (config == null) {
+            throw new RateLimiterConfigException("JVM pressure config cannot be null");
+        }
+
+        this.config = config;
+        this.garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+        // the young pools, eden and survivor spaces, do not support a usage threshold
+        this.tenuredPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .filter(pool -> pool.isUsageThresholdSupported() && pool.isCollectionUsageThresholdSupported())
+                .toList();
+        this.operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        this.lastSampleTime = System.nanoTime();
+        this.lastGcTime = totalGcTime();
+        this.lastGcCount = totalGcCount();
+        this.sampler = new Thread(this::run, "ratelimit4j-jvm-pressure-sampler");
+        this.sampler.setDaemon(true);
+        this.sampler.start();
+    }
+
+    @Override
+    public double pressure() {
+        return pressure;
+    }
+
+    /**
+     * @return the fraction of the last sampling interval spent in GC
+     */
+    public double getGcTimeRatio() {
+        return gcTimeRatio;
+    }
+
+    /**
+     * @return the collections per second during the last sampling interval
+     */
+    public double getGcFrequency() {
+        return gcFrequency;
+    }
+
+    /**
+     * @return the highest occupancy of the tenured heap pools after their last collection
+     */
+    public double getHeapAfterGc() {
+        return heapAfterGc;
+    }
+
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(sampler);
+    }
+
+    private void run() {
+        while (!closed) {
+            LockSupport.parkNanos(config.getSamplingIntervalInNanoseconds());
+            sample();
+        }
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long gcTime = totalGcTime();
+        long gcCount = totalGcCount();
+        double elapsedMillis = Math.max(now - lastSampleTime, 1L) / 1_000_000.0;
+
+        gcTimeRatio = Math.min((gcTime - lastGcTime) / elapsedMillis, 1.0);
+        gcFrequency = (gcCount - lastGcCount) * 1_000.0 / elapsedMillis;
+        heapAfterGc = heapOccupancyAfterGc();
+        cpuLoad = processCpuLoad();
+        lastSampleTime = now;
+        lastGcTime = gcTime;
+        lastGcCount = gcCount;
+
+        pressure = Math.max(scale(gcTimeRatio, config.getGcTimeRatioLow(), config.getGcTimeRatioHigh()),
+                Math.max(scale(heapAfterGc, config.getHeapAfterGcLow(), config.getHeapAfterGcHigh()),
+                        scale(cpuLoad, config.getCpuLoadLow(), config.getCpuLoadHigh())));
+    }
+
+    // the collectors return -1 when the value is undefined
+    private long totalGcTime() {
+        return garbageCollectors.stream().mapToLong(collector -> Math.max(collector.getCollectionTime(), 0L)).sum();
+    }
+
+    private long totalGcCount() {
+        return garbageCollectors.stream().mapToLong(collector -> Math.max(collector.getCollectionCount(), 0L)).sum();
+    }
+
+    private double heapOccupancyAfterGc() {
+        double occupancy = 0.0;
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null && usage.getMax() > 0L) {
+                occupancy = Math.max(occupancy, (double) usage.getUsed() / usage.getMax());
+            }
+        }
+
+        return occupancy;
+    }
+
+    private double processCpuLoad() {
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean sunOperatingSystem) {
+            return Math.max(sunOperatingSystem.getProcessCpuLoad(), 0.0);
+        }
+
+        return 0.0;
+    }
+
+    private static double scale(double value, double low, double high) {
+        return Math.max(0.0, Math.min(1.0, (value - low) / (high - low)));
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.scarrozzo.ratelimit4j.core.pressure;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Scales down the admission rate of the wrapped rate limiter as the pressure rises: a request is shed at random, before
+ * consuming any permit, with a probability growing with the pressure, so at full pressure only the minimum admission
+ * ratio of the requests reaches the wrapped rate limiter. Critical requests are never shed.
+ */
+public class PressureAwareRateLimiter<T extends RateLimiterConfig> extends RateLimiter<T> {
+
+    public static final double DEFAULT_MIN_ADMISSION_RATIO = 0.1;
+
+    private final RateLimiter<T> rateLimiter;
+    private final PressureSource pressureSource;
+    private final double minAdmissionRatio;
+
+    public PressureAwareRateLimiter(RateLimiter<T> rateLimiter, PressureSource pressureSource) {
+        this(rateLimiter, pressureSource, DEFAULT_MIN_ADMISSION_RATIO);
+    }
+
+    public PressureAwareRateLimiter(RateLimiter<T> rateLimiter, PressureSource pressureSource, double minAdmissionRatio) {
+        super(rateLimiter == null ? null : rateLimiter.getRateLimiterConfig(),
+                rateLimiter == null ? null : rateLimiter.getTimeSource());
+
+        if (pressureSource == null) {
+            throw new RateLimiterConfigException("Pressure source cannot be null");
+        }
+
+        if (!(minAdmissionRatio >= 0.0 && minAdmissionRatio <= 1.0)) {
+            throw new RateLimiterConfigException("Invalid min admission ratio. Min admission ratio should be between zero and one");
+        }
+
+        this.rateLimiter = rateLimiter;
+        this.pressureSource = pressureSource;
+        this.minAdmissionRatio = minAdmissionRatio;
+    }
+
+    /**
+     * @return the fraction of the requests currently passed to the wrapped rate limiter
+     */
+    public double getAdmissionRatio() {
+        double pressure = Math.max(0.0, Math.min(1.0, pressureSource.pressure()));
+        return 1.0 - pressure * (1.0 - minAdmissionRatio);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return shed() ? shedDecision() : rateLimiter.tryAcquire(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return shed() ? shedDecision() : rateLimiter.tryAcquire(key, permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return shed() ? shedDecision() : rateLimiter.tryAcquire(key, permits);
+    }
+
+    @Override
+    public boolean supportsPriorities() {
+        return rateLimiter.supportsPriorities();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits, RequestPriority priority) {
+        checkPriority(priority);
+        return priority.getReservedFraction() > 0.0 && shed() ? shedDecision() : rateLimiter.tryAcquire(key, permits, priority);
+    }
+
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        return shed() ? CompletableFuture.completedFuture(shedDecision()) : rateLimiter.evaluateRequestAsync(key, permits);
+    }
+
+    @Override
+    public boolean supportsSettlement() {
+        return rateLimiter.supportsSettlement();
+    }
+
+    @Override
+    public void settle(String key, long permits) {
+        rateLimiter.settle(key, permits);
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        return shed() ? -1L : rateLimiter.tryReserve(key, permits, timeoutNanos);
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return rateLimiter.supportsReservations();
+    }
+
+    private boolean shed() {
+        double admissionRatio = getAdmissionRatio();
+        return admissionRatio < 1.0 && ThreadLocalRandom.current().nextDouble() >= admissionRatio;
+    }
+
+    // the wait depends on the pressure, not on the permits of the key
+    private static RateLimiterDecision shedDecision() {
+        return RateLimiterDecision.rejected(0L, 0L);
+    }
+
+}
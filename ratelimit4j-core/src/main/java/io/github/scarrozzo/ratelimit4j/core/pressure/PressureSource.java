@@ -0,0 +1,11 @@
+package io.github.scarrozzo.ratelimit4j.core.pressure;
+
+/**
+ * Pressure on the resources of the application instance, from zero (idle) to one (saturated).
+ */
+@FunctionalInterface
+public interface PressureSource {
+
+    double pressure();
+
+}
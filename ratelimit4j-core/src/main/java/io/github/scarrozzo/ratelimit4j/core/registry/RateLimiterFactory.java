@@ -0,0 +1,18 @@
+package io.github.scarrozzo.ratelimit4j.core.registry;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+
+/**
+ * Creates the rate limiters of a {@link RateLimiterRegistry}. A backend implements it to let all the limiters it
+ * creates share the same resources, e.g. a single cache or a single Redis client.
+ */
+public interface RateLimiterFactory {
+
+    /**
+     * @return a new rate limiter for the config type, whose keys are kept apart from the keys of the limiters with
+     * other names and shared with the limiters of the same name, which evaluate them with their own limits
+     */
+    RateLimiter<?> create(String name, RateLimiterConfig rateLimiterConfig);
+
+}
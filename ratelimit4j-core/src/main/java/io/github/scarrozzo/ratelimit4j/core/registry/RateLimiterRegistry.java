@@ -0,0 +1,99 @@
+package io.github.scarrozzo.ratelimit4j.core.registry;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.policy.PolicyRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.policy.PolicyResolver;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates, caches and looks up rate limiters by name, e.g. one for each policy. The limiters are created by the
+ * factory of a backend, which makes them share one store, so the memory and the threads used by the registry do not
+ * grow with the number of names.
+ */
+public class RateLimiterRegistry {
+
+    private final ConcurrentHashMap<String, RateLimiter<?>> rateLimiters = new ConcurrentHashMap<>();
+    private final RateLimiterFactory rateLimiterFactory;
+
+    public RateLimiterRegistry(RateLimiterFactory rateLimiterFactory) {
+        if (rateLimiterFactory == null) {
+            throw new RateLimiterConfigException("Rate limiter factory cannot be null");
+        }
+
+        this.rateLimiterFactory = rateLimiterFactory;
+    }
+
+    /**
+     * Returns the rate limiter with the given name, creating it with the given config the first time. Later calls
+     * return the existing limiter, whose config is not updated.
+     *
+     * @throws RateLimiterConfigException if a limiter with the same name and a different algorithm already exists
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends RateLimiterConfig> RateLimiter<T> rateLimiter(String name, T rateLimiterConfig) {
+        checkName(name);
+        if (rateLimiterConfig == null) {
+            throw new RateLimiterConfigException("Rate limiter config cannot be null");
+        }
+
+        RateLimiter<?> rateLimiter = rateLimiters.computeIfAbsent(name, n -> rateLimiterFactory.create(n, rateLimiterConfig));
+        if (rateLimiter.getRateLimiterConfig().getClass() != rateLimiterConfig.getClass()) {
+            throw new RateLimiterConfigException("Rate limiter " + name + " already exists with a "
+                    + rateLimiter.getRateLimiterConfig().getRateLimiterType() + " config");
+        }
+
+        return (RateLimiter<T>) rateLimiter;
+    }
+
+    /**
+     * Returns the rate limiter with the given name, creating it the first time with the default config and a resolver
+     * of the config of each key. The limiters of the resolved configs are created by the factory of the registry.
+     *
+     * @throws RateLimiterConfigException if a limiter with the same name and a different algorithm already exists
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends RateLimiterConfig> RateLimiter<T> rateLimiter(String name, T defaultConfig,
+                                                                   PolicyResolver<T> policyResolver) {
+        checkName(name);
+        if (defaultConfig == null) {
+            throw new RateLimiterConfigException("Rate limiter config cannot be null");
+        }
+
+        RateLimiter<?> rateLimiter = rateLimiters.computeIfAbsent(name,
+                n -> new PolicyRateLimiter<>(n, defaultConfig, policyResolver, rateLimiterFactory));
+        if (rateLimiter.getRateLimiterConfig().getClass() != defaultConfig.getClass()) {
+            throw new RateLimiterConfigException("Rate limiter " + name + " already exists with a "
+                    + rateLimiter.getRateLimiterConfig().getRateLimiterType() + " config");
+        }
+
+        return (RateLimiter<T>) rateLimiter;
+    }
+
+    public Optional<RateLimiter<?>> find(String name) {
+        return Optional.ofNullable(name == null ? null : rateLimiters.get(name));
+    }
+
+    /**
+     * Removes the rate limiter from the registry. The state of its keys is dropped by the store when it expires.
+     */
+    public boolean remove(String name) {
+        return name != null && rateLimiters.remove(name) != null;
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(rateLimiters.keySet());
+    }
+
+    private static void checkName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new RateLimiterConfigException("Invalid rate limiter name. Name cannot be blank");
+        }
+    }
+
+}
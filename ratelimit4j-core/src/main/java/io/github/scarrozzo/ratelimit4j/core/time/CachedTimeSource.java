@@ -0,0 +1,58 @@
+package io.github.scarrozzo.ratelimit4j.core.time;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coarse clock for the hot path: a daemon thread samples the delegate time source once per resolution and readers
+ * only load a volatile field. The returned time lags behind the delegate by at most the resolution.
+ */
+public final class CachedTimeSource implements TimeSource, AutoCloseable {
+
+    private final TimeSource delegate;
+    private final long resolutionInNanoseconds;
+    private final Thread updater;
+    private volatile long nanoTime;
+    private volatile boolean closed;
+
+    public CachedTimeSource(Duration resolution) {
+        this(TimeSource.system(), resolution);
+    }
+
+    public CachedTimeSource(TimeSource delegate, Duration resolution) {
+        if (delegate == null) {
+            throw new RateLimiterConfigException("Time source cannot be null");
+        }
+
+        if (resolution == null || resolution.isNegative() || resolution.isZero()) {
+            throw new RateLimiterConfigException("Invalid resolution. Resolution should be greater than zero");
+        }
+
+        this.delegate = delegate;
+        this.resolutionInNanoseconds = resolution.toNanos();
+        this.nanoTime = delegate.nanoTime();
+        this.updater = new Thread(this::update, "ratelimit4j-cached-time-source");
+        this.updater.setDaemon(true);
+        this.updater.start();
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanoTime;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(updater);
+    }
+
+    private void update() {
+        while (!closed) {
+            LockSupport.parkNanos(resolutionInNanoseconds);
+            nanoTime = delegate.nanoTime();
+        }
+    }
+}
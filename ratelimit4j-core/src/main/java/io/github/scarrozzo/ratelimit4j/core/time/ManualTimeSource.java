@@ -0,0 +1,33 @@
+package io.github.scarrozzo.ratelimit4j.core.time;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time source that only moves when it is advanced, useful for tests and simulations.
+ */
+public final class ManualTimeSource implements TimeSource {
+
+    private final AtomicLong nanoTime;
+
+    public ManualTimeSource() {
+        this(0L);
+    }
+
+    public ManualTimeSource(long initialNanoTime) {
+        this.nanoTime = new AtomicLong(initialNanoTime);
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanoTime.get();
+    }
+
+    public void advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("A monotonic time source cannot go backwards");
+        }
+
+        nanoTime.addAndGet(duration.toNanos());
+    }
+}
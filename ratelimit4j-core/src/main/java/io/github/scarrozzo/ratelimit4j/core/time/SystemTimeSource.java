@@ -0,0 +1,17 @@
+package io.github.scarrozzo.ratelimit4j.core.time;
+
+/**
+ * Time source backed by {@link System#nanoTime()}.
+ */
+public final class SystemTimeSource implements TimeSource {
+
+    public static final SystemTimeSource INSTANCE = new SystemTimeSource();
+
+    private SystemTimeSource() {
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+}
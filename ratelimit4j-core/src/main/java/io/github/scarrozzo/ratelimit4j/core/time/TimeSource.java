@@ -0,0 +1,15 @@
+package io.github.scarrozzo.ratelimit4j.core.time;
+
+/**
+ * Monotonic clock used by the in-memory rate limiters. The returned values are only meaningful to measure elapsed
+ * time and are not affected by wall clock adjustments.
+ */
+@FunctionalInterface
+public interface TimeSource {
+
+    long nanoTime();
+
+    static TimeSource system() {
+        return SystemTimeSource.INSTANCE;
+    }
+}
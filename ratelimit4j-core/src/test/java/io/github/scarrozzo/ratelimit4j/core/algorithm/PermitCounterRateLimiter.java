@@ -0,0 +1,62 @@
+package io.github.scarrozzo.ratelimit4j.core.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory rate limiter for the tests of the core decorators: each key gets the permits of a single window that never
+ * ends, reservations never wait and settlements are applied immediately.
+ */
+public class PermitCounterRateLimiter extends RateLimiter<FixedWindowCounterRateLimiterConfig> {
+
+    private final Map<String, Long> usedPermits = new ConcurrentHashMap<>();
+
+    public PermitCounterRateLimiter(long numberOfRequests) {
+        super(new FixedWindowCounterRateLimiterConfig(60_000L, numberOfRequests));
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        long[] remainingPermits = new long[1];
+        boolean allowed = consume(key, permits, remainingPermits);
+
+        return allowed ? RateLimiterDecision.allowed(remainingPermits[0], 0L)
+                : RateLimiterDecision.rejected(remainingPermits[0], Long.MAX_VALUE);
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        return consume(key, permits, new long[1]) ? 0L : -1L;
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    @Override
+    public void settle(String key, long permits) {
+        usedPermits.merge(key, permits, Long::sum);
+    }
+
+    @Override
+    public boolean supportsSettlement() {
+        return true;
+    }
+
+    private boolean consume(String key, long permits, long[] remainingPermits) {
+        long limit = rateLimiterConfig.getNumberOfRequests();
+        boolean[] allowed = new boolean[1];
+        usedPermits.compute(key, (k, used) -> {
+            long current = used == null ? 0L : used;
+            allowed[0] = current + permits <= limit;
+            long next = allowed[0] ? current + permits : current;
+            remainingPermits[0] = Math.max(limit - next, 0L);
+            return next;
+        });
+
+        return allowed[0];
+    }
+}
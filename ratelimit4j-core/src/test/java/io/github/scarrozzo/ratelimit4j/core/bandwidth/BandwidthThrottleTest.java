@@ -0,0 +1,122 @@
+package io.github.scarrozzo.ratelimit4j.core.bandwidth;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.PermitCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class BandwidthThrottleTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    @SneakyThrows
+    void streamsConsumeTheBytesInChunks() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new PermitCounterRateLimiter(100L);
+        byte[] body = bytes(35);
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (OutputStream out = new RateLimitedOutputStream(sink, new BandwidthThrottle(rateLimiter, IP_ADDRESS_KEY, 16))) {
+            out.write(body);
+            out.write(7);
+        }
+        Assertions.assertEquals(36, sink.size());
+
+        // a read stops at the credit of the chunk
+        try (InputStream in = new RateLimitedInputStream(new ByteArrayInputStream(body), new BandwidthThrottle(rateLimiter, IP_ADDRESS_KEY, 16))) {
+            Assertions.assertEquals(16, in.read(new byte[64]));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(body, 16, 35), in.readAllBytes());
+        }
+
+        // the credit left by the last chunk is refunded on close
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 29L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    @SneakyThrows
+    void channelsKeepTheCallerBuffers() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new PermitCounterRateLimiter(1_000L);
+        byte[] body = bytes(100);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (ReadableByteChannel in = new RateLimitedReadableByteChannel(Channels.newChannel(new ByteArrayInputStream(body)),
+                new BandwidthThrottle(rateLimiter, IP_ADDRESS_KEY, 40));
+             WritableByteChannel out = new RateLimitedWritableByteChannel(Channels.newChannel(sink),
+                     new BandwidthThrottle(rateLimiter, IP_ADDRESS_KEY, 40))) {
+            Assertions.assertEquals(40, in.read(buffer));
+            Assertions.assertEquals(64, buffer.limit());
+            while (in.read(buffer) >= 0 || buffer.position() > 0) {
+                buffer.flip();
+                out.write(buffer);
+                buffer.compact();
+            }
+        }
+
+        Assertions.assertArrayEquals(body, sink.toByteArray());
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 800L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    @SneakyThrows
+    void fileRegionIsTransferredInChunks(@TempDir Path tempDir) {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new PermitCounterRateLimiter(10_000L);
+        byte[] body = bytes(1_000);
+        Path file = Files.write(tempDir.resolve("export.bin"), body);
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        BandwidthThrottle throttle = new BandwidthThrottle(rateLimiter, IP_ADDRESS_KEY, 256);
+        try (FileChannel source = FileChannel.open(file);
+             RateLimitedWritableByteChannel out = new RateLimitedWritableByteChannel(Channels.newChannel(sink), throttle)) {
+            Assertions.assertEquals(900L, out.transferFrom(source, 100L, 2_000L));
+        }
+
+        Assertions.assertEquals(900L, throttle.getTransferredBytes());
+        Assertions.assertArrayEquals(Arrays.copyOfRange(body, 100, 1_000), sink.toByteArray());
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 9_100L).isAllowed());
+    }
+
+    @Test
+    void throttleIsValidated() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RateLimiter<>(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 100L)) {
+            @Override
+            public RateLimiterDecision tryAcquire(String key, long permits) {
+                return RateLimiterDecision.allowed(100L, 0L);
+            }
+        };
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BandwidthThrottle(rateLimiter, IP_ADDRESS_KEY, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BandwidthThrottle(null, IP_ADDRESS_KEY));
+        // the chunks are reservations
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BandwidthThrottle(rateLimiter, IP_ADDRESS_KEY, 10));
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.scarrozzo.ratelimit4j.core.concurrency;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void requestsOverTheLimitAreRejected() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiterConfig(2, 1, 10), new ManualTimeSource());
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire().orElseThrow();
+        Assertions.assertTrue(limiter.tryAcquire().isPresent());
+        Assertions.assertTrue(limiter.tryAcquire().isEmpty());
+        Assertions.assertEquals(2, limiter.getInFlight());
+
+        first.releaseIgnored();
+        first.releaseIgnored();
+        Assertions.assertEquals(1, limiter.getInFlight());
+        Assertions.assertTrue(limiter.tryAcquire().isPresent());
+    }
+
+    @Test
+    void limitGrowsWhileTheLatencyIsStable() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiterConfig(10, 1, 100), timeSource);
+
+        for (int i = 0; i < 5; i++) {
+            runRequests(limiter, timeSource, limiter.getLimit(), Duration.ofMillis(10L));
+        }
+
+        Assertions.assertTrue(limiter.getLimit() > 10);
+        Assertions.assertTrue(limiter.getLimit() <= 100);
+    }
+
+    @Test
+    void limitShrinksWhenTheLatencyGrows() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiterConfig(20, 1, 20, 1.5, 1.0, 600, 0.9), timeSource);
+
+        runRequests(limiter, timeSource, 20, Duration.ofMillis(10L));
+        Assertions.assertEquals(20, limiter.getLimit());
+
+        // a slow downstream makes the requests queue: the limit halves, plus the queue headroom
+        AdaptiveConcurrencyLimiter.Permit slow = limiter.tryAcquire().orElseThrow();
+        List<AdaptiveConcurrencyLimiter.Permit> others = new ArrayList<>();
+        for (int i = 1; i < 20; i++) {
+            others.add(limiter.tryAcquire().orElseThrow());
+        }
+        timeSource.advance(Duration.ofMillis(100L));
+        others.get(others.size() - 1).release();
+        Assertions.assertEquals((int) (20 * 0.5 + Math.sqrt(20)), limiter.getLimit());
+
+        others.forEach(AdaptiveConcurrencyLimiter.Permit::releaseIgnored);
+        slow.releaseIgnored();
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void droppedRequestsShrinkTheLimit() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiterConfig(10, 5, 20), new ManualTimeSource());
+
+        limiter.tryAcquire().orElseThrow().releaseDropped();
+        Assertions.assertEquals(9, limiter.getLimit());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire().orElseThrow().releaseDropped();
+        }
+        Assertions.assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void configurationIsValidated() {
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new AdaptiveConcurrencyLimiterConfig(0, 0, 10));
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new AdaptiveConcurrencyLimiterConfig(20, 1, 10));
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new AdaptiveConcurrencyLimiterConfig(10, 1, 20, 0.5, 0.2, 600, 0.9));
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new AdaptiveConcurrencyLimiterConfig(10, 1, 20, 1.5, 0.0, 600, 0.9));
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new AdaptiveConcurrencyLimiterConfig(10, 1, 20, 1.5, 0.2, 600, 1.0));
+    }
+
+    private static void runRequests(AdaptiveConcurrencyLimiter limiter, ManualTimeSource timeSource, int requests,
+                                    Duration latency) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            permits.add(limiter.tryAcquire().orElseThrow());
+        }
+        timeSource.advance(latency);
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::release);
+    }
+}
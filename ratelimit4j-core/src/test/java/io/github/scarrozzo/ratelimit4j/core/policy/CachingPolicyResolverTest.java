@@ -0,0 +1,92 @@
+package io.github.scarrozzo.ratelimit4j.core.policy;
+
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CachingPolicyResolverTest {
+
+    private static final String FREE_CUSTOMER_KEY = "free-customer";
+    private static final String PREMIUM_CUSTOMER_KEY = "premium-customer";
+
+    private static final FixedWindowCounterRateLimiterConfig FREE_PLAN = new FixedWindowCounterRateLimiterConfig(60_000L, 1L);
+    private static final FixedWindowCounterRateLimiterConfig PREMIUM_PLAN = new FixedWindowCounterRateLimiterConfig(60_000L, 3L);
+
+    @Test
+    void cachedPoliciesAreRefreshedWithoutBlocking() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final Map<String, FixedWindowCounterRateLimiterConfig> plans = new ConcurrentHashMap<>(Map.of(FREE_CUSTOMER_KEY, FREE_PLAN));
+        final AtomicInteger lookups = new AtomicInteger();
+        final List<Runnable> pendingLoads = new ArrayList<>();
+        final PolicyResolver<FixedWindowCounterRateLimiterConfig> resolver = new CachingPolicyResolver<>(key -> {
+            lookups.incrementAndGet();
+            return plans.get(key);
+        }, 100, Duration.ofMinutes(1L), pendingLoads::add, timeSource);
+
+        // the default config is used until the first lookup completes
+        Assertions.assertNull(resolver.resolve(FREE_CUSTOMER_KEY));
+        Assertions.assertNull(resolver.resolve(FREE_CUSTOMER_KEY));
+        Assertions.assertEquals(1, pendingLoads.size());
+        pendingLoads.remove(0).run();
+        Assertions.assertSame(FREE_PLAN, resolver.resolve(FREE_CUSTOMER_KEY));
+
+        // the stale plan is served while the refresh is in progress
+        plans.put(FREE_CUSTOMER_KEY, PREMIUM_PLAN);
+        timeSource.advance(Duration.ofMinutes(1L));
+        Assertions.assertSame(FREE_PLAN, resolver.resolve(FREE_CUSTOMER_KEY));
+        Assertions.assertSame(FREE_PLAN, resolver.resolve(FREE_CUSTOMER_KEY));
+        Assertions.assertEquals(1, pendingLoads.size());
+        pendingLoads.remove(0).run();
+        Assertions.assertSame(PREMIUM_PLAN, resolver.resolve(FREE_CUSTOMER_KEY));
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void failedLookupsKeepThePreviousPolicy() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final AtomicInteger lookups = new AtomicInteger();
+        final PolicyResolver<FixedWindowCounterRateLimiterConfig> resolver = new CachingPolicyResolver<>(key -> {
+            if (lookups.incrementAndGet() > 1) {
+                throw new IllegalStateException("Plan service unavailable");
+            }
+            return PREMIUM_PLAN;
+        }, 100, Duration.ofMinutes(1L), Runnable::run, timeSource);
+
+        Assertions.assertSame(PREMIUM_PLAN, resolver.resolve(PREMIUM_CUSTOMER_KEY));
+        timeSource.advance(Duration.ofMinutes(1L));
+        Assertions.assertSame(PREMIUM_PLAN, resolver.resolve(PREMIUM_CUSTOMER_KEY));
+        Assertions.assertSame(PREMIUM_PLAN, resolver.resolve(PREMIUM_CUSTOMER_KEY));
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void leastRecentlyUsedPoliciesAreEvictedWhenTheCacheIsFull() {
+        final List<String> lookups = new ArrayList<>();
+        final CachingPolicyResolver<FixedWindowCounterRateLimiterConfig> resolver = new CachingPolicyResolver<>(key -> {
+            lookups.add(key);
+            return FREE_PLAN;
+        }, 2, Duration.ofMinutes(1L), Runnable::run, new ManualTimeSource());
+
+        resolver.resolve("customer-1");
+        resolver.resolve("customer-2");
+        // the first customer is in use, the second one is evicted
+        resolver.resolve("customer-1");
+        resolver.resolve("customer-3");
+        Assertions.assertEquals(2, resolver.size());
+
+        resolver.resolve("customer-1");
+        resolver.resolve("customer-2");
+        Assertions.assertEquals(List.of("customer-1", "customer-2", "customer-3", "customer-2"), lookups);
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new CachingPolicyResolver<>(key -> FREE_PLAN, 0, Duration.ofMinutes(1L)));
+    }
+}
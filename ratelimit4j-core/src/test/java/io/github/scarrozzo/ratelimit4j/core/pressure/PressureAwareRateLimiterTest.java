@@ -0,0 +1,71 @@
+package io.github.scarrozzo.ratelimit4j.core.pressure;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.PermitCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+class PressureAwareRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Test
+    void admissionRateScalesDownWithThePressure() {
+        final AtomicReference<Double> pressure = new AtomicReference<>(0.0);
+        final PressureAwareRateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new PressureAwareRateLimiter<>(
+                new PermitCounterRateLimiter(100_000L),
+                pressure::get, 0.1);
+
+        Assertions.assertEquals(1.0, rateLimiter.getAdmissionRatio());
+        Assertions.assertEquals(1_000L, countAllowed(rateLimiter, 1_000));
+
+        pressure.set(0.5);
+        Assertions.assertEquals(0.55, rateLimiter.getAdmissionRatio(), 1e-9);
+        long allowed = countAllowed(rateLimiter, 10_000);
+        Assertions.assertTrue(allowed > 5_000L && allowed < 6_000L);
+
+        pressure.set(1.0);
+        Assertions.assertEquals(0.1, rateLimiter.getAdmissionRatio(), 1e-9);
+        allowed = countAllowed(rateLimiter, 10_000);
+        Assertions.assertTrue(allowed > 700L && allowed < 1_300L);
+    }
+
+    @Test
+    void shedRequestsDoNotConsumePermits() {
+        final AtomicReference<Double> pressure = new AtomicReference<>(1.0);
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new PressureAwareRateLimiter<>(
+                new PermitCounterRateLimiter(1L),
+                pressure::get, 0.0);
+
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertEquals(-1L, rateLimiter.tryReserve(IP_ADDRESS_KEY, 1L, 0L));
+
+        // critical requests are never shed
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.CRITICAL).isAllowed());
+        pressure.set(0.0);
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void jvmSamplerReadsThePressure() {
+        try (JvmPressureSampler sampler = new JvmPressureSampler(new JvmPressureConfig(Duration.ofMillis(10L)))) {
+            Assertions.assertTrue(sampler.pressure() >= 0.0 && sampler.pressure() <= 1.0);
+            Assertions.assertTrue(sampler.getHeapAfterGc() >= 0.0 && sampler.getHeapAfterGc() <= 1.0);
+            Assertions.assertTrue(sampler.getGcTimeRatio() >= 0.0 && sampler.getGcFrequency() >= 0.0);
+        }
+
+        Assertions.assertThrows(RateLimiterConfigException.class, () ->
+                new JvmPressureConfig(Duration.ofSeconds(1L), 0.3, 0.2, 0.75, 0.95, 0.85, 1.0));
+    }
+
+    private static long countAllowed(RateLimiter<?> rateLimiter, int requests) {
+        return IntStream.range(0, requests).filter(i -> rateLimiter.tryAcquire(IP_ADDRESS_KEY + i).isAllowed()).count();
+    }
+}
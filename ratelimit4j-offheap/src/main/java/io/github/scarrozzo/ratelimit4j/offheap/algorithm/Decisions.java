@@ -0,0 +1,39 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+
+/**
+ * The decisions of the off-heap rate limiters, written into the decision of the caller when it has one. The requests
+ * only asking whether they are allowed, or writing their decision, get a shared decision, so none of them allocates.
+ */
+final class Decisions {
+
+    static final RateLimiterDecision ALLOWED = RateLimiterDecision.allowed(0L, 0L);
+    static final RateLimiterDecision REJECTED = RateLimiterDecision.rejected(0L, 0L);
+
+    private Decisions() {
+    }
+
+    /**
+     * @return whether the caller wants the details of the decision, which are otherwise not computed
+     */
+    static boolean isDetailed(MutableRateLimiterDecision decision, boolean detailed) {
+        return decision != null || detailed;
+    }
+
+    static RateLimiterDecision decide(boolean allowed, long remainingPermits, long nanosToNextPermit,
+                                      MutableRateLimiterDecision decision, boolean detailed) {
+        if (decision != null) {
+            decision.set(allowed, remainingPermits, nanosToNextPermit);
+        }
+
+        if (decision != null || !detailed) {
+            return allowed ? ALLOWED : REJECTED;
+        }
+
+        return allowed
+                ? RateLimiterDecision.allowed(remainingPermits, nanosToNextPermit)
+                : RateLimiterDecision.rejected(remainingPermits, nanosToNextPermit);
+    }
+}
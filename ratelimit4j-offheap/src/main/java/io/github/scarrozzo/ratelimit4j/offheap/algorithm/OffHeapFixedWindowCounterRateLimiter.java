@@ -0,0 +1,132 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.FixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+/**
+ * Keeps the windows of the keys in an {@link OffHeapKeyTable}: the start of the current window and its counter. An
+ * expired window is the same as a missing one, so its slot can be reclaimed.
+ */
+public class OffHeapFixedWindowCounterRateLimiter extends FixedWindowCounterRateLimiter {
+
+    private final OffHeapKeyTable table;
+
+    /**
+     * @param maximumKeys keys the table is sized for. Beyond it a busy group of slots evicts a key not referenced since
+     *                    the last sweep of its clock, which can still be active: its state starts again and the limiter
+     *                    lets more requests through
+     */
+    public OffHeapFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig, long maximumKeys) {
+        this(fixedWindowCounterRateLimiterConfig, maximumKeys, TimeSource.system());
+    }
+
+    public OffHeapFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig, long maximumKeys,
+                                                TimeSource timeSource) {
+        super(fixedWindowCounterRateLimiterConfig, timeSource);
+
+        this.table = new OffHeapKeyTable(maximumKeys, (windowTimestamp, counter, now) -> !isCurrent(windowTimestamp, now));
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits);
+    }
+
+    @Override
+    public boolean tryAcquirePermits(String key, long permits) {
+        checkPermits(permits);
+        return consume(OffHeapKeyTable.fingerprint(key), permits, null, false).isAllowed();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(OffHeapKeyTable.fingerprint(key), permits, decision, false).isAllowed();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits);
+    }
+
+    private RateLimiterDecision tryAcquireKey(long fingerprint, long permits) {
+        checkPermits(permits);
+        return consume(fingerprint, permits, null, true);
+    }
+
+    // the decision is written into the given one if not null, otherwise it is returned with its details if detailed
+    private RateLimiterDecision consume(long fingerprint, long permits, MutableRateLimiterDecision decision, boolean detailed) {
+        int bucket = table.lock(fingerprint);
+        try {
+            long now = timeSource.nanoTime();
+            int slot = table.find(bucket, fingerprint);
+            long windowTimestamp = slot < 0 ? now : table.first(bucket, slot);
+            long counter = slot < 0 ? 0L : table.second(bucket, slot);
+
+            // a window for this key still does not exist or the old window is expired. We can define a new window
+            if (slot < 0 || !isCurrent(windowTimestamp, now)) {
+                windowTimestamp = now;
+                counter = 0L;
+            }
+
+            // the number of requests for this window has been reached, or the request costs more than a whole window
+            if ((counter + permits) > rateLimiterConfig.getNumberOfRequests()) {
+                return Decisions.decide(false, rateLimiterConfig.getNumberOfRequests() - counter,
+                        counter == 0L ? 0L : nanosToNextWindow(windowTimestamp, now), decision, detailed);
+            }
+
+            // the request is successful
+            if (slot < 0) {
+                slot = table.claim(bucket, fingerprint, now);
+            }
+            table.set(bucket, slot, windowTimestamp, counter + permits);
+
+            long remainingPermits = rateLimiterConfig.getNumberOfRequests() - counter - permits;
+            return Decisions.decide(true, remainingPermits, remainingPermits > 0L ? 0L : nanosToNextWindow(windowTimestamp, now),
+                    decision, detailed);
+        } finally {
+            table.unlock(bucket);
+        }
+    }
+
+    @Override
+    public boolean supportsSettlement() {
+        return true;
+    }
+
+    /**
+     * Settles the permits in the current window only, the cost of a request of an expired window is dropped.
+     */
+    @Override
+    public void settle(String key, long permits) {
+        long fingerprint = OffHeapKeyTable.fingerprint(key);
+        int bucket = table.lock(fingerprint);
+        try {
+            int slot = table.find(bucket, fingerprint);
+            if (slot < 0 || !isCurrent(table.first(bucket, slot), timeSource.nanoTime())) {
+                return;
+            }
+
+            long counter = table.second(bucket, slot);
+            table.set(bucket, slot, table.first(bucket, slot), counter + Math.max(permits, -counter));
+        } finally {
+            table.unlock(bucket);
+        }
+    }
+
+    private boolean isCurrent(long windowTimestamp, long now) {
+        return (now - windowTimestamp) < rateLimiterConfig.getWindowSizeInNanoseconds();
+    }
+
+    private long nanosToNextWindow(long windowTimestamp, long now) {
+        return windowTimestamp + rateLimiterConfig.getWindowSizeInNanoseconds() - now;
+    }
+}
@@ -0,0 +1,242 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Open addressing table keeping the state of the keys of a rate limiter in direct memory, out of the heap scanned by
+ * the garbage collector. A key is identified by a 64-bit fingerprint of its value, which is all the table stores of it:
+ * two keys with the same fingerprint share their state, with a probability negligible for the number of keys that fit
+ * in memory.
+ * <p>
+ * The fingerprint selects a bucket of {@value #SLOTS_PER_BUCKET} slots, each slot holds a fingerprint and the two
+ * words of the state of its key, so a key takes 25 bytes. The bucket starts with a header word: a lock bit taken with a
+ * compare and set, the reference bits of the slots and the hand of the clock sweeping the slots. A key missing from
+ * its bucket takes an empty slot or reclaims an idle one, whose state is the same as a missing key. When all the slots
+ * are busy the clock evicts a key not referenced since its last sweep, so a table too small for the active keys is
+ * more permissive instead of failing.
+ */
+final class OffHeapKeyTable {
+
+    static final int SLOTS_PER_BUCKET = 8;
+
+    private static final long EMPTY = 0L;
+    private static final long LOCKED = 1L;
+    private static final int REFERENCED_SHIFT = 8;
+    private static final int HAND_SHIFT = 16;
+    private static final long HAND_MASK = 0x7L;
+
+    private static final int SLOT_BYTES = 3 * Long.BYTES;
+    private static final int BUCKET_BYTES = Long.BYTES + SLOTS_PER_BUCKET * SLOT_BYTES;
+    // a direct buffer is indexed by an int, a segment keeps less than 2 GB of buckets
+    private static final int SEGMENT_SHIFT = 23;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    private static final long MAX_BUCKETS = 1L << 31;
+    // about a third of the slots is left free, so the busy buckets rarely need to evict an active key
+    private static final long SLOTS_PER_KEY_NUMERATOR = 3L;
+    private static final long SLOTS_PER_KEY_DENOMINATOR = 2L;
+
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long STRING_SEED = 0xCBF29CE484222325L;
+    private static final long BYTES_SEED = 0x9E3779B97F4A7C15L;
+    private static final long LONG_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] segments;
+    private final int buckets;
+    private final SlotExpiry slotExpiry;
+
+    /**
+     * Tells whether the state of a key is the same as the state of a missing key, so its slot can be reclaimed.
+     */
+    @FunctionalInterface
+    interface SlotExpiry {
+        boolean isIdle(long first, long second, long now);
+    }
+
+    OffHeapKeyTable(long maximumKeys, SlotExpiry slotExpiry) {
+        if (maximumKeys <= 0L || maximumKeys > MAX_BUCKETS * SLOTS_PER_BUCKET / SLOTS_PER_KEY_NUMERATOR) {
+            throw new RateLimiterConfigException("Invalid maximum number of keys. Maximum number of keys should be greater than zero and lower than "
+                    + MAX_BUCKETS * SLOTS_PER_BUCKET / SLOTS_PER_KEY_NUMERATOR);
+        }
+
+        long slots = (maximumKeys * SLOTS_PER_KEY_NUMERATOR + SLOTS_PER_KEY_DENOMINATOR - 1L) / SLOTS_PER_KEY_DENOMINATOR;
+        this.buckets = (int) Math.min((slots + SLOTS_PER_BUCKET - 1L) / SLOTS_PER_BUCKET, MAX_BUCKETS - 1L);
+        this.slotExpiry = slotExpiry;
+        this.segments = new ByteBuffer[(int) (((long) buckets + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            int segmentBuckets = Math.min(buckets - (i << SEGMENT_SHIFT), 1 << SEGMENT_SHIFT);
+            // the atomic operations need aligned longs, the memory of a direct buffer starts zeroed: all the slots are empty
+            segments[i] = ByteBuffer.allocateDirect(segmentBuckets * BUCKET_BYTES + Long.BYTES - 1).alignedSlice(Long.BYTES);
+        }
+    }
+
+    static long fingerprint(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Invalid key. Key cannot be null");
+        }
+
+        long hash = STRING_SEED;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+
+        return nonEmpty(mix(hash ^ key.length()));
+    }
+
+    static long fingerprint(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Invalid key. Key cannot be null");
+        }
+
+        long hash = BYTES_SEED;
+        for (byte b : key) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+
+        return nonEmpty(mix(hash ^ key.length));
+    }
+
+    // the mix is a bijection: distinct numeric keys have distinct fingerprints, but for the one mixed to zero
+    static long fingerprint(long key) {
+        return nonEmpty(mix(key ^ LONG_SEED));
+    }
+
+    int capacity() {
+        return buckets * SLOTS_PER_BUCKET;
+    }
+
+    /**
+     * Locks the bucket of the fingerprint, the slots of the bucket can only be used until {@link #unlock(int)}.
+     *
+     * @return the bucket
+     */
+    int lock(long fingerprint) {
+        // the high bits of the fingerprint are mapped to the buckets without a division
+        int bucket = (int) (((fingerprint >>> 32) * buckets) >>> 32);
+        ByteBuffer segment = segment(bucket);
+        int offset = offset(bucket);
+
+        while (true) {
+            long header = (long) LONGS.getVolatile(segment, offset);
+            if ((header & LOCKED) == 0L && LONGS.compareAndSet(segment, offset, header, header | LOCKED)) {
+                return bucket;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    void unlock(int bucket) {
+        ByteBuffer segment = segment(bucket);
+        int offset = offset(bucket);
+        LONGS.setRelease(segment, offset, (long) LONGS.get(segment, offset) & ~LOCKED);
+    }
+
+    /**
+     * @return the slot of the key in the locked bucket, or -1 if the key is missing
+     */
+    int find(int bucket, long fingerprint) {
+        ByteBuffer segment = segment(bucket);
+        int offset = offset(bucket);
+
+        for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+            if ((long) LONGS.get(segment, slotOffset(offset, slot)) == fingerprint) {
+                reference(segment, offset, slot);
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Takes a slot of the locked bucket for a missing key: an empty or idle slot, otherwise the slot of the first key
+     * not referenced since the last sweep of the clock. The state of the slot must be set by the caller.
+     *
+     * @return the slot of the key
+     */
+    int claim(int bucket, long fingerprint, long now) {
+        ByteBuffer segment = segment(bucket);
+        int offset = offset(bucket);
+
+        int slot = -1;
+        for (int i = 0; i < SLOTS_PER_BUCKET && slot < 0; i++) {
+            int slotOffset = slotOffset(offset, i);
+            if ((long) LONGS.get(segment, slotOffset) == EMPTY
+                    || slotExpiry.isIdle((long) LONGS.get(segment, slotOffset + Long.BYTES), (long) LONGS.get(segment, slotOffset + 2 * Long.BYTES), now)) {
+                slot = i;
+            }
+        }
+
+        if (slot < 0) {
+            slot = sweep(segment, offset);
+        }
+
+        LONGS.set(segment, slotOffset(offset, slot), fingerprint);
+        reference(segment, offset, slot);
+        return slot;
+    }
+
+    long first(int bucket, int slot) {
+        return (long) LONGS.get(segment(bucket), slotOffset(offset(bucket), slot) + Long.BYTES);
+    }
+
+    long second(int bucket, int slot) {
+        return (long) LONGS.get(segment(bucket), slotOffset(offset(bucket), slot) + 2 * Long.BYTES);
+    }
+
+    void set(int bucket, int slot, long first, long second) {
+        ByteBuffer segment = segment(bucket);
+        int slotOffset = slotOffset(offset(bucket), slot);
+        LONGS.set(segment, slotOffset + Long.BYTES, first);
+        LONGS.set(segment, slotOffset + 2 * Long.BYTES, second);
+    }
+
+    // the clock gives a second chance to the referenced slots, clearing their bit, and stops at the first one without it
+    private int sweep(ByteBuffer segment, int offset) {
+        long header = (long) LONGS.get(segment, offset);
+        int hand = (int) ((header >>> HAND_SHIFT) & HAND_MASK);
+
+        while ((header & (1L << (REFERENCED_SHIFT + hand))) != 0L) {
+            header &= ~(1L << (REFERENCED_SHIFT + hand));
+            hand = (hand + 1) % SLOTS_PER_BUCKET;
+        }
+
+        int slot = hand;
+        hand = (hand + 1) % SLOTS_PER_BUCKET;
+        LONGS.set(segment, offset, (header & ~(HAND_MASK << HAND_SHIFT)) | ((long) hand << HAND_SHIFT));
+        return slot;
+    }
+
+    private static void reference(ByteBuffer segment, int offset, int slot) {
+        LONGS.set(segment, offset, (long) LONGS.get(segment, offset) | (1L << (REFERENCED_SHIFT + slot)));
+    }
+
+    private ByteBuffer segment(int bucket) {
+        return segments[bucket >>> SEGMENT_SHIFT];
+    }
+
+    private static int offset(int bucket) {
+        return (bucket & SEGMENT_MASK) * BUCKET_BYTES;
+    }
+
+    private static int slotOffset(int offset, int slot) {
+        return offset + Long.BYTES + slot * SLOT_BYTES;
+    }
+
+    // the finalizer of MurmurHash3, spreading every bit of the hash over the fingerprint
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static long nonEmpty(long fingerprint) {
+        return fingerprint == EMPTY ? 1L : fingerprint;
+    }
+}
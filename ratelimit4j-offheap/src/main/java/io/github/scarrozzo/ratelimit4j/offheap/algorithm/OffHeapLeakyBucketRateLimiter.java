@@ -0,0 +1,139 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.LeakyBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+/**
+ * Keeps the buckets of the keys in an {@link OffHeapKeyTable}: the creation time of the bucket and the places taken
+ * since then, the requests leaked out are computed from the elapsed outflow periods. An empty bucket has all its places
+ * free like a missing one, so its slot can be reclaimed as soon as the queue is empty: the inactivity period is not used.
+ */
+public class OffHeapLeakyBucketRateLimiter extends LeakyBucketRateLimiter {
+
+    private final OffHeapKeyTable table;
+
+    /**
+     * @param maximumKeys keys the table is sized for. Beyond it a busy group of slots evicts a key not referenced since
+     *                    the last sweep of its clock, which can still be active: its state starts again and the limiter
+     *                    lets more requests through
+     */
+    public OffHeapLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig rateLimiterConfig, long maximumKeys) {
+        this(rateLimiterConfig, maximumKeys, TimeSource.system());
+    }
+
+    public OffHeapLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig rateLimiterConfig, long maximumKeys, TimeSource timeSource) {
+        super(rateLimiterConfig, timeSource);
+
+        this.table = new OffHeapKeyTable(maximumKeys,
+                (creationTime, takenPlaces, now) -> queuedRequests(creationTime, takenPlaces, now) == 0L);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits);
+    }
+
+    @Override
+    public boolean tryAcquirePermits(String key, long permits) {
+        checkPermits(permits);
+        return consume(OffHeapKeyTable.fingerprint(key), permits, 0L, null, false).isAllowed();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(OffHeapKeyTable.fingerprint(key), permits, 0L, decision, false).isAllowed();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits);
+    }
+
+    private RateLimiterDecision tryAcquireKey(long fingerprint, long permits) {
+        checkPermits(permits);
+        return consume(fingerprint, permits, 0L, null, true);
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        checkPermits(permits);
+        MutableRateLimiterDecision reservation = new MutableRateLimiterDecision();
+
+        // a reservation without timeout is allowed only if it does not wait
+        return consume(OffHeapKeyTable.fingerprint(key), permits, timeoutNanos, reservation, false).isAllowed()
+                ? Math.min(reservation.getNanosToNextPermit(), timeoutNanos)
+                : -1L;
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    // the decision is written into the given one if not null, otherwise it is returned with its details if detailed. A
+    // reservation, accepting a wait, is told the wait for its places instead of the wait for the next free place
+    private RateLimiterDecision consume(long fingerprint, long permits, long maxWaitNanos, MutableRateLimiterDecision decision,
+                                        boolean detailed) {
+        int bucket = table.lock(fingerprint);
+        try {
+            long now = timeSource.nanoTime();
+            int slot = table.find(bucket, fingerprint);
+            // a missing bucket is empty: all its places are free
+            long creationTime = slot < 0 ? now : table.first(bucket, slot);
+            long takenPlaces = slot < 0 ? 0L : table.second(bucket, slot);
+
+            long availableSize = rateLimiterConfig.getBucketSize() - queuedRequests(creationTime, takenPlaces, now);
+            long wait = nanosUntilFree(creationTime, takenPlaces, permits, now);
+
+            if (permits > rateLimiterConfig.getBucketSize() || wait > maxWaitNanos) {
+                return Decisions.decide(false, Math.max(availableSize, 0L), wait, decision, detailed);
+            }
+
+            // the available size can go below zero: the reserved places are released by the next outflows
+            long newTakenPlaces = Math.max(takenPlaces, leakedRequests(creationTime, now)) + permits;
+            if (slot < 0) {
+                slot = table.claim(bucket, fingerprint, now);
+            }
+            table.set(bucket, slot, creationTime, newTakenPlaces);
+
+            return !Decisions.isDetailed(decision, detailed) ? Decisions.ALLOWED
+                    : Decisions.decide(true, Math.max(availableSize - permits, 0L), maxWaitNanos > 0L ? wait
+                    : availableSize - permits > 0L ? 0L : nanosUntilFree(creationTime, newTakenPlaces, 1L, now), decision, detailed);
+        } finally {
+            table.unlock(bucket);
+        }
+    }
+
+    // the requests leaked out in the outflow periods elapsed since the creation of the bucket
+    private long leakedRequests(long creationTime, long now) {
+        long outflowPeriods = (now - creationTime) / rateLimiterConfig.getOutflowRatePeriodInNanoseconds();
+        return Math.multiplyHigh(outflowPeriods, rateLimiterConfig.getOutflowRateNumReq()) == 0L
+                ? outflowPeriods * rateLimiterConfig.getOutflowRateNumReq()
+                : Long.MAX_VALUE;
+    }
+
+    // the outflows of an empty bucket are lost
+    private long queuedRequests(long creationTime, long takenPlaces, long now) {
+        return Math.max(takenPlaces - leakedRequests(creationTime, now), 0L);
+    }
+
+    private long nanosUntilFree(long creationTime, long takenPlaces, long places, long now) {
+        long targetLeakedRequests = takenPlaces - rateLimiterConfig.getBucketSize() + places;
+        if (targetLeakedRequests <= leakedRequests(creationTime, now)) {
+            return 0L;
+        }
+
+        // each outflow period releases outflowRateNumReq places of the bucket
+        long outflowPeriods = (targetLeakedRequests + rateLimiterConfig.getOutflowRateNumReq() - 1L) / rateLimiterConfig.getOutflowRateNumReq();
+        return creationTime + outflowPeriods * rateLimiterConfig.getOutflowRatePeriodInNanoseconds() - now;
+    }
+}
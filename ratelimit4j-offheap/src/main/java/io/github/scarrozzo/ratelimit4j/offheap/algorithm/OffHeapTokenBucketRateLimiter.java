@@ -0,0 +1,269 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.MutableRateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.TokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
+import io.github.scarrozzo.ratelimit4j.core.time.TimeSource;
+
+import java.math.BigInteger;
+
+/**
+ * Keeps the buckets of the keys in an {@link OffHeapKeyTable}. A bucket refilled at intervals is its creation time and
+ * the tokens consumed since then, the refills are computed from the elapsed periods; a bucket refilled continuously
+ * is the time it is full again, which moves forward by the refill time of the consumed tokens. A full bucket is the
+ * same as a missing one, so its slot can be reclaimed.
+ */
+public class OffHeapTokenBucketRateLimiter extends TokenBucketRateLimiter {
+
+    private final OffHeapKeyTable table;
+    private final boolean continuous;
+
+    /**
+     * @param maximumKeys keys the table is sized for. Beyond it a busy group of slots evicts a key not referenced since
+     *                    the last sweep of its clock, which can still be active: its state starts again and the limiter
+     *                    lets more requests through
+     */
+    public OffHeapTokenBucketRateLimiter(TokenBucketRateLimiterConfig rateLimiterConfig, long maximumKeys) {
+        this(rateLimiterConfig, maximumKeys, TimeSource.system());
+    }
+
+    public OffHeapTokenBucketRateLimiter(TokenBucketRateLimiterConfig rateLimiterConfig, long maximumKeys, TimeSource timeSource) {
+        super(rateLimiterConfig, timeSource);
+
+        this.continuous = rateLimiterConfig.getRefillStrategy() == TokenBucketRefillStrategy.CONTINUOUS;
+        this.table = new OffHeapKeyTable(maximumKeys, (first, second, now) -> missingTokens(first, second, now) <= 0L);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits, 0L);
+    }
+
+    @Override
+    public boolean tryAcquirePermits(String key, long permits) {
+        checkPermits(permits);
+        return consume(OffHeapKeyTable.fingerprint(key), permits, 0L, 0L, null, false).isAllowed();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long permits, MutableRateLimiterDecision decision) {
+        checkPermits(permits);
+        return consume(OffHeapKeyTable.fingerprint(key), permits, 0L, 0L, decision, false).isAllowed();
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(long key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits, 0L);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(byte[] key, long permits) {
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits, 0L);
+    }
+
+    @Override
+    public boolean supportsPriorities() {
+        return true;
+    }
+
+    /**
+     * The tokens reserved to the higher priorities are a fraction of the bucket size: a request is accepted only if
+     * they are still in the bucket after it.
+     */
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits, RequestPriority priority) {
+        checkPriority(priority);
+        return tryAcquireKey(OffHeapKeyTable.fingerprint(key), permits, priority.reservedPermits(rateLimiterConfig.getBucketSize()));
+    }
+
+    private RateLimiterDecision tryAcquireKey(long fingerprint, long permits, long reservedTokens) {
+        checkPermits(permits);
+        return consume(fingerprint, permits, reservedTokens, 0L, null, true);
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        checkPermits(permits);
+        MutableRateLimiterDecision reservation = new MutableRateLimiterDecision();
+
+        // a reservation without timeout is allowed only if it does not wait
+        return consume(OffHeapKeyTable.fingerprint(key), permits, 0L, timeoutNanos, reservation, false).isAllowed()
+                ? Math.min(reservation.getNanosToNextPermit(), timeoutNanos)
+                : -1L;
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsSettlement() {
+        return true;
+    }
+
+    /**
+     * Charged tokens can take the bucket below zero, refunded ones cannot fill it beyond its size.
+     */
+    @Override
+    public void settle(String key, long permits) {
+        long fingerprint = OffHeapKeyTable.fingerprint(key);
+        int bucket = table.lock(fingerprint);
+        try {
+            long now = timeSource.nanoTime();
+            int slot = table.find(bucket, fingerprint);
+            long first = slot < 0 ? now : table.first(bucket, slot);
+            long second = slot < 0 ? 0L : table.second(bucket, slot);
+            boolean full = missingTokens(first, second, now) <= 0L;
+
+            // a missing or full bucket has nothing to refund
+            if (full && permits <= 0L) {
+                return;
+            }
+
+            // a full bucket refilled at intervals starts again
+            if (full && !continuous) {
+                first = now;
+                second = 0L;
+            }
+
+            if (continuous) {
+                first = permits >= 0L
+                        ? saturatedAdd(Math.max(first, now), nanosToRefill(permits, true))
+                        : Math.max(first - nanosToRefill(-permits, false), now);
+            } else {
+                second = permits >= 0L
+                        ? Math.max(second, refilledTokens(first, now)) + permits
+                        : Math.max(second + permits, refilledTokens(first, now));
+            }
+
+            if (slot < 0) {
+                slot = table.claim(bucket, fingerprint, now);
+            }
+            table.set(bucket, slot, first, second);
+        } finally {
+            table.unlock(bucket);
+        }
+    }
+
+    // the decision is written into the given one if not null, otherwise it is returned with its details if detailed. A
+    // reservation, accepting a wait, is told the wait for its permits instead of the wait for the next token. The
+    // reserved tokens must be left in the bucket and are not counted in the remaining ones
+    private RateLimiterDecision consume(long fingerprint, long permits, long reservedTokens, long maxWaitNanos,
+                                        MutableRateLimiterDecision decision, boolean detailed) {
+        int bucket = table.lock(fingerprint);
+        try {
+            long now = timeSource.nanoTime();
+            int slot = table.find(bucket, fingerprint);
+            // a missing bucket is full
+            long first = slot < 0 ? now : table.first(bucket, slot);
+            long second = slot < 0 ? 0L : table.second(bucket, slot);
+            long missingTokens = missingTokens(first, second, now);
+
+            // a full bucket refilled at intervals starts again
+            if (missingTokens <= 0L && !continuous) {
+                first = now;
+                second = 0L;
+                missingTokens = 0L;
+            }
+
+            long availableTokens = rateLimiterConfig.getBucketSize() - Math.max(missingTokens, 0L);
+            boolean exceedsBucket = permits > rateLimiterConfig.getBucketSize() - reservedTokens;
+            long nanosToWait = missingTokens <= 0L ? 0L
+                    : nanosUntilTokens(first, second, exceedsBucket ? permits : permits + reservedTokens, now);
+
+            // the permits are not available within the accepted wait, or they will never be because they exceed the bucket size
+            if (exceedsBucket || nanosToWait > maxWaitNanos) {
+                return Decisions.decide(false, Math.max(availableTokens - reservedTokens, 0L), nanosToWait, decision, detailed);
+            }
+
+            // the tokens can go below zero: the debt is paid by the next refills
+            if (continuous) {
+                first = saturatedAdd(Math.max(first, now), nanosToRefill(permits, true));
+            } else {
+                second = Math.max(second, refilledTokens(first, now)) + permits;
+            }
+
+            if (slot < 0) {
+                slot = table.claim(bucket, fingerprint, now);
+            }
+            table.set(bucket, slot, first, second);
+
+            return !Decisions.isDetailed(decision, detailed) ? Decisions.ALLOWED
+                    : Decisions.decide(true, Math.max(availableTokens - permits - reservedTokens, 0L),
+                    maxWaitNanos > 0L ? nanosToWait : nanosUntilTokens(first, second, reservedTokens + 1L, now), decision, detailed);
+        } finally {
+            table.unlock(bucket);
+        }
+    }
+
+    /**
+     * @return the tokens missing to fill the bucket, zero or less if it is full
+     */
+    private long missingTokens(long first, long second, long now) {
+        if (continuous) {
+            return first <= now ? 0L
+                    : multiplyDivide(first - now, rateLimiterConfig.getRefillTokens(), rateLimiterConfig.getRefillPeriodInNanoseconds(), true);
+        }
+
+        return second - refilledTokens(first, now);
+    }
+
+    private long nanosUntilTokens(long first, long second, long target, long now) {
+        if (continuous) {
+            long wait = target <= rateLimiterConfig.getBucketSize()
+                    ? first - nanosToRefill(rateLimiterConfig.getBucketSize() - target, false) - now
+                    : first + nanosToRefill(target - rateLimiterConfig.getBucketSize(), true) - now;
+            return Math.max(wait, 0L);
+        }
+
+        long missingTokens = target - rateLimiterConfig.getBucketSize() + missingTokens(first, second, now);
+        if (missingTokens <= 0L) {
+            return 0L;
+        }
+
+        long periods = (now - first) / rateLimiterConfig.getRefillPeriodInNanoseconds();
+        long nextRefill = first + (periods + 1L) * rateLimiterConfig.getRefillPeriodInNanoseconds();
+        long refills = ceilDiv(missingTokens, rateLimiterConfig.getRefillTokens());
+        return nextRefill - now + (refills - 1L) * rateLimiterConfig.getRefillPeriodInNanoseconds();
+    }
+
+    // the tokens refilled at the end of each period elapsed since the creation of the bucket
+    private long refilledTokens(long creationTime, long now) {
+        return saturatedMultiply((now - creationTime) / rateLimiterConfig.getRefillPeriodInNanoseconds(), rateLimiterConfig.getRefillTokens());
+    }
+
+    private long nanosToRefill(long tokens, boolean roundUp) {
+        return multiplyDivide(tokens, rateLimiterConfig.getRefillPeriodInNanoseconds(), rateLimiterConfig.getRefillTokens(), roundUp);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0L ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return Math.multiplyHigh(a, b) == 0L && a * b >= 0L ? a * b : Long.MAX_VALUE;
+    }
+
+    // a * b / c for non negative values, the product of a and b can exceed a long
+    private static long multiplyDivide(long a, long b, long c, boolean roundUp) {
+        if (Math.multiplyHigh(a, b) == 0L && a * b >= 0L) {
+            return roundUp ? ceilDiv(a * b, c) : a * b / c;
+        }
+
+        BigInteger[] quotientAndRemainder = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                .divideAndRemainder(BigInteger.valueOf(c));
+        BigInteger quotient = roundUp && quotientAndRemainder[1].signum() > 0
+                ? quotientAndRemainder[0].add(BigInteger.ONE)
+                : quotientAndRemainder[0];
+        return quotient.bitLength() < Long.SIZE ? quotient.longValue() : Long.MAX_VALUE;
+    }
+}
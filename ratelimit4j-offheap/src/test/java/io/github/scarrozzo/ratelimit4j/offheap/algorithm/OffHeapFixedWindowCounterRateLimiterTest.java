@@ -0,0 +1,97 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+class OffHeapFixedWindowCounterRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+    private static final long MAXIMUM_KEYS = 1_000L;
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new OffHeapFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(500L, 2L), MAXIMUM_KEYS);
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void verifyManyRequestsConcurrentUpdates() {
+        long numberOfRequests = 10_000L;
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new OffHeapFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, numberOfRequests), MAXIMUM_KEYS, new ManualTimeSource());
+
+        long allowed = IntStream.range(0, (int) numberOfRequests * 2).parallel()
+                .filter(value -> rateLimiter.tryAcquirePermits(IP_ADDRESS_KEY, 1L))
+                .count();
+        Assertions.assertEquals(numberOfRequests, allowed);
+    }
+
+    @Test
+    void windowFollowsTheTimeSource() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new OffHeapFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(Duration.ofNanos(100_000L), 2), MAXIMUM_KEYS, timeSource);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(1L, first.getRemainingPermits());
+        timeSource.advance(Duration.ofNanos(40_000L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(0L, rejected.getRemainingPermits());
+        Assertions.assertEquals(60_000L, rejected.getNanosToNextPermit());
+
+        timeSource.advance(Duration.ofNanos(60_000L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).isAllowed());
+    }
+
+    @Test
+    void numericAndBinaryKeysAreEvaluatedAsDistinctClients() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new OffHeapFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L), MAXIMUM_KEYS, new ManualTimeSource());
+        byte[] apiKeyHash = {0x0a, 0x1b, 0x2c, 0x3d};
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(42L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(42L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(43L).isAllowed());
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(apiKeyHash));
+        // the content of the key is compared, not the array
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(apiKeyHash.clone()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire((byte[]) null));
+    }
+
+    @Test
+    void costIsSettledInTheCurrentWindow() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new OffHeapFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 10L), MAXIMUM_KEYS, timeSource);
+
+        rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 1L).orElseThrow().commit(9L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        rateLimiter.settle(IP_ADDRESS_KEY, -3L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).isAllowed());
+
+        // the cost of a request of an expired window is dropped
+        timeSource.advance(Duration.ofMinutes(1L));
+        rateLimiter.settle(IP_ADDRESS_KEY, 10L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+    }
+}
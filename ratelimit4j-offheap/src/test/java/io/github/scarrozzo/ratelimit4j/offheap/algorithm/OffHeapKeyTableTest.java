@@ -0,0 +1,61 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class OffHeapKeyTableTest {
+
+    @Test
+    void idleSlotsAreReclaimed() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new OffHeapFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L), 1L, timeSource);
+
+        // a single bucket: the keys of the new windows take the slots of the expired ones
+        for (long key = 0L; key < 100L; key++) {
+            Assertions.assertTrue(rateLimiter.tryAcquire(key).isAllowed());
+            Assertions.assertFalse(rateLimiter.tryAcquire(key).isAllowed());
+            timeSource.advance(Duration.ofMinutes(1L));
+        }
+    }
+
+    @Test
+    void keysNotReferencedAreEvictedFromFullBuckets() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new OffHeapFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L), 1L, timeSource);
+
+        for (long key = 0L; key < OffHeapKeyTable.SLOTS_PER_BUCKET; key++) {
+            Assertions.assertTrue(rateLimiter.tryAcquire(key).isAllowed());
+        }
+
+        // the clock clears the reference bits and evicts the first key, whose window starts again
+        Assertions.assertTrue(rateLimiter.tryAcquire(100L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(0L).isAllowed());
+        // the second key was evicted by the first one, the others are still limited
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(7L).isAllowed());
+    }
+
+    @Test
+    void tableIsSizedForTheMaximumKeys() {
+        Assertions.assertEquals(OffHeapKeyTable.SLOTS_PER_BUCKET, new OffHeapKeyTable(1L, (first, second, now) -> false).capacity());
+        Assertions.assertEquals(1_504, new OffHeapKeyTable(1_000L, (first, second, now) -> false).capacity());
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new OffHeapKeyTable(0L, (first, second, now) -> false));
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> new OffHeapKeyTable(Long.MAX_VALUE, (first, second, now) -> false));
+    }
+
+    @Test
+    void fingerprintsDependOnTheKeyType() {
+        Assertions.assertEquals(OffHeapKeyTable.fingerprint("127.0.0.1"), OffHeapKeyTable.fingerprint(new String("127.0.0.1")));
+        Assertions.assertNotEquals(OffHeapKeyTable.fingerprint("42"), OffHeapKeyTable.fingerprint(42L));
+        Assertions.assertNotEquals(OffHeapKeyTable.fingerprint("*"), OffHeapKeyTable.fingerprint(new byte[]{42}));
+        Assertions.assertNotEquals(OffHeapKeyTable.fingerprint(""), OffHeapKeyTable.fingerprint(new byte[0]));
+    }
+}
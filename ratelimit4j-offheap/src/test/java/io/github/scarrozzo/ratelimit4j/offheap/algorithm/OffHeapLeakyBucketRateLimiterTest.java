@@ -0,0 +1,74 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+class OffHeapLeakyBucketRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+    private static final long MAXIMUM_KEYS = 1_000L;
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new OffHeapLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(2L, 1L, 2_000L, 5_000L), MAXIMUM_KEYS);
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void verifyManyRequestsConcurrentUpdates() {
+        long bucketSize = 10_000L;
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new OffHeapLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(bucketSize, 1L, 60_000L, 5_000L), MAXIMUM_KEYS, new ManualTimeSource());
+
+        long allowed = IntStream.range(0, (int) bucketSize * 2).parallel()
+                .filter(value -> rateLimiter.tryAcquirePermits(IP_ADDRESS_KEY, 1L))
+                .count();
+        Assertions.assertEquals(bucketSize, allowed);
+    }
+
+    @Test
+    void outflowIsComputedWhenTheKeyIsAccessed() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new OffHeapLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(10L, 2L, 1_000L, 500L), MAXIMUM_KEYS, timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 10L).isAllowed());
+
+        // three periods leak out six requests, the partial period leaks nothing
+        timeSource.advance(Duration.ofMillis(3_500L));
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 7L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(6L, rejected.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(500L).toNanos(), rejected.getNanosToNextPermit());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 6L).isAllowed());
+        timeSource.advance(Duration.ofMillis(1_500L));
+        Assertions.assertEquals(1L, rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(1_000L).toNanos(), rateLimiter.reserve(IP_ADDRESS_KEY, 2L));
+    }
+
+    @Test
+    void reserveReturnsTimeToWaitForTheNextOutflow() {
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new OffHeapLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(2L, 1L, 500L, 5_000L), MAXIMUM_KEYS, new ManualTimeSource());
+
+        Assertions.assertEquals(0L, rateLimiter.reserve(IP_ADDRESS_KEY, 2L));
+        Assertions.assertEquals(Duration.ofMillis(500L).toNanos(), rateLimiter.reserve(IP_ADDRESS_KEY, 1L));
+
+        // the reserved place is released by the next outflow
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.reserve(IP_ADDRESS_KEY, 3L));
+    }
+}
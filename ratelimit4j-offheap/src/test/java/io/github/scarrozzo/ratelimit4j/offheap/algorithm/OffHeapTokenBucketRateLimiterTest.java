@@ -0,0 +1,181 @@
+package io.github.scarrozzo.ratelimit4j.offheap.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.CostReservation;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import io.github.scarrozzo.ratelimit4j.core.time.ManualTimeSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+class OffHeapTokenBucketRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+    private static final long MAXIMUM_KEYS = 1_000L;
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(2, 2_000L), MAXIMUM_KEYS);
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest("127.0.0.2"));
+    }
+
+    @Test
+    void verifyManyRequestsConcurrentUpdates() {
+        long bucketSize = 10_000;
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(bucketSize, 3_600_000L), MAXIMUM_KEYS, new ManualTimeSource());
+
+        long allowed = IntStream.range(0, (int) bucketSize * 2).parallel()
+                .filter(value -> rateLimiter.tryAcquirePermits(IP_ADDRESS_KEY, 1L))
+                .count();
+        Assertions.assertEquals(bucketSize, allowed);
+    }
+
+    @Test
+    void tryAcquireReturnsDecisionWithoutThrowing() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(2, 2_000L), MAXIMUM_KEYS, timeSource);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(1L, first.getRemainingPermits());
+        Assertions.assertEquals(0L, first.getNanosToNextPermit());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(second.isAllowed());
+        Assertions.assertEquals(0L, second.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofSeconds(2L).toNanos(), second.getNanosToNextPermit());
+
+        timeSource.advance(Duration.ofMillis(500L));
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(1_500L).toNanos(), third.getNanosToNextPermit());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire((String) null));
+    }
+
+    @Test
+    void continuousRefillAddsTokensAsSoonAsTheyAreEarned() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        // 10 tokens per second: one token every 100 milliseconds
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(5L, 10L, Duration.ofSeconds(1L), TokenBucketRefillStrategy.CONTINUOUS),
+                MAXIMUM_KEYS, timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(Duration.ofMillis(100L).toNanos(), rejected.getNanosToNextPermit());
+
+        // the time of a partially earned token is not lost
+        timeSource.advance(Duration.ofMillis(150L));
+        RateLimiterDecision allowed = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(allowed.isAllowed());
+        Assertions.assertEquals(0L, allowed.getRemainingPermits());
+        Assertions.assertEquals(Duration.ofMillis(50L).toNanos(), allowed.getNanosToNextPermit());
+
+        // the bucket never holds more than its size
+        timeSource.advance(Duration.ofSeconds(10L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void intervalRefillAddsRefillTokensAtTheEndOfEachPeriod() {
+        final ManualTimeSource timeSource = new ManualTimeSource();
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(4L, 2L, Duration.ofSeconds(1L), TokenBucketRefillStrategy.INTERVAL),
+                MAXIMUM_KEYS, timeSource);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 4L).isAllowed());
+
+        timeSource.advance(Duration.ofMillis(999L));
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        timeSource.advance(Duration.ofMillis(1L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(Duration.ofSeconds(2L).toNanos(), rejected.getNanosToNextPermit());
+    }
+
+    @Test
+    void reserveReturnsTimeToWaitForTheNextRefill() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(2, 500L), MAXIMUM_KEYS, new ManualTimeSource());
+
+        Assertions.assertEquals(0L, rateLimiter.reserve(IP_ADDRESS_KEY, 2L));
+        Assertions.assertEquals(Duration.ofMillis(500L).toNanos(), rateLimiter.reserve(IP_ADDRESS_KEY, 1L));
+
+        // the reserved token is taken from the next bucket
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.reserve(IP_ADDRESS_KEY, 3L));
+    }
+
+    @Test
+    void lowerPrioritiesLeaveTheReservedHeadroom() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(10L, 3_600_000L), MAXIMUM_KEYS, new ManualTimeSource());
+
+        // LOW leaves 4 tokens, NORMAL 2, HIGH 1
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 6L, RequestPriority.LOW).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.LOW).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L, RequestPriority.NORMAL).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.HIGH).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.HIGH).isAllowed());
+
+        // the critical requests can take the last token
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.CRITICAL).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.CRITICAL).isAllowed());
+    }
+
+    @Test
+    void costIsSettledAfterTheRequest() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(10L, 3_600_000L), MAXIMUM_KEYS, new ManualTimeSource());
+
+        // the request estimated at 2 permits cost 5
+        CostReservation reservation = rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 2L).orElseThrow();
+        reservation.commit(5L);
+        Assertions.assertEquals(5L, rateLimiter.tryAcquire(IP_ADDRESS_KEY).getRemainingPermits() + 1L);
+
+        // charges can exceed the limit, the debt is paid before new requests are accepted
+        rateLimiter.settle(IP_ADDRESS_KEY, 10L);
+        Assertions.assertTrue(rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 1L).isEmpty());
+        rateLimiter.settle(IP_ADDRESS_KEY, -100L);
+        Assertions.assertEquals(10L, rateLimiter.tryAcquire(IP_ADDRESS_KEY).getRemainingPermits() + 1L);
+
+        // a missing bucket is full
+        rateLimiter.settle("127.0.0.2", -1L);
+        Assertions.assertTrue(rateLimiter.tryAcquire("127.0.0.2", 10L).isAllowed());
+    }
+
+    @Test
+    void numericAndBinaryKeysAreEvaluatedAsDistinctClients() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new OffHeapTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(1L, 3_600_000L), MAXIMUM_KEYS, new ManualTimeSource());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(42L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(42L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire("42").isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(new byte[]{42}).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(new byte[]{42}).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(43L).isAllowed());
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.scarrozzo.ratelimit4j.spring.redis.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisTokenBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.filter.BandwidthLimiterFilter;
+import io.github.scarrozzo.ratelimit4j.spring.redis.config.RedisBandwidthLimiterProperties;
+import jakarta.servlet.Filter;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * The bandwidth limiter is a token bucket of its own, not a bean, so it does not replace the token bucket rate limiter
+ * of the requests. It is only loaded by the servlet applications.
+ */
+@Configuration
+@ConditionalOnBean(RedissonClient.class)
+@ConditionalOnClass({Filter.class, RedisTokenBucketRateLimiter.class})
+@ConditionalOnProperty(prefix = "ratelimit4j.redis.bandwidth", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties({RedisBandwidthLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class RedisBandwidthLimiterAutoconfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "bandwidthLimiterFilter")
+    public FilterRegistrationBean<BandwidthLimiterFilter> bandwidthLimiterFilter(RedisBandwidthLimiterProperties redisBandwidthLimiterProperties,
+                                                                                SpringBootRateLimiterProperties springBootRateLimiterProperties,
+                                                                                RedissonClient redissonClient) {
+        long bucketSize = RedisBandwidthLimiterProperties.DEFAULT_BUCKET_SIZE;
+        long refillPeriodInMilliSeconds = RedisBandwidthLimiterProperties.DEFAULT_REFILL_PERIOD_IN_MILLISECS;
+        int chunkSize = RedisBandwidthLimiterProperties.DEFAULT_CHUNK_SIZE;
+        String keyPrefix = RedisBandwidthLimiterProperties.DEFAULT_KEY_PREFIX;
+
+        if (redisBandwidthLimiterProperties.getBucketSize() != null) {
+            bucketSize = redisBandwidthLimiterProperties.getBucketSize();
+        }
+
+        if (redisBandwidthLimiterProperties.getRefillPeriodInMilliSeconds() != null) {
+            refillPeriodInMilliSeconds = redisBandwidthLimiterProperties.getRefillPeriodInMilliSeconds();
+        }
+
+        if (redisBandwidthLimiterProperties.getChunkSize() != null) {
+            chunkSize = redisBandwidthLimiterProperties.getChunkSize();
+        }
+
+        if (redisBandwidthLimiterProperties.getKeyPrefix() != null) {
+            keyPrefix = redisBandwidthLimiterProperties.getKeyPrefix();
+        }
+
+        RedisTokenBucketRateLimiter bandwidthLimiter = new RedisTokenBucketRateLimiter(new TokenBucketRateLimiterConfig(
+                bucketSize, bucketSize, Duration.ofMillis(refillPeriodInMilliSeconds), TokenBucketRefillStrategy.CONTINUOUS),
+                redissonClient, keyPrefix);
+        return new FilterRegistrationBean<>(new BandwidthLimiterFilter(springBootRateLimiterProperties, bandwidthLimiter, chunkSize));
+    }
+
+}
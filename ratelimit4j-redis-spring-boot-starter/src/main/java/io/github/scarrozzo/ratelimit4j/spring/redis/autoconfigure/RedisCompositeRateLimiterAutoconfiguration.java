@@ -0,0 +1,75 @@
+package io.github.scarrozzo.ratelimit4j.spring.redis.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisCompositeRateLimiter;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import io.github.scarrozzo.ratelimit4j.spring.redis.config.RedisCompositeRateLimiterProperties;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnBean(RedissonClient.class)
+@ConditionalOnClass(RedisCompositeRateLimiter.class)
+@EnableConfigurationProperties({RedisCompositeRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class RedisCompositeRateLimiterAutoconfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CompositeRateLimiterConfig compositeRateLimiterConfig(RedisCompositeRateLimiterProperties redisCompositeRateLimiterProperties) {
+        List<CompositeRateLimiterConfig.Limit> limits = new ArrayList<>();
+
+        if (redisCompositeRateLimiterProperties != null && redisCompositeRateLimiterProperties.getLimits() != null) {
+            for (RedisCompositeRateLimiterProperties.LimitProperties limitProperties : redisCompositeRateLimiterProperties.getLimits()) {
+                long numberOfRequests = limitProperties.getNumberOfRequests() != null
+                        ? limitProperties.getNumberOfRequests()
+                        : RedisCompositeRateLimiterProperties.DEFAULT_NUMBER_OF_REQUESTS;
+                long windowSize = limitProperties.getWindowSize() != null
+                        ? limitProperties.getWindowSize()
+                        : RedisCompositeRateLimiterProperties.DEFAULT_WINDOW_SIZE_IN_MILLISECS;
+                limits.add(CompositeRateLimiterConfig.Limit.of(numberOfRequests, windowSize));
+            }
+        }
+
+        if (limits.isEmpty()) {
+            limits.add(CompositeRateLimiterConfig.Limit.of(RedisCompositeRateLimiterProperties.DEFAULT_NUMBER_OF_REQUESTS,
+                    RedisCompositeRateLimiterProperties.DEFAULT_WINDOW_SIZE_IN_MILLISECS));
+        }
+
+        return new CompositeRateLimiterConfig(limits);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisCompositeRateLimiter redisCompositeRateLimiter(CompositeRateLimiterConfig compositeRateLimiterConfig,
+                                                               RedissonClient redissonClient) {
+        return new RedisCompositeRateLimiter(compositeRateLimiterConfig, redissonClient);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringBootRateLimiterProperties springBootRateLimiterProperties = beanFactory.getBean(SpringBootRateLimiterProperties.class);
+        RedisCompositeRateLimiter redisCompositeRateLimiter = beanFactory.getBean(RedisCompositeRateLimiter.class);
+        if (springBootRateLimiterProperties.getLimiterTypes() != null &&
+                springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.COMPOSITE)) {
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(redisCompositeRateLimiter));
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.github.scarrozzo.ratelimit4j.spring.redis.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.spring.redis.config.RedisConcurrencyLimiterProperties;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnBean(RedissonClient.class)
+@ConditionalOnClass(RedisConcurrencyLimiter.class)
+@ConditionalOnProperty(prefix = "ratelimit4j.redis.concurrency", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RedisConcurrencyLimiterProperties.class)
+public class RedisConcurrencyLimiterAutoconfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(ConcurrencyLimiter.class)
+    public RedisConcurrencyLimiter redisConcurrencyLimiter(RedisConcurrencyLimiterProperties redisConcurrencyLimiterProperties,
+                                                           RedissonClient redissonClient) {
+        long maxInFlight = RedisConcurrencyLimiterProperties.DEFAULT_MAX_IN_FLIGHT;
+        long leaseTimeoutInMilliSeconds = RedisConcurrencyLimiterProperties.DEFAULT_LEASE_TIMEOUT_IN_MILLISECS;
+        String keyPrefix = RedisConcurrencyLimiterProperties.DEFAULT_KEY_PREFIX;
+
+        if (redisConcurrencyLimiterProperties.getMaxInFlight() != null) {
+            maxInFlight = redisConcurrencyLimiterProperties.getMaxInFlight();
+        }
+
+        if (redisConcurrencyLimiterProperties.getLeaseTimeoutInMilliSeconds() != null) {
+            leaseTimeoutInMilliSeconds = redisConcurrencyLimiterProperties.getLeaseTimeoutInMilliSeconds();
+        }
+
+        if (redisConcurrencyLimiterProperties.getKeyPrefix() != null) {
+            keyPrefix = redisConcurrencyLimiterProperties.getKeyPrefix();
+        }
+
+        return new RedisConcurrencyLimiter(new ConcurrencyLimiterConfig(maxInFlight, leaseTimeoutInMilliSeconds), redissonClient, keyPrefix);
+    }
+
+}
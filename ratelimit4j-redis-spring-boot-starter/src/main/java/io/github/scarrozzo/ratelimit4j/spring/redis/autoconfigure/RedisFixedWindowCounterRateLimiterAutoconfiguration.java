@@ -4,10 +4,9 @@ import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiter
 import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
 import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisFixedWindowCounterRateLimiter;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
-import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptor;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
 import io.github.scarrozzo.ratelimit4j.spring.redis.config.RedisFixedWindowCounterRateLimiterProperties;
 import org.redisson.api.RedissonClient;
-import org.redisson.api.TransactionOptions;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -20,7 +19,7 @@ import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
-@ConditionalOnBean({RedissonClient.class, TransactionOptions.class})
+@ConditionalOnBean(RedissonClient.class)
 @ConditionalOnClass(RedisFixedWindowCounterRateLimiter.class)
 @EnableConfigurationProperties({RedisFixedWindowCounterRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
 public class RedisFixedWindowCounterRateLimiterAutoconfiguration implements WebMvcConfigurer {
@@ -48,9 +47,8 @@ public class RedisFixedWindowCounterRateLimiterAutoconfiguration implements WebM
     @Bean
     @ConditionalOnMissingBean
     public RedisFixedWindowCounterRateLimiter redisFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig,
-                                                                                 RedissonClient redissonClient,
-                                                                                 TransactionOptions transactionOptions) {
-        return new RedisFixedWindowCounterRateLimiter(fixedWindowCounterRateLimiterConfig, redissonClient, transactionOptions);
+                                                                                 RedissonClient redissonClient) {
+        return new RedisFixedWindowCounterRateLimiter(fixedWindowCounterRateLimiterConfig, redissonClient);
     }
 
     @Override
@@ -59,7 +57,7 @@ public class RedisFixedWindowCounterRateLimiterAutoconfiguration implements WebM
         RedisFixedWindowCounterRateLimiter redisFixedWindowCounterRateLimiter = beanFactory.getBean(RedisFixedWindowCounterRateLimiter.class);
         if (springBootRateLimiterProperties.getLimiterTypes() != null &&
                 springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.FIXED_WINDOW_COUNTER)) {
-            registry.addInterceptor(new RateLimiterRequestInterceptor<>(springBootRateLimiterProperties, redisFixedWindowCounterRateLimiter));
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(redisFixedWindowCounterRateLimiter));
         }
     }
 
@@ -4,10 +4,9 @@ import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
 import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
 import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisLeakyBucketRateLimiter;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
-import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptor;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
 import io.github.scarrozzo.ratelimit4j.spring.redis.config.RedisLeakyBucketRateLimiterProperties;
 import org.redisson.api.RedissonClient;
-import org.redisson.api.TransactionOptions;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -20,7 +19,7 @@ import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
-@ConditionalOnBean({RedissonClient.class, TransactionOptions.class})
+@ConditionalOnBean(RedissonClient.class)
 @ConditionalOnClass(RedisLeakyBucketRateLimiter.class)
 @EnableConfigurationProperties({RedisLeakyBucketRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
 public class RedisLeakyBucketRateLimiterAutoconfiguration implements WebMvcConfigurer {
@@ -58,9 +57,8 @@ public class RedisLeakyBucketRateLimiterAutoconfiguration implements WebMvcConfi
     @Bean
     @ConditionalOnMissingBean
     public RedisLeakyBucketRateLimiter redisLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig leakyBucketRateLimiterConfig,
-                                                                   RedissonClient redissonClient,
-                                                                   TransactionOptions transactionOptions) {
-        return new RedisLeakyBucketRateLimiter(leakyBucketRateLimiterConfig, redissonClient, transactionOptions);
+                                                                   RedissonClient redissonClient) {
+        return new RedisLeakyBucketRateLimiter(leakyBucketRateLimiterConfig, redissonClient);
     }
 
     @Override
@@ -69,7 +67,7 @@ public class RedisLeakyBucketRateLimiterAutoconfiguration implements WebMvcConfi
         RedisLeakyBucketRateLimiter redisLeakyBucketRateLimiter = beanFactory.getBean(RedisLeakyBucketRateLimiter.class);
         if (springBootRateLimiterProperties.getLimiterTypes() != null &&
                 springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.LEAKY_BUCKET)) {
-            registry.addInterceptor(new RateLimiterRequestInterceptor<>(springBootRateLimiterProperties, redisLeakyBucketRateLimiter));
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(redisLeakyBucketRateLimiter));
         }
     }
 
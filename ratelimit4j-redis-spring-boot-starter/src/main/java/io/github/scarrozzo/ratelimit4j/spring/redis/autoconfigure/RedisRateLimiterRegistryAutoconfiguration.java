@@ -0,0 +1,23 @@
+package io.github.scarrozzo.ratelimit4j.spring.redis.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.core.registry.RateLimiterRegistry;
+import io.github.scarrozzo.ratelimit4j.redis.registry.RedisRateLimiterFactory;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnBean(RedissonClient.class)
+@ConditionalOnClass(RedisRateLimiterFactory.class)
+public class RedisRateLimiterRegistryAutoconfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiterRegistry rateLimiterRegistry(RedissonClient redissonClient) {
+        return new RateLimiterRegistry(new RedisRateLimiterFactory(redissonClient));
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.github.scarrozzo.ratelimit4j.spring.redis.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisSlidingWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import io.github.scarrozzo.ratelimit4j.spring.redis.config.RedisSlidingWindowCounterRateLimiterProperties;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnBean(RedissonClient.class)
+@ConditionalOnClass(RedisSlidingWindowCounterRateLimiter.class)
+@EnableConfigurationProperties({RedisSlidingWindowCounterRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class RedisSlidingWindowCounterRateLimiterAutoconfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig(RedisSlidingWindowCounterRateLimiterProperties redisSlidingWindowCounterRateLimiterProperties) {
+        long numberOfRequests = RedisSlidingWindowCounterRateLimiterProperties.DEFAULT_NUMBER_OF_REQUESTS;
+        long windowSize = RedisSlidingWindowCounterRateLimiterProperties.DEFAULT_WINDOW_SIZE_IN_MILLISECS;
+
+        if (redisSlidingWindowCounterRateLimiterProperties != null && redisSlidingWindowCounterRateLimiterProperties.getNumberOfRequests() != null) {
+            numberOfRequests = redisSlidingWindowCounterRateLimiterProperties.getNumberOfRequests();
+        }
+
+        if (redisSlidingWindowCounterRateLimiterProperties != null && redisSlidingWindowCounterRateLimiterProperties.getWindowSize() != null) {
+            windowSize = redisSlidingWindowCounterRateLimiterProperties.getWindowSize();
+        }
+
+        return new SlidingWindowCounterRateLimiterConfig(windowSize, numberOfRequests);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisSlidingWindowCounterRateLimiter redisSlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig,
+                                                                                 RedissonClient redissonClient) {
+        return new RedisSlidingWindowCounterRateLimiter(slidingWindowCounterRateLimiterConfig, redissonClient);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringBootRateLimiterProperties springBootRateLimiterProperties = beanFactory.getBean(SpringBootRateLimiterProperties.class);
+        RedisSlidingWindowCounterRateLimiter redisSlidingWindowCounterRateLimiter = beanFactory.getBean(RedisSlidingWindowCounterRateLimiter.class);
+        if (springBootRateLimiterProperties.getLimiterTypes() != null &&
+                springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.SLIDING_WINDOW_COUNTER)) {
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(redisSlidingWindowCounterRateLimiter));
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.github.scarrozzo.ratelimit4j.spring.redis.autoconfigure;
+
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisSlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
+import io.github.scarrozzo.ratelimit4j.spring.redis.config.RedisSlidingWindowLogRateLimiterProperties;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnBean(RedissonClient.class)
+@ConditionalOnClass(RedisSlidingWindowLogRateLimiter.class)
+@EnableConfigurationProperties({RedisSlidingWindowLogRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
+public class RedisSlidingWindowLogRateLimiterAutoconfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig(RedisSlidingWindowLogRateLimiterProperties redisSlidingWindowLogRateLimiterProperties) {
+        long numberOfRequests = RedisSlidingWindowLogRateLimiterProperties.DEFAULT_NUMBER_OF_REQUESTS;
+        long windowSize = RedisSlidingWindowLogRateLimiterProperties.DEFAULT_WINDOW_SIZE_IN_MILLISECS;
+
+        if (redisSlidingWindowLogRateLimiterProperties != null && redisSlidingWindowLogRateLimiterProperties.getNumberOfRequests() != null) {
+            numberOfRequests = redisSlidingWindowLogRateLimiterProperties.getNumberOfRequests();
+        }
+
+        if (redisSlidingWindowLogRateLimiterProperties != null && redisSlidingWindowLogRateLimiterProperties.getWindowSize() != null) {
+            windowSize = redisSlidingWindowLogRateLimiterProperties.getWindowSize();
+        }
+
+        return new SlidingWindowLogRateLimiterConfig(windowSize, numberOfRequests);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisSlidingWindowLogRateLimiter redisSlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig,
+                                                                             RedissonClient redissonClient) {
+        return new RedisSlidingWindowLogRateLimiter(slidingWindowLogRateLimiterConfig, redissonClient);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringBootRateLimiterProperties springBootRateLimiterProperties = beanFactory.getBean(SpringBootRateLimiterProperties.class);
+        RedisSlidingWindowLogRateLimiter redisSlidingWindowLogRateLimiter = beanFactory.getBean(RedisSlidingWindowLogRateLimiter.class);
+        if (springBootRateLimiterProperties.getLimiterTypes() != null &&
+                springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.SLIDING_WINDOW_LOG)) {
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(redisSlidingWindowLogRateLimiter));
+        }
+    }
+
+}
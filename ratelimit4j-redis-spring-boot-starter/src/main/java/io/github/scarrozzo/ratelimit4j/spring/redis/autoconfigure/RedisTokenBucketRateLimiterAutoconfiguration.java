@@ -2,12 +2,12 @@ package io.github.scarrozzo.ratelimit4j.spring.redis.autoconfigure;
 
 import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterType;
 import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
 import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisTokenBucketRateLimiter;
 import io.github.scarrozzo.ratelimit4j.spring.core.config.SpringBootRateLimiterProperties;
-import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptor;
+import io.github.scarrozzo.ratelimit4j.spring.core.interceptor.RateLimiterRequestInterceptorFactory;
 import io.github.scarrozzo.ratelimit4j.spring.redis.config.RedisTokenBucketRateLimiterProperties;
 import org.redisson.api.RedissonClient;
-import org.redisson.api.TransactionOptions;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -19,8 +19,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
-@ConditionalOnBean({RedissonClient.class, TransactionOptions.class})
+@ConditionalOnBean(RedissonClient.class)
 @ConditionalOnClass(RedisTokenBucketRateLimiter.class)
 @EnableConfigurationProperties({RedisTokenBucketRateLimiterProperties.class, SpringBootRateLimiterProperties.class})
 public class RedisTokenBucketRateLimiterAutoconfiguration implements WebMvcConfigurer {
@@ -33,6 +35,7 @@ public class RedisTokenBucketRateLimiterAutoconfiguration implements WebMvcConfi
     public TokenBucketRateLimiterConfig bucketRateLimiterConfig(RedisTokenBucketRateLimiterProperties redisTokenBucketRateLimiterProperties) {
         long bucketSize = RedisTokenBucketRateLimiterProperties.DEFAULT_BUCKET_SIZE;
         long refillPeriodInMilliSeconds = RedisTokenBucketRateLimiterProperties.DEFAULT_REFILL_PERIOD_IN_MILLISECS;
+        TokenBucketRefillStrategy refillStrategy = RedisTokenBucketRateLimiterProperties.DEFAULT_REFILL_STRATEGY;
 
         if (redisTokenBucketRateLimiterProperties != null && redisTokenBucketRateLimiterProperties.getBucketSize() != null) {
             bucketSize = redisTokenBucketRateLimiterProperties.getBucketSize();
@@ -42,15 +45,23 @@ public class RedisTokenBucketRateLimiterAutoconfiguration implements WebMvcConfi
             refillPeriodInMilliSeconds = redisTokenBucketRateLimiterProperties.getRefillPeriodInMilliSeconds();
         }
 
-        return new TokenBucketRateLimiterConfig(bucketSize, refillPeriodInMilliSeconds);
+        long refillTokens = bucketSize;
+        if (redisTokenBucketRateLimiterProperties != null && redisTokenBucketRateLimiterProperties.getRefillTokens() != null) {
+            refillTokens = redisTokenBucketRateLimiterProperties.getRefillTokens();
+        }
+
+        if (redisTokenBucketRateLimiterProperties != null && redisTokenBucketRateLimiterProperties.getRefillStrategy() != null) {
+            refillStrategy = redisTokenBucketRateLimiterProperties.getRefillStrategy();
+        }
+
+        return new TokenBucketRateLimiterConfig(bucketSize, refillTokens, Duration.ofMillis(refillPeriodInMilliSeconds), refillStrategy);
     }
 
     @Bean
     @ConditionalOnMissingBean
     public RedisTokenBucketRateLimiter redisTokenBucketRateLimiter(TokenBucketRateLimiterConfig tokenBucketRateLimiterConfig,
-                                                                   RedissonClient redissonClient,
-                                                                   TransactionOptions transactionOptions) {
-        return new RedisTokenBucketRateLimiter(tokenBucketRateLimiterConfig, redissonClient, transactionOptions);
+                                                                   RedissonClient redissonClient) {
+        return new RedisTokenBucketRateLimiter(tokenBucketRateLimiterConfig, redissonClient);
     }
 
     @Override
@@ -59,7 +70,7 @@ public class RedisTokenBucketRateLimiterAutoconfiguration implements WebMvcConfi
         RedisTokenBucketRateLimiter redisTokenBucketRateLimiter = beanFactory.getBean(RedisTokenBucketRateLimiter.class);
         if (springBootRateLimiterProperties.getLimiterTypes() != null &&
                 springBootRateLimiterProperties.getLimiterTypes().contains(RateLimiterType.TOKEN_BUCKET)) {
-            registry.addInterceptor(new RateLimiterRequestInterceptor<>(springBootRateLimiterProperties, redisTokenBucketRateLimiter));
+            registry.addInterceptor(beanFactory.getBean(RateLimiterRequestInterceptorFactory.class).create(redisTokenBucketRateLimiter));
         }
     }
 
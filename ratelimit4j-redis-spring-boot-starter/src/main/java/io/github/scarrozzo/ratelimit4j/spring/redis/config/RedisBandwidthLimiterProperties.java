@@ -0,0 +1,24 @@
+package io.github.scarrozzo.ratelimit4j.spring.redis.config;
+
+import io.github.scarrozzo.ratelimit4j.core.bandwidth.BandwidthThrottle;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit4j.redis.bandwidth")
+public class RedisBandwidthLimiterProperties {
+
+    // bytes per refill period, refilled continuously
+    public static final long DEFAULT_BUCKET_SIZE = 1_048_576L;
+    public static final long DEFAULT_REFILL_PERIOD_IN_MILLISECS = 1_000L;
+    public static final int DEFAULT_CHUNK_SIZE = BandwidthThrottle.DEFAULT_CHUNK_SIZE;
+    // keeps the buckets of the bandwidth apart from the ones of the requests
+    public static final String DEFAULT_KEY_PREFIX = "bandwidth:";
+
+    private boolean enabled;
+    private Long bucketSize;
+    private Long refillPeriodInMilliSeconds;
+    private Integer chunkSize;
+    private String keyPrefix;
+
+}
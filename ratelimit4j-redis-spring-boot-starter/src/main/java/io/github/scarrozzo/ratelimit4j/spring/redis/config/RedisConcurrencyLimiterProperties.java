@@ -0,0 +1,19 @@
+package io.github.scarrozzo.ratelimit4j.spring.redis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit4j.redis.concurrency")
+public class RedisConcurrencyLimiterProperties {
+
+    public static final long DEFAULT_MAX_IN_FLIGHT = 10L;
+    public static final long DEFAULT_LEASE_TIMEOUT_IN_MILLISECS = 60_000L;
+    public static final String DEFAULT_KEY_PREFIX = "concurrency:";
+
+    private boolean enabled;
+    private Long maxInFlight;
+    private Long leaseTimeoutInMilliSeconds;
+    private String keyPrefix;
+
+}
@@ -0,0 +1,164 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.CompositeRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The theoretical arrival times of all the limits of a key are kept in one hash and updated by one script, so the
+ * limits are checked and consumed in a single round trip.
+ */
+public class RedisCompositeRateLimiter extends CompositeRateLimiter {
+
+    // KEYS[1] = limits key, ARGV = {permits, then number of requests and window size in microseconds of each limit}
+    // returns {allowed, remaining requests, microseconds to the next permit}
+    private static final String TRY_ACQUIRE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local permits = tonumber(ARGV[1])
+            local numberOfLimits = (#ARGV - 1) / 2
+            local arrivalTimes = redis.call('HGETALL', KEYS[1])
+            local storedArrivalTimes = {}
+            for i = 1, #arrivalTimes, 2 do
+                storedArrivalTimes[arrivalTimes[i]] = tonumber(arrivalTimes[i + 1])
+            end
+
+            local newArrivalTimes = {}
+            local remaining = math.huge
+            local untilNext = 0
+            for i = 1, numberOfLimits do
+                local numberOfRequests = tonumber(ARGV[2 * i])
+                local tolerance = tonumber(ARGV[2 * i + 1])
+                local emissionInterval = tolerance / numberOfRequests
+                local baseArrivalTime = math.max(storedArrivalTimes[tostring(i)] or now, now)
+                newArrivalTimes[i] = baseArrivalTime + emissionInterval * permits
+                -- the permits are accepted only when every limit accepts them
+                untilNext = math.max(untilNext, newArrivalTimes[i] - tolerance - now)
+                remaining = math.min(remaining, math.floor(math.max(tolerance - (baseArrivalTime - now), 0) / emissionInterval))
+            end
+
+            if untilNext > 0 then
+                return {0, remaining, math.ceil(untilNext)}
+            end
+
+            local fields = {}
+            local latestArrivalTime = now
+            remaining = math.huge
+            for i = 1, numberOfLimits do
+                local numberOfRequests = tonumber(ARGV[2 * i])
+                local tolerance = tonumber(ARGV[2 * i + 1])
+                local emissionInterval = tolerance / numberOfRequests
+                local limitRemaining = math.floor((tolerance - (newArrivalTimes[i] - now)) / emissionInterval)
+                if limitRemaining == 0 then
+                    untilNext = math.max(untilNext, newArrivalTimes[i] + emissionInterval - tolerance - now)
+                end
+                remaining = math.min(remaining, limitRemaining)
+                latestArrivalTime = math.max(latestArrivalTime, newArrivalTimes[i])
+                fields[#fields + 1] = tostring(i)
+                fields[#fields + 1] = newArrivalTimes[i]
+            end
+
+            redis.call('HSET', KEYS[1], unpack(fields))
+            -- the key can be dropped once all the arrival times are in the past: all the buckets are full
+            redis.call('PEXPIRE', KEYS[1], math.max(math.ceil((latestArrivalTime - now) / 1000), 1))
+            return {1, remaining, math.ceil(untilNext)}
+            """;
+
+    // KEYS[1] = limits key, ARGV = {number of requests and window size in microseconds of each limit}
+    // returns {0, remaining requests, 0} without consuming anything
+    private static final String REMAINING_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local remaining = math.huge
+            for i = 1, #ARGV / 2 do
+                local tolerance = tonumber(ARGV[2 * i])
+                local emissionInterval = tolerance / tonumber(ARGV[2 * i - 1])
+                local baseArrivalTime = math.max(tonumber(redis.call('HGET', KEYS[1], tostring(i))) or now, now)
+                remaining = math.min(remaining, math.floor(math.max(tolerance - (baseArrivalTime - now), 0) / emissionInterval))
+            end
+
+            return {0, remaining, 0}
+            """;
+
+    private final RScript script;
+    private final String keyPrefix;
+    // the permits of a request accepted by the smallest limit when its bucket is full
+    private final long maximumPermits;
+
+    public RedisCompositeRateLimiter(CompositeRateLimiterConfig compositeRateLimiterConfig,
+                                     RedissonClient redissonClient) {
+        this(compositeRateLimiterConfig, redissonClient, "");
+    }
+
+    /**
+     * Prefixes all the Redis keys, so many rate limiters can share the same Redis client without sharing their keys.
+     */
+    public RedisCompositeRateLimiter(CompositeRateLimiterConfig compositeRateLimiterConfig,
+                                     RedissonClient redissonClient,
+                                     String keyPrefix) {
+        super(compositeRateLimiterConfig);
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+        this.maximumPermits = compositeRateLimiterConfig.getLimits().stream()
+                .mapToLong(CompositeRateLimiterConfig.Limit::getNumberOfRequests)
+                .min()
+                .orElse(Long.MAX_VALUE);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        // the request costs more than the smallest limit: it can never be accepted, so there is no time to wait for
+        if (permits > maximumPermits) {
+            List<Long> result = script.eval(redisKey, RScript.Mode.READ_ONLY, REMAINING_SCRIPT, RScript.ReturnType.MULTI,
+                    Collections.singletonList(redisKey), limitArguments().toArray());
+            return RedisScriptDecision.of(result);
+        }
+
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey), scriptArguments(permits));
+        return RedisScriptDecision.of(result);
+    }
+
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        if (permits > maximumPermits) {
+            return script.<List<Long>>evalAsync(redisKey, RScript.Mode.READ_ONLY, REMAINING_SCRIPT, RScript.ReturnType.MULTI,
+                            Collections.singletonList(redisKey), limitArguments().toArray())
+                    .thenApply(RedisScriptDecision::of);
+        }
+
+        return script.<List<Long>>evalAsync(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                        Collections.singletonList(redisKey), scriptArguments(permits))
+                .thenApply(RedisScriptDecision::of);
+    }
+
+    private Object[] scriptArguments(long permits) {
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(permits);
+        arguments.addAll(limitArguments());
+
+        return arguments.toArray();
+    }
+
+    private List<Object> limitArguments() {
+        List<Object> arguments = new ArrayList<>();
+        for (CompositeRateLimiterConfig.Limit limit : rateLimiterConfig.getLimits()) {
+            arguments.add(limit.getNumberOfRequests());
+            arguments.add(RedisScriptDecision.toMicros(limit.getWindowSizeInNanoseconds()));
+        }
+
+        return arguments;
+    }
+}
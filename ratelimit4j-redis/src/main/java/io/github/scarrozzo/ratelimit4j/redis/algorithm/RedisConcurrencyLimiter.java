@@ -0,0 +1,90 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.Lease;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Each key is a sorted set of lease ids scored by their deadline. Acquiring a lease drops the expired ones and adds the
+ * new one in a single script, releasing it removes its id, so each of them is one round trip. The leases of a crashed
+ * node expire after the lease timeout instead of holding their slots forever.
+ */
+public class RedisConcurrencyLimiter extends ConcurrencyLimiter {
+
+    // KEYS[1] = lease set key, ARGV = {max in flight, lease timeout in microseconds, lease id}
+    // returns 1 if the lease was added, 0 otherwise
+    private static final String TRY_ACQUIRE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local maxInFlight = tonumber(ARGV[1])
+            local leaseTimeout = tonumber(ARGV[2])
+
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)
+            if redis.call('ZCARD', KEYS[1]) >= maxInFlight then
+                return 0
+            end
+
+            redis.call('ZADD', KEYS[1], now + leaseTimeout, ARGV[3])
+            -- the new lease has the latest deadline, the set is dropped when it expires
+            redis.call('PEXPIRE', KEYS[1], math.ceil(leaseTimeout / 1000))
+            return 1
+            """;
+
+    private final RedissonClient redissonClient;
+    private final RScript script;
+    private final String keyPrefix;
+
+    public RedisConcurrencyLimiter(ConcurrencyLimiterConfig concurrencyLimiterConfig, RedissonClient redissonClient) {
+        this(concurrencyLimiterConfig, redissonClient, "");
+    }
+
+    /**
+     * Prefixes all the Redis keys, so many limiters can share the same Redis client without sharing their keys.
+     */
+    public RedisConcurrencyLimiter(ConcurrencyLimiterConfig concurrencyLimiterConfig, RedissonClient redissonClient,
+                                   String keyPrefix) {
+        super(concurrencyLimiterConfig);
+        this.redissonClient = redissonClient;
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public Optional<Lease> tryAcquire(String key) {
+        checkKey(key);
+        String redisKey = keyPrefix + key;
+        String leaseId = UUID.randomUUID().toString();
+        Long acquired = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.INTEGER,
+                Collections.singletonList(redisKey), concurrencyLimiterConfig.getMaxInFlight(),
+                RedisScriptDecision.toMicros(concurrencyLimiterConfig.getLeaseTimeoutInNanoseconds()), leaseId);
+
+        return acquired != null && acquired == 1L ? Optional.of(new RedisLease(redisKey, leaseId)) : Optional.empty();
+    }
+
+    private class RedisLease implements Lease {
+        private final String redisKey;
+        private final String leaseId;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private RedisLease(String redisKey, String leaseId) {
+            this.redisKey = redisKey;
+            this.leaseId = leaseId;
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                redissonClient.getScoredSortedSet(redisKey, StringCodec.INSTANCE).remove(leaseId);
+            }
+        }
+    }
+
+}
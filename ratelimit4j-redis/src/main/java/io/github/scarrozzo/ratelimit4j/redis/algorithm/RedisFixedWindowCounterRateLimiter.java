@@ -1,80 +1,132 @@
 package io.github.scarrozzo.ratelimit4j.redis.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.core.algorithm.FixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
-import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
-import lombok.Getter;
-import org.redisson.api.*;
-import org.redisson.transaction.TransactionException;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.TransactionOptions;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 public class RedisFixedWindowCounterRateLimiter extends FixedWindowCounterRateLimiter {
 
-    private final RedissonClient redissonClient;
-    private final TransactionOptions transactionOptions;
+    // KEYS[1] = window key, ARGV = {window size in microseconds, number of requests, permits}
+    // returns {allowed, remaining requests, microseconds to the next window}
+    private static final String TRY_ACQUIRE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local windowSize = tonumber(ARGV[1])
+            local numberOfRequests = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+            local window = redis.call('HMGET', KEYS[1], 'timestamp', 'counter')
+            local timestamp = tonumber(window[1])
+            local counter = tonumber(window[2])
+
+            -- a window for this key still does not exist or the old window is expired. We can define a new window
+            if timestamp == nil or (now - timestamp) >= windowSize then
+                -- the request costs more than a whole window
+                if permits > numberOfRequests then
+                    return {0, numberOfRequests, 0}
+                end
+
+                timestamp = now
+                counter = permits
+                redis.call('HSET', KEYS[1], 'timestamp', timestamp, 'counter', counter)
+                redis.call('PEXPIRE', KEYS[1], math.ceil(windowSize / 1000))
+            -- we are inside an existing window and the number of requests for this window has been reached
+            elseif (counter + permits) > numberOfRequests then
+                return {0, numberOfRequests - counter, timestamp + windowSize - now}
+            -- the request is successful
+            else
+                counter = redis.call('HINCRBY', KEYS[1], 'counter', permits)
+            end
+
+            if counter < numberOfRequests then
+                return {1, numberOfRequests - counter, 0}
+            end
+            return {1, 0, timestamp + windowSize - now}
+            """;
+
+    // KEYS[1] = window key, ARGV = {permits to charge, negative to refund}
+    // the cost of a request of an expired window is dropped
+    private static final String SETTLE_SCRIPT = """
+            local counter = tonumber(redis.call('HGET', KEYS[1], 'counter'))
+            if counter == nil then
+                return 0
+            end
+
+            redis.call('HSET', KEYS[1], 'counter', math.max(counter + tonumber(ARGV[1]), 0))
+            return 1
+            """;
+
+    private final RScript script;
+    private final String keyPrefix;
+    private final RedisSettlementBatcher settlementBatcher;
 
+    public RedisFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig,
+                                              RedissonClient redissonClient){
+        this(fixedWindowCounterRateLimiterConfig, redissonClient, "");
+    }
+
+    /**
+     * Prefixes all the Redis keys, so many rate limiters can share the same Redis client without sharing their keys.
+     */
+    public RedisFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig,
+                                              RedissonClient redissonClient,
+                                              String keyPrefix){
+        super(fixedWindowCounterRateLimiterConfig);
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+        this.settlementBatcher = new RedisSettlementBatcher(redissonClient, SETTLE_SCRIPT, permits -> new Object[]{permits});
+    }
+
+    /**
+     * @deprecated the window is updated by a single atomic script, transaction options are no longer used.
+     */
+    @Deprecated
     public RedisFixedWindowCounterRateLimiter(FixedWindowCounterRateLimiterConfig fixedWindowCounterRateLimiterConfig,
                                        RedissonClient redissonClient,
                                        TransactionOptions transactionOptions){
-        super(fixedWindowCounterRateLimiterConfig);
-        this.redissonClient = redissonClient;
-        this.transactionOptions = transactionOptions;
+        this(fixedWindowCounterRateLimiterConfig, redissonClient);
     }
 
     @Override
-    public void evaluateRequest(String key) throws RateLimiterException {
-        RLock lock = redissonClient.getLock(key.replaceAll("[^\\p{L}\\p{N}]", ""));
-        lock.lock();
-
-        RTransaction transaction = redissonClient.createTransaction(transactionOptions);
-        try {
-            RBucket<WindowStatus> windowStatus = transaction.getBucket(key);
-
-            // a window for this key still does not exist
-            if (windowStatus.get() == null) {
-                windowStatus.set(WindowStatus.of(System.currentTimeMillis(), 1L));
-            }
-            // we are inside an existing window
-            else if((System.currentTimeMillis() - windowStatus.get().getTimestamp()) <= rateLimiterConfig.getWindowSizeInMilliseconds()) {
-                // the number of requests for this window has been reached
-                if ((windowStatus.get().getCounter() + 1L) > rateLimiterConfig.getNumberOfRequests()) {
-                    throw new RateLimiterException();
-                }
-                // the request is successful
-                else {
-                    windowStatus.set(windowStatus.get().incCounter());
-                }
-            }
-            // old window is expired. We can define a new window
-            else {
-                windowStatus.set(WindowStatus.of(System.currentTimeMillis(), 1L));
-            }
-
-            transaction.commit();
-        } catch(TransactionException |RateLimiterException e) {
-            transaction.rollback();
-            throw e;
-        } finally {
-            lock.unlock();
-        }
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey), scriptArguments(permits));
+        return RedisScriptDecision.of(result);
     }
 
-    @Getter
-    private static class WindowStatus {
-        private final long timestamp;
-        private long counter;
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        return script.<List<Long>>evalAsync(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                        Collections.singletonList(redisKey), scriptArguments(permits))
+                .thenApply(RedisScriptDecision::of);
+    }
 
-        private WindowStatus(long timestamp, long counter) {
-            this.timestamp = timestamp;
-            this.counter = counter;
-        }
+    @Override
+    public boolean supportsSettlement() {
+        return true;
+    }
 
-        public static WindowStatus of(long timestamp, long counter) {
-            return new WindowStatus(timestamp, counter);
-        }
+    /**
+     * Settles the permits in the current window only. The settlements are sent asynchronously in batches.
+     */
+    @Override
+    public void settle(String key, long permits) {
+        settlementBatcher.settle(keyPrefix + key, permits);
+    }
 
-        public WindowStatus incCounter() {
-            this.counter++;
-            return this;
-        }
+    private Object[] scriptArguments(long permits) {
+        return new Object[]{RedisScriptDecision.toMicros(rateLimiterConfig.getWindowSizeInNanoseconds()),
+                rateLimiterConfig.getNumberOfRequests(), permits};
     }
 }
@@ -0,0 +1,170 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.HierarchicalRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.HierarchicalRateLimiterConfig;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Each level of a path keeps its theoretical arrival time in its own key and all the levels are checked and consumed by
+ * one script, in a single round trip and without locks.
+ * The keys of a path share the outermost key as hash tag, e.g. {@code {global}}, {@code {global}/tenant} and
+ * {@code {global}/tenant/user}, so in a cluster they live in the same slot and the script can access all of them.
+ */
+public class RedisHierarchicalRateLimiter extends HierarchicalRateLimiter {
+
+    // KEYS = one key for each level, ARGV = {permits, then number of requests and window size in microseconds of each level}
+    // returns {allowed, remaining requests, microseconds to the next permit}
+    private static final String TRY_ACQUIRE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local permits = tonumber(ARGV[1])
+
+            local newArrivalTimes = {}
+            local remaining = math.huge
+            local untilNext = 0
+            for i = 1, #KEYS do
+                local numberOfRequests = tonumber(ARGV[2 * i])
+                local tolerance = tonumber(ARGV[2 * i + 1])
+                local emissionInterval = tolerance / numberOfRequests
+                local baseArrivalTime = math.max(tonumber(redis.call('GET', KEYS[i])) or now, now)
+                newArrivalTimes[i] = baseArrivalTime + emissionInterval * permits
+                -- the permits are accepted only when every level accepts them
+                untilNext = math.max(untilNext, newArrivalTimes[i] - tolerance - now)
+                remaining = math.min(remaining, math.floor(math.max(tolerance - (baseArrivalTime - now), 0) / emissionInterval))
+            end
+
+            if untilNext > 0 then
+                return {0, remaining, math.ceil(untilNext)}
+            end
+
+            remaining = math.huge
+            for i = 1, #KEYS do
+                local numberOfRequests = tonumber(ARGV[2 * i])
+                local tolerance = tonumber(ARGV[2 * i + 1])
+                local emissionInterval = tolerance / numberOfRequests
+                local levelRemaining = math.floor((tolerance - (newArrivalTimes[i] - now)) / emissionInterval)
+                if levelRemaining == 0 then
+                    untilNext = math.max(untilNext, newArrivalTimes[i] + emissionInterval - tolerance - now)
+                end
+                remaining = math.min(remaining, levelRemaining)
+                -- the key can be dropped once the arrival time is in the past: the bucket is full
+                redis.call('SET', KEYS[i], newArrivalTimes[i], 'PX', math.max(math.ceil((newArrivalTimes[i] - now) / 1000), 1))
+            end
+
+            return {1, remaining, math.ceil(untilNext)}
+            """;
+
+    // KEYS = one key for each level, ARGV = {number of requests and window size in microseconds of each level}
+    // returns {0, remaining requests, 0} without consuming anything
+    private static final String REMAINING_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local remaining = math.huge
+            for i = 1, #KEYS do
+                local tolerance = tonumber(ARGV[2 * i])
+                local emissionInterval = tolerance / tonumber(ARGV[2 * i - 1])
+                local baseArrivalTime = math.max(tonumber(redis.call('GET', KEYS[i])) or now, now)
+                remaining = math.min(remaining, math.floor(math.max(tolerance - (baseArrivalTime - now), 0) / emissionInterval))
+            end
+
+            return {0, remaining, 0}
+            """;
+
+    private final RScript script;
+    private final String keyPrefix;
+    // the permits of a request accepted by the smallest level when its bucket is full
+    private final long maximumPermits;
+
+    public RedisHierarchicalRateLimiter(HierarchicalRateLimiterConfig hierarchicalRateLimiterConfig,
+                                        RedissonClient redissonClient) {
+        this(hierarchicalRateLimiterConfig, redissonClient, "");
+    }
+
+    /**
+     * Prefixes all the Redis keys, so many rate limiters can share the same Redis client without sharing their keys.
+     * The prefix is not part of the hash tag.
+     */
+    public RedisHierarchicalRateLimiter(HierarchicalRateLimiterConfig hierarchicalRateLimiterConfig,
+                                        RedissonClient redissonClient,
+                                        String keyPrefix) {
+        super(hierarchicalRateLimiterConfig);
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+        this.maximumPermits = hierarchicalRateLimiterConfig.getLevels().stream()
+                .mapToLong(CompositeRateLimiterConfig.Limit::getNumberOfRequests)
+                .min()
+                .orElse(Long.MAX_VALUE);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(List<String> keyPath, long permits) {
+        checkPermits(permits);
+        checkKeyPath(keyPath);
+        List<Object> keys = levelKeys(keyPath);
+        // the request costs more than the smallest level: it can never be accepted, so there is no time to wait for
+        if (permits > maximumPermits) {
+            List<Long> result = script.eval(keys.get(0).toString(), RScript.Mode.READ_ONLY, REMAINING_SCRIPT,
+                    RScript.ReturnType.MULTI, keys, levelArguments().toArray());
+            return RedisScriptDecision.of(result);
+        }
+
+        List<Long> result = script.eval(keys.get(0).toString(), RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT,
+                RScript.ReturnType.MULTI, keys, scriptArguments(permits));
+        return RedisScriptDecision.of(result);
+    }
+
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        checkPermits(permits);
+        List<String> keyPath = splitKeyPath(key);
+        checkKeyPath(keyPath);
+        List<Object> keys = levelKeys(keyPath);
+        if (permits > maximumPermits) {
+            return script.<List<Long>>evalAsync(keys.get(0).toString(), RScript.Mode.READ_ONLY, REMAINING_SCRIPT,
+                            RScript.ReturnType.MULTI, keys, levelArguments().toArray())
+                    .thenApply(RedisScriptDecision::of);
+        }
+
+        return script.<List<Long>>evalAsync(keys.get(0).toString(), RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT,
+                        RScript.ReturnType.MULTI, keys, scriptArguments(permits))
+                .thenApply(RedisScriptDecision::of);
+    }
+
+    // every level is identified by the path up to it, tagged with the outermost key
+    private List<Object> levelKeys(List<String> keyPath) {
+        List<Object> keys = new ArrayList<>(keyPath.size());
+        StringBuilder levelKey = new StringBuilder(keyPrefix).append('{').append(keyPath.get(0)).append('}');
+        keys.add(levelKey.toString());
+        for (int i = 1; i < keyPath.size(); i++) {
+            keys.add(levelKey.append(KEY_PATH_SEPARATOR).append(keyPath.get(i)).toString());
+        }
+
+        return keys;
+    }
+
+    private Object[] scriptArguments(long permits) {
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(permits);
+        arguments.addAll(levelArguments());
+
+        return arguments.toArray();
+    }
+
+    private List<Object> levelArguments() {
+        List<Object> arguments = new ArrayList<>();
+        for (CompositeRateLimiterConfig.Limit level : rateLimiterConfig.getLevels()) {
+            arguments.add(level.getNumberOfRequests());
+            arguments.add(RedisScriptDecision.toMicros(level.getWindowSizeInNanoseconds()));
+        }
+
+        return arguments;
+    }
+}
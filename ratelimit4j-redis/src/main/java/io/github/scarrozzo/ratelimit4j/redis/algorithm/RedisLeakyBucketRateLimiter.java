@@ -1,101 +1,140 @@
 package io.github.scarrozzo.ratelimit4j.redis.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.core.algorithm.LeakyBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
-import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
-import org.redisson.api.*;
-import org.redisson.transaction.TransactionException;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.TransactionOptions;
+import org.redisson.client.codec.StringCodec;
 
-import java.time.Duration;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 public class RedisLeakyBucketRateLimiter extends LeakyBucketRateLimiter {
-    private final RedissonClient redissonClient;
-    private final TransactionOptions transactionOptions;
-    private final ConcurrentHashMap<String, TimerTask> timerTasks;
+
+    // KEYS[1] = bucket key,
+    // ARGV = {bucket size, outflow rate number of requests, outflow rate period in microseconds, clear queue after inactivity in microseconds, permits,
+    //         max wait in microseconds}
+    // returns {allowed, remaining size, microseconds to the next free place, microseconds to wait for the permits}
+    private static final String TRY_ACQUIRE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local bucketSize = tonumber(ARGV[1])
+            local outflowRateNumReq = tonumber(ARGV[2])
+            local outflowRatePeriod = tonumber(ARGV[3])
+            local permits = tonumber(ARGV[5])
+            local bucket = redis.call('HMGET', KEYS[1], 'availableSize', 'lastOutflow')
+            local availableSize = tonumber(bucket[1])
+            local lastOutflow = tonumber(bucket[2])
+
+            if availableSize == nil then
+                availableSize = bucketSize
+                lastOutflow = now
+            else
+                -- remove from the queue the requests leaked out since the last outflow
+                local outflowPeriods = math.floor((now - lastOutflow) / outflowRatePeriod)
+                if outflowPeriods > 0 then
+                    availableSize = math.min(availableSize + outflowPeriods * outflowRateNumReq, bucketSize)
+                    lastOutflow = lastOutflow + outflowPeriods * outflowRatePeriod
+                end
+            end
+
+            local wait = 0
+            if availableSize < permits then
+                local missingPeriods = math.ceil((permits - availableSize) / outflowRateNumReq)
+                wait = lastOutflow + missingPeriods * outflowRatePeriod - now
+            end
+
+            if permits > bucketSize or wait > tonumber(ARGV[6]) then
+                return {0, math.max(availableSize, 0), wait, -1}
+            end
+
+            -- the available size can go below zero: the reserved places are released by the next outflows
+            availableSize = availableSize - permits
+            redis.call('HSET', KEYS[1], 'availableSize', availableSize, 'lastOutflow', lastOutflow)
+            -- the key is kept for the inactivity period and until the bucket is empty again, a missing key has an empty bucket
+            local emptyPeriods = math.ceil((bucketSize - availableSize) / outflowRateNumReq)
+            local untilEmpty = lastOutflow + emptyPeriods * outflowRatePeriod - now
+            redis.call('PEXPIRE', KEYS[1], math.ceil(math.max(tonumber(ARGV[4]), untilEmpty) / 1000))
+
+            if availableSize > 0 then
+                return {1, availableSize, 0, wait}
+            end
+            local nextPlacePeriods = math.floor(-availableSize / outflowRateNumReq) + 1
+            return {1, 0, lastOutflow + nextPlacePeriods * outflowRatePeriod - now, wait}
+            """;
+
+    private final RScript script;
+    private final String keyPrefix;
 
+    public RedisLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig leakyBucketRateLimiterConfig,
+                                       RedissonClient redissonClient){
+        this(leakyBucketRateLimiterConfig, redissonClient, "");
+    }
+
+    /**
+     * Prefixes all the Redis keys, so many rate limiters can share the same Redis client without sharing their keys.
+     */
     public RedisLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig leakyBucketRateLimiterConfig,
                                        RedissonClient redissonClient,
-                                       TransactionOptions transactionOptions){
+                                       String keyPrefix){
         super(leakyBucketRateLimiterConfig);
-        this.redissonClient = redissonClient;
-        this.transactionOptions = transactionOptions;
-        this.timerTasks = new ConcurrentHashMap<>();
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * @deprecated the bucket is updated by a single atomic script, transaction options are no longer used.
+     */
+    @Deprecated
+    public RedisLeakyBucketRateLimiter(LeakyBucketRateLimiterConfig leakyBucketRateLimiterConfig,
+                                       RedissonClient redissonClient,
+                                       TransactionOptions transactionOptions){
+        this(leakyBucketRateLimiterConfig, redissonClient);
     }
 
     @Override
-    public void evaluateRequest(String key) throws RateLimiterException {
-        RLock lock = redissonClient.getLock(key.replaceAll("[^\\p{L}\\p{N}]", ""));
-        lock.lock();
-
-        RTransaction transaction = redissonClient.createTransaction(transactionOptions);
-        try {
-            RBucket<Long> bucketAvailableSize = transaction.getBucket(key);
-
-            if(bucketAvailableSize.get() == null){
-                bucketAvailableSize.set(rateLimiterConfig.getBucketSize()-1L,
-                        Duration.ofMillis(rateLimiterConfig.getClearQueueAfterInactivityInMilliseconds()));
-            } else if(bucketAvailableSize.get() == 0L){
-                throw new RateLimiterException();
-            } else {
-                bucketAvailableSize.set(bucketAvailableSize.get()-1L,
-                        Duration.ofMillis(rateLimiterConfig.getClearQueueAfterInactivityInMilliseconds()));
-            }
-
-            transaction.commit();
-
-            timerTasks.computeIfAbsent(key, mapKey -> {
-                TimerTask timerTask = new ScheduleOutflowTask(key);
-                new Timer().scheduleAtFixedRate(timerTask,
-                        rateLimiterConfig.getOutflowRatePeriodInMilliseconds(),
-                        rateLimiterConfig.getOutflowRatePeriodInMilliseconds());
-                return timerTask;
-            });
-        } catch(TransactionException|RateLimiterException e) {
-            transaction.rollback();
-            throw e;
-        } finally {
-            lock.unlock();
-        }
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey), scriptArguments(permits));
+        return RedisScriptDecision.of(result);
+    }
+
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        return script.<List<Long>>evalAsync(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                        Collections.singletonList(redisKey), scriptArguments(permits))
+                .thenApply(RedisScriptDecision::of);
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey), scriptArguments(permits, TimeUnit.NANOSECONDS.toMicros(timeoutNanos)));
+        return RedisScriptDecision.nanosToWait(result);
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    private Object[] scriptArguments(long permits) {
+        return scriptArguments(permits, 0L);
     }
 
-    private class ScheduleOutflowTask extends TimerTask {
-        private final String key;
-        private long lastUpdate;
-
-        public ScheduleOutflowTask(String key) {
-            this.key = key;
-            this.lastUpdate = System.currentTimeMillis();
-        }
-
-        @Override
-        public void run() {
-            RLock lock = redissonClient.getLock(key.replaceAll("[^\\p{L}\\p{N}]", ""));
-            lock.lock();
-
-            RTransaction transaction = redissonClient.createTransaction(transactionOptions);
-            try{
-                RBucket<Long> bucketAvailableSize = transaction.getBucket(key);
-                if(bucketAvailableSize.get() != null && bucketAvailableSize.get() < rateLimiterConfig.getBucketSize()) {
-                    // queue is not empty, remove requests from queue
-                    lastUpdate = System.currentTimeMillis();
-                    bucketAvailableSize.set(Math.min(bucketAvailableSize.get() + rateLimiterConfig.getOutflowRateNumReq(), rateLimiterConfig.getBucketSize()));
-                } else if(bucketAvailableSize.get() == null || (System.currentTimeMillis() - lastUpdate) >= rateLimiterConfig.getClearQueueAfterInactivityInMilliseconds()) {
-                    // cache key is not present. Turn off the timer task
-                    // or queue is empty and not used for more than ClearQueueAfterInactivityInMilliseconds, we can turn off the timer task to free resources
-                    cancel();
-                    timerTasks.remove(key);
-                }
-
-                transaction.commit();
-            } catch(TransactionException|RateLimiterException e) {
-                transaction.rollback();
-                throw e;
-            } finally {
-                lock.unlock();
-            }
-        }
+    private Object[] scriptArguments(long permits, long maxWaitInMicroseconds) {
+        return new Object[]{rateLimiterConfig.getBucketSize(), rateLimiterConfig.getOutflowRateNumReq(),
+                RedisScriptDecision.toMicros(rateLimiterConfig.getOutflowRatePeriodInNanoseconds()),
+                RedisScriptDecision.toMicros(rateLimiterConfig.getClearQueueAfterInactivityInNanoseconds()), permits, maxWaitInMicroseconds};
     }
 }
@@ -0,0 +1,32 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+final class RedisScriptDecision {
+
+    private RedisScriptDecision() {
+    }
+
+    // the rate limiter scripts return {allowed (1 or 0), remaining permits, microseconds to the next permit}
+    static RateLimiterDecision of(List<Long> result) {
+        long remainingPermits = result.get(1);
+        long nanosToNextPermit = TimeUnit.MICROSECONDS.toNanos(result.get(2));
+
+        return result.get(0) == 1L
+                ? RateLimiterDecision.allowed(remainingPermits, nanosToNextPermit)
+                : RateLimiterDecision.rejected(remainingPermits, nanosToNextPermit);
+    }
+
+    // the reservation scripts also return the microseconds to wait for the reserved permits
+    static long nanosToWait(List<Long> result) {
+        return result.get(0) == 1L ? TimeUnit.MICROSECONDS.toNanos(result.get(3)) : -1L;
+    }
+
+    // Redis TIME has microsecond resolution, shorter periods are rounded up to one microsecond
+    static long toMicros(long nanos) {
+        return Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1L);
+    }
+}
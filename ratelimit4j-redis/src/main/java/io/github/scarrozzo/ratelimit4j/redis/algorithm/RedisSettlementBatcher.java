@@ -0,0 +1,68 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+/**
+ * Accumulates the settlements of each key and sends them in a single batch, off the calling thread. A batch is sent as
+ * soon as the previous one completes, so the settlements made meanwhile are merged by key and sent together, without
+ * a timer and without adding latency when the load is low. Settlements are best effort: a failed batch is dropped.
+ */
+final class RedisSettlementBatcher {
+
+    private final RedissonClient redissonClient;
+    private final String script;
+    private final LongFunction<Object[]> scriptArguments;
+    private final Map<String, Long> pendingPermits = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    RedisSettlementBatcher(RedissonClient redissonClient, String script, LongFunction<Object[]> scriptArguments) {
+        this.redissonClient = redissonClient;
+        this.script = script;
+        this.scriptArguments = scriptArguments;
+    }
+
+    void settle(String redisKey, long permits) {
+        pendingPermits.merge(redisKey, permits, Long::sum);
+        flushIfIdle();
+    }
+
+    private void flushIfIdle() {
+        while (!pendingPermits.isEmpty() && flushing.compareAndSet(false, true)) {
+            RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+            RScriptAsync batchScript = batch.getScript(StringCodec.INSTANCE);
+            int settlements = 0;
+
+            for (String redisKey : pendingPermits.keySet()) {
+                Long permits = pendingPermits.remove(redisKey);
+                if (permits != null && permits != 0L) {
+                    batchScript.evalAsync(redisKey, RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER,
+                            Collections.singletonList(redisKey), scriptArguments.apply(permits));
+                    settlements++;
+                }
+            }
+
+            if (settlements > 0) {
+                // the settlements merged while this batch is in flight are sent by the next one
+                batch.executeAsync().whenComplete((result, error) -> {
+                    flushing.set(false);
+                    flushIfIdle();
+                });
+                return;
+            }
+
+            flushing.set(false);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.SlidingWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+public class RedisSlidingWindowCounterRateLimiter extends SlidingWindowCounterRateLimiter {
+
+    // KEYS[1] = window key, ARGV = {window size in microseconds, number of requests, permits}
+    // returns {allowed, remaining requests, microseconds to the next permit}
+    private static final String TRY_ACQUIRE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local windowSize = tonumber(ARGV[1])
+            local numberOfRequests = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+            -- windows are aligned, so all the keys move to a new window at the same time
+            local windowStart = now - (now % windowSize)
+            local elapsed = now - windowStart
+            local window = redis.call('HMGET', KEYS[1], 'windowStart', 'previous', 'current')
+            local previous = tonumber(window[2]) or 0
+            local current = tonumber(window[3]) or 0
+
+            if tonumber(window[1]) ~= windowStart then
+                -- the previous window is only counted if it is adjacent to the new one
+                if tonumber(window[1]) ~= windowStart - windowSize then
+                    current = 0
+                end
+                previous = current
+                current = 0
+            end
+
+            local function untilAllowed(requested)
+                if requested > numberOfRequests then
+                    return windowSize - elapsed
+                end
+                -- within the current window only the weight of the previous one decreases
+                if current + requested <= numberOfRequests then
+                    if previous == 0 then
+                        return 0
+                    end
+                    local allowedAt = windowSize * (1 - (numberOfRequests - requested - current) / previous)
+                    return math.max(math.ceil(allowedAt) - elapsed, 0)
+                end
+                -- the current window becomes the previous one
+                return windowSize - elapsed + math.ceil(windowSize * (1 - (numberOfRequests - requested) / current))
+            end
+
+            local estimate = previous * (windowSize - elapsed) / windowSize + current
+            if estimate + permits > numberOfRequests then
+                return {0, math.max(math.floor(numberOfRequests - estimate), 0), untilAllowed(permits)}
+            end
+
+            current = current + permits
+            redis.call('HSET', KEYS[1], 'windowStart', windowStart, 'previous', previous, 'current', current)
+            -- the counter of a window is used until the end of the following one
+            redis.call('PEXPIRE', KEYS[1], math.ceil(2 * windowSize / 1000))
+
+            local remaining = math.max(math.floor(numberOfRequests - estimate - permits), 0)
+            if remaining > 0 then
+                return {1, remaining, 0}
+            end
+            return {1, 0, untilAllowed(1)}
+            """;
+
+    private final RScript script;
+    private final String keyPrefix;
+
+    public RedisSlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig,
+                                                RedissonClient redissonClient) {
+        this(slidingWindowCounterRateLimiterConfig, redissonClient, "");
+    }
+
+    /**
+     * Prefixes all the Redis keys, so many rate limiters can share the same Redis client without sharing their keys.
+     */
+    public RedisSlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiterConfig slidingWindowCounterRateLimiterConfig,
+                                                RedissonClient redissonClient,
+                                                String keyPrefix) {
+        super(slidingWindowCounterRateLimiterConfig);
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey), scriptArguments(permits));
+        return RedisScriptDecision.of(result);
+    }
+
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        return script.<List<Long>>evalAsync(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                        Collections.singletonList(redisKey), scriptArguments(permits))
+                .thenApply(RedisScriptDecision::of);
+    }
+
+    private Object[] scriptArguments(long permits) {
+        return new Object[]{RedisScriptDecision.toMicros(rateLimiterConfig.getWindowSizeInNanoseconds()),
+                rateLimiterConfig.getNumberOfRequests(), permits};
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.SlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The accepted requests of a key are kept in a sorted set scored by their timestamp. The expired requests are trimmed
+ * and the new ones are added by the same script, so each evaluation is a single round trip.
+ */
+public class RedisSlidingWindowLogRateLimiter extends SlidingWindowLogRateLimiter {
+
+    // KEYS[1] = log key, ARGV = {window size in microseconds, number of requests, permits}
+    // returns {allowed, remaining requests, microseconds to the next permit}
+    private static final String TRY_ACQUIRE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local windowSize = tonumber(ARGV[1])
+            local numberOfRequests = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - windowSize)
+            local count = redis.call('ZCARD', KEYS[1])
+
+            -- the request at the given index leaves the window one window size after it has been accepted
+            local function untilLeaves(index)
+                local request = redis.call('ZRANGE', KEYS[1], index, index, 'WITHSCORES')
+                return tonumber(request[2]) + windowSize - now
+            end
+
+            if count + permits > numberOfRequests then
+                if permits > numberOfRequests then
+                    return {0, numberOfRequests - count, windowSize}
+                end
+                -- the oldest requests have to leave the window to make room for the new ones
+                return {0, numberOfRequests - count, untilLeaves(count + permits - numberOfRequests - 1)}
+            end
+
+            -- members only have to be unique among the requests accepted in the same microsecond. The timestamp is
+            -- formatted as an integer: the concatenation of a number keeps only 14 significant digits
+            local members = {}
+            for i = 1, permits do
+                members[#members + 1] = now
+                members[#members + 1] = string.format('%d-%d', now, count + i)
+                if #members >= 1000 or i == permits then
+                    redis.call('ZADD', KEYS[1], unpack(members))
+                    members = {}
+                end
+            end
+            -- all the requests of a log are expired one window after the last one
+            redis.call('PEXPIRE', KEYS[1], math.ceil(windowSize / 1000))
+
+            local remaining = numberOfRequests - count - permits
+            if remaining > 0 then
+                return {1, remaining, 0}
+            end
+            return {1, 0, untilLeaves(0)}
+            """;
+
+    private final RScript script;
+    private final String keyPrefix;
+
+    public RedisSlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig,
+                                            RedissonClient redissonClient) {
+        this(slidingWindowLogRateLimiterConfig, redissonClient, "");
+    }
+
+    /**
+     * Prefixes all the Redis keys, so many rate limiters can share the same Redis client without sharing their keys.
+     */
+    public RedisSlidingWindowLogRateLimiter(SlidingWindowLogRateLimiterConfig slidingWindowLogRateLimiterConfig,
+                                            RedissonClient redissonClient,
+                                            String keyPrefix) {
+        super(slidingWindowLogRateLimiterConfig);
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey), scriptArguments(permits));
+        return RedisScriptDecision.of(result);
+    }
+
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        return script.<List<Long>>evalAsync(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                        Collections.singletonList(redisKey), scriptArguments(permits))
+                .thenApply(RedisScriptDecision::of);
+    }
+
+    private Object[] scriptArguments(long permits) {
+        return new Object[]{RedisScriptDecision.toMicros(rateLimiterConfig.getWindowSizeInNanoseconds()),
+                rateLimiterConfig.getNumberOfRequests(), permits};
+    }
+}
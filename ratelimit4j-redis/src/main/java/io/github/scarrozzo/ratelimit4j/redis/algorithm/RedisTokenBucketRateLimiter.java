@@ -1,49 +1,252 @@
 package io.github.scarrozzo.ratelimit4j.redis.algorithm;
 
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
 import io.github.scarrozzo.ratelimit4j.core.algorithm.TokenBucketRateLimiter;
 import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
-import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
-import org.redisson.api.*;
-import org.redisson.transaction.TransactionException;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.TransactionOptions;
+import org.redisson.client.codec.StringCodec;
 
-import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 public class RedisTokenBucketRateLimiter extends TokenBucketRateLimiter {
-    private final RedissonClient redissonClient;
-    private final TransactionOptions transactionOptions;
+
+    // KEYS[1] = bucket key, ARGV = {bucket size, refill period in microseconds, permits, max wait in microseconds,
+    // refill tokens, 1 for continuous refills, tokens reserved to the higher priorities}
+    // returns {allowed, remaining tokens, microseconds to the next free token, microseconds to wait for the permits}
+    private static final String TRY_ACQUIRE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local bucketSize = tonumber(ARGV[1])
+            local refillPeriod = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+            local refillTokens = tonumber(ARGV[5])
+            local continuous = ARGV[6] == '1'
+            local reserved = tonumber(ARGV[7])
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'refillTime')
+            local tokens = tonumber(bucket[1])
+            -- the end of the current period for interval refills, the time of the last refill for continuous ones
+            local refillTime = tonumber(bucket[2])
+
+            -- the refill is computed from the elapsed time, reserved tokens are paid back before the bucket is refilled
+            if tokens ~= nil then
+                if continuous then
+                    local earned = math.floor(math.max(now - refillTime, 0) * refillTokens / refillPeriod)
+                    if earned >= bucketSize - tokens then
+                        tokens = nil
+                    else
+                        -- the time of a partially earned token is carried over to the next refill
+                        tokens = tokens + earned
+                        refillTime = refillTime + math.floor(earned * refillPeriod / refillTokens)
+                    end
+                elseif now >= refillTime then
+                    local periods = math.floor((now - refillTime) / refillPeriod) + 1
+                    if periods >= math.ceil((bucketSize - tokens) / refillTokens) then
+                        tokens = nil
+                    else
+                        tokens = tokens + periods * refillTokens
+                        refillTime = refillTime + periods * refillPeriod
+                    end
+                end
+            end
+
+            local function untilTokens(target)
+                if tokens >= target then
+                    return 0
+                end
+                if continuous then
+                    return math.max(refillTime - now + math.ceil((target - tokens) * refillPeriod / refillTokens), 0)
+                end
+                return refillTime - now + (math.ceil((target - tokens) / refillTokens) - 1) * refillPeriod
+            end
+
+            -- the reserved tokens must be left in the bucket and are not counted in the remaining ones
+            local exceedsBucket = permits > bucketSize - reserved
+            local wait = 0
+            if tokens ~= nil then
+                wait = untilTokens(exceedsBucket and permits or permits + reserved)
+            end
+
+            if exceedsBucket or wait > tonumber(ARGV[4]) then
+                return {0, math.max((tokens or bucketSize) - reserved, 0), wait, -1}
+            end
+
+            if tokens == nil then
+                tokens = bucketSize
+                refillTime = continuous and now or now + refillPeriod
+            end
+
+            -- the tokens can go below zero: the debt is paid by the next refills
+            tokens = tokens - permits
+            redis.call('HSET', KEYS[1], 'tokens', tokens, 'refillTime', refillTime)
+            -- keep the bucket until it has been refilled, reserved tokens included
+            redis.call('PEXPIRE', KEYS[1], math.max(math.ceil(untilTokens(bucketSize) / 1000), 1))
+
+            return {1, math.max(tokens - reserved, 0), untilTokens(reserved + 1), wait}
+            """;
+
+    // KEYS[1] = bucket key, ARGV = {bucket size, refill period in microseconds, refill tokens, 1 for continuous refills,
+    // permits to charge, negative to refund}
+    private static final String SETTLE_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local bucketSize = tonumber(ARGV[1])
+            local refillPeriod = tonumber(ARGV[2])
+            local refillTokens = tonumber(ARGV[3])
+            local continuous = ARGV[4] == '1'
+            local permits = tonumber(ARGV[5])
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'refillTime')
+            local tokens = tonumber(bucket[1])
+            local refillTime = tonumber(bucket[2])
+
+            -- a missing bucket is full, there is nothing to refund
+            if tokens == nil then
+                if permits <= 0 then
+                    return 0
+                end
+                tokens = bucketSize
+                refillTime = continuous and now or now + refillPeriod
+            end
+
+            -- the refill is lazy, the tokens earned since the refill time are added by the next request
+            tokens = math.min(tokens - permits, bucketSize)
+            if tokens >= bucketSize then
+                redis.call('DEL', KEYS[1])
+                return 1
+            end
+
+            local untilFull
+            if continuous then
+                untilFull = refillTime - now + math.ceil((bucketSize - tokens) * refillPeriod / refillTokens)
+            else
+                untilFull = refillTime - now + (math.ceil((bucketSize - tokens) / refillTokens) - 1) * refillPeriod
+            end
+
+            redis.call('HSET', KEYS[1], 'tokens', tokens, 'refillTime', refillTime)
+            redis.call('PEXPIRE', KEYS[1], math.max(math.ceil(untilFull / 1000), 1))
+            return 1
+            """;
+
+    private final RScript script;
+    private final String keyPrefix;
+    private final RedisSettlementBatcher settlementBatcher;
 
+    public RedisTokenBucketRateLimiter(TokenBucketRateLimiterConfig tokenBucketRateLimiterConfig,
+                                       RedissonClient redissonClient){
+        this(tokenBucketRateLimiterConfig, redissonClient, "");
+    }
+
+    /**
+     * Prefixes all the Redis keys, so many rate limiters can share the same Redis client without sharing their keys.
+     */
     public RedisTokenBucketRateLimiter(TokenBucketRateLimiterConfig tokenBucketRateLimiterConfig,
                                        RedissonClient redissonClient,
-                                       TransactionOptions transactionOptions){
+                                       String keyPrefix){
         super(tokenBucketRateLimiterConfig);
-        this.redissonClient = redissonClient;
-        this.transactionOptions = transactionOptions;
-    }
-
-    @Override
-    public void evaluateRequest(String key) throws RateLimiterException {
-        RLock lock = redissonClient.getLock(key.replaceAll("[^\\p{L}\\p{N}]", ""));
-        lock.lock();
-
-        RTransaction transaction = redissonClient.createTransaction(transactionOptions);
-        try {
-            RBucket<Long> tokenCount = transaction.getBucket(key);
-
-            if(tokenCount.get() == null){
-                tokenCount.set(rateLimiterConfig.getBucketSize()-1L,
-                        Duration.ofMillis(rateLimiterConfig.getRefillPeriodInMilliSeconds()));
-            } else if(tokenCount.get() == 0L){
-                throw new RateLimiterException();
-            } else {
-                tokenCount.setAndKeepTTL(tokenCount.get()-1L);
-            }
-
-            transaction.commit();
-        } catch(TransactionException|RateLimiterException e) {
-            transaction.rollback();
-            throw e;
-        } finally {
-            lock.unlock();
-        }
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+        this.settlementBatcher = new RedisSettlementBatcher(redissonClient, SETTLE_SCRIPT, this::settleArguments);
+    }
+
+    /**
+     * @deprecated the bucket is updated by a single atomic script, transaction options are no longer used.
+     */
+    @Deprecated
+    public RedisTokenBucketRateLimiter(TokenBucketRateLimiterConfig tokenBucketRateLimiterConfig,
+                                       RedissonClient redissonClient,
+                                       TransactionOptions transactionOptions){
+        this(tokenBucketRateLimiterConfig, redissonClient);
+    }
+
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey), scriptArguments(permits));
+        return RedisScriptDecision.of(result);
+    }
+
+    @Override
+    public boolean supportsPriorities() {
+        return true;
+    }
+
+    /**
+     * The tokens reserved to the higher priorities are a fraction of the bucket size: a request is accepted only if
+     * they are still in the bucket after it.
+     */
+    @Override
+    public RateLimiterDecision tryAcquire(String key, long permits, RequestPriority priority) {
+        checkPriority(priority);
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey),
+                scriptArguments(permits, 0L, priority.reservedPermits(rateLimiterConfig.getBucketSize())));
+        return RedisScriptDecision.of(result);
+    }
+
+    @Override
+    public CompletionStage<RateLimiterDecision> evaluateRequestAsync(String key, long permits) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        return script.<List<Long>>evalAsync(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                        Collections.singletonList(redisKey), scriptArguments(permits))
+                .thenApply(RedisScriptDecision::of);
+    }
+
+    @Override
+    public long tryReserve(String key, long permits, long timeoutNanos) {
+        checkPermits(permits);
+        String redisKey = keyPrefix + key;
+        List<Long> result = script.eval(redisKey, RScript.Mode.READ_WRITE, TRY_ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                Collections.singletonList(redisKey), scriptArguments(permits, TimeUnit.NANOSECONDS.toMicros(timeoutNanos)));
+        return RedisScriptDecision.nanosToWait(result);
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsSettlement() {
+        return true;
+    }
+
+    /**
+     * Charged tokens can take the bucket below zero, refunded ones cannot fill it beyond its size. The settlements are
+     * sent asynchronously in batches.
+     */
+    @Override
+    public void settle(String key, long permits) {
+        settlementBatcher.settle(keyPrefix + key, permits);
+    }
+
+    private Object[] settleArguments(long permits) {
+        return new Object[]{rateLimiterConfig.getBucketSize(), RedisScriptDecision.toMicros(rateLimiterConfig.getRefillPeriodInNanoseconds()),
+                rateLimiterConfig.getRefillTokens(), rateLimiterConfig.getRefillStrategy() == TokenBucketRefillStrategy.CONTINUOUS ? 1 : 0,
+                permits};
+    }
+
+    private Object[] scriptArguments(long permits) {
+        return scriptArguments(permits, 0L);
+    }
+
+    private Object[] scriptArguments(long permits, long maxWaitInMicroseconds) {
+        return scriptArguments(permits, maxWaitInMicroseconds, 0L);
+    }
+
+    private Object[] scriptArguments(long permits, long maxWaitInMicroseconds, long reservedTokens) {
+        return new Object[]{rateLimiterConfig.getBucketSize(), RedisScriptDecision.toMicros(rateLimiterConfig.getRefillPeriodInNanoseconds()),
+                permits, maxWaitInMicroseconds, rateLimiterConfig.getRefillTokens(),
+                rateLimiterConfig.getRefillStrategy() == TokenBucketRefillStrategy.CONTINUOUS ? 1 : 0, reservedTokens};
     }
 }
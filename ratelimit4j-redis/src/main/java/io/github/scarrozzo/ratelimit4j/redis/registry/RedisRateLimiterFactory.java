@@ -0,0 +1,62 @@
+package io.github.scarrozzo.ratelimit4j.redis.registry;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.HierarchicalRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.RateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.registry.RateLimiterFactory;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisCompositeRateLimiter;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisFixedWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisHierarchicalRateLimiter;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisLeakyBucketRateLimiter;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisSlidingWindowCounterRateLimiter;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisSlidingWindowLogRateLimiter;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisTokenBucketRateLimiter;
+import org.redisson.api.RedissonClient;
+
+/**
+ * Creates Redis rate limiters that share the same Redis client. The keys of each limiter are prefixed with its name,
+ * e.g. {@code policy:127.0.0.1}.
+ */
+public class RedisRateLimiterFactory implements RateLimiterFactory {
+
+    public static final String KEY_PREFIX_SEPARATOR = ":";
+
+    private final RedissonClient redissonClient;
+
+    public RedisRateLimiterFactory(RedissonClient redissonClient) {
+        if (redissonClient == null) {
+            throw new RateLimiterConfigException("Redisson client cannot be null");
+        }
+
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    public RateLimiter<?> create(String name, RateLimiterConfig rateLimiterConfig) {
+        String keyPrefix = name + KEY_PREFIX_SEPARATOR;
+        return switch (rateLimiterConfig.getRateLimiterType()) {
+            case TOKEN_BUCKET ->
+                    new RedisTokenBucketRateLimiter((TokenBucketRateLimiterConfig) rateLimiterConfig, redissonClient, keyPrefix);
+            case LEAKY_BUCKET ->
+                    new RedisLeakyBucketRateLimiter((LeakyBucketRateLimiterConfig) rateLimiterConfig, redissonClient, keyPrefix);
+            case FIXED_WINDOW_COUNTER ->
+                    new RedisFixedWindowCounterRateLimiter((FixedWindowCounterRateLimiterConfig) rateLimiterConfig, redissonClient, keyPrefix);
+            case SLIDING_WINDOW_COUNTER ->
+                    new RedisSlidingWindowCounterRateLimiter((SlidingWindowCounterRateLimiterConfig) rateLimiterConfig, redissonClient, keyPrefix);
+            case SLIDING_WINDOW_LOG ->
+                    new RedisSlidingWindowLogRateLimiter((SlidingWindowLogRateLimiterConfig) rateLimiterConfig, redissonClient, keyPrefix);
+            case COMPOSITE ->
+                    new RedisCompositeRateLimiter((CompositeRateLimiterConfig) rateLimiterConfig, redissonClient, keyPrefix);
+            case HIERARCHICAL ->
+                    new RedisHierarchicalRateLimiter((HierarchicalRateLimiterConfig) rateLimiterConfig, redissonClient, keyPrefix);
+            default -> throw new RateLimiterConfigException(rateLimiterConfig.getRateLimiterType() + " rate limiter is not supported by Redis");
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import org.junit.jupiter.api.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisClient;
+import org.redisson.client.RedisClientConfig;
+import org.redisson.config.Config;
+import org.redisson.config.Protocol;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@Testcontainers
+class RedisCompositeRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>("redis:7.2")
+                    .withExposedPorts(6379);
+    private static RedisClient redisClient;
+    private static RedissonClient redissonClient;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        RedisClientConfig config = new RedisClientConfig();
+        config.setProtocol(Protocol.RESP3);
+        config.setAddress("redis://127.0.0.1:" + REDIS.getFirstMappedPort());
+        redisClient = RedisClient.create(config);
+        redissonClient = Redisson.create(Config.fromYAML("""
+                        singleServerConfig:
+                            address: "redis://127.0.0.1:%s"
+                        """.formatted(REDIS.getFirstMappedPort())));
+    }
+
+    @BeforeEach
+    public void beforeEach(){
+        redissonClient.getBucket(IP_ADDRESS_KEY).delete();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        redisClient.shutdown();
+    }
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new RedisCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(1L, 500L), CompositeRateLimiterConfig.Limit.of(10L, 60_000L)),
+                redissonClient);
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new RedisCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(10L, 1_000L), CompositeRateLimiterConfig.Limit.of(2L, 60_000L)),
+                redissonClient);
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+
+        // one request is earned every 30 seconds
+        RateLimiterDecision decision = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertTrue(decision.getNanosToNextPermit() > TimeUnit.SECONDS.toNanos(29L));
+        Assertions.assertTrue(decision.getNanosToNextPermit() <= TimeUnit.SECONDS.toNanos(30L));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTheOtherLimits() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new RedisCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(5L, 3_600_000L), CompositeRateLimiterConfig.Limit.of(3L, 86_400_000L)),
+                redissonClient);
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 4L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(3L, rejected.getRemainingPermits());
+
+        RateLimiterDecision allowed = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(allowed.isAllowed());
+        Assertions.assertEquals(0L, allowed.getRemainingPermits());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void requestsLargerThanTheSmallestLimitAreRejected() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new RedisCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(10L, 3_600_000L), CompositeRateLimiterConfig.Limit.of(100L, 86_400_000L)),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 4L).isAllowed());
+
+        // no wait would let the request in
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 11L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(6L, rejected.getRemainingPermits());
+        Assertions.assertEquals(0L, rejected.getNanosToNextPermit());
+
+        rejected = rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY, 100_000_000L).toCompletableFuture().join();
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(6L, rejected.getRemainingPermits());
+        Assertions.assertEquals(0L, rejected.getNanosToNextPermit());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 6L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
+
+    @Test
+    void verifyManyRequestsLimitError() {
+        long numberOfRequests = 1_000L;
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new RedisCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(numberOfRequests, 3_600_000L), CompositeRateLimiterConfig.Limit.of(numberOfRequests * 2L, 86_400_000L)),
+                redissonClient);
+
+        long allowed = IntStream.range(0, (int) numberOfRequests + 100).parallel()
+                .filter(value -> rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed())
+                .count();
+
+        Assertions.assertEquals(numberOfRequests, allowed);
+    }
+
+    @Test
+    void evaluateRequestAsyncCompletesWithDecision() {
+        final RateLimiter<CompositeRateLimiterConfig> rateLimiter = new RedisCompositeRateLimiter(new CompositeRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(1L, 3_600_000L)),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+        Assertions.assertFalse(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiter;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.ConcurrencyLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.concurrency.Lease;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import org.junit.jupiter.api.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisClient;
+import org.redisson.client.RedisClientConfig;
+import org.redisson.config.Config;
+import org.redisson.config.Protocol;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+@Testcontainers
+class RedisConcurrencyLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>("redis:7.2")
+                    .withExposedPorts(6379);
+    private static RedisClient redisClient;
+    private static RedissonClient redissonClient;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        RedisClientConfig config = new RedisClientConfig();
+        config.setProtocol(Protocol.RESP3);
+        config.setAddress("redis://127.0.0.1:" + REDIS.getFirstMappedPort());
+        redisClient = RedisClient.create(config);
+        redissonClient = Redisson.create(Config.fromYAML("""
+                        singleServerConfig:
+                            address: "redis://127.0.0.1:%s"
+                        """.formatted(REDIS.getFirstMappedPort())));
+    }
+
+    @BeforeEach
+    public void beforeEach(){
+        redissonClient.getBucket(IP_ADDRESS_KEY).delete();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        redisClient.shutdown();
+    }
+
+    @Test
+    void requestsInFlightAreLimited() {
+        final ConcurrencyLimiter limiter = new RedisConcurrencyLimiter(new ConcurrencyLimiterConfig(2L, 60_000L), redissonClient);
+
+        Lease first = limiter.acquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isPresent());
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isEmpty());
+        Assertions.assertThrows(RateLimiterException.class, () -> limiter.acquire(IP_ADDRESS_KEY));
+
+        first.release();
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isPresent());
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isEmpty());
+    }
+
+    @Test
+    void leasesNotReleasedExpire() throws InterruptedException {
+        final ConcurrencyLimiter limiter = new RedisConcurrencyLimiter(new ConcurrencyLimiterConfig(1L, 200L), redissonClient);
+
+        // the lease of a crashed node is never released
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isPresent());
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isEmpty());
+
+        Thread.sleep(300L);
+        Assertions.assertTrue(limiter.tryAcquire(IP_ADDRESS_KEY).isPresent());
+    }
+
+    @Test
+    void verifyManyConcurrentRequests() {
+        long maxInFlight = 10L;
+        final ConcurrencyLimiter limiter = new RedisConcurrencyLimiter(new ConcurrencyLimiterConfig(maxInFlight, 60_000L),
+                redissonClient, "concurrency:");
+
+        long acquired = IntStream.range(0, 100).parallel()
+                .mapToObj(i -> limiter.tryAcquire(IP_ADDRESS_KEY))
+                .filter(Optional::isPresent)
+                .count();
+
+        Assertions.assertEquals(maxInFlight, acquired);
+        Assertions.assertEquals(maxInFlight, redissonClient.getScoredSortedSet("concurrency:" + IP_ADDRESS_KEY).size());
+        redissonClient.getKeys().delete("concurrency:" + IP_ADDRESS_KEY);
+    }
+}
@@ -1,13 +1,13 @@
 package io.github.scarrozzo.ratelimit4j.redis.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.*;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
-import org.redisson.api.TransactionOptions;
 import org.redisson.client.RedisClient;
 import org.redisson.client.RedisClientConfig;
 import org.redisson.config.Config;
@@ -18,6 +18,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 @Testcontainers
@@ -58,7 +59,7 @@ class RedisFixedWindowCounterRateLimiterTest {
     void evaluateRequestWithSuccess() {
         final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
                 new FixedWindowCounterRateLimiterConfig(500L, 1L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
     }
 
@@ -66,7 +67,7 @@ class RedisFixedWindowCounterRateLimiterTest {
     void evaluateRequestWithRateLimitError() {
         final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
                 new FixedWindowCounterRateLimiterConfig(500L, 2L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
@@ -79,7 +80,7 @@ class RedisFixedWindowCounterRateLimiterTest {
         long windowSize = 200L;
         final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
                 new FixedWindowCounterRateLimiterConfig(windowSize, 2L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
@@ -98,7 +99,7 @@ class RedisFixedWindowCounterRateLimiterTest {
         long windowSize = 200L;
         final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
                 new FixedWindowCounterRateLimiterConfig(windowSize, 2L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
         Thread.sleep(windowSize / 3);
@@ -118,7 +119,7 @@ class RedisFixedWindowCounterRateLimiterTest {
         long numberOfRequests = 100L;
         final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
                 new FixedWindowCounterRateLimiterConfig(windowSize, numberOfRequests),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         IntStream.range(0, (int) numberOfRequests).parallel().forEach(value -> {
             Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
@@ -132,7 +133,7 @@ class RedisFixedWindowCounterRateLimiterTest {
         long numberOfRequests = 100;
         final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
                 new FixedWindowCounterRateLimiterConfig(windowSize, numberOfRequests),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertThrows(RateLimiterException.class, () ->
                 IntStream.range(0, (int) numberOfRequests + 1).parallel().forEach(value -> {
@@ -140,4 +141,89 @@ class RedisFixedWindowCounterRateLimiterTest {
                     System.out.println("Finished " + value + ". time: " + Instant.now());
                 }));
     }
+
+    @Test
+    void tryAcquireReturnsDecisionWithoutThrowing() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(2000L, 2L),
+                redissonClient);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(1L, first.getRemainingPermits());
+        Assertions.assertEquals(0L, first.getNanosToNextPermit());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(second.isAllowed());
+        Assertions.assertEquals(0L, second.getRemainingPermits());
+
+        RateLimiterDecision third = Assertions.assertDoesNotThrow(() -> rateLimiter.tryAcquire(IP_ADDRESS_KEY));
+        Assertions.assertFalse(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+        Assertions.assertTrue(third.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(third.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(2000L));
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(2000L, 5L),
+                redissonClient);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void evaluateRequestAsyncCompletesWithDecision() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(2000L, 2L),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+
+        RateLimiterDecision decision = rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join();
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertEquals(0L, decision.getRemainingPermits());
+        Assertions.assertTrue(decision.getNanosToNextPermit() > 0L);
+    }
+
+    @Test
+    void numericAndBinaryKeysAreEncodedAsStrings() {
+        redissonClient.getKeys().delete("42", "0a1b2c3d");
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L), redissonClient);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(42L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire("42").isAllowed());
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(new byte[]{0x0a, 0x1b, 0x2c, 0x3d}));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest("0a1b2c3d"));
+    }
+
+    @Test
+    @SneakyThrows
+    void costIsSettledAsynchronously() {
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = new RedisFixedWindowCounterRateLimiter(
+                new FixedWindowCounterRateLimiterConfig(60_000L, 10L), redissonClient);
+
+        rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 1L).orElseThrow().commit(10L);
+        for (int i = 0; i < 100 && rateLimiter.tryAcquire(IP_ADDRESS_KEY, 11L).getRemainingPermits() != 0L; i++) {
+            Thread.sleep(10L);
+        }
+
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+    }
 }
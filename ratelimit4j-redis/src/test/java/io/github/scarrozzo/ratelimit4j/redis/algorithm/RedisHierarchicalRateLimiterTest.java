@@ -0,0 +1,164 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.HierarchicalRateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.CompositeRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.HierarchicalRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import org.junit.jupiter.api.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisClient;
+import org.redisson.client.RedisClientConfig;
+import org.redisson.config.Config;
+import org.redisson.config.Protocol;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@Testcontainers
+class RedisHierarchicalRateLimiterTest {
+
+    private static final String TENANT_KEY = "tenant";
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>("redis:7.2")
+                    .withExposedPorts(6379);
+    private static RedisClient redisClient;
+    private static RedissonClient redissonClient;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        RedisClientConfig config = new RedisClientConfig();
+        config.setProtocol(Protocol.RESP3);
+        config.setAddress("redis://127.0.0.1:" + REDIS.getFirstMappedPort());
+        redisClient = RedisClient.create(config);
+        redissonClient = Redisson.create(Config.fromYAML("""
+                        singleServerConfig:
+                            address: "redis://127.0.0.1:%s"
+                        """.formatted(REDIS.getFirstMappedPort())));
+    }
+
+    @BeforeEach
+    public void beforeEach(){
+        redissonClient.getKeys().deleteByPattern("{" + TENANT_KEY + "}*");
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        redisClient.shutdown();
+    }
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final HierarchicalRateLimiter rateLimiter = new RedisHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(100L, 1_000L), CompositeRateLimiterConfig.Limit.of(10L, 1_000L)),
+                redissonClient);
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(List.of(TENANT_KEY, IP_ADDRESS_KEY)));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final HierarchicalRateLimiter rateLimiter = new RedisHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(100L, 60_000L), CompositeRateLimiterConfig.Limit.of(2L, 60_000L)),
+                redissonClient);
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(List.of(TENANT_KEY, IP_ADDRESS_KEY)));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(TENANT_KEY + "/" + IP_ADDRESS_KEY));
+
+        // one request is earned every 30 seconds
+        RateLimiterDecision decision = rateLimiter.tryAcquire(List.of(TENANT_KEY, IP_ADDRESS_KEY));
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertTrue(decision.getNanosToNextPermit() > TimeUnit.SECONDS.toNanos(29L));
+        Assertions.assertTrue(decision.getNanosToNextPermit() <= TimeUnit.SECONDS.toNanos(30L));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(List.of(TENANT_KEY, IP_ADDRESS_KEY)));
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTheOuterLevels() {
+        final HierarchicalRateLimiter rateLimiter = new RedisHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(5L, 3_600_000L), CompositeRateLimiterConfig.Limit.of(3L, 3_600_000L)),
+                redissonClient);
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(List.of(TENANT_KEY, IP_ADDRESS_KEY), 4L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(3L, rejected.getRemainingPermits());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, IP_ADDRESS_KEY), 3L).isAllowed());
+        RateLimiterDecision allowed = rateLimiter.tryAcquire(List.of(TENANT_KEY, "127.0.0.2"), 2L);
+        Assertions.assertTrue(allowed.isAllowed());
+        Assertions.assertEquals(0L, allowed.getRemainingPermits());
+        Assertions.assertFalse(rateLimiter.tryAcquire(List.of(TENANT_KEY, "127.0.0.3")).isAllowed());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(List.of(TENANT_KEY)));
+    }
+
+    @Test
+    void requestsLargerThanTheSmallestLevelAreRejected() {
+        final HierarchicalRateLimiter rateLimiter = new RedisHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(100L, 86_400_000L), CompositeRateLimiterConfig.Limit.of(10L, 3_600_000L)),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, IP_ADDRESS_KEY), 5L).isAllowed());
+
+        // no wait would let the request in
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(List.of(TENANT_KEY, IP_ADDRESS_KEY), 11L);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(5L, rejected.getRemainingPermits());
+        Assertions.assertEquals(0L, rejected.getNanosToNextPermit());
+
+        rejected = rateLimiter.evaluateRequestAsync(List.of(TENANT_KEY, IP_ADDRESS_KEY), 100_000_000L).toCompletableFuture().join();
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertEquals(5L, rejected.getRemainingPermits());
+        Assertions.assertEquals(0L, rejected.getNanosToNextPermit());
+
+        // the outer level has not been moved
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, "127.0.0.2"), 10L).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(List.of(TENANT_KEY, IP_ADDRESS_KEY), 5L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(List.of(TENANT_KEY, IP_ADDRESS_KEY)).isAllowed());
+    }
+
+    @Test
+    void keysOfThePathCannotContainTheSeparator() {
+        final HierarchicalRateLimiter rateLimiter = new RedisHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(10L, 3_600_000L), CompositeRateLimiterConfig.Limit.of(1L, 3_600_000L)),
+                redissonClient);
+
+        // [a/b, c] and [a, b/c] would share the limit of the inner level
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(List.of(TENANT_KEY + "/a", "b")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(List.of(TENANT_KEY, "a/b")));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> rateLimiter.evaluateRequestAsync(List.of(TENANT_KEY, "a/b"), 1L));
+    }
+
+    @Test
+    void verifyManyRequestsLimitError() {
+        long numberOfRequests = 1_000L;
+        final HierarchicalRateLimiter rateLimiter = new RedisHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(numberOfRequests, 3_600_000L), CompositeRateLimiterConfig.Limit.of(numberOfRequests / 5L, 3_600_000L)),
+                redissonClient);
+
+        // ten users share the tenant limit, each one can use at most a fifth of it
+        long allowed = IntStream.range(0, (int) numberOfRequests * 3).parallel()
+                .filter(value -> rateLimiter.tryAcquire(List.of(TENANT_KEY, "user" + value % 10)).isAllowed())
+                .count();
+
+        Assertions.assertEquals(numberOfRequests, allowed);
+    }
+
+    @Test
+    void evaluateRequestAsyncCompletesWithDecision() {
+        final HierarchicalRateLimiter rateLimiter = new RedisHierarchicalRateLimiter(new HierarchicalRateLimiterConfig(
+                CompositeRateLimiterConfig.Limit.of(1L, 3_600_000L)),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(List.of(TENANT_KEY), 1L).toCompletableFuture().join().isAllowed());
+        Assertions.assertFalse(rateLimiter.evaluateRequestAsync(TENANT_KEY).toCompletableFuture().join().isAllowed());
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.scarrozzo.ratelimit4j.redis.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
 import io.github.scarrozzo.ratelimit4j.core.config.LeakyBucketRateLimiterConfig;
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
 import lombok.SneakyThrows;
@@ -10,7 +11,6 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
-import org.redisson.api.TransactionOptions;
 import org.redisson.client.RedisClient;
 import org.redisson.client.RedisClientConfig;
 import org.redisson.config.Config;
@@ -20,7 +20,9 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 @Testcontainers
@@ -56,7 +58,7 @@ class RedisLeakyBucketRateLimiterTest {
         String key = "127.0.0.1";
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
                 new LeakyBucketRateLimiterConfig(1L, 1L, 10L, 1000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
         Thread.sleep(200L);
     }
@@ -66,7 +68,7 @@ class RedisLeakyBucketRateLimiterTest {
         String key = "127.0.0.2";
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
                 new LeakyBucketRateLimiterConfig(2L, 1L, 100L, 1000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
@@ -80,7 +82,7 @@ class RedisLeakyBucketRateLimiterTest {
         long outflowPeriodMsec = 300L;
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
                 new LeakyBucketRateLimiterConfig(2L, 2L, outflowPeriodMsec, 1000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
@@ -100,7 +102,7 @@ class RedisLeakyBucketRateLimiterTest {
         long outflowPeriodMsec = 300L;
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
                 new LeakyBucketRateLimiterConfig(2L, 1L, outflowPeriodMsec, 1000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
@@ -119,7 +121,7 @@ class RedisLeakyBucketRateLimiterTest {
         long bucketSize = 100;
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
                 new LeakyBucketRateLimiterConfig(bucketSize, 1L, outflowPeriodMsec, 1000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         IntStream.range(0, (int) bucketSize).parallel().forEach(value -> {
             Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
@@ -134,7 +136,7 @@ class RedisLeakyBucketRateLimiterTest {
         long bucketSize = 100;
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
                 new LeakyBucketRateLimiterConfig(bucketSize, 1L, outflowPeriodMsec, 1000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertThrows(RateLimiterException.class, () ->
                 IntStream.range(0, (int) bucketSize + 1).parallel().forEach(value -> {
@@ -151,7 +153,7 @@ class RedisLeakyBucketRateLimiterTest {
         long bucketSize = 100;
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
                 new LeakyBucketRateLimiterConfig(bucketSize, 10L, outflowPeriodMsec, 1000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         IntStream.range(0, (int) bucketSize).parallel().forEach(value -> {
             Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
@@ -174,7 +176,7 @@ class RedisLeakyBucketRateLimiterTest {
         long bucketSize = 100;
         final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
                 new LeakyBucketRateLimiterConfig(bucketSize, 10L, outflowPeriodMsec, 10000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         IntStream.range(0, (int) bucketSize).parallel().forEach(value -> {
             Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(key));
@@ -190,4 +192,115 @@ class RedisLeakyBucketRateLimiterTest {
                 }));
     }
 
+    @Test
+    void tryAcquireReturnsDecisionWithoutThrowing() {
+        String key = "127.0.0.9";
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(2L, 1L, 2000L, 5000L),
+                redissonClient);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(key);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(1L, first.getRemainingPermits());
+        Assertions.assertEquals(0L, first.getNanosToNextPermit());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(key);
+        Assertions.assertTrue(second.isAllowed());
+        Assertions.assertEquals(0L, second.getRemainingPermits());
+
+        RateLimiterDecision third = Assertions.assertDoesNotThrow(() -> rateLimiter.tryAcquire(key));
+        Assertions.assertFalse(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+        Assertions.assertTrue(third.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(third.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(2000L));
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        String key = "127.0.0.10";
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(5L, 1L, 2000L, 5000L),
+                redissonClient);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(key, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(key, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(key, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(key, 0L));
+    }
+
+    @Test
+    void evaluateRequestAsyncCompletesWithDecision() {
+        String key = "127.0.0.11";
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(2L, 1L, 2000L, 5000L),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(key).toCompletableFuture().join().isAllowed());
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(key).toCompletableFuture().join().isAllowed());
+
+        RateLimiterDecision decision = rateLimiter.evaluateRequestAsync(key).toCompletableFuture().join();
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertEquals(0L, decision.getRemainingPermits());
+        Assertions.assertTrue(decision.getNanosToNextPermit() > 0L);
+    }
+
+    @Test
+    void reserveReturnsTimeToWaitForTheNextOutflow() {
+        String key = "127.0.0.12";
+        long outflowPeriodMsec = 500L;
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(2L, 1L, outflowPeriodMsec, 5000L),
+                redissonClient);
+
+        Assertions.assertEquals(0L, rateLimiter.reserve(key, 2L));
+
+        long nanosToWait = rateLimiter.reserve(key, 1L);
+        Assertions.assertTrue(nanosToWait > 0L);
+        Assertions.assertTrue(nanosToWait <= TimeUnit.MILLISECONDS.toNanos(outflowPeriodMsec));
+
+        // the reserved place is released by the next outflow
+        Assertions.assertFalse(rateLimiter.tryAcquire(key).isAllowed());
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.reserve(key, 3L));
+    }
+
+    @Test
+    void acquireWaitsForTheNextOutflow() {
+        String key = "127.0.0.13";
+        long outflowPeriodMsec = 300L;
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(1L, 1L, outflowPeriodMsec, 5000L),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.acquire(key, Duration.ZERO));
+        Assertions.assertFalse(rateLimiter.acquire(key, Duration.ofMillis(10L)));
+
+        long start = System.nanoTime();
+        Assertions.assertTrue(rateLimiter.acquire(key, Duration.ofSeconds(1L)));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(outflowPeriodMsec / 2));
+    }
+
+    @Test
+    @SneakyThrows
+    void keyIsKeptUntilTheBucketIsEmpty() {
+        String key = "127.0.0.14";
+        final RateLimiter<LeakyBucketRateLimiterConfig> rateLimiter = new RedisLeakyBucketRateLimiter(
+                new LeakyBucketRateLimiterConfig(10L, 1L, 1000L, 1000L),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(key, 10L).isAllowed());
+        Thread.sleep(1500L);
+
+        // the inactivity period is over, but only one place has leaked out of the bucket
+        Assertions.assertTrue(rateLimiter.tryAcquire(key).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(key).isAllowed());
+    }
 }
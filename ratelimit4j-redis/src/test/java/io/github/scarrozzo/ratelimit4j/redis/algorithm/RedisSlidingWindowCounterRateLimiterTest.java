@@ -0,0 +1,122 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import org.junit.jupiter.api.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisClient;
+import org.redisson.client.RedisClientConfig;
+import org.redisson.config.Config;
+import org.redisson.config.Protocol;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@Testcontainers
+class RedisSlidingWindowCounterRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>("redis:7.2")
+                    .withExposedPorts(6379);
+    private static RedisClient redisClient;
+    private static RedissonClient redissonClient;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        RedisClientConfig config = new RedisClientConfig();
+        config.setProtocol(Protocol.RESP3);
+        config.setAddress("redis://127.0.0.1:" + REDIS.getFirstMappedPort());
+        redisClient = RedisClient.create(config);
+        redissonClient = Redisson.create(Config.fromYAML("""
+                        singleServerConfig:
+                            address: "redis://127.0.0.1:%s"
+                        """.formatted(REDIS.getFirstMappedPort())));
+    }
+
+    @BeforeEach
+    public void beforeEach(){
+        redissonClient.getBucket(IP_ADDRESS_KEY).delete();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        redisClient.shutdown();
+    }
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new RedisSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(500L, 1L),
+                redissonClient);
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new RedisSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(2_000L, 2L),
+                redissonClient);
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+
+        // the requests of the previous window still count right after a boundary
+        RateLimiterDecision decision = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertTrue(decision.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(decision.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(4_000L));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new RedisSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(3_600_000L, 5L),
+                redissonClient);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 1L);
+        Assertions.assertTrue(third.isAllowed());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void verifyManyRequestsLimitError() {
+        long numberOfRequests = 1_000L;
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new RedisSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(3_600_000L, numberOfRequests),
+                redissonClient);
+
+        long allowed = IntStream.range(0, (int) numberOfRequests + 100).parallel()
+                .filter(value -> rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed())
+                .count();
+
+        Assertions.assertTrue(allowed <= numberOfRequests);
+    }
+
+    @Test
+    void evaluateRequestAsyncCompletesWithDecision() {
+        final RateLimiter<SlidingWindowCounterRateLimiterConfig> rateLimiter = new RedisSlidingWindowCounterRateLimiter(
+                new SlidingWindowCounterRateLimiterConfig(3_600_000L, 1L),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+        Assertions.assertFalse(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+    }
+}
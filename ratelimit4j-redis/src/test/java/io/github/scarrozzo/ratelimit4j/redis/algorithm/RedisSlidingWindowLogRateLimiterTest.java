@@ -0,0 +1,148 @@
+package io.github.scarrozzo.ratelimit4j.redis.algorithm;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.config.SlidingWindowLogRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
+import org.junit.jupiter.api.*;
+import org.redisson.Redisson;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisClient;
+import org.redisson.client.RedisClientConfig;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.client.protocol.ScoredEntry;
+import org.redisson.config.Config;
+import org.redisson.config.Protocol;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@Testcontainers
+class RedisSlidingWindowLogRateLimiterTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>("redis:7.2")
+                    .withExposedPorts(6379);
+    private static RedisClient redisClient;
+    private static RedissonClient redissonClient;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        RedisClientConfig config = new RedisClientConfig();
+        config.setProtocol(Protocol.RESP3);
+        config.setAddress("redis://127.0.0.1:" + REDIS.getFirstMappedPort());
+        redisClient = RedisClient.create(config);
+        redissonClient = Redisson.create(Config.fromYAML("""
+                        singleServerConfig:
+                            address: "redis://127.0.0.1:%s"
+                        """.formatted(REDIS.getFirstMappedPort())));
+    }
+
+    @BeforeEach
+    public void beforeEach(){
+        redissonClient.getBucket(IP_ADDRESS_KEY).delete();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        redisClient.shutdown();
+    }
+
+    @Test
+    void evaluateRequestWithSuccess() {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new RedisSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(500L, 1L),
+                redissonClient);
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void evaluateRequestWithRateLimitError() {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new RedisSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(2_000L, 2L),
+                redissonClient);
+
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+        Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+
+        // the first request leaves the window at most one window size after it has been accepted
+        RateLimiterDecision decision = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertTrue(decision.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(decision.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(2_000L));
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new RedisSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(3_600_000L, 5L),
+                redissonClient);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+        Assertions.assertTrue(third.getNanosToNextPermit() > 0L);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void verifyManyRequestsLimitError() {
+        long numberOfRequests = 1_000L;
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new RedisSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(3_600_000L, numberOfRequests),
+                redissonClient);
+
+        long allowed = IntStream.range(0, (int) numberOfRequests + 100).parallel()
+                .filter(value -> rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed())
+                .count();
+
+        Assertions.assertEquals(numberOfRequests, allowed);
+    }
+
+    @Test
+    void evaluateRequestAsyncCompletesWithDecision() {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new RedisSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(3_600_000L, 1L),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+        Assertions.assertFalse(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+    }
+
+    @Test
+    void logKeepsEveryPermitAfterATrim() throws InterruptedException {
+        final RateLimiter<SlidingWindowLogRateLimiterConfig> rateLimiter = new RedisSlidingWindowLogRateLimiter(
+                new SlidingWindowLogRateLimiterConfig(50L, 5L),
+                redissonClient);
+        final RScoredSortedSet<String> log = redissonClient.getScoredSortedSet(IP_ADDRESS_KEY, StringCodec.INSTANCE);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 4L).isAllowed());
+        Thread.sleep(60L);
+
+        // the numbering of the members starts again after the trim, their timestamp must keep them distinct
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).isAllowed());
+        Assertions.assertEquals(3, log.size());
+
+        int index = 1;
+        for (ScoredEntry<String> request : log.entryRange(0, -1)) {
+            Assertions.assertEquals(String.format("%d-%d", request.getScore().longValue(), index++), request.getValue());
+        }
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L).isAllowed());
+    }
+}
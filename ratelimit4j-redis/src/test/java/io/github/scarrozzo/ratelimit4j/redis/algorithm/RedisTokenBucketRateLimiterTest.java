@@ -1,13 +1,15 @@
 package io.github.scarrozzo.ratelimit4j.redis.algorithm;
 
 import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiterDecision;
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RequestPriority;
 import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.TokenBucketRefillStrategy;
 import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterException;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.*;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
-import org.redisson.api.TransactionOptions;
 import org.redisson.client.RedisClient;
 import org.redisson.client.RedisClientConfig;
 import org.redisson.config.Config;
@@ -17,7 +19,9 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 @Testcontainers
@@ -57,7 +61,7 @@ class RedisTokenBucketRateLimiterTest {
     void evaluateRequestWithSuccess()  {
         final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
                 new TokenBucketRateLimiterConfig(1L, 2000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
     }
 
@@ -65,7 +69,7 @@ class RedisTokenBucketRateLimiterTest {
     void evaluateRequestWithRateLimitError() throws IOException {
         final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
                 new TokenBucketRateLimiterConfig(2L, 2000L),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
@@ -78,7 +82,7 @@ class RedisTokenBucketRateLimiterTest {
         long refillPeriodMsec = 200L;
         final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
                 new TokenBucketRateLimiterConfig(2L, refillPeriodMsec),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
@@ -97,7 +101,7 @@ class RedisTokenBucketRateLimiterTest {
         long refillPeriodMsec = 200L;
         final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
                 new TokenBucketRateLimiterConfig(2L, refillPeriodMsec),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
         Thread.sleep(refillPeriodMsec / 3);
@@ -117,7 +121,7 @@ class RedisTokenBucketRateLimiterTest {
         long bucketSize = 100L;
         final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
                 new TokenBucketRateLimiterConfig(bucketSize, refillPeriodMsec),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         IntStream.range(0, (int) bucketSize).parallel().forEach(value -> {
             Assertions.assertDoesNotThrow(() -> rateLimiter.evaluateRequest(IP_ADDRESS_KEY));
@@ -131,7 +135,7 @@ class RedisTokenBucketRateLimiterTest {
         long bucketSize = 100L;
         final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
                 new TokenBucketRateLimiterConfig(bucketSize, refillPeriodMsec),
-                redissonClient, TransactionOptions.defaults());
+                redissonClient);
 
         Assertions.assertThrows(RateLimiterException.class, () ->
                 IntStream.range(0, (int) bucketSize + 1).parallel().forEach(value -> {
@@ -139,4 +143,163 @@ class RedisTokenBucketRateLimiterTest {
                     System.out.println("Finished " + value + ". time: " + Instant.now());
                 }));
     }
+
+    @Test
+    void tryAcquireReturnsDecisionWithoutThrowing() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(2L, 2000L),
+                redissonClient);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(1L, first.getRemainingPermits());
+        Assertions.assertEquals(0L, first.getNanosToNextPermit());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertTrue(second.isAllowed());
+        Assertions.assertEquals(0L, second.getRemainingPermits());
+
+        RateLimiterDecision third = Assertions.assertDoesNotThrow(() -> rateLimiter.tryAcquire(IP_ADDRESS_KEY));
+        Assertions.assertFalse(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+        Assertions.assertTrue(third.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(third.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(2000L));
+    }
+
+    @Test
+    void tryAcquireWeightedPermits() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(5L, 2000L),
+                redissonClient);
+
+        RateLimiterDecision first = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertTrue(first.isAllowed());
+        Assertions.assertEquals(2L, first.getRemainingPermits());
+
+        RateLimiterDecision second = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 3L);
+        Assertions.assertFalse(second.isAllowed());
+        Assertions.assertEquals(2L, second.getRemainingPermits());
+
+        RateLimiterDecision third = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L);
+        Assertions.assertTrue(third.isAllowed());
+        Assertions.assertEquals(0L, third.getRemainingPermits());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(IP_ADDRESS_KEY, 0L));
+    }
+
+    @Test
+    void evaluateRequestAsyncCompletesWithDecision() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(2L, 2000L),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+        Assertions.assertTrue(rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join().isAllowed());
+
+        RateLimiterDecision decision = rateLimiter.evaluateRequestAsync(IP_ADDRESS_KEY).toCompletableFuture().join();
+        Assertions.assertFalse(decision.isAllowed());
+        Assertions.assertEquals(0L, decision.getRemainingPermits());
+        Assertions.assertTrue(decision.getNanosToNextPermit() > 0L);
+    }
+
+    @Test
+    void reserveReturnsTimeToWaitForTheNextRefill() {
+        long refillPeriodMsec = 500L;
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(2L, refillPeriodMsec),
+                redissonClient);
+
+        Assertions.assertEquals(0L, rateLimiter.reserve(IP_ADDRESS_KEY, 2L));
+
+        long nanosToWait = rateLimiter.reserve(IP_ADDRESS_KEY, 1L);
+        Assertions.assertTrue(nanosToWait > 0L);
+        Assertions.assertTrue(nanosToWait <= TimeUnit.MILLISECONDS.toNanos(refillPeriodMsec));
+
+        // the reserved token is taken from the next bucket
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+        Assertions.assertThrows(RateLimiterException.class, () -> rateLimiter.reserve(IP_ADDRESS_KEY, 3L));
+    }
+
+    @Test
+    void acquireWaitsForTheNextRefill() {
+        long refillPeriodMsec = 300L;
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(1L, refillPeriodMsec),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ZERO));
+        Assertions.assertFalse(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ofMillis(10L)));
+
+        long start = System.nanoTime();
+        Assertions.assertTrue(rateLimiter.acquire(IP_ADDRESS_KEY, Duration.ofSeconds(1L)));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(refillPeriodMsec / 2));
+    }
+
+    @Test
+    @SneakyThrows
+    void continuousRefillAddsTokensAsSoonAsTheyAreEarned() {
+        // 10 tokens per second: one token every 100 milliseconds
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(5L, 10L, Duration.ofSeconds(1L), TokenBucketRefillStrategy.CONTINUOUS),
+                redissonClient);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 5L).isAllowed());
+
+        RateLimiterDecision rejected = rateLimiter.tryAcquire(IP_ADDRESS_KEY);
+        Assertions.assertFalse(rejected.isAllowed());
+        Assertions.assertTrue(rejected.getNanosToNextPermit() > 0L);
+        Assertions.assertTrue(rejected.getNanosToNextPermit() <= TimeUnit.MILLISECONDS.toNanos(100L));
+
+        // unlike the interval refill, part of the bucket is available before the end of the period
+        Thread.sleep(250L);
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+    }
+
+    @Test
+    void lowerPrioritiesLeaveTheReservedHeadroom() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(10L, 3_600_000L), redissonClient);
+
+        // LOW leaves 4 tokens, NORMAL 2, HIGH 1
+        RateLimiterDecision low = rateLimiter.tryAcquire(IP_ADDRESS_KEY, 6L, RequestPriority.LOW);
+        Assertions.assertTrue(low.isAllowed());
+        Assertions.assertEquals(0L, low.getRemainingPermits());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.LOW).isAllowed());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L, RequestPriority.NORMAL).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.NORMAL).isAllowed());
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.HIGH).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.HIGH).isAllowed());
+
+        // the critical requests can take the last token
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.CRITICAL).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY, RequestPriority.CRITICAL).isAllowed());
+    }
+
+    @Test
+    @SneakyThrows
+    void costIsSettledAsynchronously() {
+        final RateLimiter<TokenBucketRateLimiterConfig> rateLimiter = new RedisTokenBucketRateLimiter(
+                new TokenBucketRateLimiterConfig(10L, 3_600_000L), redissonClient);
+
+        rateLimiter.tryReserveCost(IP_ADDRESS_KEY, 2L).orElseThrow().commit(10L);
+        Assertions.assertTrue(awaitRemainingPermits(rateLimiter, 0L));
+
+        rateLimiter.settle(IP_ADDRESS_KEY, -6L);
+        Assertions.assertTrue(awaitRemainingPermits(rateLimiter, 6L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 6L).isAllowed());
+    }
+
+    // the settlements are sent in background, the probe consumes nothing because it asks for more than the bucket size
+    private static boolean awaitRemainingPermits(RateLimiter<TokenBucketRateLimiterConfig> rateLimiter, long remainingPermits)
+            throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (rateLimiter.tryAcquire(IP_ADDRESS_KEY, 11L).getRemainingPermits() == remainingPermits) {
+                return true;
+            }
+            Thread.sleep(10L);
+        }
+        return false;
+    }
 }
@@ -0,0 +1,100 @@
+package io.github.scarrozzo.ratelimit4j.redis.registry;
+
+import io.github.scarrozzo.ratelimit4j.core.algorithm.RateLimiter;
+import io.github.scarrozzo.ratelimit4j.core.config.FixedWindowCounterRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.config.GcraRateLimiterConfig;
+import io.github.scarrozzo.ratelimit4j.core.exception.RateLimiterConfigException;
+import io.github.scarrozzo.ratelimit4j.core.registry.RateLimiterRegistry;
+import io.github.scarrozzo.ratelimit4j.redis.algorithm.RedisFixedWindowCounterRateLimiter;
+import org.junit.jupiter.api.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisClient;
+import org.redisson.client.RedisClientConfig;
+import org.redisson.config.Config;
+import org.redisson.config.Protocol;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Testcontainers
+class RedisRateLimiterRegistryTest {
+
+    private static final String IP_ADDRESS_KEY = "127.0.0.1";
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>("redis:7.2")
+                    .withExposedPorts(6379);
+    private static RedisClient redisClient;
+    private static RedissonClient redissonClient;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        RedisClientConfig config = new RedisClientConfig();
+        config.setProtocol(Protocol.RESP3);
+        config.setAddress("redis://127.0.0.1:" + REDIS.getFirstMappedPort());
+        redisClient = RedisClient.create(config);
+        redissonClient = Redisson.create(Config.fromYAML("""
+                        singleServerConfig:
+                            address: "redis://127.0.0.1:%s"
+                        """.formatted(REDIS.getFirstMappedPort())));
+    }
+
+    @BeforeEach
+    public void beforeEach(){
+        redissonClient.getKeys().delete("first:" + IP_ADDRESS_KEY, "second:" + IP_ADDRESS_KEY, "plans:" + IP_ADDRESS_KEY);
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        redisClient.shutdown();
+    }
+
+    @Test
+    void rateLimitersShareTheClientButNotTheKeys() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(new RedisRateLimiterFactory(redissonClient));
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> first = registry.rateLimiter("first",
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L));
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> second = registry.rateLimiter("second",
+                new FixedWindowCounterRateLimiterConfig(60_000L, 1L));
+
+        Assertions.assertInstanceOf(RedisFixedWindowCounterRateLimiter.class, first);
+        Assertions.assertSame(first, registry.rateLimiter("first", new FixedWindowCounterRateLimiterConfig(60_000L, 1L)));
+        Assertions.assertTrue(first.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertTrue(second.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(first.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(second.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        Assertions.assertEquals(2L, redissonClient.getKeys().countExists("first:" + IP_ADDRESS_KEY, "second:" + IP_ADDRESS_KEY));
+    }
+
+    @Test
+    void unsupportedAlgorithmsAreRejected() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(new RedisRateLimiterFactory(redissonClient));
+
+        Assertions.assertThrows(RateLimiterConfigException.class, () -> registry.rateLimiter("gcra", new GcraRateLimiterConfig(10L, 1_000L)));
+        Assertions.assertTrue(registry.getNames().isEmpty());
+    }
+
+    @Test
+    void keysKeepTheirStateWhenTheirPlanChanges() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(new RedisRateLimiterFactory(redissonClient));
+        final FixedWindowCounterRateLimiterConfig freePlan = new FixedWindowCounterRateLimiterConfig(60_000L, 2L);
+        final AtomicReference<FixedWindowCounterRateLimiterConfig> plan = new AtomicReference<>();
+        final RateLimiter<FixedWindowCounterRateLimiterConfig> rateLimiter = registry.rateLimiter("plans", freePlan,
+                key -> plan.get());
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY, 2L).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+
+        // the upgraded key keeps the requests already counted in the window
+        plan.set(new FixedWindowCounterRateLimiterConfig(60_000L, 3L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertFalse(rateLimiter.tryAcquire(IP_ADDRESS_KEY).isAllowed());
+        Assertions.assertEquals(1L, redissonClient.getKeys().countExists("plans:" + IP_ADDRESS_KEY));
+    }
+}